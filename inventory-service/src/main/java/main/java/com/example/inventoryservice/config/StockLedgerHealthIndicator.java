@@ -0,0 +1,36 @@
+package main.java.main.java.com.example.inventoryservice.config;
+
+import main.java.main.java.com.example.inventoryservice.service.StockLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Reports the stock ledger as "stockLedger". DOWN once a journal write has failed, since
+ * the ledger then refuses every stock change until the instance is restarted and replays
+ * its journal; UP otherwise, including when the ledger is disabled.
+ */
+@Component("stockLedgerHealthIndicator")
+public class StockLedgerHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Override
+    public Health health() {
+        if (!stockLedgerService.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        IOException failure = stockLedgerService.getJournalFailure();
+        if (failure != null) {
+            return Health.down().withDetail("enabled", true)
+                .withDetail("journal", "write failed")
+                .withDetail("error", String.valueOf(failure.getMessage()))
+                .build();
+        }
+        return Health.up().withDetail("enabled", true).withDetail("journal", "ok").build();
+    }
+}
@@ -0,0 +1,149 @@
+package main.java.main.java.com.example.inventoryservice.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of keyed deadlines. Time advances in ticks; each level has 2^bits
+ * slots, and a slot on level L spans 2^(bits*L) ticks. A deadline goes on the lowest level
+ * whose slot still separates it from the current tick, so schedule and cancel are O(1): a
+ * hash lookup plus a doubly linked list splice. When the clock crosses a level-L slot
+ * boundary, that slot's entries drop to lower levels; every entry cascades at most once per
+ * level, and level 0 slots hold exactly the keys due on that tick. Enough levels are kept to
+ * cover any long deadline, so nothing overflows.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMs;
+    private final int bits;
+    private final int mask;
+    private final Entry<K>[][] slots;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    // Every deadline at or before this tick has been handed out
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMs, int bits, long startMs) {
+        if (tickMs <= 0 || bits < 1 || bits > 16) {
+            throw new IllegalArgumentException("tickMs must be positive and bits between 1 and 16");
+        }
+        this.tickMs = tickMs;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        int levels = (Long.SIZE + bits - 1) / bits;
+        this.slots = new Entry[levels][1 << bits];
+        this.currentTick = startMs / tickMs;
+    }
+
+    // Replaces any deadline already held for the key; past deadlines fire on the next tick
+    public synchronized void schedule(K key, long deadlineMs) {
+        cancel(key);
+        Entry<K> entry = new Entry<>(key, Math.max(deadlineMs / tickMs, currentTick + 1));
+        entries.put(key, entry);
+        insert(entry);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Moves the clock to nowMs and returns the keys that fell due, earliest tick first
+    public synchronized List<K> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        List<K> expired = new ArrayList<>();
+        if (entries.isEmpty()) {
+            currentTick = Math.max(currentTick, targetTick);
+            return expired;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade the highest level whose slot boundary was crossed first, so its entries can land in lower slots due now
+            int level = 0;
+            while (level + 1 < slots.length && (currentTick & ((1L << (bits * (level + 1))) - 1)) == 0) {
+                level++;
+            }
+            for (int l = level; l >= 1; l--) {
+                cascade(l, (int) ((currentTick >>> (bits * l)) & mask));
+            }
+            int slot = (int) (currentTick & mask);
+            for (Entry<K> entry = slots[0][slot]; entry != null; entry = entry.next) {
+                entries.remove(entry.key);
+                expired.add(entry.key);
+            }
+            slots[0][slot] = null;
+            if (entries.isEmpty()) {
+                currentTick = targetTick;
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(int level, int slot) {
+        Entry<K> entry = slots[level][slot];
+        slots[level][slot] = null;
+        while (entry != null) {
+            Entry<K> next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            insert(entry);
+            entry = next;
+        }
+    }
+
+    private void insert(Entry<K> entry) {
+        // The highest base-2^bits digit where the deadline differs from now picks the level
+        long differing = entry.deadlineTick ^ currentTick;
+        int level = differing == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(differing)) / bits;
+        int slot = (int) ((entry.deadlineTick >>> (bits * level)) & mask);
+        entry.level = level;
+        entry.slot = slot;
+        Entry<K> head = slots[level][slot];
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[level][slot] = entry;
+    }
+
+    private void unlink(Entry<K> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+        private int level;
+        private int slot;
+        private Entry<K> prev;
+        private Entry<K> next;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
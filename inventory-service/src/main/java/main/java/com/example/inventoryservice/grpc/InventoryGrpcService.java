@@ -1,14 +1,27 @@
 package main.java.main.java.com.example.inventoryservice.grpc;
 
+import com.google.protobuf.Timestamp;
 import io.grpc.stub.StreamObserver;
 import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
 import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+import main.java.main.java.com.example.inventoryservice.repository.InventoryItemRepository;
+import main.java.main.java.com.example.inventoryservice.repository.WarehouseRepository;
 import main.java.main.java.com.example.inventoryservice.service.InventoryService;
 import main.java.main.java.com.example.inventoryservice.service.InventoryEventService;
+import main.java.main.java.com.example.inventoryservice.service.ReservationService;
+import main.java.main.java.com.example.inventoryservice.service.StockLedgerService;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.lognet.springboot.grpc.GRpcGlobalInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
-
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @GrpcService
@@ -20,6 +33,22 @@ public class InventoryGrpcService extends InventoryServiceGrpc.InventoryServiceI
     @Autowired
     private InventoryEventService eventService;
 
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    // Applies when ReserveStock carries no reservation_expiry; 0, the default, holds such reservations until released
+    @Value("${inventory.reservations.default-ttl-ms:0}")
+    private long defaultReservationTtlMs;
+
     @Override
     public void checkStockAvailability(Inventory.CheckStockRequest request, StreamObserver<Inventory.StockCheckResponse> responseObserver) {
         try {
@@ -27,18 +56,23 @@ public class InventoryGrpcService extends InventoryServiceGrpc.InventoryServiceI
             long warehouseId = request.getWarehouseId();
             int quantityNeeded = request.getQuantityNeeded();
 
-            Optional<Warehouse> warehouseOpt = warehouseRepository.findById(warehouseId);
-            if (warehouseOpt.isEmpty()) {
-                Inventory.StockCheckResponse response = Inventory.StockCheckResponse.newBuilder()
-                    .setAvailable(false)
-                    .setMessage("Warehouse not found")
-                    .build();
-                responseObserver.onNext(response);
-                responseObserver.onCompleted();
-                return;
+            Optional<InventoryItem> inventoryOpt;
+            if (stockLedgerService.isEnabled()) {
+                // Answered from the in-memory cell; items exist only in existing warehouses
+                inventoryOpt = stockLedgerService.getStock(productId, warehouseId);
+            } else {
+                Optional<Warehouse> warehouseOpt = warehouseRepository.findById(warehouseId);
+                if (warehouseOpt.isEmpty()) {
+                    Inventory.StockCheckResponse response = Inventory.StockCheckResponse.newBuilder()
+                        .setAvailable(false)
+                        .setMessage("Warehouse not found")
+                        .build();
+                    responseObserver.onNext(response);
+                    responseObserver.onCompleted();
+                    return;
+                }
+                inventoryOpt = inventoryService.getInventoryByProductAndWarehouse(productId, warehouseId);
             }
-
-            Optional<InventoryItem> inventoryOpt = inventoryService.getInventoryByProductAndWarehouse(productId, warehouseId);
             boolean available = false;
             int availableQuantity = 0;
             String message = "Stock not available";
@@ -79,20 +113,32 @@ public class InventoryGrpcService extends InventoryServiceGrpc.InventoryServiceI
             int quantity = request.getQuantity();
             String orderId = request.getOrderId();
 
-            Optional<Warehouse> warehouseOpt = warehouseRepository.findById(warehouseId);
-            if (warehouseOpt.isEmpty()) {
-                Inventory.ReserveStockResponse response = Inventory.ReserveStockResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage("Warehouse not found")
-                    .build();
-                responseObserver.onNext(response);
-                responseObserver.onCompleted();
-                return;
+            // No lookup: an unknown warehouse holds no inventory item, which the reservation reports below
+            Warehouse warehouse = warehouseRepository.getReferenceById(warehouseId);
+
+            // Held until released unless the caller, or failing that the default TTL, sets an expiry
+            LocalDateTime expiresAt = null;
+            if (request.hasReservationExpiry()) {
+                expiresAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(
+                    request.getReservationExpiry().getSeconds(), request.getReservationExpiry().getNanos()), ZoneId.systemDefault());
+                if (!expiresAt.isAfter(LocalDateTime.now())) {
+                    Inventory.ReserveStockResponse response = Inventory.ReserveStockResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage("reservation_expiry is in the past")
+                        .build();
+                    responseObserver.onNext(response);
+                    responseObserver.onCompleted();
+                    return;
+                }
+            } else if (defaultReservationTtlMs > 0) {
+                expiresAt = LocalDateTime.now().plus(Duration.ofMillis(defaultReservationTtlMs));
             }
 
-            // Check if reservation is possible
-            Optional<InventoryItem> inventoryOpt = inventoryService.getInventoryByProductAndWarehouse(productId, warehouseId);
-            if (inventoryOpt.isEmpty()) {
+            // The conditional UPDATE is the availability check; a separate read first would race other reservations
+            Reservation reservation;
+            try {
+                reservation = reservationService.reserve(productId, warehouse, quantity, orderId, expiresAt);
+            } catch (NoSuchElementException e) {
                 Inventory.ReserveStockResponse response = Inventory.ReserveStockResponse.newBuilder()
                     .setSuccess(false)
                     .setMessage("No inventory found for product in warehouse")
@@ -100,32 +146,29 @@ public class InventoryGrpcService extends InventoryServiceGrpc.InventoryServiceI
                 responseObserver.onNext(response);
                 responseObserver.onCompleted();
                 return;
-            }
-
-            InventoryItem item = inventoryOpt.get();
-            int available = item.getAvailableQuantity();
-            if (available < quantity) {
+            } catch (IllegalArgumentException e) {
                 Inventory.ReserveStockResponse response = Inventory.ReserveStockResponse.newBuilder()
                     .setSuccess(false)
-                    .setMessage("Insufficient stock. Available: " + available + ", Requested: " + quantity)
+                    .setMessage(e.getMessage() + ", Requested: " + quantity)
                     .build();
                 responseObserver.onNext(response);
                 responseObserver.onCompleted();
                 return;
             }
 
-            // Perform reservation
-            InventoryItem updatedItem = inventoryService.adjustReservedQuantity(productId, warehouseOpt.get(), quantity);
-            
-            // Publish stock changed event
-            eventService.publishStockChangedEvent(updatedItem, "RESERVE", (available - quantity) + "", available + "");
-
-            Inventory.ReserveStockResponse response = Inventory.ReserveStockResponse.newBuilder()
+            Inventory.ReserveStockResponse.Builder responseBuilder = Inventory.ReserveStockResponse.newBuilder()
                 .setSuccess(true)
-                .setReservationId(orderId + "_" + System.currentTimeMillis())
+                .setReservationId(reservation.getReservationId())
                 .setReservedQuantity(quantity)
-                .setMessage("Stock reserved successfully")
-                .build();
+                .setMessage("Stock reserved successfully");
+            if (reservation.getExpiresAt() != null) {
+                Instant expiry = reservation.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+                responseBuilder.setExpiryTime(Timestamp.newBuilder()
+                    .setSeconds(expiry.getEpochSecond())
+                    .setNanos(expiry.getNano())
+                    .build());
+            }
+            Inventory.ReserveStockResponse response = responseBuilder.build();
 
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -148,53 +191,33 @@ public class InventoryGrpcService extends InventoryServiceGrpc.InventoryServiceI
             String orderId = request.getOrderId();
             String reservationId = request.getReservationId();
 
-            Optional<Warehouse> warehouseOpt = warehouseRepository.findById(warehouseId);
-            if (warehouseOpt.isEmpty()) {
-                Inventory.ReleaseStockResponse response = Inventory.ReleaseStockResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage("Warehouse not found")
-                    .build();
-                responseObserver.onNext(response);
-                responseObserver.onCompleted();
-                return;
-            }
-
-            // Release the reserved quantity (simplified - in real implementation, track exact reservation)
-            Optional<InventoryItem> inventoryOpt = inventoryService.getInventoryByProductAndWarehouse(productId, warehouseId);
-            if (inventoryOpt.isEmpty()) {
+            // Frees exactly what the reservation, or the order's reservations, still hold
+            List<Reservation> released;
+            if (!reservationId.isEmpty()) {
+                released = reservationService.release(reservationId).map(List::of).orElse(List.of());
+            } else if (!orderId.isEmpty()) {
+                released = productId != 0
+                    ? reservationService.releaseOrder(orderId, productId, warehouseId)
+                    : reservationService.releaseOrder(orderId);
+            } else {
                 Inventory.ReleaseStockResponse response = Inventory.ReleaseStockResponse.newBuilder()
                     .setSuccess(false)
-                    .setMessage("No inventory found")
+                    .setMessage("reservation_id or order_id is required")
                     .build();
                 responseObserver.onNext(response);
                 responseObserver.onCompleted();
                 return;
             }
 
-            InventoryItem item = inventoryOpt.get();
-            int reserved = item.getReservedQuantity();
-            int releaseQuantity = Math.min(reserved, 10); // Simplified - release fixed amount or track per order
-
-            if (releaseQuantity > 0) {
-                InventoryItem updatedItem = inventoryService.adjustReservedQuantity(productId, warehouseOpt.get(), -releaseQuantity);
-                
-                // Publish stock changed event
-                eventService.publishStockChangedEvent(updatedItem, "RELEASE", reserved + "", (reserved - releaseQuantity) + "");
-
-                Inventory.ReleaseStockResponse response = Inventory.ReleaseStockResponse.newBuilder()
-                    .setSuccess(true)
-                    .setMessage("Released " + releaseQuantity + " units of stock")
-                    .build();
-                responseObserver.onNext(response);
-                responseObserver.onCompleted();
-            } else {
-                Inventory.ReleaseStockResponse response = Inventory.ReleaseStockResponse.newBuilder()
-                    .setSuccess(true)
-                    .setMessage("No stock to release")
-                    .build();
-                responseObserver.onNext(response);
-                responseObserver.onCompleted();
-            }
+            int releaseQuantity = released.stream().mapToInt(Reservation::getQuantity).sum();
+            Inventory.ReleaseStockResponse response = Inventory.ReleaseStockResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage(released.isEmpty()
+                    ? "No held reservation to release"
+                    : "Released " + releaseQuantity + " units of stock")
+                .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
 
         } catch (Exception e) {
             Inventory.ReleaseStockResponse response = Inventory.ReleaseStockResponse.newBuilder()
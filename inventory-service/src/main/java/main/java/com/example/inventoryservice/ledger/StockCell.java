@@ -0,0 +1,102 @@
+package main.java.main.java.com.example.inventoryservice.ledger;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Stock counters of one inventory item, changed only by compare-and-set of an immutable
+ * {@link Level}, so the availability check and the change are one atomic step without a
+ * lock. Every change takes its sequence number after reading the level it replaces, so
+ * within a cell a later level always carries a larger sequence; the journal and the
+ * database keep whichever level has the largest.
+ */
+public final class StockCell {
+
+    private final long itemId;
+    private final StockKey key;
+    private final AtomicReference<Level> level;
+
+    public StockCell(long itemId, StockKey key, Level initial) {
+        this.itemId = itemId;
+        this.key = key;
+        this.level = new AtomicReference<>(initial);
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public StockKey getKey() {
+        return key;
+    }
+
+    public Level get() {
+        return level.get();
+    }
+
+    // Null when the change would take reserved below zero or above total
+    public Level adjustReserved(int delta, LongSupplier sequence) {
+        while (true) {
+            Level current = level.get();
+            long reserved = (long) current.reserved + delta;
+            if (reserved < 0 || reserved > current.total) {
+                return null;
+            }
+            Level next = new Level(current.total, (int) reserved, sequence.getAsLong());
+            if (level.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Never fails: reserved stops at zero, and a negative quantity takes stock back without the total check
+    public Level subtractReserved(int quantity, LongSupplier sequence) {
+        while (true) {
+            Level current = level.get();
+            Level next = new Level(current.total, Math.max(current.reserved - quantity, 0), sequence.getAsLong());
+            if (level.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Null arguments keep the current value
+    public Level set(Integer total, Integer reserved, LongSupplier sequence) {
+        while (true) {
+            Level current = level.get();
+            Level next = new Level(total != null ? total : current.total,
+                reserved != null ? reserved : current.reserved, sequence.getAsLong());
+            if (level.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    public static final class Level {
+        private final int total;
+        private final int reserved;
+        private final long seq;
+
+        public Level(int total, int reserved, long seq) {
+            this.total = total;
+            this.reserved = reserved;
+            this.seq = seq;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getReserved() {
+            return reserved;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public int getAvailable() {
+            return Math.max(0, total - reserved);
+        }
+    }
+}
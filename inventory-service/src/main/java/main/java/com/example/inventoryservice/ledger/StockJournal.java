@@ -0,0 +1,328 @@
+package main.java.main.java.com.example.inventoryservice.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file journal of stock levels. Appends only queue the entry; a flusher thread
+ * writes whatever queued since its last pass and forces it to disk with one fsync, so
+ * concurrent writers share the sync cost (group commit). Entries are handed to the consumer
+ * once durable. The journal is a sequence of segment files; a segment is closed when it
+ * outgrows the caller's limit and can be deleted once everything in it is persisted
+ * elsewhere, while segments found on disk at open belong to whoever replays them. Every
+ * entry holds the absolute level of its item and a checksum, so replay needs only the entry
+ * with the highest sequence per item and stops at a torn tail. After a failed write nothing
+ * more is written, since replay would stop before it anyway, and appends are refused.
+ */
+public class StockJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    static final int ENTRY_BYTES = 36;
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final long flushIntervalMs;
+    private final Consumer<List<Entry>> onDurable;
+
+    private final Object queueLock = new Object();
+    private final Object writeLock = new Object();
+    private final Object durableMonitor = new Object();
+    private List<Entry> queued = new ArrayList<>();
+    private long appendedTicket;
+    private long durableTicket;
+
+    private final List<Path> closedSegments = new ArrayList<>();
+    private long segmentNumber;
+    private Path segmentPath;
+    private FileChannel segment;
+    private ByteBuffer buffer = ByteBuffer.allocate(ENTRY_BYTES * 1024);
+    private volatile IOException failure;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public StockJournal(Path directory, long flushIntervalMs, Consumer<List<Entry>> onDurable) throws IOException {
+        this.directory = directory;
+        this.flushIntervalMs = flushIntervalMs;
+        this.onDurable = onDurable;
+        Files.createDirectories(directory);
+        // Segments already on disk are left for the next replay
+        for (Path path : segments(directory)) {
+            segmentNumber = Math.max(segmentNumber, number(path) + 1);
+        }
+        openSegment();
+    }
+
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "stock-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Returns a ticket to wait on with awaitDurable; refused once a write has failed, since it could never become durable
+    public long append(Entry entry) {
+        if (failure != null) {
+            throw new UncheckedIOException(new IOException("Stock journal write failed", failure));
+        }
+        synchronized (queueLock) {
+            queued.add(entry);
+            return ++appendedTicket;
+        }
+    }
+
+    public void awaitDurable(long ticket, long timeoutMs) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (durableMonitor) {
+            while (durableTicket < ticket) {
+                if (failure != null) {
+                    throw new IOException("Stock journal write failed", failure);
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IOException("Stock journal fsync did not complete within " + timeoutMs + " ms");
+                }
+                try {
+                    durableMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the stock journal");
+                }
+            }
+        }
+    }
+
+    // The write error that stopped the journal, or null while it is healthy
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // Closes the current segment once it is larger than maxBytes; returns every closed segment not yet deleted
+    public List<Path> rollIfLargerThan(long maxBytes) throws IOException {
+        synchronized (writeLock) {
+            if (segment.size() + (long) queuedCount() * ENTRY_BYTES > maxBytes) {
+                flush();
+                // Listed before closing, so it is handed out until deleted even if the close fails
+                closedSegments.add(segmentPath);
+                try {
+                    segment.close();
+                    openSegment();
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+            }
+            return new ArrayList<>(closedSegments);
+        }
+    }
+
+    // Segments must come from rollIfLargerThan, so everything in them has reached the consumer
+    public void delete(List<Path> segments) throws IOException {
+        synchronized (writeLock) {
+            for (Path path : segments) {
+                Files.deleteIfExists(path);
+                closedSegments.remove(path);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            flush();
+            segment.close();
+        }
+    }
+
+    // Entries of every segment in the directory, in file order; a torn or corrupt tail ends its segment
+    public static List<Entry> readAll(Path directory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        CRC32 crc = new CRC32();
+        for (Path path : segments(directory)) {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (data.remaining() >= ENTRY_BYTES) {
+                int start = data.position();
+                Entry entry = new Entry(data.getLong(), data.getLong(), data.getLong(), data.getInt(), data.getInt());
+                crc.reset();
+                crc.update(data.array(), start, ENTRY_BYTES - Integer.BYTES);
+                if (data.getInt() != (int) crc.getValue()) {
+                    break;
+                }
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    // After a replay; the journal must not be open on the directory
+    public static void deleteAll(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        for (Path path : segments(directory)) {
+            Files.delete(path);
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (writeLock) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    logger.error("Stock journal write failed; stock changes are refused until restart", e);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Caller holds writeLock, so batches reach the file, the waiters and the consumer in ticket order
+    private void flush() throws IOException {
+        if (failure != null) {
+            throw new IOException("Stock journal write failed", failure);
+        }
+        List<Entry> batch;
+        long ticket;
+        synchronized (queueLock) {
+            if (queued.isEmpty()) {
+                return;
+            }
+            batch = queued;
+            ticket = appendedTicket;
+            queued = new ArrayList<>();
+        }
+        if (buffer.capacity() < batch.size() * ENTRY_BYTES) {
+            buffer = ByteBuffer.allocate(batch.size() * ENTRY_BYTES);
+        }
+        buffer.clear();
+        CRC32 crc = new CRC32();
+        for (Entry entry : batch) {
+            int start = buffer.position();
+            buffer.putLong(entry.seq).putLong(entry.productId).putLong(entry.warehouseId)
+                .putInt(entry.total).putInt(entry.reserved);
+            crc.reset();
+            crc.update(buffer.array(), start, ENTRY_BYTES - Integer.BYTES);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            fail(e);
+            throw e;
+        }
+        synchronized (durableMonitor) {
+            durableTicket = ticket;
+            durableMonitor.notifyAll();
+        }
+        onDurable.accept(batch);
+    }
+
+    private void fail(IOException e) {
+        synchronized (durableMonitor) {
+            failure = e;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private int queuedCount() {
+        synchronized (queueLock) {
+            return queued.size();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentPath = directory.resolve(String.format("%s%020d%s", PREFIX, segmentNumber++, SUFFIX));
+        segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+        return paths;
+    }
+
+    private static long number(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new UncheckedIOException(new IOException("Unexpected journal file " + path));
+        }
+    }
+
+    public static final class Entry {
+        private final long seq;
+        private final long productId;
+        private final long warehouseId;
+        private final int total;
+        private final int reserved;
+
+        public Entry(long seq, long productId, long warehouseId, int total, int reserved) {
+            this.seq = seq;
+            this.productId = productId;
+            this.warehouseId = warehouseId;
+            this.total = total;
+            this.reserved = reserved;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public long getWarehouseId() {
+            return warehouseId;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getReserved() {
+            return reserved;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package main.java.main.java.com.example.inventoryservice.ledger;
+
+// Identifies one inventory item: a product in a warehouse
+public final class StockKey {
+
+    private final long productId;
+    private final long warehouseId;
+
+    public StockKey(long productId, long warehouseId) {
+        this.productId = productId;
+        this.warehouseId = warehouseId;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public long getWarehouseId() {
+        return warehouseId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StockKey other)) {
+            return false;
+        }
+        return productId == other.productId && warehouseId == other.warehouseId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(productId) * 31 + Long.hashCode(warehouseId);
+    }
+
+    @Override
+    public String toString() {
+        return productId + "@" + warehouseId;
+    }
+}
@@ -49,6 +49,10 @@ public class InventoryItem {
         return Math.max(0, totalQuantity - reservedQuantity);
     }
 
+    // Sequence of the stock ledger level last written to this row; levels with a lower sequence are stale
+    @Column(name = "ledger_seq", nullable = false)
+    private Long ledgerSeq = 0L;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private InventoryStatus status = InventoryStatus.ACTIVE;
@@ -0,0 +1,56 @@
+package main.java.main.java.com.example.inventoryservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One stock reservation for an order; releasing it frees exactly its quantity, once
+@Entity
+@Table(name = "reservations", indexes = {
+    @Index(name = "idx_reservation_order_id", columnList = "order_id"),
+    @Index(name = "idx_reservation_product_warehouse", columnList = "product_id, warehouse_id"),
+    // Persisted expiry index: restores the timing wheel on startup and drives the expiry sweep
+    @Index(name = "idx_reservation_state_expires_at", columnList = "state, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reservation {
+    // Random UUID: concurrent inserts spread over the index instead of contending for its last page
+    @Id
+    @Column(name = "reservation_id", length = 36)
+    private String reservationId;
+
+    @Column(name = "order_id", length = 100)
+    private String orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationState state = ReservationState.HELD;
+
+    // Null for reservations held until released
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public enum ReservationState {
+        HELD, RELEASED, EXPIRED
+    }
+}
@@ -0,0 +1,17 @@
+package main.java.main.java.com.example.inventoryservice.repository;
+
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface InventoryItemRepositoryCustom {
+
+    // Empty when no row for the product and warehouse can take the change
+    Optional<InventoryItem> adjustReservedQuantity(Long productId, Long warehouseId, int quantityChange);
+
+    // Takes the reservations' quantities off reserved_quantity in one statement; returns the updated items
+    List<InventoryItem> releaseReservedQuantities(Collection<Reservation> reservations);
+}
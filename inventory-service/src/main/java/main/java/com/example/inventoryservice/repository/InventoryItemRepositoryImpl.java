@@ -0,0 +1,119 @@
+package main.java.main.java.com.example.inventoryservice.repository;
+
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem.InventoryStatus;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Reservation changes as one conditional UPDATE: the stock check sits in the WHERE clause, so
+ * concurrent reservations of the same item serialize on the row lock for the length of the
+ * statement only and can never take reserved_quantity past total_quantity or below zero. No
+ * entity is loaded; the caller learns the outcome from whether a row came back. SET
+ * expressions see the row before the update, hence the status CASE subtracting the change.
+ * Releases of ledger reservations are summed per item and applied with one UPDATE joined
+ * against the unnested totals, after locking the affected rows in key order so concurrent
+ * releases and expiry sweeps wait on each other instead of deadlocking.
+ */
+public class InventoryItemRepositoryImpl implements InventoryItemRepositoryCustom {
+
+    private static final String RETURNING_COLUMNS =
+        "id, product_id, warehouse_id, total_quantity, reserved_quantity, status, created_at, updated_at";
+
+    private static final String ADJUST_RESERVED_SQL =
+        "UPDATE inventory_items SET reserved_quantity = reserved_quantity + ?, " +
+        "status = CASE WHEN total_quantity - reserved_quantity - ? <= 0 THEN 'OUT_OF_STOCK' " +
+        "WHEN total_quantity - reserved_quantity - ? < 10 THEN 'LOW_STOCK' ELSE 'ACTIVE' END, " +
+        "updated_at = ? " +
+        "WHERE product_id = ? AND warehouse_id = ? " +
+        "AND reserved_quantity + ? >= 0 AND total_quantity - reserved_quantity >= ? " +
+        "RETURNING " + RETURNING_COLUMNS;
+
+    // Rows are locked in (product_id, warehouse_id) order before the UPDATE touches them; the join
+    // alone locks in whatever order the plan produces, and two releases could then deadlock
+    private static final String RELEASE_RESERVED_SQL =
+        "WITH r AS MATERIALIZED (" +
+        "SELECT i.id, t.quantity FROM inventory_items i " +
+        "JOIN unnest(?::bigint[], ?::bigint[], ?::int[]) AS t(product_id, warehouse_id, quantity) " +
+        "ON i.product_id = t.product_id AND i.warehouse_id = t.warehouse_id " +
+        "ORDER BY i.product_id, i.warehouse_id FOR UPDATE OF i) " +
+        "UPDATE inventory_items i SET reserved_quantity = GREATEST(i.reserved_quantity - r.quantity, 0), " +
+        "status = CASE WHEN i.total_quantity - GREATEST(i.reserved_quantity - r.quantity, 0) <= 0 THEN 'OUT_OF_STOCK' " +
+        "WHEN i.total_quantity - GREATEST(i.reserved_quantity - r.quantity, 0) < 10 THEN 'LOW_STOCK' ELSE 'ACTIVE' END, " +
+        "updated_at = ? " +
+        "FROM r WHERE i.id = r.id " +
+        "RETURNING i.id, i.product_id, i.warehouse_id, i.total_quantity, i.reserved_quantity, i.status, i.created_at, i.updated_at";
+
+    private static final Comparator<List<Long>> ITEM_ORDER =
+        Comparator.<List<Long>, Long>comparing(key -> key.get(0)).thenComparing(key -> key.get(1));
+
+    private static final RowMapper<InventoryItem> ROW_MAPPER = (rs, rowNum) -> {
+        InventoryItem item = new InventoryItem();
+        item.setId(rs.getLong("id"));
+        item.setProductId(rs.getLong("product_id"));
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(rs.getLong("warehouse_id"));
+        item.setWarehouse(warehouse);
+        item.setTotalQuantity(rs.getInt("total_quantity"));
+        item.setReservedQuantity(rs.getInt("reserved_quantity"));
+        item.setStatus(InventoryStatus.valueOf(rs.getString("status")));
+        item.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        item.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return item;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<InventoryItem> adjustReservedQuantity(Long productId, Long warehouseId, int quantityChange) {
+        List<InventoryItem> updated = jdbcTemplate.query(ADJUST_RESERVED_SQL, ROW_MAPPER,
+            quantityChange, quantityChange, quantityChange, Timestamp.valueOf(LocalDateTime.now()),
+            productId, warehouseId, quantityChange, quantityChange);
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public List<InventoryItem> releaseReservedQuantities(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return List.of();
+        }
+        // Keyed by (productId, warehouseId), in the order the rows are locked
+        Map<List<Long>, Integer> totals = new TreeMap<>(ITEM_ORDER);
+        for (Reservation reservation : reservations) {
+            totals.merge(List.of(reservation.getProductId(), reservation.getWarehouseId()), reservation.getQuantity(), Integer::sum);
+        }
+        Long[] productIds = new Long[totals.size()];
+        Long[] warehouseIds = new Long[totals.size()];
+        Integer[] quantities = new Integer[totals.size()];
+        int i = 0;
+        for (Map.Entry<List<Long>, Integer> total : totals.entrySet()) {
+            productIds[i] = total.getKey().get(0);
+            warehouseIds[i] = total.getKey().get(1);
+            quantities[i] = total.getValue();
+            i++;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RELEASE_RESERVED_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", productIds));
+            ps.setArray(2, connection.createArrayOf("bigint", warehouseIds));
+            ps.setArray(3, connection.createArrayOf("integer", quantities));
+            ps.setTimestamp(4, now);
+            return ps;
+        }, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,13 @@
+package main.java.main.java.com.example.inventoryservice.repository;
+
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, String> {
+
+    List<Reservation> findByOrderId(String orderId);
+}
@@ -40,6 +40,9 @@ public class InventoryEventService {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private ReservationService reservationService;
+
     // Publish stock changed event
     @Async
     @Transactional
@@ -229,33 +232,29 @@ public class InventoryEventService {
             }
 
             Warehouse warehouse = warehouseOpt.get();
-            String oldQuantity = null;
-            InventoryItem updatedItem = null;
+            boolean handled = false;
 
             if ("RESERVE".equals(operation)) {
-                // Reserve stock for order
-                oldQuantity = inventoryService.getInventoryByProductAndWarehouse(productId, warehouseId)
-                    .map(item -> item.getReservedQuantity().toString())
-                    .orElse("0");
-                updatedItem = inventoryService.adjustReservedQuantity(productId, warehouse, quantityChange);
+                // Reserve stock for order; the ledger entry lets RELEASE and CANCEL free exactly this
+                reservationService.reserve(productId, warehouse, quantityChange, orderId, null);
+                handled = true;
+            } else if ("RELEASE".equals(operation) && orderId != null) {
+                // Release what the order holds of this product in this warehouse
+                reservationService.releaseOrder(orderId, productId, warehouseId);
+                handled = true;
             } else if ("RELEASE".equals(operation)) {
-                // Release reserved stock
-                oldQuantity = inventoryService.getInventoryByProductAndWarehouse(productId, warehouseId)
-                    .map(item -> item.getReservedQuantity().toString())
-                    .orElse("0");
-                updatedItem = inventoryService.adjustReservedQuantity(productId, warehouse, -quantityChange);
+                // No order to look up: release the requested quantity
+                InventoryItem updatedItem = inventoryService.adjustReservedQuantity(productId, warehouse, -quantityChange);
+                publishStockChangedEvent(updatedItem, operation,
+                    String.valueOf(updatedItem.getReservedQuantity() + quantityChange), updatedItem.getReservedQuantity().toString());
+                handled = true;
             } else if ("CANCEL".equals(operation)) {
-                // Cancel order - release all reserved stock for this order
-                // This would require tracking reservations per order, simplified here
-                oldQuantity = "0";
-                updatedItem = inventoryService.adjustReservedQuantity(productId, warehouse, -quantityChange);
+                // Cancel order - release every reservation the order still holds, across products
+                reservationService.releaseOrder(orderId);
+                handled = true;
             }
 
-            if (updatedItem != null) {
-                String newQuantity = updatedItem.getReservedQuantity().toString();
-                // Publish stock changed event
-                publishStockChangedEvent(updatedItem, operation, oldQuantity, newQuantity);
-                
+            if (handled) {
                 // Send confirmation back to order service
                 publishStockAdjustmentConfirmation(productId, warehouseId, orderId, operation, quantityChange, true);
                 
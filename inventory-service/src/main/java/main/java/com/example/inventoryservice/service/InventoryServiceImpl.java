@@ -28,6 +28,9 @@ public class InventoryServiceImpl implements InventoryService {
     @Autowired
     private WarehouseRepository warehouseRepository;
 
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
     @Override
     @io.micrometer.core.annotation.Timed(value = "inventory.create", description = "Time taken to create inventory item")
     @org.springframework.cache.annotation.CacheEvict(value = "stockCache", allEntries = true)
@@ -64,7 +67,9 @@ public class InventoryServiceImpl implements InventoryService {
         // Update status based on available quantity
         inventoryItem.updateStatus();
 
-        return inventoryItemRepository.save(inventoryItem);
+        InventoryItem savedItem = inventoryItemRepository.save(inventoryItem);
+        stockLedgerService.register(savedItem);
+        return savedItem;
     }
 
     @Override
@@ -73,6 +78,8 @@ public class InventoryServiceImpl implements InventoryService {
     public InventoryItem updateInventoryItem(Long id, @Valid InventoryItem inventoryItemDetails) {
         InventoryItem existingItem = inventoryItemRepository.findById(id)
             .orElseThrow(() -> new NoSuchElementException("Inventory item not found: " + id));
+        Long previousProductId = existingItem.getProductId();
+        Long previousWarehouseId = existingItem.getWarehouse().getId();
 
         // Update fields if provided
         if (inventoryItemDetails.getProductId() != null) {
@@ -95,6 +102,23 @@ public class InventoryServiceImpl implements InventoryService {
             existingItem.setMetadata(inventoryItemDetails.getMetadata());
         }
 
+        if (stockLedgerService.isEnabled()) {
+            if (previousProductId.equals(existingItem.getProductId()) && previousWarehouseId.equals(existingItem.getWarehouse().getId())) {
+                // The ledger holds the current reservations; the row read above may be behind it
+                InventoryItem current = stockLedgerService.setQuantities(previousProductId, previousWarehouseId,
+                    inventoryItemDetails.getTotalQuantity(), inventoryItemDetails.getReservedQuantity());
+                existingItem.setTotalQuantity(current.getTotalQuantity());
+                existingItem.setReservedQuantity(current.getReservedQuantity());
+            } else {
+                // Same for a moved item, whose cell moves with it once this transaction commits
+                InventoryItem current = stockLedgerService.move(id, previousProductId, previousWarehouseId,
+                    existingItem.getProductId(), existingItem.getWarehouse().getId(),
+                    inventoryItemDetails.getTotalQuantity(), inventoryItemDetails.getReservedQuantity());
+                existingItem.setTotalQuantity(current.getTotalQuantity());
+                existingItem.setReservedQuantity(current.getReservedQuantity());
+            }
+        }
+
         // Update status
         existingItem.updateStatus();
 
@@ -112,9 +136,12 @@ public class InventoryServiceImpl implements InventoryService {
         return inventoryItemRepository.findAll(pageable);
     }
 
+    // Not cached: reservations change these cells without evicting, and the ledger already serves them from memory
     @Override
-    @Cacheable(value = "stockCache", key = "#productId + '_' + #warehouse.id")
     public Optional<InventoryItem> getInventoryByProductAndWarehouse(Long productId, Long warehouseId) {
+        if (stockLedgerService.isEnabled()) {
+            return stockLedgerService.getStock(productId, warehouseId);
+        }
         Optional<Warehouse> warehouseOpt = warehouseRepository.findById(warehouseId);
         if (warehouseOpt.isEmpty()) {
             return Optional.empty();
@@ -126,6 +153,13 @@ public class InventoryServiceImpl implements InventoryService {
     @Transactional
     @CacheEvict(value = "stockCache", key = "#productId + '_' + #warehouse.id")
     public InventoryItem updateStockQuantity(Long productId, Warehouse warehouse, Integer newQuantity) {
+        if (stockLedgerService.isEnabled() && stockLedgerService.getStock(productId, warehouse.getId()).isPresent()) {
+            InventoryItem inventoryItem = stockLedgerService.setQuantities(productId, warehouse.getId(), newQuantity, null);
+            inventoryItem.setWarehouse(warehouse);
+            evictProductStockCache(productId);
+            evictWarehouseStockCache(warehouse.getId());
+            return inventoryItem;
+        }
         Optional<InventoryItem> inventoryOpt = inventoryItemRepository.findByProductIdAndWarehouseId(productId, warehouse);
         InventoryItem inventoryItem;
 
@@ -145,6 +179,9 @@ public class InventoryServiceImpl implements InventoryService {
         inventoryItem.updateStatus();
 
         inventoryItem = inventoryItemRepository.save(inventoryItem);
+        if (inventoryOpt.isEmpty()) {
+            stockLedgerService.register(inventoryItem);
+        }
         
         // Evict related caches
         evictProductStockCache(productId);
@@ -157,28 +194,26 @@ public class InventoryServiceImpl implements InventoryService {
     @Transactional
     @CacheEvict(value = "stockCache", key = "#productId + '_' + #warehouse.id")
     public InventoryItem adjustReservedQuantity(Long productId, Warehouse warehouse, Integer quantityChange) {
-        Optional<InventoryItem> inventoryOpt = inventoryItemRepository.findByProductIdAndWarehouseId(productId, warehouse);
-        if (inventoryOpt.isEmpty()) {
-            throw new NoSuchElementException("Inventory item not found for product " + productId + " in warehouse " + warehouse.getId());
-        }
-
-        InventoryItem inventoryItem = inventoryOpt.get();
-        int newReserved = inventoryItem.getReservedQuantity() + quantityChange;
-        
-        // Validate reservation doesn't exceed available stock
-        int available = inventoryItem.getAvailableQuantity();
-        if (newReserved > inventoryItem.getTotalQuantity()) {
-            throw new IllegalArgumentException("Cannot reserve more than available stock. Available: " + available);
-        }
-        if (newReserved < 0) {
-            throw new IllegalArgumentException("Reserved quantity cannot be negative");
+        // Checked and applied in one step, by the ledger cell's CAS or a conditional UPDATE; a read-check-write here would oversell
+        boolean ledger = stockLedgerService.isEnabled();
+        Optional<InventoryItem> updated = ledger
+            ? stockLedgerService.adjustReservedQuantity(productId, warehouse.getId(), quantityChange)
+            : inventoryItemRepository.adjustReservedQuantity(productId, warehouse.getId(), quantityChange);
+        if (updated.isEmpty()) {
+            // Rejected: read the item only to say why
+            Optional<InventoryItem> current = ledger
+                ? stockLedgerService.getStock(productId, warehouse.getId())
+                : inventoryItemRepository.findByProductIdAndWarehouseId(productId, warehouse);
+            InventoryItem inventoryItem = current.orElseThrow(() -> new NoSuchElementException("Inventory item not found for product " + productId + " in warehouse " + warehouse.getId()));
+            if (quantityChange < 0) {
+                throw new IllegalArgumentException("Reserved quantity cannot be negative");
+            }
+            throw new IllegalArgumentException("Cannot reserve more than available stock. Available: " + inventoryItem.getAvailableQuantity());
         }
 
-        inventoryItem.setReservedQuantity(newReserved);
-        inventoryItem.updateStatus();
+        InventoryItem inventoryItem = updated.get();
+        inventoryItem.setWarehouse(warehouse);
 
-        inventoryItem = inventoryItemRepository.save(inventoryItem);
-        
         // Evict related caches
         evictProductStockCache(productId);
         evictWarehouseStockCache(warehouse.getId());
@@ -246,6 +281,7 @@ public class InventoryServiceImpl implements InventoryService {
             throw new NoSuchElementException("Inventory item not found: " + id);
         }
         inventoryItemRepository.deleteById(id);
+        stockLedgerService.remove(id);
     }
 
     @Override
@@ -274,6 +310,7 @@ public class InventoryServiceImpl implements InventoryService {
         newItem.updateStatus();
 
         InventoryItem savedItem = inventoryItemRepository.save(newItem);
+        stockLedgerService.register(savedItem);
         
         // Evict caches
         evictProductStockCache(productId);
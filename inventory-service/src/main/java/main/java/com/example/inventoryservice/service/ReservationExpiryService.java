@@ -0,0 +1,160 @@
+package main.java.main.java.com.example.inventoryservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.inventoryservice.expiry.HierarchicalTimingWheel;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Releases reservations whose expires_at has passed. Deadlines live in a hierarchical timing
+ * wheel, so scheduling and cancelling a reservation costs O(1) however many are pending; each
+ * tick hands over the reservations that fell due, and they are expired in batches of one
+ * set-based UPDATE each. reservations.expires_at is the persisted index: the wheel is filled
+ * from it on startup, and a periodic sweep over (state, expires_at) expires anything the
+ * wheel does not hold, such as reservations made on other replicas. Replicas expiring the
+ * same reservation is harmless; only HELD rows change state.
+ */
+@Service
+public class ReservationExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryService.class);
+
+    private static final String LOAD_SQL = "SELECT reservation_id, expires_at FROM reservations " +
+        "WHERE state = 'HELD' AND expires_at IS NOT NULL AND reservation_id > ? ORDER BY reservation_id LIMIT ?";
+    private static final String DUE_SQL = "SELECT reservation_id FROM reservations " +
+        "WHERE state = 'HELD' AND expires_at <= ? ORDER BY expires_at LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // ReservationService schedules and cancels deadlines here
+    @Autowired
+    private ObjectProvider<ReservationService> reservationService;
+
+    @Value("${inventory.reservations.expiry.tick-ms:1000}")
+    private long tickMs;
+
+    // Slots per wheel level are 2^wheel-bits
+    @Value("${inventory.reservations.expiry.wheel-bits:6}")
+    private int wheelBits;
+
+    @Value("${inventory.reservations.expiry.batch-size:1000}")
+    private int batchSize;
+
+    private HierarchicalTimingWheel<String> wheel;
+    // Fell due but not yet expired, e.g. after a failed batch
+    private final Queue<String> due = new ConcurrentLinkedQueue<>();
+    private volatile boolean loaded;
+
+    private Counter expired;
+
+    @PostConstruct
+    void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelBits, System.currentTimeMillis());
+        expired = meterRegistry.counter("inventory.reservations.expired");
+        meterRegistry.gauge("inventory.reservations.scheduled", this, service -> service.wheel.size());
+    }
+
+    public void schedule(String reservationId, LocalDateTime expiresAt) {
+        wheel.schedule(reservationId, toMillis(expiresAt));
+    }
+
+    public void cancel(String reservationId) {
+        wheel.cancel(reservationId);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.expiry.tick-ms:1000}")
+    public void expireDue() {
+        due.addAll(wheel.advance(System.currentTimeMillis()));
+        while (!due.isEmpty()) {
+            List<String> batch = new ArrayList<>(Math.min(batchSize, due.size()));
+            String id;
+            while (batch.size() < batchSize && (id = due.poll()) != null) {
+                batch.add(id);
+            }
+            try {
+                expire(batch);
+            } catch (RuntimeException e) {
+                // Retried on the next tick
+                due.addAll(batch);
+                logger.warn("Expiring {} reservations failed: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${inventory.reservations.expiry.sweep-interval-ms:30000}")
+    public void sweep() {
+        try {
+            if (!loaded) {
+                logger.info("Scheduled {} reservation deadlines", loadSchedule());
+                loaded = true;
+            }
+            while (true) {
+                List<String> ids = jdbcTemplate.queryForList(DUE_SQL, String.class,
+                    Timestamp.valueOf(LocalDateTime.now()), batchSize);
+                if (!ids.isEmpty()) {
+                    expire(ids);
+                }
+                if (ids.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // The wheel keeps expiring what it holds
+            logger.warn("Reservation expiry sweep failed: {}", e.getMessage());
+        }
+    }
+
+    // Keyset pages over the primary key
+    private long loadSchedule() {
+        String afterId = "";
+        long total = 0;
+        while (true) {
+            String[] lastId = {afterId};
+            int[] rows = {0};
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                lastId[0] = rs.getString(1);
+                wheel.schedule(lastId[0], rs.getTimestamp(2).getTime());
+                rows[0]++;
+            }, afterId, batchSize);
+            total += rows[0];
+            if (rows[0] < batchSize) {
+                return total;
+            }
+            afterId = lastId[0];
+        }
+    }
+
+    private void expire(List<String> ids) {
+        List<Reservation> released = reservationService.getObject().expire(ids);
+        expired.increment(released.size());
+        if (!released.isEmpty()) {
+            logger.debug("Expired {} of {} due reservations", released.size(), ids.size());
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
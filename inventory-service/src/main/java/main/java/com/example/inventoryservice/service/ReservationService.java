@@ -0,0 +1,28 @@
+package main.java.main.java.com.example.inventoryservice.service;
+
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationService {
+
+    Reservation reserve(Long productId, Warehouse warehouse, int quantity, String orderId, LocalDateTime expiresAt);
+
+    // Empty when the reservation is unknown or no longer held
+    Optional<Reservation> release(String reservationId);
+
+    List<Reservation> releaseOrder(String orderId);
+
+    List<Reservation> releaseOrder(String orderId, Long productId, Long warehouseId);
+
+    // Releases those of the reservations that are still held and past their expiry
+    List<Reservation> expire(Collection<String> reservationIds);
+
+    Optional<Reservation> getReservation(String reservationId);
+
+    List<Reservation> getReservationsForOrder(String orderId);
+}
@@ -0,0 +1,226 @@
+package main.java.main.java.com.example.inventoryservice.service;
+
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import main.java.main.java.com.example.inventoryservice.model.Reservation.ReservationState;
+import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+import main.java.main.java.com.example.inventoryservice.repository.InventoryItemRepository;
+import main.java.main.java.com.example.inventoryservice.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Per-order reservation ledger. A reservation takes stock with the conditional UPDATE on
+ * inventory_items, or from its {@link StockLedgerService} cell when that ledger is enabled,
+ * and inserts its ledger row in the same transaction; a release flips rows from HELD to
+ * RELEASED with a conditional UPDATE and gives back the quantities those rows held, so
+ * releasing twice, or cancelling an order whose reservations were already released, frees
+ * nothing. Lookups go by primary key or the order_id index. Rows are keyed by random UUIDs
+ * and never updated by more than one release, so heavy reservation traffic contends only on
+ * the inventory rows themselves. Reservations with an expiry are handed to
+ * {@link ReservationExpiryService} once committed, and expire through the same release path.
+ */
+@Service
+public class ReservationServiceImpl implements ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationServiceImpl.class);
+
+    private static final String COLUMNS =
+        "reservation_id, order_id, product_id, warehouse_id, quantity, state, expires_at, created_at, updated_at";
+    private static final String INSERT_SQL = "INSERT INTO reservations (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String RELEASE_SQL = "UPDATE reservations SET state = 'RELEASED', updated_at = ? " +
+        "WHERE reservation_id = ? AND state = 'HELD' RETURNING " + COLUMNS;
+    private static final String RELEASE_ORDER_SQL = "UPDATE reservations SET state = 'RELEASED', updated_at = ? " +
+        "WHERE order_id = ? AND state = 'HELD' RETURNING " + COLUMNS;
+    private static final String RELEASE_ORDER_ITEM_SQL = "UPDATE reservations SET state = 'RELEASED', updated_at = ? " +
+        "WHERE order_id = ? AND product_id = ? AND warehouse_id = ? AND state = 'HELD' RETURNING " + COLUMNS;
+    private static final String EXPIRE_SQL = "UPDATE reservations SET state = 'EXPIRED', updated_at = ? " +
+        "WHERE reservation_id = ANY(?) AND state = 'HELD' AND expires_at <= ? RETURNING " + COLUMNS;
+
+    private static final RowMapper<Reservation> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp expiresAt = rs.getTimestamp("expires_at");
+        return new Reservation(
+            rs.getString("reservation_id"),
+            rs.getString("order_id"),
+            rs.getLong("product_id"),
+            rs.getLong("warehouse_id"),
+            rs.getInt("quantity"),
+            ReservationState.valueOf(rs.getString("state")),
+            expiresAt != null ? expiresAt.toLocalDateTime() : null,
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getTimestamp("updated_at").toLocalDateTime());
+    };
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReservationExpiryService reservationExpiryService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    // InventoryEventService consumes order events through this service
+    @Autowired
+    private ObjectProvider<InventoryEventService> eventService;
+
+    @Override
+    @Transactional
+    public Reservation reserve(Long productId, Warehouse warehouse, int quantity, String orderId, LocalDateTime expiresAt) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reservation quantity must be positive");
+        }
+        InventoryItem updatedItem = inventoryService.adjustReservedQuantity(productId, warehouse, quantity);
+
+        LocalDateTime now = LocalDateTime.now();
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), orderId, productId, warehouse.getId(),
+            quantity, ReservationState.HELD, expiresAt, now, now);
+        jdbcTemplate.update(INSERT_SQL, reservation.getReservationId(), orderId, productId, warehouse.getId(), quantity,
+            ReservationState.HELD.name(), expiresAt != null ? Timestamp.valueOf(expiresAt) : null,
+            Timestamp.valueOf(now), Timestamp.valueOf(now));
+
+        int reserved = updatedItem.getReservedQuantity();
+        afterCommit(() -> {
+            if (expiresAt != null) {
+                reservationExpiryService.schedule(reservation.getReservationId(), expiresAt);
+            }
+            eventService.getObject().publishStockChangedEvent(
+                updatedItem, "RESERVE", String.valueOf(reserved - quantity), String.valueOf(reserved));
+        });
+        return reservation;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Reservation> release(String reservationId) {
+        if (reservationId == null) {
+            return Optional.empty();
+        }
+        List<Reservation> released = jdbcTemplate.query(RELEASE_SQL, ROW_MAPPER, now(), reservationId);
+        releaseStock(released, "RELEASE");
+        return released.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public List<Reservation> releaseOrder(String orderId) {
+        if (orderId == null) {
+            return List.of();
+        }
+        List<Reservation> released = jdbcTemplate.query(RELEASE_ORDER_SQL, ROW_MAPPER, now(), orderId);
+        releaseStock(released, "RELEASE");
+        return released;
+    }
+
+    @Override
+    @Transactional
+    public List<Reservation> releaseOrder(String orderId, Long productId, Long warehouseId) {
+        if (orderId == null) {
+            return List.of();
+        }
+        List<Reservation> released = jdbcTemplate.query(RELEASE_ORDER_ITEM_SQL, ROW_MAPPER, now(), orderId, productId, warehouseId);
+        releaseStock(released, "RELEASE");
+        return released;
+    }
+
+    @Override
+    @Transactional
+    public List<Reservation> expire(Collection<String> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = now();
+        List<Reservation> expired = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EXPIRE_SQL);
+            ps.setTimestamp(1, now);
+            ps.setArray(2, connection.createArrayOf("varchar", reservationIds.toArray()));
+            ps.setTimestamp(3, now);
+            return ps;
+        }, ROW_MAPPER);
+        releaseStock(expired, "EXPIRE");
+        return expired;
+    }
+
+    // Gives back what the released rows held, one UPDATE for all affected items
+    private void releaseStock(List<Reservation> released, String operation) {
+        if (released.isEmpty()) {
+            return;
+        }
+        Map<List<Long>, Integer> releasedByItem = new HashMap<>();
+        for (Reservation reservation : released) {
+            releasedByItem.merge(List.of(reservation.getProductId(), reservation.getWarehouseId()), reservation.getQuantity(), Integer::sum);
+        }
+        List<InventoryItem> updatedItems = stockLedgerService.isEnabled()
+            ? stockLedgerService.releaseReservedQuantities(released)
+            : inventoryItemRepository.releaseReservedQuantities(released);
+        if (updatedItems.size() < releasedByItem.size()) {
+            // The inventory row went away under the reservation; the ledger is still settled
+            logger.warn("Released {} reservations but only {} of {} inventory items were found",
+                released.size(), updatedItems.size(), releasedByItem.size());
+        }
+        afterCommit(() -> {
+            for (Reservation reservation : released) {
+                reservationExpiryService.cancel(reservation.getReservationId());
+            }
+            for (InventoryItem item : updatedItems) {
+                int quantity = releasedByItem.getOrDefault(List.of(item.getProductId(), item.getWarehouse().getId()), 0);
+                eventService.getObject().publishStockChangedEvent(item, operation,
+                    String.valueOf(item.getReservedQuantity() + quantity), String.valueOf(item.getReservedQuantity()));
+            }
+        });
+    }
+
+    @Override
+    public Optional<Reservation> getReservation(String reservationId) {
+        return reservationRepository.findById(reservationId);
+    }
+
+    @Override
+    public List<Reservation> getReservationsForOrder(String orderId) {
+        return reservationRepository.findByOrderId(orderId);
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
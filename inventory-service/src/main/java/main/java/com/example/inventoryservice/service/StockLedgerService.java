@@ -0,0 +1,39 @@
+package main.java.main.java.com.example.inventoryservice.service;
+
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockLedgerService {
+
+    boolean isEnabled();
+
+    // The journal write error that stopped the ledger, or null while changes are accepted
+    IOException getJournalFailure();
+
+    Optional<InventoryItem> getStock(Long productId, Long warehouseId);
+
+    // Empty when the change would take reserved below zero or above total; undone if the surrounding transaction rolls back
+    Optional<InventoryItem> adjustReservedQuantity(Long productId, Long warehouseId, int quantityChange);
+
+    // Undone if the surrounding transaction rolls back
+    List<InventoryItem> releaseReservedQuantities(Collection<Reservation> reservations);
+
+    // Null quantities keep the current value; applied immediately
+    InventoryItem setQuantities(Long productId, Long warehouseId, Integer totalQuantity, Integer reservedQuantity);
+
+    // Starts tracking an item saved outside the ledger once its transaction commits
+    void register(InventoryItem item);
+
+    // Moves the item's cell to its new product and warehouse once its transaction commits, carrying over
+    // the level the cell holds then; returns the current level, with non-null quantities applied, for the row
+    InventoryItem move(Long itemId, Long fromProductId, Long fromWarehouseId, Long toProductId, Long toWarehouseId,
+                       Integer totalQuantity, Integer reservedQuantity);
+
+    // Stops tracking the item once its transaction commits
+    void remove(Long itemId);
+}
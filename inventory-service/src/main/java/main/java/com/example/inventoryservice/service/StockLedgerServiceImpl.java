@@ -0,0 +1,524 @@
+package main.java.main.java.com.example.inventoryservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import main.java.main.java.com.example.inventoryservice.ledger.StockCell;
+import main.java.main.java.com.example.inventoryservice.ledger.StockCell.Level;
+import main.java.main.java.com.example.inventoryservice.ledger.StockJournal;
+import main.java.main.java.com.example.inventoryservice.ledger.StockKey;
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional in-memory stock ledger. Each inventory item is a {@link StockCell} changed by
+ * compare-and-set, so checks and reservations touch neither the database nor a lock, and
+ * every change is appended to a {@link StockJournal} whose group-committed fsync is the
+ * durability point. Durable levels are written behind to inventory_items in batches of one
+ * UPDATE over the unnested levels, guarded by ledger_seq so a stale level never overwrites a
+ * newer one; replay is therefore the same UPDATE over whatever the journal still holds, run
+ * on startup before the cells are loaded. A change is fsynced before its transaction
+ * commits, so a crash in between leaves a journaled level that no reservation backs; replay
+ * therefore also recounts reserved stock of the replayed items from their held reservations,
+ * which resets reserved stock set without a reservation too. A clean shutdown leaves no
+ * journal behind, so only a crash triggers this. The cells are authoritative, so the ledger
+ * assumes one writer per item: a single instance, or requests routed to replicas by item.
+ * Once a journal write fails, changes are refused until restart, since none could become
+ * durable.
+ */
+@Service
+public class StockLedgerServiceImpl implements StockLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLedgerServiceImpl.class);
+
+    private static final String COLUMNS = "id, product_id, warehouse_id, total_quantity, reserved_quantity, ledger_seq";
+    private static final String LOAD_SQL = "SELECT " + COLUMNS + " FROM inventory_items WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String LOAD_ITEM_SQL = "SELECT " + COLUMNS + " FROM inventory_items WHERE product_id = ? AND warehouse_id = ?";
+    private static final String MAX_SEQ_SQL = "SELECT COALESCE(MAX(ledger_seq), 0) FROM inventory_items";
+    private static final String PERSIST_SQL =
+        "UPDATE inventory_items i SET total_quantity = r.total, reserved_quantity = r.reserved, " +
+        "status = CASE WHEN r.total - r.reserved <= 0 THEN 'OUT_OF_STOCK' " +
+        "WHEN r.total - r.reserved < 10 THEN 'LOW_STOCK' ELSE 'ACTIVE' END, " +
+        "ledger_seq = r.seq, updated_at = ? " +
+        "FROM unnest(?::bigint[], ?::bigint[], ?::int[], ?::int[], ?::bigint[]) AS r(product_id, warehouse_id, total, reserved, seq) " +
+        "WHERE i.product_id = r.product_id AND i.warehouse_id = r.warehouse_id AND i.ledger_seq < r.seq";
+    private static final String RECONCILE_SQL =
+        "WITH h AS (SELECT t.product_id, t.warehouse_id, COALESCE(SUM(r.quantity), 0) AS held " +
+        "FROM unnest(?::bigint[], ?::bigint[]) AS t(product_id, warehouse_id) " +
+        "LEFT JOIN reservations r ON r.product_id = t.product_id AND r.warehouse_id = t.warehouse_id AND r.state = 'HELD' " +
+        "GROUP BY t.product_id, t.warehouse_id) " +
+        "UPDATE inventory_items i SET reserved_quantity = h.held, " +
+        "status = CASE WHEN i.total_quantity - h.held <= 0 THEN 'OUT_OF_STOCK' " +
+        "WHEN i.total_quantity - h.held < 10 THEN 'LOW_STOCK' ELSE 'ACTIVE' END, updated_at = ? " +
+        "FROM h WHERE i.product_id = h.product_id AND i.warehouse_id = h.warehouse_id AND i.reserved_quantity <> h.held";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.stock-ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.stock-ledger.journal-dir:./data/stock-journal}")
+    private String journalDir;
+
+    @Value("${inventory.stock-ledger.flush-interval-ms:2}")
+    private long flushIntervalMs;
+
+    // Writers return only once their change is fsynced; false acknowledges changes a crash can lose
+    @Value("${inventory.stock-ledger.sync-writes:true}")
+    private boolean syncWrites;
+
+    @Value("${inventory.stock-ledger.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
+    @Value("${inventory.stock-ledger.segment-bytes:67108864}")
+    private long segmentBytes;
+
+    @Value("${inventory.stock-ledger.batch-size:5000}")
+    private int batchSize;
+
+    private final Map<StockKey, StockCell> cells = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Durable levels not yet in inventory_items, the highest sequence per item
+    private final Map<StockKey, StockJournal.Entry> unpersisted = new HashMap<>();
+    private StockJournal journal;
+
+    private Counter persisted;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Paths.get(journalDir);
+        List<StockJournal.Entry> replayed = StockJournal.readAll(directory);
+        Map<StockKey, StockJournal.Entry> latest = new HashMap<>();
+        for (StockJournal.Entry entry : replayed) {
+            merge(latest, entry);
+        }
+        write(latest.values());
+        int reconciled = reconcile(latest.keySet());
+        StockJournal.deleteAll(directory);
+        logger.info("Replayed {} stock journal entries for {} items", replayed.size(), latest.size());
+        if (reconciled > 0) {
+            logger.warn("Reset reserved stock of {} replayed items to their held reservations", reconciled);
+        }
+
+        sequence.set(jdbcTemplate.queryForObject(MAX_SEQ_SQL, Long.class));
+        logger.info("Loaded {} stock ledger cells", loadCells());
+
+        journal = new StockJournal(directory, flushIntervalMs, this::durable);
+        journal.start();
+        persisted = meterRegistry.counter("inventory.ledger.persisted");
+        meterRegistry.gauge("inventory.ledger.cells", cells, Map::size);
+        meterRegistry.gauge("inventory.ledger.unpersisted", this, service -> service.unpersistedCount());
+        meterRegistry.gauge("inventory.ledger.journal.failed", this, service -> service.getJournalFailure() != null ? 1 : 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+            persist(List.of());
+            // Everything journaled is in inventory_items now, so the next start has nothing to replay
+            StockJournal.deleteAll(Paths.get(journalDir));
+        } catch (IOException | RuntimeException e) {
+            // The journal segments stay behind and are replayed on startup
+            logger.warn("Stock ledger shutdown left levels to replay: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public IOException getJournalFailure() {
+        return journal != null ? journal.getFailure() : null;
+    }
+
+    @Override
+    public Optional<InventoryItem> getStock(Long productId, Long warehouseId) {
+        StockCell cell = find(productId, warehouseId);
+        return cell != null ? Optional.of(toItem(cell, cell.get())) : Optional.empty();
+    }
+
+    @Override
+    public Optional<InventoryItem> adjustReservedQuantity(Long productId, Long warehouseId, int quantityChange) {
+        requireJournal();
+        StockCell cell = require(productId, warehouseId);
+        Level level = cell.adjustReserved(quantityChange, sequence::incrementAndGet);
+        if (level == null) {
+            return Optional.empty();
+        }
+        Runnable undo = () -> journalQuietly(cell, cell.subtractReserved(quantityChange, sequence::incrementAndGet));
+        boolean deferred = onRollback(undo);
+        try {
+            record(cell, level, syncWrites);
+        } catch (RuntimeException e) {
+            if (!deferred) {
+                undo.run();
+            }
+            throw e;
+        }
+        return Optional.of(toItem(cell, level));
+    }
+
+    @Override
+    public List<InventoryItem> releaseReservedQuantities(Collection<Reservation> reservations) {
+        requireJournal();
+        Map<StockKey, Integer> totals = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            totals.merge(new StockKey(reservation.getProductId(), reservation.getWarehouseId()), reservation.getQuantity(), Integer::sum);
+        }
+        List<InventoryItem> released = new ArrayList<>(totals.size());
+        List<Runnable> undo = new ArrayList<>(totals.size());
+        boolean deferred = onRollback(() -> undo.forEach(Runnable::run));
+        try {
+            long lastTicket = 0;
+            for (Map.Entry<StockKey, Integer> total : totals.entrySet()) {
+                StockCell cell = find(total.getKey().getProductId(), total.getKey().getWarehouseId());
+                if (cell == null) {
+                    continue;
+                }
+                int quantity = total.getValue();
+                Level level = cell.subtractReserved(quantity, sequence::incrementAndGet);
+                undo.add(() -> journalQuietly(cell, cell.subtractReserved(-quantity, sequence::incrementAndGet)));
+                lastTicket = journal.append(entry(cell, level));
+                released.add(toItem(cell, level));
+            }
+            if (syncWrites && lastTicket > 0) {
+                awaitDurable(lastTicket);
+            }
+        } catch (RuntimeException e) {
+            // Cells released before the failure are put back too
+            if (!deferred) {
+                undo.forEach(Runnable::run);
+            }
+            throw e;
+        }
+        return released;
+    }
+
+    @Override
+    public InventoryItem setQuantities(Long productId, Long warehouseId, Integer totalQuantity, Integer reservedQuantity) {
+        requireJournal();
+        StockCell cell = require(productId, warehouseId);
+        Level level = cell.set(totalQuantity, reservedQuantity, sequence::incrementAndGet);
+        record(cell, level, syncWrites);
+        return toItem(cell, level);
+    }
+
+    @Override
+    public void register(InventoryItem item) {
+        if (!enabled) {
+            return;
+        }
+        StockKey key = new StockKey(item.getProductId(), item.getWarehouse().getId());
+        Level level = new Level(item.getTotalQuantity(), item.getReservedQuantity(),
+            item.getLedgerSeq() != null ? item.getLedgerSeq() : 0);
+        afterCommit(() -> cells.putIfAbsent(key, new StockCell(item.getId(), key, level)));
+    }
+
+    @Override
+    public InventoryItem move(Long itemId, Long fromProductId, Long fromWarehouseId, Long toProductId, Long toWarehouseId,
+                              Integer totalQuantity, Integer reservedQuantity) {
+        requireJournal();
+        StockCell from = require(fromProductId, fromWarehouseId);
+        StockKey to = new StockKey(toProductId, toWarehouseId);
+        afterCommit(() -> {
+            // Out of the map first, so the level read below includes every change the old cell took meanwhile
+            cells.remove(from.getKey(), from);
+            Level level = override(from.get(), totalQuantity, reservedQuantity, sequence.incrementAndGet());
+            StockCell moved = new StockCell(itemId, to, level);
+            cells.put(to, moved);
+            journalQuietly(moved, level);
+        });
+        Level current = from.get();
+        return toItem(new StockCell(itemId, to, current), override(current, totalQuantity, reservedQuantity, current.getSeq()));
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        if (enabled) {
+            afterCommit(() -> cells.values().removeIf(cell -> cell.getItemId() == itemId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock-ledger.persist-interval-ms:200}")
+    public void persist() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            // Rolling hands the closed segment's entries over first, so they are part of this batch;
+            // a failed journal cannot roll, but what it made durable is still written behind
+            List<Path> closed = journal.getFailure() == null ? journal.rollIfLargerThan(segmentBytes) : List.of();
+            persist(closed);
+        } catch (IOException | RuntimeException e) {
+            // Kept for the next run; the journal still holds everything
+            logger.warn("Writing stock levels behind failed: {}", e.getMessage());
+        }
+    }
+
+    private void persist(List<Path> closedSegments) throws IOException {
+        List<StockJournal.Entry> batch;
+        synchronized (unpersisted) {
+            batch = new ArrayList<>(unpersisted.values());
+            unpersisted.clear();
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            synchronized (unpersisted) {
+                for (StockJournal.Entry entry : batch) {
+                    merge(unpersisted, entry);
+                }
+            }
+            throw e;
+        }
+        persisted.increment(batch.size());
+        journal.delete(closedSegments);
+    }
+
+    // Idempotent: rows already at or past an entry's sequence are left alone
+    private void write(Collection<StockJournal.Entry> entries) {
+        List<StockJournal.Entry> all = new ArrayList<>(entries);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            List<StockJournal.Entry> batch = all.subList(from, Math.min(from + batchSize, all.size()));
+            Long[] productIds = new Long[batch.size()];
+            Long[] warehouseIds = new Long[batch.size()];
+            Integer[] totals = new Integer[batch.size()];
+            Integer[] reserved = new Integer[batch.size()];
+            Long[] seqs = new Long[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                StockJournal.Entry entry = batch.get(i);
+                productIds[i] = entry.getProductId();
+                warehouseIds[i] = entry.getWarehouseId();
+                totals[i] = entry.getTotal();
+                reserved[i] = entry.getReserved();
+                seqs[i] = entry.getSeq();
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(PERSIST_SQL);
+                ps.setTimestamp(1, now);
+                ps.setArray(2, connection.createArrayOf("bigint", productIds));
+                ps.setArray(3, connection.createArrayOf("bigint", warehouseIds));
+                ps.setArray(4, connection.createArrayOf("integer", totals));
+                ps.setArray(5, connection.createArrayOf("integer", reserved));
+                ps.setArray(6, connection.createArrayOf("bigint", seqs));
+                return ps;
+            });
+        }
+    }
+
+    // Returns the number of items whose reserved stock changed
+    private int reconcile(Collection<StockKey> keys) {
+        List<StockKey> all = new ArrayList<>(keys);
+        int reconciled = 0;
+        for (int from = 0; from < all.size(); from += batchSize) {
+            List<StockKey> batch = all.subList(from, Math.min(from + batchSize, all.size()));
+            Long[] productIds = new Long[batch.size()];
+            Long[] warehouseIds = new Long[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                productIds[i] = batch.get(i).getProductId();
+                warehouseIds[i] = batch.get(i).getWarehouseId();
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            reconciled += jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(RECONCILE_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", productIds));
+                ps.setArray(2, connection.createArrayOf("bigint", warehouseIds));
+                ps.setTimestamp(3, now);
+                return ps;
+            });
+        }
+        return reconciled;
+    }
+
+    // Keyset pages over the primary key
+    private long loadCells() {
+        long afterId = 0;
+        long total = 0;
+        while (true) {
+            long[] lastId = {afterId};
+            int[] rows = {0};
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                StockCell cell = cell(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getInt(5), rs.getLong(6));
+                cells.put(cell.getKey(), cell);
+                lastId[0] = cell.getItemId();
+                rows[0]++;
+            }, afterId, batchSize);
+            total += rows[0];
+            if (rows[0] < batchSize) {
+                return total;
+            }
+            afterId = lastId[0];
+        }
+    }
+
+    // Items created outside this service show up on first use
+    private StockCell find(Long productId, Long warehouseId) {
+        StockKey key = new StockKey(productId, warehouseId);
+        StockCell cell = cells.get(key);
+        if (cell != null) {
+            return cell;
+        }
+        List<StockCell> loaded = jdbcTemplate.query(LOAD_ITEM_SQL, (rs, rowNum) ->
+            cell(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getInt(5), rs.getLong(6)), productId, warehouseId);
+        return loaded.isEmpty() ? null : cells.computeIfAbsent(key, k -> loaded.get(0));
+    }
+
+    private StockCell require(Long productId, Long warehouseId) {
+        StockCell cell = find(productId, warehouseId);
+        if (cell == null) {
+            throw new NoSuchElementException("Inventory item not found for product " + productId + " in warehouse " + warehouseId);
+        }
+        return cell;
+    }
+
+    private void record(StockCell cell, Level level, boolean sync) {
+        long ticket = journal.append(entry(cell, level));
+        if (sync) {
+            awaitDurable(ticket);
+        }
+    }
+
+    // For levels already in the cell, such as undos and moves: the journal may have failed
+    // meanwhile, and changes are refused from then on anyway
+    private void journalQuietly(StockCell cell, Level level) {
+        try {
+            journal.append(entry(cell, level));
+        } catch (UncheckedIOException e) {
+            logger.warn("Level of item {} not journaled: {}", cell.getItemId(), e.getMessage());
+        }
+    }
+
+    private void requireJournal() {
+        IOException failure = journal.getFailure();
+        if (failure != null) {
+            throw new UncheckedIOException("Stock journal write failed; stock changes are refused until restart", failure);
+        }
+    }
+
+    private void awaitDurable(long ticket) {
+        try {
+            journal.awaitDurable(ticket, syncTimeoutMs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Called by the journal flusher once entries are on disk
+    private void durable(List<StockJournal.Entry> entries) {
+        synchronized (unpersisted) {
+            for (StockJournal.Entry entry : entries) {
+                merge(unpersisted, entry);
+            }
+        }
+    }
+
+    private int unpersistedCount() {
+        synchronized (unpersisted) {
+            return unpersisted.size();
+        }
+    }
+
+    private static void merge(Map<StockKey, StockJournal.Entry> latest, StockJournal.Entry entry) {
+        latest.merge(new StockKey(entry.getProductId(), entry.getWarehouseId()), entry,
+            (current, candidate) -> candidate.getSeq() > current.getSeq() ? candidate : current);
+    }
+
+    private static StockJournal.Entry entry(StockCell cell, Level level) {
+        return new StockJournal.Entry(level.getSeq(), cell.getKey().getProductId(), cell.getKey().getWarehouseId(),
+            level.getTotal(), level.getReserved());
+    }
+
+    private static Level override(Level level, Integer total, Integer reserved, long seq) {
+        return new Level(total != null ? total : level.getTotal(), reserved != null ? reserved : level.getReserved(), seq);
+    }
+
+    private static StockCell cell(long itemId, long productId, long warehouseId, int total, int reserved, long seq) {
+        return new StockCell(itemId, new StockKey(productId, warehouseId), new Level(total, reserved, seq));
+    }
+
+    private static InventoryItem toItem(StockCell cell, Level level) {
+        InventoryItem item = new InventoryItem();
+        item.setId(cell.getItemId());
+        item.setProductId(cell.getKey().getProductId());
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(cell.getKey().getWarehouseId());
+        item.setWarehouse(warehouse);
+        item.setTotalQuantity(level.getTotal());
+        item.setReservedQuantity(level.getReserved());
+        item.setLedgerSeq(level.getSeq());
+        item.updateStatus();
+        return item;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // False when there is no transaction to roll back
+    private static boolean onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+        return true;
+    }
+}
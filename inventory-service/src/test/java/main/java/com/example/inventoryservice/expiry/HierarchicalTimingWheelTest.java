@@ -0,0 +1,118 @@
+package test.java.main.java.com.example.inventoryservice.expiry;
+
+import main.java.main.java.com.example.inventoryservice.expiry.HierarchicalTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void advance_ReturnsKeysOnlyOnceTheirDeadlinePasses() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 2, 0);
+        wheel.schedule("soon", 3_000);
+        wheel.schedule("later", 70_000);
+        wheel.schedule("much-later", 5_000_000);
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(2_999));
+        assertEquals(List.of("soon"), wheel.advance(3_000));
+        assertEquals(List.of(), wheel.advance(69_999));
+        assertEquals(List.of("later"), wheel.advance(70_500));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("much-later"), wheel.advance(6_000_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_RemovesDeadline() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 6, 0);
+        wheel.schedule("a", 10_000);
+        wheel.schedule("b", 10_000);
+
+        // Act
+        boolean cancelled = wheel.cancel("a");
+
+        // Assert
+        assertTrue(cancelled);
+        assertFalse(wheel.cancel("a"));
+        assertEquals(List.of("b"), wheel.advance(10_000));
+    }
+
+    @Test
+    void schedule_SameKeyReplacesDeadline_PastDeadlineFiresNextTick() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 6, 50_000);
+        wheel.schedule("a", 100_000);
+        wheel.schedule("a", 60_000);
+        wheel.schedule("overdue", 1_000);
+
+        // Act & Assert
+        assertEquals(List.of("overdue"), wheel.advance(51_000));
+        assertEquals(List.of("a"), wheel.advance(60_000));
+        assertEquals(List.of(), wheel.advance(100_000));
+    }
+
+    @Test
+    void randomOperations_MatchBruteForceModel() {
+        // Fixed seeds so a failure reproduces; the bit widths cover one, several and few levels
+        for (long seed = 1; seed <= 8; seed++) {
+            runAgainstModel(new Random(seed), new int[] {1, 2, 3, 6}[(int) (seed % 4)]);
+        }
+    }
+
+    // The model keeps each key's deadline tick and answers every question by scanning all of them
+    private static void runAgainstModel(Random random, int bits) {
+        long tickMs = 10;
+        long nowMs = random.nextInt(1_000_000);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(tickMs, bits, nowMs);
+        Map<Integer, Long> model = new HashMap<>();
+        long modelTick = nowMs / tickMs;
+
+        for (int op = 0; op < 20_000; op++) {
+            int key = random.nextInt(500);
+            int choice = random.nextInt(10);
+            if (choice < 5) {
+                long deadlineMs = switch (random.nextInt(4)) {
+                    case 0 -> nowMs - random.nextInt(10_000);
+                    case 1 -> nowMs + random.nextInt(1_000);
+                    case 2 -> nowMs + random.nextInt(100_000);
+                    default -> nowMs + (random.nextLong() >>> 20);
+                };
+                wheel.schedule(key, deadlineMs);
+                model.put(key, Math.max(deadlineMs / tickMs, modelTick + 1));
+            } else if (choice < 7) {
+                assertEquals(model.remove(key) != null, wheel.cancel(key), "cancel " + key);
+            } else {
+                nowMs += random.nextInt(10) == 0 ? random.nextInt(50_000) : random.nextInt(2_000);
+                long targetTick = nowMs / tickMs;
+                List<Integer> expired = wheel.advance(nowMs);
+
+                List<Integer> expected = new ArrayList<>();
+                model.forEach((k, deadlineTick) -> {
+                    if (deadlineTick <= targetTick) {
+                        expected.add(k);
+                    }
+                });
+                assertEquals(new HashSet<>(expected), new HashSet<>(expired), "due at tick " + targetTick);
+                assertEquals(expected.size(), expired.size(), "no key handed out twice");
+                for (int i = 1; i < expired.size(); i++) {
+                    assertTrue(model.get(expired.get(i - 1)) <= model.get(expired.get(i)), "earliest tick first");
+                }
+                expired.forEach(model::remove);
+                modelTick = Math.max(modelTick, targetTick);
+            }
+            assertEquals(model.size(), wheel.size());
+            assertEquals(model.containsKey(key), wheel.contains(key));
+        }
+    }
+}
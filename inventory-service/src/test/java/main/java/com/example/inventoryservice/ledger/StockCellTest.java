@@ -0,0 +1,80 @@
+package test.java.main.java.com.example.inventoryservice.ledger;
+
+import main.java.main.java.com.example.inventoryservice.ledger.StockCell;
+import main.java.main.java.com.example.inventoryservice.ledger.StockCell.Level;
+import main.java.main.java.com.example.inventoryservice.ledger.StockKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockCellTest {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    void adjustReserved_RejectsChangesOutsideZeroAndTotal() {
+        // Arrange
+        StockCell cell = new StockCell(1L, new StockKey(100L, 1L), new Level(50, 10, 0));
+
+        // Act & Assert
+        assertNull(cell.adjustReserved(41, sequence::incrementAndGet));
+        assertNull(cell.adjustReserved(-11, sequence::incrementAndGet));
+        Level level = cell.adjustReserved(40, sequence::incrementAndGet);
+        assertEquals(50, level.getReserved());
+        assertEquals(0, level.getAvailable());
+        assertSame(level, cell.get());
+    }
+
+    @Test
+    void subtractReserved_StopsAtZero() {
+        // Arrange
+        StockCell cell = new StockCell(1L, new StockKey(100L, 1L), new Level(50, 10, 0));
+
+        // Act
+        Level level = cell.subtractReserved(15, sequence::incrementAndGet);
+
+        // Assert
+        assertEquals(0, level.getReserved());
+        assertEquals(50, level.getTotal());
+    }
+
+    @Test
+    void adjustReserved_ConcurrentReservationsNeverOversell() throws Exception {
+        // Arrange
+        StockCell cell = new StockCell(1L, new StockKey(100L, 1L), new Level(1000, 0, 0));
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                long lastSeq = 0;
+                for (int i = 0; i < 500; i++) {
+                    Level level = cell.adjustReserved(1, sequence::incrementAndGet);
+                    if (level != null) {
+                        granted.incrementAndGet();
+                        assertTrue(level.getSeq() > lastSeq);
+                        lastSeq = level.getSeq();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1000, granted.get());
+        assertEquals(1000, cell.get().getReserved());
+    }
+}
@@ -0,0 +1,98 @@
+package test.java.main.java.com.example.inventoryservice.ledger;
+
+import main.java.main.java.com.example.inventoryservice.ledger.StockJournal;
+import main.java.main.java.com.example.inventoryservice.ledger.StockJournal.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void awaitDurable_HandsEntriesOverOnceWritten() throws Exception {
+        // Arrange
+        List<Entry> durable = Collections.synchronizedList(new ArrayList<>());
+        StockJournal journal = new StockJournal(directory, 1, durable::addAll);
+        journal.start();
+
+        // Act
+        journal.append(new Entry(1, 100L, 1L, 50, 5));
+        long ticket = journal.append(new Entry(2, 100L, 1L, 50, 7));
+        journal.awaitDurable(ticket, 5000);
+        journal.close();
+
+        // Assert
+        assertEquals(2, durable.size());
+        List<Entry> replayed = StockJournal.readAll(directory);
+        assertEquals(2, replayed.size());
+        assertEquals(2, replayed.get(1).getSeq());
+        assertEquals(7, replayed.get(1).getReserved());
+    }
+
+    @Test
+    void readAll_StopsAtTornEntry() throws Exception {
+        // Arrange
+        StockJournal journal = new StockJournal(directory, 1, entries -> { });
+        journal.append(new Entry(1, 100L, 1L, 50, 5));
+        journal.append(new Entry(2, 100L, 1L, 50, 7));
+        List<Path> closed = journal.rollIfLargerThan(0);
+        journal.close();
+        Path segment = closed.get(0);
+        byte[] data = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(data, data.length - 3));
+
+        // Act
+        List<Entry> replayed = StockJournal.readAll(directory);
+
+        // Assert
+        assertEquals(1, replayed.size());
+        assertEquals(5, replayed.get(0).getReserved());
+    }
+
+    @Test
+    void delete_RemovesClosedSegmentsOnly() throws Exception {
+        // Arrange
+        StockJournal journal = new StockJournal(directory, 1, entries -> { });
+        journal.append(new Entry(1, 100L, 1L, 50, 5));
+        List<Path> closed = journal.rollIfLargerThan(0);
+        journal.append(new Entry(2, 100L, 1L, 50, 7));
+
+        // Act
+        journal.delete(closed);
+        journal.close();
+
+        // Assert
+        List<Entry> replayed = StockJournal.readAll(directory);
+        assertEquals(1, replayed.size());
+        assertEquals(2, replayed.get(0).getSeq());
+    }
+
+    @Test
+    void append_AfterFailedWrite_Refused() throws Exception {
+        // Arrange: the segment is closed underneath the flusher, so its next write fails
+        StockJournal journal = new StockJournal(directory, 1, entries -> { });
+        journal.start();
+        ((FileChannel) ReflectionTestUtils.getField(journal, "segment")).close();
+        long ticket = journal.append(new Entry(1, 100L, 1L, 50, 5));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> journal.awaitDurable(ticket, 5000));
+        assertNotNull(journal.getFailure());
+        assertThrows(UncheckedIOException.class, () -> journal.append(new Entry(2, 100L, 1L, 50, 7)));
+    }
+}
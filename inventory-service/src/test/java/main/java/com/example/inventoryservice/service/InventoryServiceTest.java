@@ -5,6 +5,7 @@ import main.java.main.java.com.example.inventoryservice.model.Warehouse;
 import main.java.main.java.com.example.inventoryservice.model.InventoryItem.InventoryStatus;
 import main.java.main.java.com.example.inventoryservice.repository.InventoryItemRepository;
 import main.java.main.java.com.example.inventoryservice.repository.WarehouseRepository;
+import main.java.main.java.com.example.inventoryservice.service.StockLedgerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +18,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +34,9 @@ class InventoryServiceTest {
     @Mock
     private WarehouseRepository warehouseRepository;
 
+    @Mock
+    private StockLedgerService stockLedgerService;
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -121,6 +126,33 @@ class InventoryServiceTest {
         verify(inventoryItemRepository).save(any(InventoryItem.class));
     }
 
+    @Test
+    void updateInventoryItem_LedgerEnabled_MoveKeepsLedgerLevel() {
+        // Arrange: the row still says 10 reserved, the cell already holds 12
+        Warehouse target = new Warehouse();
+        target.setId(2L);
+        InventoryItem ledgerLevel = new InventoryItem();
+        ledgerLevel.setTotalQuantity(50);
+        ledgerLevel.setReservedQuantity(12);
+        when(inventoryItemRepository.findById(1L)).thenReturn(Optional.of(inventoryItem));
+        when(warehouseRepository.findById(2L)).thenReturn(Optional.of(target));
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.move(1L, 100L, 1L, 100L, 2L, null, null)).thenReturn(ledgerLevel);
+        when(inventoryItemRepository.save(any(InventoryItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        InventoryItem updateDetails = new InventoryItem();
+        updateDetails.setWarehouse(target);
+
+        // Act
+        InventoryItem result = inventoryService.updateInventoryItem(1L, updateDetails);
+
+        // Assert
+        assertEquals(2L, result.getWarehouse().getId());
+        assertEquals(12, result.getReservedQuantity());
+        verify(stockLedgerService, never()).remove(any());
+        verify(stockLedgerService, never()).register(any());
+    }
+
     @Test
     void updateInventoryItem_NotFound_ThrowsException() {
         // Arrange
@@ -175,9 +207,8 @@ class InventoryServiceTest {
     @Test
     void adjustReservedQuantity_Success() {
         // Arrange
-        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
-        when(inventoryItemRepository.save(any(InventoryItem.class))).thenReturn(inventoryItem);
+        inventoryItem.setReservedQuantity(15);
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, 5)).thenReturn(Optional.of(inventoryItem));
 
         // Act
         InventoryItem result = inventoryService.adjustReservedQuantity(100L, warehouse, 5);
@@ -186,28 +217,29 @@ class InventoryServiceTest {
         assertNotNull(result);
         assertEquals(15, result.getReservedQuantity());
         assertEquals(35, result.getAvailableQuantity());
-        verify(inventoryItemRepository).save(argThat(item -> item.getReservedQuantity() == 15));
+        verify(inventoryItemRepository, never()).findByProductIdAndWarehouseId(any(), any());
+        verify(inventoryItemRepository, never()).save(any());
     }
 
     @Test
     void adjustReservedQuantity_InsufficientStock_ThrowsException() {
         // Arrange
-        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
-        
         inventoryItem.setReservedQuantity(40);
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, 50)).thenReturn(Optional.empty());
+        when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             inventoryService.adjustReservedQuantity(100L, warehouse, 50);
         });
+        assertTrue(exception.getMessage().contains("Available: 10"));
         verify(inventoryItemRepository, never()).save(any());
     }
 
     @Test
     void adjustReservedQuantity_NegativeQuantity_ThrowsException() {
         // Arrange
-        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, -15)).thenReturn(Optional.empty());
         when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
 
         // Act & Assert
@@ -217,6 +249,33 @@ class InventoryServiceTest {
         verify(inventoryItemRepository, never()).save(any());
     }
 
+    @Test
+    void adjustReservedQuantity_ItemNotFound_ThrowsException() {
+        // Arrange
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, 5)).thenReturn(Optional.empty());
+        when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> {
+            inventoryService.adjustReservedQuantity(100L, warehouse, 5);
+        });
+    }
+
+    @Test
+    void adjustReservedQuantity_LedgerEnabled_ReservesFromCell() {
+        // Arrange
+        inventoryItem.setReservedQuantity(15);
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.adjustReservedQuantity(100L, 1L, 5)).thenReturn(Optional.of(inventoryItem));
+
+        // Act
+        InventoryItem result = inventoryService.adjustReservedQuantity(100L, warehouse, 5);
+
+        // Assert
+        assertEquals(15, result.getReservedQuantity());
+        verifyNoInteractions(inventoryItemRepository);
+    }
+
     @Test
     void getInventoryByProductId_Success() {
         // Arrange
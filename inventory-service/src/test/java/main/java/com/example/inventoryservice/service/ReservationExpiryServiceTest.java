@@ -0,0 +1,153 @@
+package test.java.main.java.com.example.inventoryservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.inventoryservice.expiry.HierarchicalTimingWheel;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import main.java.main.java.com.example.inventoryservice.service.ReservationExpiryService;
+import main.java.main.java.com.example.inventoryservice.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<ReservationService> reservationServiceProvider;
+
+    @Mock
+    private ReservationService reservationService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservationExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiryService = new ReservationExpiryService();
+        ReflectionTestUtils.setField(expiryService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(expiryService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(expiryService, "reservationService", reservationServiceProvider);
+        ReflectionTestUtils.setField(expiryService, "tickMs", 1000L);
+        ReflectionTestUtils.setField(expiryService, "wheelBits", 6);
+        ReflectionTestUtils.setField(expiryService, "batchSize", 2);
+        ReflectionTestUtils.invokeMethod(expiryService, "init");
+    }
+
+    @Test
+    void sweep_FirstRun_LoadsScheduleInKeysetPagesOnce() {
+        // Arrange: a full page of two, then a short page
+        long later = System.currentTimeMillis() + 3_600_000;
+        doAnswer(invocation -> rows(invocation.getArgument(1), "r1", later, "r2", later))
+            .when(jdbcTemplate).query(startsWith("SELECT reservation_id, expires_at"), any(RowCallbackHandler.class), eq(""), eq(2));
+        doAnswer(invocation -> rows(invocation.getArgument(1), "r3", later))
+            .when(jdbcTemplate).query(startsWith("SELECT reservation_id, expires_at"), any(RowCallbackHandler.class), eq("r2"), eq(2));
+        when(jdbcTemplate.queryForList(startsWith("SELECT reservation_id FROM"), eq(String.class), any(Timestamp.class), eq(2)))
+            .thenReturn(List.of());
+
+        // Act
+        expiryService.sweep();
+        expiryService.sweep();
+
+        // Assert
+        assertEquals(3.0, meterRegistry.get("inventory.reservations.scheduled").gauge().value());
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT reservation_id, expires_at"),
+            any(RowCallbackHandler.class), any(), any());
+        verify(jdbcTemplate, times(2)).queryForList(startsWith("SELECT reservation_id FROM"), eq(String.class), any(Timestamp.class), eq(2));
+        verifyNoInteractions(reservationServiceProvider);
+    }
+
+    @Test
+    void sweep_LoadFails_RetriedOnNextSweep() {
+        // Arrange
+        doThrow(new QueryTimeoutException("timeout")).doNothing()
+            .when(jdbcTemplate).query(startsWith("SELECT reservation_id, expires_at"), any(RowCallbackHandler.class), eq(""), eq(2));
+        when(jdbcTemplate.queryForList(startsWith("SELECT reservation_id FROM"), eq(String.class), any(Timestamp.class), eq(2)))
+            .thenReturn(List.of());
+
+        // Act
+        expiryService.sweep();
+        expiryService.sweep();
+
+        // Assert: the failed load skipped the due query, the second sweep loaded and then swept
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT reservation_id, expires_at"),
+            any(RowCallbackHandler.class), eq(""), eq(2));
+        verify(jdbcTemplate, times(1)).queryForList(startsWith("SELECT reservation_id FROM"), eq(String.class), any(Timestamp.class), eq(2));
+    }
+
+    @Test
+    void sweep_OverdueRows_ExpiredInBatchesUntilShortBatch() {
+        // Arrange
+        ReflectionTestUtils.setField(expiryService, "loaded", true);
+        when(jdbcTemplate.queryForList(startsWith("SELECT reservation_id FROM"), eq(String.class), any(Timestamp.class), eq(2)))
+            .thenReturn(List.of("a", "b"), List.of("c"));
+        when(reservationServiceProvider.getObject()).thenReturn(reservationService);
+        when(reservationService.expire(List.of("a", "b"))).thenReturn(List.of(new Reservation(), new Reservation()));
+        when(reservationService.expire(List.of("c"))).thenReturn(List.of());
+
+        // Act
+        expiryService.sweep();
+
+        // Assert: "c" was released elsewhere in the meantime, so only two count
+        assertEquals(2.0, meterRegistry.get("inventory.reservations.expired").counter().count());
+        verify(reservationService).expire(List.of("a", "b"));
+        verify(reservationService).expire(List.of("c"));
+    }
+
+    @Test
+    void expireDue_BatchFails_RetriedOnNextTick() {
+        // Arrange: a wheel whose clock stands two hours back, so deadlines an hour ago are due on the first tick
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 6, System.currentTimeMillis() - 7_200_000);
+        ReflectionTestUtils.setField(expiryService, "wheel", wheel);
+        LocalDateTime past = LocalDateTime.now().minusHours(1);
+        expiryService.schedule("r1", past);
+        expiryService.schedule("r2", past);
+        expiryService.schedule("r3", past);
+        when(reservationServiceProvider.getObject()).thenReturn(reservationService);
+        when(reservationService.expire(anyCollection()))
+            .thenThrow(new QueryTimeoutException("timeout"))
+            .thenReturn(List.of(new Reservation(), new Reservation()), List.of(new Reservation()));
+
+        // Act
+        expiryService.expireDue();
+        expiryService.expireDue();
+
+        // Assert: the failed tick stopped after its first batch; the next one expired all three
+        verify(reservationService, times(3)).expire(anyCollection());
+        assertEquals(3.0, meterRegistry.get("inventory.reservations.expired").counter().count());
+        assertEquals(0, wheel.size());
+        expiryService.expireDue();
+        verifyNoMoreInteractions(reservationService);
+    }
+
+    // Feeds (reservation_id, expires_at) pairs to the row callback like a result set would
+    private static Object rows(RowCallbackHandler handler, Object... pairs) throws SQLException {
+        for (int i = 0; i < pairs.length; i += 2) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString(1)).thenReturn((String) pairs[i]);
+            when(rs.getTimestamp(2)).thenReturn(new Timestamp((Long) pairs[i + 1]));
+            handler.processRow(rs);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,216 @@
+package test.java.main.java.com.example.inventoryservice.service;
+
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Reservation;
+import main.java.main.java.com.example.inventoryservice.model.Reservation.ReservationState;
+import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+import main.java.main.java.com.example.inventoryservice.repository.InventoryItemRepository;
+import main.java.main.java.com.example.inventoryservice.service.InventoryEventService;
+import main.java.main.java.com.example.inventoryservice.service.InventoryService;
+import main.java.main.java.com.example.inventoryservice.service.ReservationExpiryService;
+import main.java.main.java.com.example.inventoryservice.service.ReservationServiceImpl;
+import main.java.main.java.com.example.inventoryservice.service.StockLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Mock
+    private ObjectProvider<InventoryEventService> eventService;
+
+    @Mock
+    private InventoryEventService inventoryEventService;
+
+    @InjectMocks
+    private ReservationServiceImpl reservationService;
+
+    private Warehouse warehouse;
+    private InventoryItem inventoryItem;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = new Warehouse();
+        warehouse.setId(1L);
+
+        inventoryItem = new InventoryItem();
+        inventoryItem.setId(1L);
+        inventoryItem.setProductId(100L);
+        inventoryItem.setWarehouse(warehouse);
+        inventoryItem.setTotalQuantity(50);
+        inventoryItem.setReservedQuantity(15);
+    }
+
+    @Test
+    void reserve_RecordsLedgerEntry() {
+        // Arrange
+        when(inventoryService.adjustReservedQuantity(100L, warehouse, 5)).thenReturn(inventoryItem);
+        when(eventService.getObject()).thenReturn(inventoryEventService);
+
+        // Act
+        Reservation reservation = reservationService.reserve(100L, warehouse, 5, "order-1", null);
+
+        // Assert
+        assertNotNull(reservation.getReservationId());
+        assertEquals("order-1", reservation.getOrderId());
+        assertEquals(5, reservation.getQuantity());
+        assertEquals(ReservationState.HELD, reservation.getState());
+        verify(jdbcTemplate).update(startsWith("INSERT INTO reservations"), any(Object[].class));
+        verify(inventoryEventService).publishStockChangedEvent(inventoryItem, "RESERVE", "10", "15");
+        verifyNoInteractions(reservationExpiryService);
+    }
+
+    @Test
+    void reserve_WithExpiry_SchedulesDeadline() {
+        // Arrange
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(30);
+        when(inventoryService.adjustReservedQuantity(100L, warehouse, 5)).thenReturn(inventoryItem);
+        when(eventService.getObject()).thenReturn(inventoryEventService);
+
+        // Act
+        Reservation reservation = reservationService.reserve(100L, warehouse, 5, "order-1", expiresAt);
+
+        // Assert
+        assertEquals(expiresAt, reservation.getExpiresAt());
+        verify(reservationExpiryService).schedule(reservation.getReservationId(), expiresAt);
+    }
+
+    @Test
+    void reserve_NonPositiveQuantity_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            reservationService.reserve(100L, warehouse, 0, "order-1", null);
+        });
+        verify(inventoryService, never()).adjustReservedQuantity(any(), any(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void release_HeldReservation_ReleasesExactQuantity() {
+        // Arrange
+        Reservation held = reservation("r-1", 7);
+        when(jdbcTemplate.query(startsWith("UPDATE reservations"), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(List.of(held));
+        inventoryItem.setReservedQuantity(8);
+        when(inventoryItemRepository.releaseReservedQuantities(List.of(held))).thenReturn(List.of(inventoryItem));
+        when(eventService.getObject()).thenReturn(inventoryEventService);
+
+        // Act
+        Optional<Reservation> released = reservationService.release("r-1");
+
+        // Assert
+        assertTrue(released.isPresent());
+        assertEquals(7, released.get().getQuantity());
+        verify(inventoryItemRepository).releaseReservedQuantities(List.of(held));
+        verify(inventoryEventService).publishStockChangedEvent(inventoryItem, "RELEASE", "15", "8");
+        verify(reservationExpiryService).cancel("r-1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void release_AlreadyReleased_FreesNothing() {
+        // Arrange
+        when(jdbcTemplate.query(startsWith("UPDATE reservations"), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(List.of());
+
+        // Act
+        Optional<Reservation> released = reservationService.release("r-1");
+
+        // Assert
+        assertTrue(released.isEmpty());
+        verify(inventoryItemRepository, never()).releaseReservedQuantities(any());
+        verifyNoInteractions(eventService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseOrder_ReleasesEveryHeldReservationOfTheOrder() {
+        // Arrange
+        List<Reservation> held = List.of(reservation("r-1", 2), reservation("r-2", 3));
+        when(jdbcTemplate.query(startsWith("UPDATE reservations"), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(held);
+        when(inventoryItemRepository.releaseReservedQuantities(held)).thenReturn(List.of());
+
+        // Act
+        List<Reservation> released = reservationService.releaseOrder("order-1");
+
+        // Assert
+        assertEquals(2, released.size());
+        verify(inventoryItemRepository).releaseReservedQuantities(held);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseOrder_LedgerEnabled_ReleasesFromCells() {
+        // Arrange
+        List<Reservation> held = List.of(reservation("r-1", 2), reservation("r-2", 3));
+        when(jdbcTemplate.query(startsWith("UPDATE reservations"), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(held);
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.releaseReservedQuantities(held)).thenReturn(List.of(inventoryItem));
+        when(eventService.getObject()).thenReturn(inventoryEventService);
+
+        // Act
+        List<Reservation> released = reservationService.releaseOrder("order-1");
+
+        // Assert
+        assertEquals(2, released.size());
+        verify(inventoryItemRepository, never()).releaseReservedQuantities(any());
+        verify(inventoryEventService).publishStockChangedEvent(inventoryItem, "RELEASE", "20", "15");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expire_ReleasesDueReservationsInOneBatch() {
+        // Arrange
+        List<Reservation> due = List.of(reservation("r-1", 2), reservation("r-2", 3));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(due);
+        when(inventoryItemRepository.releaseReservedQuantities(due)).thenReturn(List.of(inventoryItem));
+        when(eventService.getObject()).thenReturn(inventoryEventService);
+
+        // Act
+        List<Reservation> expired = reservationService.expire(List.of("r-1", "r-2", "r-3"));
+
+        // Assert
+        assertEquals(2, expired.size());
+        verify(inventoryItemRepository).releaseReservedQuantities(due);
+        verify(inventoryEventService).publishStockChangedEvent(inventoryItem, "EXPIRE", "20", "15");
+    }
+
+    private static Reservation reservation(String reservationId, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        return new Reservation(reservationId, "order-1", 100L, 1L, quantity, ReservationState.HELD, null, now, now);
+    }
+}
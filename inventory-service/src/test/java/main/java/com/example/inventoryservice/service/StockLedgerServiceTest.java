@@ -0,0 +1,210 @@
+package test.java.main.java.com.example.inventoryservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.inventoryservice.ledger.StockJournal;
+import main.java.main.java.com.example.inventoryservice.ledger.StockJournal.Entry;
+import main.java.main.java.com.example.inventoryservice.model.InventoryItem;
+import main.java.main.java.com.example.inventoryservice.model.Warehouse;
+import main.java.main.java.com.example.inventoryservice.service.StockLedgerServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockLedgerServiceImpl ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledgerService = new StockLedgerServiceImpl();
+        ReflectionTestUtils.setField(ledgerService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(ledgerService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(ledgerService, "enabled", true);
+        ReflectionTestUtils.setField(ledgerService, "journalDir", directory.toString());
+        ReflectionTestUtils.setField(ledgerService, "flushIntervalMs", 1L);
+        ReflectionTestUtils.setField(ledgerService, "syncWrites", true);
+        ReflectionTestUtils.setField(ledgerService, "syncTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(ledgerService, "segmentBytes", 67_108_864L);
+        ReflectionTestUtils.setField(ledgerService, "batchSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(ledgerService, "shutdown");
+    }
+
+    @Test
+    void init_Replay_WritesHighestSequencePerItemAndRecountsReserved() throws Exception {
+        // Arrange: a crash left three levels of item 100 and one of item 200
+        journal(new Entry(1, 100L, 1L, 50, 5), new Entry(3, 100L, 1L, 50, 9), new Entry(2, 100L, 1L, 50, 7),
+            new Entry(4, 200L, 1L, 20, 2));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE(MAX(ledger_seq)"), eq(Long.class))).thenReturn(4L);
+
+        // Act
+        init();
+
+        // Assert: one write of the latest levels, then the recount over the same items
+        ArgumentCaptor<PreparedStatementCreator> statements = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(2)).update(statements.capture());
+        List<Object> write = bind(statements.getAllValues().get(0));
+        assertTrue(((String) write.get(0)).startsWith("UPDATE inventory_items"));
+        Long[] productIds = (Long[]) write.get(1);
+        Integer[] reserved = (Integer[]) write.get(4);
+        Long[] seqs = (Long[]) write.get(5);
+        assertEquals(2, productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            assertEquals(productIds[i] == 100L ? 3L : 4L, seqs[i]);
+            assertEquals(productIds[i] == 100L ? 9 : 2, reserved[i]);
+        }
+        List<Object> recount = bind(statements.getAllValues().get(1));
+        assertTrue(((String) recount.get(0)).contains("r.state = 'HELD'"));
+        assertEquals(2, ((Long[]) recount.get(1)).length);
+        assertEquals(1, segmentCount(), "only the new journal's own segment is left");
+    }
+
+    @Test
+    void init_ReplayWriteFails_JournalKeptForNextStart() throws Exception {
+        // Arrange
+        journal(new Entry(1, 100L, 1L, 50, 5), new Entry(2, 100L, 1L, 50, 7));
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act & Assert: the write is guarded by ledger_seq, so the next start can replay all of it again
+        assertThrows(QueryTimeoutException.class, this::init);
+        List<Entry> remaining = StockJournal.readAll(directory);
+        assertEquals(2, remaining.size());
+        assertEquals(7, remaining.get(1).getReserved());
+    }
+
+    @Test
+    void adjustReservedQuantity_RolledBack_CellRestored() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE(MAX(ledger_seq)"), eq(Long.class))).thenReturn(0L);
+        init();
+        ledgerService.register(item(100L, 50, 10));
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(15, ledgerService.adjustReservedQuantity(100L, 1L, 5).orElseThrow().getReservedQuantity());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(10, ledgerService.getStock(100L, 1L).orElseThrow().getReservedQuantity());
+    }
+
+    @Test
+    void persist_WriteFails_BatchAndClosedSegmentsKeptForNextRun() throws Exception {
+        // Arrange: a one-byte limit, so the first persist rolls the segment the change went to
+        ReflectionTestUtils.setField(ledgerService, "segmentBytes", 1L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE(MAX(ledger_seq)"), eq(Long.class))).thenReturn(0L);
+        init();
+        ledgerService.register(item(100L, 50, 10));
+        ledgerService.adjustReservedQuantity(100L, 1L, 5);
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class)))
+            .thenThrow(new QueryTimeoutException("timeout"))
+            .thenReturn(1);
+
+        // Act
+        ledgerService.persist();
+        int segmentsAfterFailure = segmentCount();
+        double unpersistedAfterFailure = meterRegistry.get("inventory.ledger.unpersisted").gauge().value();
+        ledgerService.persist();
+
+        // Assert: the second run wrote the same level and only then deleted the closed segment
+        assertEquals(2, segmentsAfterFailure);
+        assertEquals(1.0, unpersistedAfterFailure);
+        assertEquals(1, segmentCount());
+        assertEquals(0.0, meterRegistry.get("inventory.ledger.unpersisted").gauge().value());
+        assertEquals(1.0, meterRegistry.get("inventory.ledger.persisted").counter().count());
+        ArgumentCaptor<PreparedStatementCreator> statements = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(2)).update(statements.capture());
+        for (PreparedStatementCreator statement : statements.getAllValues()) {
+            assertArrayEquals(new Integer[] {15}, (Integer[]) bind(statement).get(4));
+        }
+    }
+
+    private void init() {
+        ReflectionTestUtils.invokeMethod(ledgerService, "init");
+    }
+
+    private void journal(Entry... entries) throws IOException {
+        StockJournal journal = new StockJournal(directory, 1, batch -> { });
+        for (Entry entry : entries) {
+            journal.append(entry);
+        }
+        journal.close();
+    }
+
+    private int segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.count();
+        }
+    }
+
+    private static InventoryItem item(Long productId, int total, int reserved) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1L);
+        InventoryItem item = new InventoryItem();
+        item.setId(1L);
+        item.setProductId(productId);
+        item.setWarehouse(warehouse);
+        item.setTotalQuantity(total);
+        item.setReservedQuantity(reserved);
+        return item;
+    }
+
+    // Runs a captured statement against a mock connection; returns its SQL followed by the arrays it bound
+    private static List<Object> bind(PreparedStatementCreator creator) throws SQLException {
+        List<Object> bound = new ArrayList<>();
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            bound.add(invocation.getArgument(0));
+            return mock(PreparedStatement.class);
+        });
+        when(connection.createArrayOf(anyString(), any())).thenAnswer(invocation -> {
+            bound.add(invocation.getArgument(1));
+            return null;
+        });
+        creator.createPreparedStatement(connection);
+        return bound;
+    }
+}
@@ -5,6 +5,7 @@ import main.java.main.java.com.example.inventoryservice.model.Warehouse;
 import main.java.main.java.com.example.inventoryservice.model.InventoryItem.InventoryStatus;
 import main.java.main.java.com.example.inventoryservice.repository.InventoryItemRepository;
 import main.java.main.java.com.example.inventoryservice.repository.WarehouseRepository;
+import main.java.main.java.com.example.inventoryservice.service.StockLedgerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +35,9 @@ class InventoryServiceTest {
     @Mock
     private WarehouseRepository warehouseRepository;
 
+    @Mock
+    private StockLedgerService stockLedgerService;
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -176,49 +181,75 @@ class InventoryServiceTest {
     @Test
     void adjustReservedQuantity_Success() {
         // Arrange
-        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
-        when(inventoryItemRepository.save(any(InventoryItem.class))).thenReturn(inventoryItem);
+        inventoryItem.setReservedQuantity(15);
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, 5)).thenReturn(Optional.of(inventoryItem));
 
         // Act
         InventoryItem result = inventoryService.adjustReservedQuantity(100L, warehouse, 5);
 
         // Assert
         assertNotNull(result);
-        assertEquals(15, result.getReservedQuantity()); // 10 + 5
-        assertEquals(35, result.getAvailableQuantity()); // 50 - 15
-        verify(inventoryItemRepository).save(argThat(item -> item.getReservedQuantity() == 15));
+        assertEquals(15, result.getReservedQuantity());
+        assertEquals(35, result.getAvailableQuantity());
+        verify(inventoryItemRepository, never()).findByProductIdAndWarehouseId(any(), any());
+        verify(inventoryItemRepository, never()).save(any());
     }
 
     @Test
     void adjustReservedQuantity_InsufficientStock_ThrowsException() {
         // Arrange
-        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
+        inventoryItem.setReservedQuantity(40);
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, 50)).thenReturn(Optional.empty());
         when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
-        
-        // Try to reserve more than available (available = 40, try to reserve 50)
-        inventoryItem.setReservedQuantity(40); // Make available = 10
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             inventoryService.adjustReservedQuantity(100L, warehouse, 50);
         });
+        assertTrue(exception.getMessage().contains("Available: 10"));
         verify(inventoryItemRepository, never()).save(any());
     }
 
     @Test
     void adjustReservedQuantity_NegativeQuantity_ThrowsException() {
         // Arrange
-        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, -15)).thenReturn(Optional.empty());
         when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.of(inventoryItem));
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> {
-            inventoryService.adjustReservedQuantity(100L, warehouse, -15); // Would make reserved = -5
+            inventoryService.adjustReservedQuantity(100L, warehouse, -15);
         });
         verify(inventoryItemRepository, never()).save(any());
     }
 
+    @Test
+    void adjustReservedQuantity_ItemNotFound_ThrowsException() {
+        // Arrange
+        when(inventoryItemRepository.adjustReservedQuantity(100L, 1L, 5)).thenReturn(Optional.empty());
+        when(inventoryItemRepository.findByProductIdAndWarehouseId(100L, warehouse)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> {
+            inventoryService.adjustReservedQuantity(100L, warehouse, 5);
+        });
+    }
+
+    @Test
+    void adjustReservedQuantity_LedgerEnabled_ReservesFromCell() {
+        // Arrange
+        inventoryItem.setReservedQuantity(15);
+        when(stockLedgerService.isEnabled()).thenReturn(true);
+        when(stockLedgerService.adjustReservedQuantity(100L, 1L, 5)).thenReturn(Optional.of(inventoryItem));
+
+        // Act
+        InventoryItem result = inventoryService.adjustReservedQuantity(100L, warehouse, 5);
+
+        // Assert
+        assertEquals(15, result.getReservedQuantity());
+        verifyNoInteractions(inventoryItemRepository);
+    }
+
     @Test
     void getInventoryByProductId_Success() {
         // Arrange
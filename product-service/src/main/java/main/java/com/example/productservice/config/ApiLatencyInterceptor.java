@@ -0,0 +1,112 @@
+package main.java.main.java.com.example.productservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms per endpoint, tagged with the filter shape: which filter parameters were
+ * present, e.g. "category_id+max_price". Search and filter latency depends far more on the shape
+ * than on the values, and the shape is bounded by the known parameter names, so the tag stays
+ * low-cardinality. Pagination parameters are left out of the shape on purpose.
+ */
+public class ApiLatencyInterceptor implements HandlerInterceptor {
+
+    // Parameters that change the query plan, in the order they appear in the shape tag
+    static final List<String> SHAPE_PARAMETERS = List.of(
+        "q", "name", "description", "sku", "tags",
+        "min_price", "max_price", "category_id", "category_name", "status",
+        "in_stock", "min_stock", "max_stock",
+        "created_after", "created_before", "updated_after", "updated_before",
+        "metadata_field", "metadata_value", "include_availability", "sort_by", "since", "fields");
+
+    private static final String START_ATTRIBUTE = ApiLatencyInterceptor.class.getName() + ".start";
+    private static final String OTHER_SHAPE = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxShapesPerEndpoint;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> shapesByEndpoint = new ConcurrentHashMap<>();
+
+    public ApiLatencyInterceptor(MeterRegistry meterRegistry, int maxShapesPerEndpoint) {
+        this.meterRegistry = meterRegistry;
+        this.maxShapesPerEndpoint = maxShapesPerEndpoint;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches (the NDJSON export) pass through again; keep the original start
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(start instanceof Long startNanos)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : "UNMAPPED";
+        String method = request.getMethod();
+        String shape = admitShape(method + ' ' + endpoint, shape(request));
+        String status = Integer.toString(response.getStatus());
+
+        Timer timer = timers.computeIfAbsent(method + ' ' + endpoint + ' ' + shape + ' ' + status,
+            key -> register(method, endpoint, shape, status));
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String shape(HttpServletRequest request) {
+        StringBuilder shape = null;
+        for (String parameter : SHAPE_PARAMETERS) {
+            String value = request.getParameter(parameter);
+            if (value != null && !value.isBlank()) {
+                if (shape == null) {
+                    shape = new StringBuilder(parameter);
+                } else {
+                    shape.append('+').append(parameter);
+                }
+            }
+        }
+        return shape == null ? "none" : shape.toString();
+    }
+
+    // Once an endpoint has used up its shape budget, new shapes share the "other" timer
+    private String admitShape(String endpointKey, String shape) {
+        Set<String> shapes = shapesByEndpoint.computeIfAbsent(endpointKey, key -> ConcurrentHashMap.newKeySet());
+        if (shapes.contains(shape)) {
+            return shape;
+        }
+        if (shapes.size() >= maxShapesPerEndpoint) {
+            return OTHER_SHAPE;
+        }
+        shapes.add(shape);
+        return shape;
+    }
+
+    private Timer register(String method, String endpoint, String shape, String status) {
+        return Timer.builder("product.api.latency")
+            .description("Latency of product API endpoints by filter shape")
+            .tag("method", method)
+            .tag("endpoint", endpoint)
+            .tag("shape", shape)
+            .tag("status", status)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(meterRegistry);
+    }
+}
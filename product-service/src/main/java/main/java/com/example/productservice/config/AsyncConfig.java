@@ -1,17 +1,54 @@
 package main.java.main.java.com.example.productservice.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    // Same switch Boot uses to put Tomcat request handling on virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${product.async.virtual-concurrency-limit:1000}")
+    private int virtualConcurrencyLimit;
+
+    // Kept below the Hikari pool size so count queries can never hold every connection
+    @Value("${product.paging.parallel-count.threads:8}")
+    private int pageCountThreads;
+
+    @Value("${spring.task.scheduling.pool.size:4}")
+    private int schedulingThreads;
+
+    @Value("${product.reload.threads:2}")
+    private int reloadThreads;
+
     @org.springframework.context.annotation.Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            if (Runtime.version().feature() >= 21) {
+                // One virtual thread per task; past the limit submitters wait instead of being rejected
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ProductService-Async-");
+                executor.setVirtualThreads(true);
+                executor.setConcurrencyLimit(virtualConcurrencyLimit);
+                return executor;
+            }
+            logger.warn("spring.threads.virtual.enabled requires Java 21, running on {}; using platform threads",
+                Runtime.version().feature());
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(10);
@@ -20,4 +57,33 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    @org.springframework.context.annotation.Bean(name = "pageCountExecutor")
+    public Executor pageCountExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pageCountThreads);
+        executor.setMaxPoolSize(pageCountThreads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("ProductService-Count-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Declared here because a second scheduler bean makes Boot's default one back off
+    @org.springframework.context.annotation.Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulingThreads);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+
+    // Index and dictionary builds take seconds to minutes at startup; on their own threads the drains and flushes keep their interval
+    @org.springframework.context.annotation.Bean(name = "reloadScheduler")
+    public ThreadPoolTaskScheduler reloadScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(reloadThreads);
+        scheduler.setThreadNamePrefix("ProductService-Reload-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,51 @@
+package main.java.main.java.com.example.productservice.config;
+
+import main.java.main.java.com.example.productservice.service.CacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Selects the transport for cross-replica cache invalidation, see product.cache.invalidation.*
+ * in application.yml. "postgres" uses LISTEN/NOTIFY on the primary; "local" only reaches this
+ * replica and suits single-instance deployments and tests.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.cache.invalidation", name = "bus", havingValue = "postgres", matchIfMissing = true)
+    public CacheInvalidationBus postgresCacheInvalidationBus(JdbcTemplate jdbcTemplate, Environment environment) {
+        // The primary's URL: replicas cannot LISTEN or NOTIFY
+        return new PostgresCacheInvalidationBus(jdbcTemplate,
+            environment.getRequiredProperty("spring.datasource.url"),
+            environment.getProperty("spring.datasource.username"),
+            environment.getProperty("spring.datasource.password"),
+            environment.getProperty("product.cache.invalidation.channel", "product_cache_invalidation"),
+            environment.getProperty("product.cache.invalidation.poll-timeout-ms", Integer.class, 500),
+            environment.getProperty("product.cache.invalidation.reconnect-delay-ms", Long.class, 5000L));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.cache.invalidation", name = "bus", havingValue = "local")
+    public CacheInvalidationBus localCacheInvalidationBus() {
+        return new CacheInvalidationBus() {
+            private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+            @Override
+            public void publish(String message) {
+                listeners.forEach(listener -> listener.onMessage(message));
+            }
+
+            @Override
+            public void subscribe(Listener listener) {
+                listeners.add(listener);
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package main.java.main.java.com.example.productservice.config;
+
+import main.java.main.java.com.example.productservice.model.CacheWarmupProgress;
+import main.java.main.java.com.example.productservice.service.CacheWarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reports the search cache warm-up as "cacheWarmup". OUT_OF_SERVICE until the startup run
+ * finishes, so adding it to the readiness group holds traffic back from a cold instance;
+ * capped by product.search.warmup.max-startup-wait-ms so a slow database cannot block
+ * readiness forever. Later re-warms after writes are reported but keep the status UP.
+ */
+@Component("cacheWarmupHealthIndicator")
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Value("${product.search.warmup.max-startup-wait-ms:120000}")
+    private long maxStartupWaitMillis;
+
+    @Override
+    public Health health() {
+        CacheWarmupProgress progress = cacheWarmupService.getProgress();
+        boolean gaveUp = ManagementFactory.getRuntimeMXBean().getUptime() > maxStartupWaitMillis;
+        Health.Builder builder = progress.isInitialWarmupDone() || gaveUp ? Health.up() : Health.outOfService();
+        builder.withDetail("state", progress.getState())
+            .withDetail("completed", progress.getCompleted())
+            .withDetail("total", progress.getTotal())
+            .withDetail("failed", progress.getFailed());
+        if (progress.getTrigger() != null) {
+            builder.withDetail("trigger", progress.getTrigger());
+        }
+        if (!progress.isInitialWarmupDone() && gaveUp) {
+            builder.withDetail("note", "startup warm-up still running past max-startup-wait-ms");
+        }
+        return builder.build();
+    }
+}
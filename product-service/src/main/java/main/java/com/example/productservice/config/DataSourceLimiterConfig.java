@@ -0,0 +1,54 @@
+package main.java.main.java.com.example.productservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every Hikari pool (or its {@link SqlStatsDataSource}) in a {@link ConcurrencyLimitingDataSource} sized to the pool.
+ * On by default in virtual-thread mode, see product.datasource.limiter.* in application.yml.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.datasource.limiter", name = "enabled", havingValue = "true")
+public class DataSourceLimiterConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceLimiterConfig.class);
+
+    @Bean
+    public static BeanPostProcessor dataSourceLimiterPostProcessor(Environment environment,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxWaiting = environment.getProperty("product.datasource.limiter.max-waiting", Integer.class, 200);
+        long acquireTimeoutMillis = environment.getProperty("product.datasource.limiter.acquire-timeout-ms", Long.class, 2000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                HikariDataSource hikari = bean instanceof HikariDataSource pool ? pool
+                    : bean instanceof SqlStatsDataSource instrumented
+                        && instrumented.getTargetDataSource() instanceof HikariDataSource wrapped ? wrapped : null;
+                if (hikari == null) {
+                    return bean;
+                }
+                int permits = hikari.getMaximumPoolSize();
+                ConcurrencyLimitingDataSource limited =
+                    new ConcurrencyLimitingDataSource((DataSource) bean, permits, maxWaiting, acquireTimeoutMillis);
+                logger.info("Limiting {} to {} concurrent connections and {} waiters", beanName, permits, maxWaiting);
+                meterRegistry.ifAvailable(registry ->
+                    Gauge.builder("product.datasource.limiter.waiting", limited, ConcurrencyLimitingDataSource::getWaiting)
+                        .description("Callers waiting for a connection permit")
+                        .tag("pool", beanName)
+                        .register(registry));
+                return limited;
+            }
+        };
+    }
+}
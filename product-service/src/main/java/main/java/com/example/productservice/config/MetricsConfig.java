@@ -0,0 +1,75 @@
+package main.java.main.java.com.example.productservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Hot-path instrumentation: per-endpoint latency histograms tagged by filter shape, and SQL
+ * fingerprint statistics with a slow-query log served from /actuator/sqlstats.
+ * See product.metrics.* in application.yml.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsConfig.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.metrics.latency.max-shapes-per-endpoint:64}")
+    private int maxShapesPerEndpoint;
+
+    @Bean
+    public static SqlStatementStats sqlStatementStats(Environment environment) {
+        return new SqlStatementStats(
+            environment.getProperty("product.metrics.sql.max-fingerprints", Integer.class, 1000),
+            environment.getProperty("product.metrics.sql.max-cached-statements", Integer.class, 5000),
+            environment.getProperty("product.metrics.sql.slow-log-size", Integer.class, 256),
+            environment.getProperty("product.metrics.sql.slow-threshold-ms", Long.class, 200L));
+    }
+
+    // Runs before the connection limiter so the limiter ends up outermost
+    @Bean
+    public static BeanPostProcessor sqlStatsPostProcessor(Environment environment, SqlStatementStats stats) {
+        boolean enabled = environment.getProperty("product.metrics.sql.enabled", Boolean.class, false);
+        return new OrderedPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                logger.info("Recording SQL fingerprint statistics for {}", beanName);
+                return new SqlStatsDataSource(hikari, stats);
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatementStats stats) {
+        return new SqlStatsEndpoint(stats);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ApiLatencyInterceptor(meterRegistry, maxShapesPerEndpoint))
+            .addPathPatterns("/api/**");
+    }
+
+    private interface OrderedPostProcessor extends BeanPostProcessor, Ordered {
+        @Override
+        default int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
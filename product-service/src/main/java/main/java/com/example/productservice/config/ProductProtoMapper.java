@@ -0,0 +1,249 @@
+package main.java.main.java.com.example.productservice.config;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.Value;
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.ProductAvailability;
+import main.java.main.java.com.example.productservice.model.ProductWithAvailability;
+import main.java.main.java.com.example.productservice.proto.AvailabilityMessage;
+import main.java.main.java.com.example.productservice.proto.ProductMessage;
+import main.java.main.java.com.example.productservice.proto.ProductPageMessage;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps products and product pages to the protobuf schema in product.proto and back.
+ */
+public final class ProductProtoMapper {
+
+    private ProductProtoMapper() {
+    }
+
+    public static ProductMessage toMessage(Product product) {
+        return toMessage(product, null);
+    }
+
+    public static ProductMessage toMessage(Product product, ProductAvailability availability) {
+        ProductMessage.Builder builder = ProductMessage.newBuilder();
+        if (product.getId() != null) {
+            builder.setId(product.getId());
+        }
+        if (product.getName() != null) {
+            builder.setName(product.getName());
+        }
+        if (product.getDescription() != null) {
+            builder.setDescription(product.getDescription());
+        }
+        if (product.getPrice() != null) {
+            builder.setPrice(product.getPrice().toPlainString());
+        }
+        // getId() on a lazy category proxy does not initialize it
+        if (product.getCategory() != null && product.getCategory().getId() != null) {
+            builder.setCategoryId(product.getCategory().getId());
+        }
+        if (product.getSku() != null) {
+            builder.setSku(product.getSku());
+        }
+        if (product.getStockQuantity() != null) {
+            builder.setStockQuantity(product.getStockQuantity());
+        }
+        if (product.getStatus() != null) {
+            builder.setStatus(product.getStatus().name());
+        }
+        if (product.getTags() != null) {
+            builder.addAllTags(product.getTags());
+        }
+        if (product.getMetadata() != null && !product.getMetadata().isEmpty()) {
+            builder.setMetadata(toStruct(product.getMetadata()));
+        }
+        if (product.getCreatedAt() != null) {
+            builder.setCreatedAt(toTimestamp(product.getCreatedAt()));
+        }
+        if (product.getUpdatedAt() != null) {
+            builder.setUpdatedAt(toTimestamp(product.getUpdatedAt()));
+        }
+        if (product.getVersion() != null) {
+            builder.setVersion(product.getVersion());
+        }
+        if (availability != null) {
+            AvailabilityMessage.Builder availabilityBuilder = AvailabilityMessage.newBuilder()
+                    .setStatus(availability.getStatus())
+                    .setStale(availability.isStale());
+            if (availability.getTotalAvailable() != null) {
+                availabilityBuilder.setTotalAvailable(availability.getTotalAvailable());
+            }
+            if (availability.getAsOf() != null) {
+                availabilityBuilder.setAsOf(toTimestamp(availability.getAsOf()));
+            }
+            builder.setAvailability(availabilityBuilder);
+        }
+        return builder.build();
+    }
+
+    public static ProductPageMessage toPageMessage(Page<?> page) {
+        return ProductPageMessage.newBuilder()
+                .addAllProducts(toMessages(page.getContent()))
+                .setTotalElements(page.getTotalElements())
+                .setTotalPages(page.getTotalPages())
+                .setPageNumber(page.getNumber())
+                .setPageSize(page.getSize())
+                .setHasNext(page.hasNext())
+                .setHasPrevious(page.hasPrevious())
+                .build();
+    }
+
+    /**
+     * Maps the envelope built by {@code GET /api/products}.
+     */
+    public static ProductPageMessage toPageMessage(Map<?, ?> envelope) {
+        if (!(envelope.get("data") instanceof List<?> data)) {
+            throw new IllegalArgumentException("Not a product list response");
+        }
+        ProductPageMessage.Builder builder = ProductPageMessage.newBuilder().addAllProducts(toMessages(data));
+        if (envelope.get("total_count") instanceof Number totalCount) {
+            builder.setTotalElements(totalCount.longValue());
+        }
+        if (envelope.get("total_pages") instanceof Number totalPages) {
+            builder.setTotalPages(totalPages.intValue());
+        }
+        if (envelope.get("current_page") instanceof Number currentPage) {
+            builder.setPageNumber(currentPage.intValue());
+        }
+        if (envelope.get("page_size") instanceof Number pageSize) {
+            builder.setPageSize(pageSize.intValue());
+        }
+        return builder
+                .setHasNext(Boolean.TRUE.equals(envelope.get("has_next")))
+                .setHasPrevious(Boolean.TRUE.equals(envelope.get("has_previous")))
+                .build();
+    }
+
+    public static List<ProductMessage> toMessages(List<?> content) {
+        List<ProductMessage> messages = new ArrayList<>(content.size());
+        for (Object item : content) {
+            if (item instanceof ProductWithAvailability enriched) {
+                messages.add(toMessage(enriched.getProduct(), enriched.getAvailability()));
+            } else if (item instanceof Product product) {
+                messages.add(toMessage(product));
+            } else {
+                throw new IllegalArgumentException("Unsupported list element: " + item);
+            }
+        }
+        return messages;
+    }
+
+    public static Product fromMessage(ProductMessage message) {
+        Product product = new Product();
+        if (message.getId() != 0) {
+            product.setId(message.getId());
+        }
+        product.setName(message.getName().isEmpty() ? null : message.getName());
+        product.setDescription(message.hasDescription() ? message.getDescription() : null);
+        product.setPrice(message.getPrice().isEmpty() ? null : new BigDecimal(message.getPrice()));
+        if (message.hasCategoryId()) {
+            Category category = new Category();
+            category.setId(message.getCategoryId());
+            product.setCategory(category);
+        }
+        product.setSku(message.getSku().isEmpty() ? null : message.getSku());
+        // Absent fields stay null, which updates read as "keep the current value"
+        product.setStockQuantity(message.hasStockQuantity() ? message.getStockQuantity() : null);
+        product.setStatus(message.getStatus().isEmpty() ? null : Product.ProductStatus.valueOf(message.getStatus()));
+        List<String> maskPaths = message.getFieldMask().getPathsList();
+        if (message.getTagsCount() > 0 || maskPaths.contains("tags")) {
+            product.setTags(new ArrayList<>(message.getTagsList()));
+        } else {
+            product.setTags(null);
+        }
+        if (message.getMetadata().getFieldsCount() > 0 || maskPaths.contains("metadata")) {
+            product.setMetadata(fromStruct(message.getMetadata()));
+        } else {
+            product.setMetadata(null);
+        }
+        product.setCreatedAt(message.hasCreatedAt() ? fromTimestamp(message.getCreatedAt()) : null);
+        product.setUpdatedAt(message.hasUpdatedAt() ? fromTimestamp(message.getUpdatedAt()) : null);
+        product.setVersion(message.getVersion() != 0 ? message.getVersion() : null);
+        return product;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder().setSeconds(instant.getEpochSecond()).setNanos(instant.getNano()).build();
+    }
+
+    private static LocalDateTime fromTimestamp(Timestamp timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()), ZoneId.systemDefault());
+    }
+
+    private static Struct toStruct(Map<?, ?> map) {
+        Struct.Builder builder = Struct.newBuilder();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            builder.putFields(String.valueOf(entry.getKey()), toValue(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private static Value toValue(Object value) {
+        if (value == null) {
+            return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+        }
+        if (value instanceof Boolean bool) {
+            return Value.newBuilder().setBoolValue(bool).build();
+        }
+        if (value instanceof Number number) {
+            return Value.newBuilder().setNumberValue(number.doubleValue()).build();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Value.newBuilder().setStructValue(toStruct(map)).build();
+        }
+        if (value instanceof Iterable<?> iterable) {
+            ListValue.Builder list = ListValue.newBuilder();
+            for (Object element : iterable) {
+                list.addValues(toValue(element));
+            }
+            return Value.newBuilder().setListValue(list).build();
+        }
+        return Value.newBuilder().setStringValue(value.toString()).build();
+    }
+
+    private static Map<String, Object> fromStruct(Struct struct) {
+        Map<String, Object> map = new HashMap<>();
+        for (Map.Entry<String, Value> entry : struct.getFieldsMap().entrySet()) {
+            map.put(entry.getKey(), fromValue(entry.getValue()));
+        }
+        return map;
+    }
+
+    private static Object fromValue(Value value) {
+        switch (value.getKindCase()) {
+            case BOOL_VALUE:
+                return value.getBoolValue();
+            case NUMBER_VALUE:
+                return value.getNumberValue();
+            case STRING_VALUE:
+                return value.getStringValue();
+            case STRUCT_VALUE:
+                return fromStruct(value.getStructValue());
+            case LIST_VALUE:
+                List<Object> list = new ArrayList<>();
+                for (Value element : value.getListValue().getValuesList()) {
+                    list.add(fromValue(element));
+                }
+                return list;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package main.java.main.java.com.example.productservice.config;
+
+import com.google.protobuf.Message;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.ProductListResponse;
+import main.java.main.java.com.example.productservice.model.ProductWithAvailability;
+import main.java.main.java.com.example.productservice.proto.ProductMessage;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes products as application/x-protobuf using the schema in product.proto.
+ * Single products map to ProductMessage; pages and the list envelope map to ProductPageMessage.
+ */
+public class ProductProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_X_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ProductProtobufHttpMessageConverter() {
+        super(APPLICATION_X_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Product.class.isAssignableFrom(clazz)
+                || ProductWithAvailability.class.isAssignableFrom(clazz)
+                || Page.class.isAssignableFrom(clazz)
+                || ProductListResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return Product.class == clazz && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return ProductProtoMapper.fromMessage(ProductMessage.parseFrom(inputMessage.getBody()));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid product message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        Message message;
+        try {
+            if (body instanceof Product product) {
+                message = ProductProtoMapper.toMessage(product);
+            } else if (body instanceof ProductWithAvailability enriched) {
+                message = ProductProtoMapper.toMessage(enriched.getProduct(), enriched.getAvailability());
+            } else if (body instanceof Page<?> page) {
+                message = ProductProtoMapper.toPageMessage(page);
+            } else {
+                message = ProductProtoMapper.toPageMessage((ProductListResponse) body);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException("Cannot encode response as protobuf: " + e.getMessage(), e);
+        }
+        message.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,74 @@
+package main.java.main.java.com.example.productservice.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Read-your-writes for replica routing. A write hands the client a "primary until" timestamp
+ * (cookie and response header); while it has not passed, the client's reads stay on the
+ * primary. The token travels with the client, so it holds across service instances.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Read-Primary-Until";
+    public static final String COOKIE = "read_primary_until";
+
+    private final long stickyWindowMillis;
+
+    public ReadYourWritesInterceptor(long stickyWindowMillis) {
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        if (isWrite(request)) {
+            // Set before the handler runs; the body may commit the response
+            long until = now + stickyWindowMillis;
+            response.setHeader(HEADER, Long.toString(until));
+            Cookie cookie = new Cookie(COOKIE, Long.toString(until));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, stickyWindowMillis / 1000));
+            response.addCookie(cookie);
+            ReplicaRoutingDataSource.requirePrimary();
+        } else if (primaryUntil(request) > now) {
+            ReplicaRoutingDataSource.requirePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.clearPrimaryRequirement();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method) && !HttpMethod.OPTIONS.matches(method);
+    }
+
+    private long primaryUntil(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        if (value == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                    break;
+                }
+            }
+        }
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            // A client cannot pin itself to the primary for longer than one window
+            return Math.min(Long.parseLong(value.trim()), System.currentTimeMillis() + stickyWindowMillis);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
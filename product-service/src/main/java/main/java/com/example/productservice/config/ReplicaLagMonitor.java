@@ -0,0 +1,74 @@
+package main.java.main.java.com.example.productservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica's replay lag. The replica is used only while the last probe succeeded
+ * and the lag was within the threshold, so a stalled or unreachable replica sends all reads
+ * back to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // 0 when caught up (or not a standby at all, e.g. a second local database); null if unknown
+    private static final String LAG_QUERY =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE CAST(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000 AS BIGINT) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMillis;
+
+    private volatile boolean replicaUsable;
+    private volatile long lastLagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("product.datasource.replica.lag", this, monitor -> monitor.lastLagMillis)
+            .description("Replica replay lag in milliseconds, -1 when unknown")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("product.datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+            .description("1 while read-only transactions are routed to the replica")
+            .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${product.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Long lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Long.class);
+            lastLagMillis = lag != null ? lag : -1;
+            usable = lag != null && lag <= maxLagMillis;
+        } catch (RuntimeException e) {
+            lastLagMillis = -1;
+            usable = false;
+            if (replicaUsable) {
+                logger.warn("Replica lag probe failed, routing reads to primary: {}", e.getMessage());
+            }
+        }
+        if (usable != replicaUsable) {
+            logger.info("Replica {} (lag {} ms, threshold {} ms)", usable ? "enabled for reads" : "bypassed",
+                lastLagMillis, maxLagMillis);
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,67 @@
+package main.java.main.java.com.example.productservice.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL into a fingerprint: literals become ?, IN lists of any length collapse to
+ * (?+) and whitespace is squeezed, so "WHERE id = 5" and "WHERE id = 7" aggregate together.
+ */
+public final class SqlFingerprint {
+
+    private static final int MAX_LENGTH = 2000;
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private SqlFingerprint() {
+    }
+
+    public static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(Math.min(sql.length(), MAX_LENGTH));
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < sql.length() && out.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                // String literal, '' is an escaped quote
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                out.append('?');
+                i++;
+            } else if (Character.isDigit(c) && (out.length() == 0 || !isIdentifierPart(out.charAt(out.length() - 1)))) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return PARAMETER_LIST.matcher(out).replaceAll("(?+)");
+    }
+
+    public static String id(String fingerprint) {
+        return String.format("%08x", fingerprint.hashCode());
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
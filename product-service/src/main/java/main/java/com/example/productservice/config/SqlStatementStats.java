@@ -0,0 +1,173 @@
+package main.java.main.java.com.example.productservice.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-fingerprint SQL statistics (executions, total/max time, rows changed) and a ring buffer of the
+ * most recent slow statements. Recording a statement whose SQL was seen before allocates
+ * nothing; only slow statements create a ring entry.
+ */
+public class SqlStatementStats {
+
+    private static final String OTHER = "(other)";
+
+    private final int maxFingerprints;
+    private final int maxCachedStatements;
+    private final long slowThresholdNanos;
+
+    // Raw SQL -> stats, so repeated statements skip normalization
+    private final Map<String, Stats> bySql = new ConcurrentHashMap<>();
+    private final Map<String, Stats> byFingerprint = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowStatement> slowStatements;
+    private final AtomicLong slowCursor = new AtomicLong();
+
+    public SqlStatementStats(int maxFingerprints, int maxCachedStatements, int slowLogSize, long slowThresholdMillis) {
+        this.maxFingerprints = maxFingerprints;
+        this.maxCachedStatements = maxCachedStatements;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000L;
+        this.slowStatements = new AtomicReferenceArray<>(slowLogSize);
+    }
+
+    public Stats statsFor(String sql) {
+        Stats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String fingerprint = SqlFingerprint.normalize(sql);
+        stats = byFingerprint.get(fingerprint);
+        if (stats == null) {
+            stats = byFingerprint.size() < maxFingerprints
+                ? byFingerprint.computeIfAbsent(fingerprint, Stats::new)
+                : byFingerprint.computeIfAbsent(OTHER, Stats::new);
+        }
+        if (bySql.size() < maxCachedStatements) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    public void record(Stats stats, String sql, long elapsedNanos, long rows) {
+        stats.calls.increment();
+        stats.totalNanos.add(elapsedNanos);
+        stats.rows.add(rows);
+        stats.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (elapsedNanos >= slowThresholdNanos) {
+            stats.slowCalls.increment();
+            int slot = (int) (slowCursor.getAndIncrement() % slowStatements.length());
+            slowStatements.set(slot, new SlowStatement(Instant.now(), stats.id, truncate(sql),
+                elapsedNanos / 1_000_000.0, rows, Thread.currentThread().getName()));
+        }
+    }
+
+    // Heaviest fingerprints by total time
+    public List<Map<String, Object>> topFingerprints(int limit) {
+        List<Stats> all = new ArrayList<>(byFingerprint.values());
+        all.sort(Comparator.comparingLong((Stats stats) -> stats.totalNanos.sum()).reversed());
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Stats stats : all.subList(0, Math.min(limit, all.size()))) {
+            long calls = stats.calls.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", stats.id);
+            entry.put("fingerprint", stats.fingerprint);
+            entry.put("calls", calls);
+            entry.put("totalMs", stats.totalNanos.sum() / 1_000_000.0);
+            entry.put("meanMs", calls == 0 ? 0.0 : stats.totalNanos.sum() / 1_000_000.0 / calls);
+            entry.put("maxMs", stats.maxNanos.get() / 1_000_000.0);
+            entry.put("rows", stats.rows.sum());
+            entry.put("slowCalls", stats.slowCalls.sum());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // Newest first
+    public List<SlowStatement> slowStatements() {
+        List<SlowStatement> result = new ArrayList<>();
+        for (int i = 0; i < slowStatements.length(); i++) {
+            SlowStatement statement = slowStatements.get(i);
+            if (statement != null) {
+                result.add(statement);
+            }
+        }
+        result.sort(Comparator.comparing(SlowStatement::getAt).reversed());
+        return result;
+    }
+
+    public void reset() {
+        bySql.clear();
+        byFingerprint.clear();
+        for (int i = 0; i < slowStatements.length(); i++) {
+            slowStatements.set(i, null);
+        }
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() > 1000 ? sql.substring(0, 1000) + "..." : sql;
+    }
+
+    public static final class Stats {
+        private final String fingerprint;
+        private final String id;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Stats(String fingerprint) {
+            this.fingerprint = fingerprint;
+            this.id = SqlFingerprint.id(fingerprint);
+        }
+    }
+
+    public static final class SlowStatement {
+        private final Instant at;
+        private final String fingerprintId;
+        private final String sql;
+        private final double durationMs;
+        private final long rows;
+        private final String thread;
+
+        SlowStatement(Instant at, String fingerprintId, String sql, double durationMs, long rows, String thread) {
+            this.at = at;
+            this.fingerprintId = fingerprintId;
+            this.sql = sql;
+            this.durationMs = durationMs;
+            this.rows = rows;
+            this.thread = thread;
+        }
+
+        public Instant getAt() {
+            return at;
+        }
+
+        public String getFingerprintId() {
+            return fingerprintId;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getDurationMs() {
+            return durationMs;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package main.java.main.java.com.example.productservice.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times every statement executed through the pool and feeds {@link SqlStatementStats}.
+ * Timing stops when execute returns and result sets are handed out unwrapped, so reading
+ * rows costs nothing extra; query time therefore excludes fetches past the driver's first
+ * batch, and only updates and batches record a row count. Connection and statement calls
+ * still go through a JDK proxy, which is why product.metrics.sql.enabled defaults to false.
+ * This covers Hibernate, Spring Data and the JdbcTemplate paths (export, query log) alike.
+ */
+public class SqlStatsDataSource extends DelegatingDataSource {
+
+    private final SqlStatementStats stats;
+
+    public SqlStatsDataSource(DataSource targetDataSource, SqlStatementStats stats) {
+        super(targetDataSource);
+        this.stats = stats;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(super.getConnection(username, password));
+    }
+
+    private Connection instrument(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+            SqlStatsDataSource.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        return statement(PreparedStatement.class, (Statement) invoke(connection, method, args), (String) args[0]);
+                    case "prepareCall":
+                        return statement(CallableStatement.class, (Statement) invoke(connection, method, args), (String) args[0]);
+                    case "createStatement":
+                        return statement(Statement.class, (Statement) invoke(connection, method, args), null);
+                    case "unwrap":
+                        return ((Class<?>) args[0]).isInstance(connection) ? connection : connection.unwrap((Class<?>) args[0]);
+                    case "isWrapperFor":
+                        return ((Class<?>) args[0]).isInstance(connection) || connection.isWrapperFor((Class<?>) args[0]);
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return invoke(connection, method, args);
+                }
+            });
+    }
+
+    private Statement statement(Class<? extends Statement> type, Statement statement, String preparedSql) {
+        StatementState state = new StatementState(preparedSql);
+        return (Statement) Proxy.newProxyInstance(
+            SqlStatsDataSource.class.getClassLoader(),
+            new Class<?>[]{type},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                switch (name) {
+                    case "executeQuery": {
+                        String sql = state.sql(args);
+                        long start = System.nanoTime();
+                        Object resultSet = invoke(statement, method, args);
+                        if (sql != null) {
+                            stats.record(stats.statsFor(sql), sql, System.nanoTime() - start, 0);
+                        }
+                        return resultSet;
+                    }
+                    case "executeUpdate":
+                    case "executeLargeUpdate": {
+                        String sql = state.sql(args);
+                        long start = System.nanoTime();
+                        Object count = invoke(statement, method, args);
+                        stats.record(stats.statsFor(sql), sql, System.nanoTime() - start, ((Number) count).longValue());
+                        return count;
+                    }
+                    case "execute": {
+                        String sql = state.sql(args);
+                        long start = System.nanoTime();
+                        Object hasResultSet = invoke(statement, method, args);
+                        long rows = Boolean.TRUE.equals(hasResultSet) ? 0 : Math.max(statement.getUpdateCount(), 0);
+                        stats.record(stats.statsFor(sql), sql, System.nanoTime() - start, rows);
+                        return hasResultSet;
+                    }
+                    case "addBatch":
+                        if (args != null && args.length == 1 && state.batchSql == null) {
+                            state.batchSql = (String) args[0];
+                        }
+                        return invoke(statement, method, args);
+                    case "executeBatch":
+                    case "executeLargeBatch": {
+                        String sql = state.batchSql != null ? state.batchSql : state.preparedSql;
+                        long start = System.nanoTime();
+                        Object counts = invoke(statement, method, args);
+                        if (sql != null) {
+                            stats.record(stats.statsFor(sql), sql, System.nanoTime() - start, sumCounts(counts));
+                        }
+                        state.batchSql = null;
+                        return counts;
+                    }
+                    case "unwrap":
+                        return ((Class<?>) args[0]).isInstance(statement) ? statement : statement.unwrap((Class<?>) args[0]);
+                    case "isWrapperFor":
+                        return ((Class<?>) args[0]).isInstance(statement) || statement.isWrapperFor((Class<?>) args[0]);
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return invoke(statement, method, args);
+                }
+            });
+    }
+
+    private static long sumCounts(Object counts) {
+        long total = 0;
+        if (counts instanceof int[] ints) {
+            for (int count : ints) {
+                total += Math.max(count, 0);
+            }
+        } else if (counts instanceof long[] longs) {
+            for (long count : longs) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class StatementState {
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementState(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        // Prepared statements carry their SQL; plain statements pass it to execute*
+        String sql(Object[] args) {
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                return sql;
+            }
+            return preparedSql;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package main.java.main.java.com.example.productservice.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/sqlstats: heaviest SQL fingerprints by total time plus the recent slow-query log.
+ * DELETE resets both, e.g. before a load test.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private final SqlStatementStats stats;
+
+    public SqlStatsEndpoint(SqlStatementStats stats) {
+        this.stats = stats;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sqlStats(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fingerprints", stats.topFingerprints(limit != null ? Math.max(1, limit) : 20));
+        result.put("slowQueries", stats.slowStatements());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        stats.reset();
+    }
+}
@@ -0,0 +1,190 @@
+package main.java.main.java.com.example.productservice.controller;
+
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.service.CategoryService;
+import main.java.main.java.com.example.productservice.service.CategoryTree;
+import main.java.main.java.com.example.productservice.service.IntegrityViolations;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Category Management", description = "Category hierarchy served from an in-memory snapshot, with bulk re-parenting")
+@RestController
+@RequestMapping("/api/categories")
+@Validated
+public class CategoryController {
+
+    // Snapshot version the response was read from; it changes with every category change seen by this instance
+    static final String VERSION_HEADER = "X-Category-Version";
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Operation(
+        summary = "List all categories",
+        description = "The whole hierarchy as nested children, roots first. Served from memory."
+    )
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getCategories() {
+        CategoryTree tree = categoryService.getTree();
+        List<Map<String, Object>> roots = new ArrayList<>();
+        for (CategoryTree.Node root : tree.getRoots()) {
+            roots.add(nested(tree, root));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("version", tree.getVersion());
+        response.put("categories", roots);
+        return versioned(tree).body(response);
+    }
+
+    private static Map<String, Object> nested(CategoryTree tree, CategoryTree.Node node) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", node.getId());
+        entry.put("name", node.getName());
+        entry.put("description", node.getDescription());
+        List<Map<String, Object>> children = new ArrayList<>();
+        for (CategoryTree.Node child : tree.getChildren(node.getId())) {
+            children.add(nested(tree, child));
+        }
+        entry.put("children", children);
+        return entry;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CategoryTree.Node> getCategory(
+            @Parameter(description = "Category ID", example = "1") @PathVariable Long id) {
+        CategoryTree tree = categoryService.getTree();
+        CategoryTree.Node node = tree.get(id);
+        return node != null ? versioned(tree).body(node) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/children")
+    public ResponseEntity<List<CategoryTree.Node>> getChildren(
+            @Parameter(description = "Category ID", example = "1") @PathVariable Long id) {
+        CategoryTree tree = categoryService.getTree();
+        return tree.contains(id) ? versioned(tree).body(tree.getChildren(id)) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+        summary = "Category breadcrumb",
+        description = "The categories from the root down to this one. Served from memory."
+    )
+    @GetMapping("/{id}/path")
+    public ResponseEntity<List<CategoryTree.Node>> getPath(
+            @Parameter(description = "Category ID", example = "1") @PathVariable Long id) {
+        CategoryTree tree = categoryService.getTree();
+        List<CategoryTree.Node> path = tree.getPath(id);
+        return path.isEmpty() ? ResponseEntity.notFound().build() : versioned(tree).body(path);
+    }
+
+    @Operation(
+        summary = "Create a category",
+        description = "Name must be unique. parentCategoryId, if given, must exist."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Category created"),
+        @ApiResponse(responseCode = "400", description = "Invalid input, duplicate name or unknown parent")
+    })
+    @PostMapping
+    public ResponseEntity<CategoryTree.Node> createCategory(@Valid @RequestBody Category category) {
+        return new ResponseEntity<>(categoryService.createCategory(category), HttpStatus.CREATED);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<CategoryTree.Node> updateCategory(
+            @Parameter(description = "Category ID", example = "1") @PathVariable Long id,
+            @Valid @RequestBody Category category) {
+        return categoryService.updateCategory(id, category)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteCategory(
+            @Parameter(description = "Category ID", example = "1") @PathVariable Long id) {
+        return categoryService.deleteCategory(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+        summary = "Move categories",
+        description = "Re-parents every listed category in one statement, e.g. {\"category_ids\":[4,5,6],\"parent_id\":2}. A null parent_id makes them roots."
+    )
+    @PostMapping("/move")
+    public ResponseEntity<Map<String, Object>> moveCategories(@RequestBody Map<String, Object> request) {
+        Object ids = request.get("category_ids");
+        if (!(ids instanceof List<?> list)) {
+            throw new IllegalArgumentException("category_ids must be a list of ids");
+        }
+        List<Long> categoryIds = new ArrayList<>();
+        for (Object id : list) {
+            categoryIds.add(toLong(id, "category_ids"));
+        }
+        int moved = categoryService.moveCategories(categoryIds, toLong(request.get("parent_id"), "parent_id"));
+        return moved(moved);
+    }
+
+    @Operation(
+        summary = "Move all children of a category",
+        description = "Moves every direct child of the category under the target in one statement; without to_id they become roots."
+    )
+    @PostMapping("/{id}/children/move")
+    public ResponseEntity<Map<String, Object>> moveChildren(
+            @Parameter(description = "Category whose children move", example = "1") @PathVariable Long id,
+            @Parameter(description = "New parent") @RequestParam(required = false) Long to_id) {
+        return moved(categoryService.moveChildren(id, to_id));
+    }
+
+    private ResponseEntity<Map<String, Object>> moved(int moved) {
+        CategoryTree tree = categoryService.getTree();
+        Map<String, Object> response = new HashMap<>();
+        response.put("moved", moved);
+        response.put("version", tree.getVersion());
+        return versioned(tree).body(response);
+    }
+
+    private static Long toLong(Object value, String field) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder versioned(CategoryTree tree) {
+        return ResponseEntity.ok().header(VERSION_HEADER, Long.toString(tree.getVersion()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // The service reports the constraints it knows; anything else is still the caller's write, not a server fault
+    @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(org.springframework.dao.DataIntegrityViolationException e) {
+        String constraint = IntegrityViolations.constraintName(e);
+        return ResponseEntity.badRequest().body("Write rejected: constraint " + (constraint != null ? constraint : "violation"));
+    }
+}
@@ -0,0 +1,88 @@
+package main.java.main.java.com.example.productservice.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * ETag and Last-Modified helpers for product resources. Single products are versioned by
+ * id, their optimistic-lock version and the category tree tag, since the representation
+ * embeds the category; list responses by the catalog version, the tree tag and the
+ * request's query string. Both carry a suffix for binary encodings.
+ */
+final class ConditionalRequests {
+
+    // Version that no product can have, used when If-Match names some other representation
+    static final long UNMATCHABLE_VERSION = -1L;
+
+    private ConditionalRequests() {
+    }
+
+    static boolean hasPreconditions(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    static String productETag(Long id, Long version, String treeTag, WebRequest webRequest) {
+        return "\"" + Long.toHexString(id) + "-v" + version + "-t" + treeTag + representation(webRequest) + "\"";
+    }
+
+    /**
+     * Extracts the version a client expects from an If-Match header. Returns null when the
+     * header is absent or "*", and {@link #UNMATCHABLE_VERSION} when none of the listed
+     * tags belongs to the given product or the tag was issued under another category tree.
+     */
+    static Long expectedVersion(String ifMatch, Long id, String treeTag) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + Long.toHexString(id) + "-v";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(prefix)) {
+                // The version digits may be followed by a representation suffix
+                int end = prefix.length();
+                while (end < tag.length() && Character.isDigit(tag.charAt(end))) {
+                    end++;
+                }
+                int digits = end - prefix.length();
+                if (digits == 0 || digits > 18 || !hasTreeTag(tag, end, treeTag)) {
+                    return UNMATCHABLE_VERSION;
+                }
+                return Long.parseLong(tag.substring(prefix.length(), end));
+            }
+        }
+        return UNMATCHABLE_VERSION;
+    }
+
+    // The tree tag follows the version, then comes the closing quote or a representation suffix
+    private static boolean hasTreeTag(String tag, int from, String treeTag) {
+        String expected = "-t" + treeTag;
+        int end = from + expected.length();
+        return tag.startsWith(expected, from) && end < tag.length() && (tag.charAt(end) == '"' || tag.charAt(end) == '-');
+    }
+
+    static String catalogETag(String catalogVersion, String treeTag, String queryString, WebRequest webRequest) {
+        int queryHash = queryString != null ? queryString.hashCode() : 0;
+        return "\"c" + catalogVersion + "-t" + treeTag + "-" + Integer.toHexString(queryHash) + representation(webRequest) + "\"";
+    }
+
+    /**
+     * Strong ETags must differ between encodings. JSON responses carry no suffix; when the
+     * Accept header asks for a binary encoding the suffix is derived from the whole header,
+     * which is what content negotiation decides on.
+     */
+    static String representation(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !(accept.contains("protobuf") || accept.contains("cbor") || accept.contains("smile"))) {
+            return "";
+        }
+        return "-" + Integer.toHexString(accept.hashCode());
+    }
+
+    static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
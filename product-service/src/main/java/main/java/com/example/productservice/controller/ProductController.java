@@ -1,7 +1,22 @@
 package main.java.main.java.com.example.productservice.controller;
 
 import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.ProductAvailability;
+import main.java.main.java.com.example.productservice.model.ProductListResponse;
+import main.java.main.java.com.example.productservice.model.ProductWithAvailability;
+import main.java.main.java.com.example.productservice.model.SimilarProduct;
+import main.java.main.java.com.example.productservice.model.TrendingEntry;
+import main.java.main.java.com.example.productservice.model.TrendingEvent;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.service.CategoryService;
+import main.java.main.java.com.example.productservice.service.IntegrityViolations;
+import main.java.main.java.com.example.productservice.service.InventoryAvailabilityService;
+import main.java.main.java.com.example.productservice.service.ProductExportService;
 import main.java.main.java.com.example.productservice.service.ProductService;
+import main.java.main.java.com.example.productservice.service.SearchQueryLogService;
+import main.java.main.java.com.example.productservice.service.SimilarProductService;
+import main.java.main.java.com.example.productservice.service.SpellingSuggestionService;
+import main.java.main.java.com.example.productservice.service.TrendingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,14 +28,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Arrays;
+import java.util.stream.Collectors;
 
 @Tag(name = "Product Management", description = "API for managing products with CRUD, search, filter, and pagination capabilities")
 @RestController
@@ -28,9 +53,35 @@ import java.util.Arrays;
 @Validated
 public class ProductController {
 
+    static final String SUGGESTIONS_HEADER = "X-Search-Suggestions";
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private InventoryAvailabilityService inventoryAvailabilityService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private SearchQueryLogService searchQueryLogService;
+
+    @Autowired
+    private SpellingSuggestionService spellingSuggestionService;
+
+    @Autowired
+    private SimilarProductService similarProductService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @org.springframework.beans.factory.annotation.Value("${product.search.suggestions.min-hits:3}")
+    private int suggestionMinHits;
+
     @Operation(
         summary = "Create a new product",
         description = "Create a new product with all required fields. SKU must be unique and category must exist."
@@ -50,19 +101,35 @@ public class ProductController {
 
     @Operation(
         summary = "Get product by ID",
-        description = "Retrieve a single product by its unique identifier."
+        description = "Retrieve a single product by its unique identifier. Supports If-None-Match and If-Modified-Since."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class))),
+        @ApiResponse(responseCode = "304", description = "Product not modified"),
         @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(
-        @Parameter(description = "Product ID", example = "1") @PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
+        @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+        @Parameter(description = "Also return DISCONTINUED and archived products") @RequestParam(required = false, defaultValue = "false") boolean include_discontinued,
+        ServletWebRequest webRequest) {
+        trendingService.recordProductView(id);
+        // Revalidation only needs id, version and updatedAt, not the product graph
+        if (ConditionalRequests.hasPreconditions(webRequest)) {
+            Optional<ProductRepository.ProductRevision> revision = productService.getProductRevision(id);
+            if (revision.isEmpty()) {
+                // Archived products have no live revision; validators come from the full lookup
+                if (!include_discontinued) {
+                    return ResponseEntity.notFound().build();
+                }
+            } else if (isNotModified(revision.get(), webRequest)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
+        Optional<Product> product = productService.getProductById(id, include_discontinued);
         if (product.isPresent()) {
-            return ResponseEntity.ok(product.get());
+            return withValidators(product.get(), webRequest);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -73,7 +140,16 @@ public class ProductController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer limit,
             @RequestParam(required = false) String sort_by,
-            @RequestParam(required = false) String sort_order) {
+            @RequestParam(required = false) String sort_order,
+            @RequestParam(required = false, defaultValue = "false") boolean include_availability,
+            @RequestParam(required = false, defaultValue = "false") boolean include_discontinued,
+            ServletWebRequest webRequest) {
+
+        // Live availability and the archive are not covered by the catalog version
+        String eTag = include_availability || include_discontinued ? null : catalogETag(webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         
         // Custom pagination and sorting
         int currentPage = (page != null && page > 0) ? page - 1 : 0; // Convert to 0-based
@@ -103,11 +179,11 @@ public class ProductController {
         
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(currentPage, pageSize, sort);
         
-        Page<Product> products = productService.getAllProducts(pageable);
+        Page<Product> products = productService.getAllProducts(pageable, include_discontinued);
         
         // Enhanced response format
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", products.getContent());
+        Map<String, Object> response = new ProductListResponse();
+        response.put("data", withAvailability(products, include_availability).getContent());
         response.put("total_count", products.getTotalElements());
         response.put("total_pages", products.getTotalPages());
         response.put("current_page", page != null ? page : 1);
@@ -115,14 +191,113 @@ public class ProductController {
         response.put("has_previous", products.hasPrevious());
         response.put("page_size", pageSize);
         
-        return ResponseEntity.ok(response);
+        return okWithETag(response, eTag);
+    }
+
+    @Operation(
+        summary = "Export the product catalog",
+        description = "Stream every product as newline-delimited JSON from a database cursor. Use fields to select columns and since (ISO updatedAt) for incremental exports."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export stream",
+            content = @Content(mediaType = "application/x-ndjson")),
+        @ApiResponse(responseCode = "400", description = "Unknown field or invalid since timestamp")
+    })
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Comma-separated fields, e.g. id,sku,price,updatedAt") @RequestParam(required = false) String fields,
+            @Parameter(description = "Only products updated at or after this time", example = "2024-01-01T00:00:00") @RequestParam(required = false) String since,
+            @Parameter(description = "Also export DISCONTINUED products, e.g. to see soft deletes in incremental runs") @RequestParam(required = false, defaultValue = "false") boolean include_discontinued) {
+        // Validate before the response is committed so bad input still gets a 400
+        List<String> selectedFields = productExportService.resolveFields(fields);
+        java.time.LocalDateTime updatedSince;
+        try {
+            updatedSince = since != null ? java.time.LocalDateTime.parse(since) : null;
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid since timestamp: " + since);
+        }
+
+        StreamingResponseBody body = outputStream ->
+            productExportService.exportProducts(selectedFields, updatedSince, include_discontinued, outputStream);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    @Operation(
+        summary = "Trending products and popular searches",
+        description = "Top product views (type=products) or search queries (type=searches) with time-decayed scores. window=hour or day sets the half-life."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ranked entries, highest score first",
+            content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "400", description = "Unknown type or window")
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingEntry>> getTrending(
+            @Parameter(description = "products or searches", example = "products") @RequestParam(required = false, defaultValue = "products") String type,
+            @Parameter(description = "hour or day", example = "hour") @RequestParam(required = false, defaultValue = "hour") String window,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, 100));
+        if ("products".equalsIgnoreCase(type)) {
+            return ResponseEntity.ok(trendingService.getTrendingProducts(window, size));
+        }
+        if ("searches".equalsIgnoreCase(type)) {
+            return ResponseEntity.ok(trendingService.getPopularSearches(window, size));
+        }
+        throw new IllegalArgumentException("Unknown trending type: " + type + ". Use products or searches");
+    }
+
+    @Operation(
+        summary = "Ingest view and search events",
+        description = "Batch of VIEW (productId) and SEARCH (query) events for the trending lists, e.g. views served from a CDN. Accepted asynchronously."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Events accepted")
+    })
+    @PostMapping("/events")
+    public ResponseEntity<Map<String, Object>> recordEvents(@RequestBody List<TrendingEvent> events) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("accepted", trendingService.recordEvents(events));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @Operation(
+        summary = "Similar products",
+        description = "Live products sharing the most tags and name/description terms with this one, by Jaccard similarity."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Similar products, most similar first",
+            content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarProduct>> getSimilarProducts(
+            @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, 50));
+        return similarProductService.findSimilar(id, size)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/sku/{sku}")
-    public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
-        Optional<Product> product = productService.getProductBySku(sku);
+    public ResponseEntity<Product> getProductBySku(@PathVariable String sku,
+            @Parameter(description = "Also return DISCONTINUED and archived products") @RequestParam(required = false, defaultValue = "false") boolean include_discontinued,
+            ServletWebRequest webRequest) {
+        if (ConditionalRequests.hasPreconditions(webRequest)) {
+            Optional<ProductRepository.ProductRevision> revision = productService.getProductRevisionBySku(sku);
+            if (revision.isEmpty()) {
+                if (!include_discontinued) {
+                    return ResponseEntity.notFound().build();
+                }
+            } else if (isNotModified(revision.get(), webRequest)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
+        Optional<Product> product = productService.getProductBySku(sku, include_discontinued);
         if (product.isPresent()) {
-            return ResponseEntity.ok(product.get());
+            return withValidators(product.get(), webRequest);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -138,16 +313,56 @@ public class ProductController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/search")
-    public ResponseEntity<Page<Product>> searchProducts(
+    public ResponseEntity<Page<?>> searchProducts(
             @Parameter(description = "Search query term", example = "laptop") @RequestParam(required = false) String q,
-            @PageableDefault(page = 0, size = 20, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable) {
+            @Parameter(description = "Attach live stock from inventory-service") @RequestParam(required = false, defaultValue = "false") boolean include_availability,
+            @Parameter(description = "Also return DISCONTINUED and archived products") @RequestParam(required = false, defaultValue = "false") boolean include_discontinued,
+            @PageableDefault(page = 0, size = 20, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable,
+            ServletWebRequest webRequest) {
+        // Count each search once, not once per page
+        if (pageable.getPageNumber() == 0) {
+            trendingService.recordSearch(q);
+            searchQueryLogService.recordQuery(q);
+        }
+        String eTag = include_availability || include_discontinued ? null : catalogETag(webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         Page<Product> products;
         if (q != null && !q.trim().isEmpty()) {
-            products = productService.searchProducts(q, pageable);
+            products = productService.searchProducts(q, pageable, include_discontinued);
         } else {
-            products = productService.getAllProducts(pageable);
+            products = productService.getAllProducts(pageable, include_discontinued);
         }
-        return ResponseEntity.ok(products);
+        ResponseEntity<Page<?>> response = okWithETag(withAvailability(products, include_availability), eTag);
+        if (q != null && products.getTotalElements() < suggestionMinHits) {
+            List<String> suggestions = spellingSuggestionService.suggest(q, 3);
+            if (!suggestions.isEmpty()) {
+                return ResponseEntity.ok().headers(response.getHeaders())
+                    .header(SUGGESTIONS_HEADER, encodeSuggestions(suggestions))
+                    .body(response.getBody());
+            }
+        }
+        return response;
+    }
+
+    @Operation(
+        summary = "Spelling suggestions for a search query",
+        description = "Closest catalog terms for misspelled query terms. /search sends the same suggestions in the X-Search-Suggestions header when it finds fewer hits than the threshold."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggestions, best first; empty when every term is known",
+            content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/search/suggestions")
+    public ResponseEntity<Map<String, Object>> getSearchSuggestions(
+            @Parameter(description = "Search query term", example = "lptop") @RequestParam String q,
+            @RequestParam(required = false, defaultValue = "5") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", q);
+        response.put("suggestions", spellingSuggestionService.suggest(q, Math.max(1, Math.min(limit, 20))));
+        return ResponseEntity.ok(response);
     }
 
     @Operation(
@@ -160,22 +375,44 @@ public class ProductController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/advanced-search")
-    public ResponseEntity<Page<Product>> advancedSearch(
+    public ResponseEntity<Page<?>> advancedSearch(
             @Parameter(description = "Product name to search", example = "MacBook") @RequestParam(required = false) String name,
             @Parameter(description = "Product description to search", example = "Pro") @RequestParam(required = false) String description,
             @Parameter(description = "Product SKU to search", example = "MBP2023") @RequestParam(required = false) String sku,
             @Parameter(description = "Comma-separated tags to search", example = "laptop,apple") @RequestParam(required = false) String tags,
-            @PageableDefault(page = 0, size = 20, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable) {
+            @Parameter(description = "Structured query; replaces name, description, sku and tags when given",
+                example = "name:laptop AND (tag:apple OR tag:dell) -status:discontinued price:[500 TO 1500]") @RequestParam(required = false) String q,
+            @Parameter(description = "Return the planned clause order in the X-Query-Plan header") @RequestParam(required = false, defaultValue = "false") boolean explain,
+            @Parameter(description = "Attach live stock from inventory-service") @RequestParam(required = false, defaultValue = "false") boolean include_availability,
+            @Parameter(description = "Also return DISCONTINUED and archived products") @RequestParam(required = false, defaultValue = "false") boolean include_discontinued,
+            @PageableDefault(page = 0, size = 20, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable,
+            ServletWebRequest webRequest) {
+        String eTag = include_availability || include_discontinued ? null : catalogETag(webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
  
+        if (q != null && !q.isBlank()) {
+            Page<Product> products = productService.structuredSearch(q, pageable, include_discontinued);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (eTag != null) {
+                builder.eTag(eTag);
+            }
+            if (explain) {
+                builder.header("X-Query-Plan", productService.explainStructuredSearch(q));
+            }
+            return builder.body(withAvailability(products, include_availability));
+        }
+
         String[] tagArray = tags != null && !tags.trim().isEmpty() ? tags.split(",") : new String[0];
  
-        Page<Product> products = productService.advancedSearch(name, description, sku, tagArray, pageable);
-        return ResponseEntity.ok(products);
+        Page<Product> products = productService.advancedSearch(name, description, sku, tagArray, pageable, include_discontinued);
+        return okWithETag(withAvailability(products, include_availability), eTag);
     }
 
     // Filter endpoint
     @GetMapping("/filter")
-    public ResponseEntity<Page<Product>> filterProducts(
+    public ResponseEntity<Page<?>> filterProducts(
             @RequestParam(required = false) String min_price,
             @RequestParam(required = false) String max_price,
             @RequestParam(required = false) Long category_id,
@@ -191,7 +428,15 @@ public class ProductController {
             @RequestParam(required = false) String tags,
             @RequestParam(required = false) String metadata_field,
             @RequestParam(required = false) String metadata_value,
-            @PageableDefault(page = 0, size = 20, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable) {
+            @RequestParam(required = false, defaultValue = "false") boolean include_availability,
+            @RequestParam(required = false, defaultValue = "false") boolean include_discontinued,
+            @PageableDefault(page = 0, size = 20, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable,
+            ServletWebRequest webRequest) {
+        boolean archiveReached = include_discontinued || "DISCONTINUED".equalsIgnoreCase(status);
+        String eTag = include_availability || archiveReached ? null : catalogETag(webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
 
         // Parse BigDecimal parameters
         java.math.BigDecimal minPrice = min_price != null ? new java.math.BigDecimal(min_price) : null;
@@ -215,9 +460,9 @@ public class ProductController {
         Page<Product> products = productService.filterProducts(
                 minPrice, maxPrice, category_id, category_name, status,
                 in_stock, min_stock, max_stock, createdAfter, createdBefore,
-                updatedAfter, updatedBefore, tagList, metadata_field, metadata_value, pageable);
+                updatedAfter, updatedBefore, tagList, metadata_field, metadata_value, pageable, include_discontinued);
 
-        return ResponseEntity.ok(products);
+        return okWithETag(withAvailability(products, include_availability), eTag);
     }
 
     @Operation(
@@ -229,27 +474,47 @@ public class ProductController {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input or SKU conflict",
             content = @Content(mediaType = "application/json", schema = @Schema(type = "string"))),
-        @ApiResponse(responseCode = "404", description = "Product not found")
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "409", description = "Concurrent update conflict"),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(
         @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
-        @Valid @RequestBody Product productDetails) {
+        @Parameter(description = "ETag of the version being replaced") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Parameter(description = "On a concurrent write, re-apply only the changed fields") @RequestParam(required = false, defaultValue = "false") boolean retry_on_conflict,
+        @Valid @RequestBody Product productDetails,
+        ServletWebRequest webRequest) {
+        Long expectedVersion = ConditionalRequests.expectedVersion(ifMatch, id, categoryService.getTreeTag());
         try {
-            Product updatedProduct = productService.updateProduct(id, productDetails);
-            return ResponseEntity.ok(updatedProduct);
+            Product updatedProduct = ifMatch == null && retry_on_conflict
+                    ? productService.updateProductWithRetry(id, productDetails)
+                    : productService.updateProduct(id, productDetails, expectedVersion);
+            return withValidators(updatedProduct, webRequest);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
         }
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Product> partialUpdateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
+    public ResponseEntity<Product> partialUpdateProduct(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestParam(required = false, defaultValue = "false") boolean retry_on_conflict,
+        @RequestBody Product productDetails,
+        ServletWebRequest webRequest) {
+        Long expectedVersion = ConditionalRequests.expectedVersion(ifMatch, id, categoryService.getTreeTag());
         try {
-            Product updatedProduct = productService.partialUpdateProduct(id, productDetails);
-            return ResponseEntity.ok(updatedProduct);
+            Product updatedProduct = ifMatch == null && retry_on_conflict
+                    ? productService.partialUpdateProductWithRetry(id, productDetails)
+                    : productService.partialUpdateProduct(id, productDetails, expectedVersion);
+            return withValidators(updatedProduct, webRequest);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
         }
     }
 
@@ -263,8 +528,69 @@ public class ProductController {
         }
     }
 
+    // Comma-separated, each suggestion percent-encoded so non-ASCII terms survive the header
+    private static String encodeSuggestions(List<String> suggestions) {
+        return suggestions.stream()
+            .map(suggestion -> java.net.URLEncoder.encode(suggestion, java.nio.charset.StandardCharsets.UTF_8).replace("+", "%20"))
+            .collect(Collectors.joining(","));
+    }
+
+    private String catalogETag(ServletWebRequest webRequest) {
+        return ConditionalRequests.catalogETag(productService.getCatalogVersion(), categoryService.getTreeTag(),
+                webRequest.getRequest().getQueryString(), webRequest);
+    }
+
+    private boolean isNotModified(ProductRepository.ProductRevision revision, ServletWebRequest webRequest) {
+        return webRequest.checkNotModified(
+                ConditionalRequests.productETag(revision.getId(), revision.getVersion(), categoryService.getTreeTag(), webRequest),
+                lastModified(revision.getUpdatedAt()));
+    }
+
+    private ResponseEntity<Product> withValidators(Product product, ServletWebRequest webRequest) {
+        return ResponseEntity.ok()
+                .eTag(ConditionalRequests.productETag(product.getId(), product.getVersion(), categoryService.getTreeTag(), webRequest))
+                .lastModified(lastModified(product.getUpdatedAt()))
+                .body(product);
+    }
+
+    // A renamed or moved category changes the embedded category without touching the product row
+    private long lastModified(LocalDateTime updatedAt) {
+        return Math.max(ConditionalRequests.epochMillis(updatedAt), categoryService.getTreeChangedAt());
+    }
+
+    private <T> ResponseEntity<T> okWithETag(T body, String eTag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        return builder.body(body);
+    }
+
+    // One batched inventory lookup per page; cached pages are never mutated, products are wrapped instead
+    private Page<?> withAvailability(Page<Product> products, boolean includeAvailability) {
+        if (!includeAvailability || products.isEmpty()) {
+            return products;
+        }
+        Map<Long, ProductAvailability> availability = inventoryAvailabilityService.getAvailability(
+            products.getContent().stream().map(Product::getId).collect(Collectors.toList()));
+        return products.map(product -> new ProductWithAvailability(product, availability.get(product.getId())));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
         return ResponseEntity.badRequest().body(e.getMessage());
     }
+
+    // Duplicate SKUs and vanished categories that the in-memory write checks could not see, caught at commit
+    @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(org.springframework.dao.DataIntegrityViolationException e) {
+        String constraint = IntegrityViolations.constraintName(e);
+        if (IntegrityViolations.PRODUCT_SKU.equals(constraint)) {
+            return ResponseEntity.badRequest().body("Write rejected: SKU already exists");
+        }
+        if (IntegrityViolations.PRODUCT_CATEGORY.equals(constraint)) {
+            return ResponseEntity.badRequest().body("Write rejected: category not found");
+        }
+        return ResponseEntity.badRequest().body("Write rejected: constraint " + (constraint != null ? constraint : "violation"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package main.java.main.java.com.example.productservice.controller;
+
+import main.java.main.java.com.example.productservice.model.SavedSearch;
+import main.java.main.java.com.example.productservice.model.SavedSearchMatch;
+import main.java.main.java.com.example.productservice.service.SavedSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Saved Searches", description = "Stored structured queries that are matched against new and updated products")
+@RestController
+@RequestMapping("/api/saved-searches")
+@Validated
+public class SavedSearchController {
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    @Operation(
+        summary = "Save a search",
+        description = "Store a structured query (same syntax as advanced-search q). Product writes matching it are recorded as notifications."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Saved search created"),
+        @ApiResponse(responseCode = "400", description = "Invalid input or malformed query")
+    })
+    @PostMapping
+    public ResponseEntity<SavedSearch> createSavedSearch(@Valid @RequestBody SavedSearch savedSearch) {
+        return new ResponseEntity<>(savedSearchService.createSavedSearch(savedSearch), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SavedSearch> getSavedSearch(
+            @Parameter(description = "Saved search ID", example = "1") @PathVariable Long id) {
+        return savedSearchService.getSavedSearch(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<SavedSearch>> getSavedSearches(
+            @Parameter(description = "Owner of the saved searches") @RequestParam String owner,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(savedSearchService.getSavedSearches(owner, pageable));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSavedSearch(
+            @Parameter(description = "Saved search ID", example = "1") @PathVariable Long id) {
+        return savedSearchService.deleteSavedSearch(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+        summary = "Poll saved search notifications",
+        description = "Matches recorded after the given watermark, grouped by saved search. Pass next_after back as after to continue."
+    )
+    @GetMapping("/matches")
+    public ResponseEntity<Map<String, Object>> getMatches(
+            @Parameter(description = "Return matches with an id above this watermark") @RequestParam(required = false, defaultValue = "0") long after,
+            @Parameter(description = "Maximum matches to return (max 1000)") @RequestParam(required = false, defaultValue = "100") int limit,
+            @Parameter(description = "Only matches of this saved search") @RequestParam(required = false) Long saved_search_id) {
+        List<SavedSearchMatch> matches = savedSearchService.getMatches(saved_search_id, after, limit);
+
+        Map<Long, List<Long>> productIds = new LinkedHashMap<>();
+        long nextAfter = after;
+        for (SavedSearchMatch match : matches) {
+            productIds.computeIfAbsent(match.getSavedSearchId(), id -> new ArrayList<>()).add(match.getProductId());
+            nextAfter = Math.max(nextAfter, match.getId());
+        }
+        List<Map<String, Object>> notifications = new ArrayList<>();
+        for (Map.Entry<Long, List<Long>> entry : productIds.entrySet()) {
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("saved_search_id", entry.getKey());
+            notification.put("product_ids", entry.getValue());
+            notifications.add(notification);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("next_after", nextAfter);
+        response.put("notifications", notifications);
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
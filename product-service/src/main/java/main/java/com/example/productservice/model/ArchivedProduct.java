@@ -0,0 +1,93 @@
+package main.java.main.java.com.example.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DISCONTINUED product moved out of the products table by the archive job. Attribute names
+ * and types mirror {@link Product}, so specifications written against Product also apply here
+ * (see ProductSpecifications.archived). Ids and SKUs are kept from the live row.
+ */
+@Entity
+@Table(name = "products_archive")
+@org.hibernate.annotations.Table(appliesTo = "products_archive", indexes = {
+    @org.hibernate.annotations.Index(name = "idx_product_archive_sku", columnNames = "sku"),
+    @org.hibernate.annotations.Index(name = "idx_product_archive_archived_at", columnNames = "archived_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedProduct {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+
+    @Column(nullable = false)
+    private String sku;
+
+    @Column(nullable = false)
+    private Integer stockQuantity = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Product.ProductStatus status = Product.ProductStatus.DISCONTINUED;
+
+    @ElementCollection
+    @CollectionTable(name = "products_archive_tags", joinColumns = @JoinColumn(name = "product_id"))
+    @Column(name = "tag")
+    private List<String> tags = new java.util.ArrayList<>();
+
+    @Type(type = "json")
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> metadata = new java.util.HashMap<>();
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    public Product toProduct() {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setCategory(category);
+        product.setSku(sku);
+        product.setStockQuantity(stockQuantity);
+        product.setStatus(status);
+        product.setTags(new java.util.ArrayList<>(tags));
+        product.setMetadata(metadata);
+        product.setCreatedAt(createdAt);
+        product.setUpdatedAt(updatedAt);
+        product.setVersion(version);
+        return product;
+    }
+}
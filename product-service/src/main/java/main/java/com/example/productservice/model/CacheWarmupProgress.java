@@ -0,0 +1,32 @@
+package main.java.main.java.com.example.productservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheWarmupProgress {
+    public enum State { PENDING, RUNNING, COMPLETED, DISABLED }
+
+    private State state;
+
+    // What started the current or last run: startup or writes
+    private String trigger;
+
+    private int total;
+
+    private int completed;
+
+    private int failed;
+
+    // True once the first (startup) run has finished or given up
+    private boolean initialWarmupDone;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,20 @@
+package main.java.main.java.com.example.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A single row (id 1) whose version every catalog write bumps; read and written by CatalogVersionServiceImpl
+@Entity
+@Table(name = "catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+}
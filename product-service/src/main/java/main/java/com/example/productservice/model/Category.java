@@ -9,7 +9,7 @@ import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", uniqueConstraints = @UniqueConstraint(name = "uk_categories_name", columnNames = "name"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,15 +19,24 @@ public class Category {
     private Long id;
 
     @NotBlank(message = "Category name is required")
-    @Column(nullable = false, unique = true)
+    // Unique through uk_categories_name on the table (see IntegrityViolations)
+    @Column(nullable = false)
     private String name;
 
     private String description;
 
-    @ManyToOne
-    @JoinColumn(name = "parent_category_id")
+    // Lazy and hidden so product reads do not pull the ancestor chain; /api/categories/{id}/path serves breadcrumbs
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_category_id", foreignKey = @ForeignKey(name = "fk_categories_parent"))
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    @lombok.ToString.Exclude
+    @lombok.EqualsAndHashCode.Exclude
     private Category parentCategory;
 
+    // Read side of the same column; the category API also accepts it to set the parent
+    @Column(name = "parent_category_id", insertable = false, updatable = false)
+    private Long parentCategoryId;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
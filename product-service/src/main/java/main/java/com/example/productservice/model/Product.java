@@ -13,14 +13,15 @@ import java.util.List;
 import java.util.Map;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", uniqueConstraints = @UniqueConstraint(name = "uk_products_sku", columnNames = "sku"))
 @org.hibernate.annotations.Table(appliesTo = "products", indexes = {
     @org.hibernate.annotations.Index(name = "idx_product_name", columnNames = "name"),
     @org.hibernate.annotations.Index(name = "idx_product_sku", columnNames = "sku"),
     @org.hibernate.annotations.Index(name = "idx_product_category", columnNames = "category_id"),
     @org.hibernate.annotations.Index(name = "idx_product_status", columnNames = "status"),
     @org.hibernate.annotations.Index(name = "idx_product_price", columnNames = "price"),
-    @org.hibernate.annotations.Index(name = "idx_product_created_at", columnNames = "created_at")
+    @org.hibernate.annotations.Index(name = "idx_product_created_at", columnNames = "created_at"),
+    @org.hibernate.annotations.Index(name = "idx_product_updated_at", columnNames = "updated_at")
 })
 @Data
 @NoArgsConstructor
@@ -44,12 +45,13 @@ public class Product {
     private BigDecimal price;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "category_id")
+    @JoinColumn(name = "category_id", foreignKey = @ForeignKey(name = "fk_products_category"))
     private Category category;
 
     @NotBlank(message = "SKU is required")
     @Size(min = 1, max = 100, message = "SKU must be between 1 and 100 characters")
-    @Column(nullable = false, unique = true)
+    // Named so a duplicate can be told apart from other violations (IntegrityViolations)
+    @Column(nullable = false)
     private String sku;
 
     @Min(value = 0, message = "Stock quantity cannot be negative")
@@ -61,7 +63,9 @@ public class Product {
     private ProductStatus status = ProductStatus.ACTIVE;
 
     @ElementCollection
-    @CollectionTable(name = "product_tags", joinColumns = @JoinColumn(name = "product_id"))
+    // The tag index serves structured search posting lists (tag:value)
+    @CollectionTable(name = "product_tags", joinColumns = @JoinColumn(name = "product_id"),
+        indexes = @Index(name = "idx_product_tags_tag", columnList = "tag"))
     @Column(name = "tag")
     private List<String> tags = new java.util.ArrayList<>();
 
@@ -75,6 +79,11 @@ public class Product {
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Optimistic lock; also the basis of the product ETag used by If-None-Match and If-Match
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
@@ -0,0 +1,28 @@
+package main.java.main.java.com.example.productservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductAvailability {
+    private Long productId;
+
+    private Integer totalAvailable;
+
+    // IN_STOCK, OUT_OF_STOCK or UNKNOWN when inventory-service could not be reached
+    private String status;
+
+    // True when the value was served from cache after a failed or timed-out lookup
+    private boolean stale;
+
+    private LocalDateTime asOf;
+
+    public static ProductAvailability unknown(Long productId) {
+        return new ProductAvailability(productId, null, "UNKNOWN", true, null);
+    }
+}
@@ -0,0 +1,10 @@
+package main.java.main.java.com.example.productservice.model;
+
+import java.util.HashMap;
+
+/**
+ * Envelope returned by {@code GET /api/products}. Serializes as a plain JSON object; the
+ * distinct type lets the protobuf converter claim this response and no other map.
+ */
+public class ProductListResponse extends HashMap<String, Object> {
+}
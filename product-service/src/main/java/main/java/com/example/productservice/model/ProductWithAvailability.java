@@ -0,0 +1,16 @@
+package main.java.main.java.com.example.productservice.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductWithAvailability {
+    @JsonUnwrapped
+    private Product product;
+
+    private ProductAvailability availability;
+}
@@ -0,0 +1,51 @@
+package main.java.main.java.com.example.productservice.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A stored structured query; product writes are percolated against every active one
+@Entity
+@Table(name = "saved_searches", indexes = {
+    @Index(name = "idx_saved_search_owner", columnList = "owner"),
+    @Index(name = "idx_saved_search_updated_at", columnList = "updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 255)
+    @Column(nullable = false)
+    private String name;
+
+    // Same syntax as /api/products/advanced-search?q=
+    @NotBlank(message = "Query is required")
+    @Size(max = 500)
+    @Column(nullable = false, length = 500)
+    private String query;
+
+    @NotBlank(message = "Owner is required")
+    @Size(max = 100)
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    // Deletes only deactivate, so other replicas see them on their next incremental reload
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,31 @@
+package main.java.main.java.com.example.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Notification outbox: one row per (saved search, product write) match, read by id watermark
+@Entity
+@Table(name = "saved_search_matches", indexes = {
+    @Index(name = "idx_saved_search_match_search", columnList = "saved_search_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchMatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "saved_search_id", nullable = false)
+    private Long savedSearchId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "matched_at", nullable = false)
+    private LocalDateTime matchedAt;
+}
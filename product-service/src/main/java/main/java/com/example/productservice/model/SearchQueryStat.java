@@ -0,0 +1,28 @@
+package main.java.main.java.com.example.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per normalized search query; written in aggregated batches by SearchQueryLogServiceImpl
+@Entity
+@Table(name = "search_query_log", indexes = {
+    @Index(name = "idx_search_query_log_last_seen", columnList = "last_seen")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchQueryStat {
+    @Id
+    @Column(length = 100)
+    private String query;
+
+    @Column(nullable = false)
+    private Long frequency;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDateTime lastSeen;
+}
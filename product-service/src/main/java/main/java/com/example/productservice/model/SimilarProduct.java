@@ -0,0 +1,17 @@
+package main.java.main.java.com.example.productservice.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarProduct {
+    @JsonUnwrapped
+    private Product product;
+
+    // Jaccard similarity of the tag and name/description term sets, 0 to 1
+    private double similarity;
+}
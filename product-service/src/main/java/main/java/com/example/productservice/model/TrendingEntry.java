@@ -0,0 +1,19 @@
+package main.java.main.java.com.example.productservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrendingEntry {
+    private Long productId;
+
+    private String query;
+
+    // Time-decayed event count, roughly "events in the last half-life"
+    private double score;
+}
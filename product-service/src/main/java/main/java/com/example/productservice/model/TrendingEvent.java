@@ -0,0 +1,20 @@
+package main.java.main.java.com.example.productservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingEvent {
+    public enum Type { VIEW, SEARCH }
+
+    private Type type;
+
+    // Set for VIEW events
+    private Long productId;
+
+    // Set for SEARCH events
+    private String query;
+}
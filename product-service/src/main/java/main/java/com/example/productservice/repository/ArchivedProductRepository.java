@@ -0,0 +1,14 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.Optional;
+
+public interface ArchivedProductRepository extends JpaRepository<ArchivedProduct, Long>, JpaSpecificationExecutor<ArchivedProduct>,
+        ArchivedProductRepositoryCustom {
+
+    // A SKU freed by an archived product can be reused and archived again
+    Optional<ArchivedProduct> findFirstBySkuOrderByArchivedAtDesc(String sku);
+}
@@ -0,0 +1,12 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ArchivedProductRepositoryCustom {
+    // Offset-based slice, for pages that continue from the live table into the archive
+    List<ArchivedProduct> findContent(Specification<ArchivedProduct> spec, Sort sort, long offset, int limit);
+}
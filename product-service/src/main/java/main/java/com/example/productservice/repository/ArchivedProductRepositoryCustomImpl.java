@@ -0,0 +1,41 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class ArchivedProductRepositoryCustomImpl implements ArchivedProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ArchivedProduct> findContent(Specification<ArchivedProduct> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ArchivedProduct> query = criteriaBuilder.createQuery(ArchivedProduct.class);
+        Root<ArchivedProduct> root = query.from(ArchivedProduct.class);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(root);
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return entityManager.createQuery(query)
+            .setFirstResult((int) offset)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
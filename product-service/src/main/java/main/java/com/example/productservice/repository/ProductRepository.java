@@ -10,14 +10,34 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
+
+    String SEARCH_PREDICATE =
+           "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.sku) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "EXISTS (SELECT 1 FROM p.tags t WHERE LOWER(t) LIKE LOWER(CONCAT('%', :query, '%'))) ";
+
+    String SEARCH_ORDER =
+           "ORDER BY " +
+           "CASE WHEN LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) THEN 1 ELSE 2 END, " +
+           "CASE WHEN LOWER(p.sku) LIKE LOWER(CONCAT('%', :query, '%')) THEN 1 ELSE 2 END";
     
     Optional<Product> findBySku(String sku);
     
     boolean existsBySku(String sku);
+
+    @Query("SELECT p.id AS id, p.version AS version, p.updatedAt AS updatedAt FROM Product p WHERE p.id = :id")
+    Optional<ProductRevision> findRevisionById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.version AS version, p.updatedAt AS updatedAt FROM Product p WHERE p.sku = :sku")
+    Optional<ProductRevision> findRevisionBySku(@Param("sku") String sku);
+
     
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE'")
     Page<Product> findAllActive(Pageable pageable);
@@ -25,13 +45,28 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.status != 'DISCONTINUED'")
     Page<Product> findAllAvailable(Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.sku) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "EXISTS (SELECT 1 FROM p.tags t WHERE LOWER(t) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY " +
-           "CASE WHEN LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) THEN 1 ELSE 2 END, " +
-           "CASE WHEN LOWER(p.sku) LIKE LOWER(CONCAT('%', :query, '%')) THEN 1 ELSE 2 END")
+    @Query("SELECT p FROM Product p WHERE " + SEARCH_PREDICATE + SEARCH_ORDER)
     Page<Product> searchByQuery(@Param("query") String query, Pageable pageable);
+
+    // searchByQuery split in two so the halves can run concurrently
+    @Query("SELECT p FROM Product p WHERE " + SEARCH_PREDICATE + SEARCH_ORDER)
+    List<Product> searchContentByQuery(@Param("query") String query, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE " + SEARCH_PREDICATE)
+    long countByQuery(@Param("query") String query);
+
+    // Default search: live products only, DISCONTINUED ones are reached through include_discontinued
+    @Query("SELECT p FROM Product p WHERE p.status <> 'DISCONTINUED' AND (" + SEARCH_PREDICATE + ") " + SEARCH_ORDER)
+    List<Product> searchLiveContentByQuery(@Param("query") String query, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.status <> 'DISCONTINUED' AND (" + SEARCH_PREDICATE + ")")
+    long countLiveByQuery(@Param("query") String query);
+
+    interface ProductRevision {
+        Long getId();
+
+        Long getVersion();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    // Content half of findAll(spec, pageable): same query, no count
+    List<Product> findContent(Specification<Product> spec, Pageable pageable);
+}
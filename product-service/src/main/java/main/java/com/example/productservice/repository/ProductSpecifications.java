@@ -0,0 +1,148 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.search.ProductQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Default read paths: soft-deleted products waiting for the archive job are skipped too
+    public static Specification<Product> live() {
+        return (root, query, criteriaBuilder) ->
+            criteriaBuilder.notEqual(root.get("status"), Product.ProductStatus.DISCONTINUED);
+    }
+
+    public static Specification<Product> live(Specification<Product> spec) {
+        return spec == null ? live() : live().and(spec);
+    }
+
+    /**
+     * Applies a Product specification to the archive. Criteria paths are resolved by attribute
+     * name, and ArchivedProduct mirrors Product's attributes, so the predicate carries over.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<ArchivedProduct> archived(Specification<Product> spec) {
+        if (spec == null) {
+            return null;
+        }
+        return (root, query, criteriaBuilder) -> spec.toPredicate((Root) root, query, criteriaBuilder);
+    }
+
+    // Same matching rules as ProductRepository.SEARCH_PREDICATE
+    public static Specification<ArchivedProduct> archivedMatching(String query) {
+        return (root, criteriaQuery, criteriaBuilder) -> {
+            String pattern = "%" + query.toLowerCase() + "%";
+            Subquery<Long> tagMatch = criteriaQuery.subquery(Long.class);
+            Root<ArchivedProduct> tagRoot = tagMatch.correlate(root);
+            Join<ArchivedProduct, String> tags = tagRoot.join("tags");
+            tagMatch.select(criteriaBuilder.literal(1L)).where(criteriaBuilder.like(criteriaBuilder.lower(tags), pattern));
+            return criteriaBuilder.or(
+                like(criteriaBuilder, root.get("name"), pattern),
+                like(criteriaBuilder, root.get("description"), pattern),
+                like(criteriaBuilder, root.get("sku"), pattern),
+                criteriaBuilder.exists(tagMatch));
+        };
+    }
+
+    private static Predicate like(CriteriaBuilder criteriaBuilder, Expression<String> field, String pattern) {
+        return criteriaBuilder.like(criteriaBuilder.lower(field), pattern);
+    }
+
+    /**
+     * Compiles a structured query clause by clause, keeping the clause order. Tags are matched
+     * by equality in a correlated subquery, so the product_tags index on tag is usable; the
+     * paths are attribute names, so the result also works through {@link #archived}.
+     */
+    public static Specification<Product> matching(List<ProductQuery> clauses) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(clauses.stream()
+            .map(clause -> predicate(clause, root, query, criteriaBuilder))
+            .toArray(Predicate[]::new));
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    private static Predicate predicate(ProductQuery clause, Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        if (clause instanceof ProductQuery.And and) {
+            return criteriaBuilder.and(and.getClauses().stream()
+                .map(nested -> predicate(nested, root, query, criteriaBuilder)).toArray(Predicate[]::new));
+        }
+        if (clause instanceof ProductQuery.Or or) {
+            return criteriaBuilder.or(or.getClauses().stream()
+                .map(nested -> predicate(nested, root, query, criteriaBuilder)).toArray(Predicate[]::new));
+        }
+        if (clause instanceof ProductQuery.Not not) {
+            return criteriaBuilder.not(predicate(not.getClause(), root, query, criteriaBuilder));
+        }
+        if (clause instanceof ProductQuery.Range range) {
+            if (range.getField() == ProductQuery.Field.PRICE) {
+                return between(criteriaBuilder, root.get("price"), range.getLower(), range.getUpper());
+            }
+            // The parser only lets whole numbers through for stock
+            return between(criteriaBuilder, root.get("stockQuantity"),
+                range.getLower() != null ? range.getLower().intValueExact() : null,
+                range.getUpper() != null ? range.getUpper().intValueExact() : null);
+        }
+        ProductQuery.Term term = (ProductQuery.Term) clause;
+        String pattern = "%" + term.getValue().toLowerCase() + "%";
+        return switch (term.getField()) {
+            case TEXT -> criteriaBuilder.or(
+                like(criteriaBuilder, root.get("name"), pattern),
+                like(criteriaBuilder, root.get("description"), pattern),
+                like(criteriaBuilder, root.get("sku"), pattern));
+            case NAME -> like(criteriaBuilder, root.get("name"), pattern);
+            case DESCRIPTION -> like(criteriaBuilder, root.get("description"), pattern);
+            case SKU -> like(criteriaBuilder, root.get("sku"), pattern);
+            case TAG -> {
+                Subquery<Long> tagMatch = query.subquery(Long.class);
+                Root<Product> tagRoot = tagMatch.correlate(root);
+                Join<Product, String> tags = tagRoot.join("tags");
+                // The parser lower-cases the value; lower(tag) is served by idx_product_tags_tag_lower (import.sql)
+                tagMatch.select(criteriaBuilder.literal(1L)).where(criteriaBuilder.equal(criteriaBuilder.lower(tags), term.getValue()));
+                yield criteriaBuilder.exists(tagMatch);
+            }
+            case STATUS -> criteriaBuilder.equal(root.get("status"), Product.ProductStatus.valueOf(term.getValue()));
+            // A subquery rather than a join, which would drop uncategorised products from OR branches
+            case CATEGORY -> {
+                Subquery<Long> categoryIds = query.subquery(Long.class);
+                Root<Category> category = categoryIds.from(Category.class);
+                categoryIds.select(category.get("id")).where(isNumeric(term.getValue())
+                    ? criteriaBuilder.equal(category.get("id"), Long.valueOf(term.getValue()))
+                    : criteriaBuilder.equal(criteriaBuilder.lower(category.get("name")), term.getValue()));
+                yield root.get("category").get("id").in(categoryIds);
+            }
+            default -> throw new IllegalArgumentException("Field " + term.getField() + " takes a range");
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate between(CriteriaBuilder criteriaBuilder, Path<T> field, T lower, T upper) {
+        if (lower != null && upper != null) {
+            return criteriaBuilder.between(field, lower, upper);
+        }
+        if (lower != null) {
+            return criteriaBuilder.greaterThanOrEqualTo(field, lower);
+        }
+        return upper != null ? criteriaBuilder.lessThanOrEqualTo(field, upper) : criteriaBuilder.isNotNull(field);
+    }
+
+    public static boolean isNumeric(String value) {
+        return !value.isEmpty() && value.length() < 19 && value.chars().allMatch(Character::isDigit);
+    }
+}
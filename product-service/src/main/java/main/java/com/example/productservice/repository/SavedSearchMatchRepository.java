@@ -0,0 +1,20 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.SavedSearchMatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SavedSearchMatchRepository extends JpaRepository<SavedSearchMatch, Long> {
+
+    @Query("SELECT m FROM SavedSearchMatch m WHERE m.id > :after ORDER BY m.id")
+    List<SavedSearchMatch> findAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("SELECT m FROM SavedSearchMatch m WHERE m.savedSearchId = :savedSearchId AND m.id > :after ORDER BY m.id")
+    List<SavedSearchMatch> findAfter(@Param("savedSearchId") Long savedSearchId, @Param("after") long after, Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.SavedSearch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+
+    List<SavedSearch> findByActiveTrue();
+
+    // Incremental percolator reload, deactivations included
+    List<SavedSearch> findByUpdatedAtAfter(LocalDateTime since);
+
+    Page<SavedSearch> findByOwnerAndActiveTrue(String owner, Pageable pageable);
+}
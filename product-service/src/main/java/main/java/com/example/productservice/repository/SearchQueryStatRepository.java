@@ -0,0 +1,22 @@
+package main.java.main.java.com.example.productservice.repository;
+
+import main.java.main.java.com.example.productservice.model.SearchQueryStat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SearchQueryStatRepository extends JpaRepository<SearchQueryStat, String> {
+
+    @Query("SELECT s.query FROM SearchQueryStat s WHERE s.lastSeen >= :since ORDER BY s.frequency DESC")
+    List<String> findTopQueries(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Query("DELETE FROM SearchQueryStat s WHERE s.lastSeen < :before")
+    int deleteByLastSeenBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,282 @@
+package main.java.main.java.com.example.productservice.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse search: indexes saved queries so that one product finds the queries it matches.
+ * Each query is registered under anchor keys that any matching product must carry: a tag,
+ * category or status value, or one trigram of a text term. A product's keys then select the
+ * candidate queries, and only those are evaluated exactly. Queries with no usable anchor
+ * (negations, ranges, text shorter than a trigram) are evaluated for every product, so the
+ * unanchored count is worth watching.
+ */
+public final class Percolator {
+
+    private static final int GRAM = 3;
+
+    private final Map<String, Set<Long>> byAnchor = new ConcurrentHashMap<>();
+    private final Set<Long> unanchored = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Registered> queries = new ConcurrentHashMap<>();
+
+    public void register(long id, ProductQuery query) {
+        unregister(id);
+        Set<String> anchors = anchors(query);
+        queries.put(id, new Registered(query, anchors));
+        if (anchors == null) {
+            unanchored.add(id);
+            return;
+        }
+        for (String anchor : anchors) {
+            byAnchor.computeIfAbsent(anchor, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public void unregister(long id) {
+        Registered removed = queries.remove(id);
+        if (removed == null) {
+            return;
+        }
+        if (removed.anchors == null) {
+            unanchored.remove(id);
+            return;
+        }
+        for (String anchor : removed.anchors) {
+            byAnchor.computeIfPresent(anchor, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    public int unanchoredSize() {
+        return unanchored.size();
+    }
+
+    // Ids of the registered queries the product matches
+    public List<Long> percolate(Document product) {
+        return percolate(product, null);
+    }
+
+    public List<Long> percolate(Document product, int[] candidatesEvaluated) {
+        Set<Long> candidates = new HashSet<>(unanchored);
+        for (String key : keys(product)) {
+            Set<Long> ids = byAnchor.get(key);
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+        if (candidatesEvaluated != null) {
+            candidatesEvaluated[0] += candidates.size();
+        }
+        List<Long> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            Registered registered = queries.get(id);
+            if (registered != null && ProductQueryMatcher.matches(registered.query, product)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    // null when the query can match a product that carries none of its keys
+    private Set<String> anchors(ProductQuery query) {
+        if (query instanceof ProductQuery.Term term) {
+            return switch (term.getField()) {
+                case TAG -> Set.of("t:" + term.getValue());
+                case CATEGORY -> Set.of("c:" + term.getValue());
+                case STATUS -> Set.of("s:" + term.getValue());
+                default -> leastUsedGram(term.getValue().toLowerCase(Locale.ROOT));
+            };
+        }
+        if (query instanceof ProductQuery.And and) {
+            // Any one clause must hold, so the cheapest clause's anchors are enough
+            Set<String> best = null;
+            long bestCost = Long.MAX_VALUE;
+            for (ProductQuery clause : and.getClauses()) {
+                Set<String> anchors = anchors(clause);
+                long cost = anchors != null ? cost(anchors) : Long.MAX_VALUE;
+                if (cost < bestCost) {
+                    best = anchors;
+                    bestCost = cost;
+                }
+            }
+            return best;
+        }
+        if (query instanceof ProductQuery.Or or) {
+            Set<String> union = new HashSet<>();
+            for (ProductQuery clause : or.getClauses()) {
+                Set<String> anchors = anchors(clause);
+                if (anchors == null) {
+                    return null;
+                }
+                union.addAll(anchors);
+            }
+            return union;
+        }
+        return null;
+    }
+
+    // Any trigram of the value appears in every matching text; the least shared keeps candidate lists short
+    private Set<String> leastUsedGram(String value) {
+        String best = null;
+        int bestSize = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            String gram = "g:" + value.substring(i, i + GRAM);
+            Set<Long> ids = byAnchor.get(gram);
+            int size = ids != null ? ids.size() : 0;
+            if (size < bestSize) {
+                best = gram;
+                bestSize = size;
+            }
+        }
+        return best != null ? Set.of(best) : null;
+    }
+
+    // Queries already sharing these anchors, plus one per anchor
+    private long cost(Set<String> anchors) {
+        long cost = 0;
+        for (String anchor : anchors) {
+            Set<Long> ids = byAnchor.get(anchor);
+            cost += 1 + (ids != null ? ids.size() : 0);
+        }
+        return cost;
+    }
+
+    private static Set<String> keys(Document product) {
+        Set<String> keys = new HashSet<>();
+        for (String tag : product.getTags()) {
+            keys.add("t:" + tag);
+        }
+        if (product.getCategoryId() != null) {
+            keys.add("c:" + product.getCategoryId());
+        }
+        if (product.getCategoryName() != null) {
+            keys.add("c:" + product.getCategoryName());
+        }
+        if (product.getStatus() != null) {
+            keys.add("s:" + product.getStatus());
+        }
+        addGrams(keys, product.getName());
+        addGrams(keys, product.getDescription());
+        addGrams(keys, product.getSku());
+        return keys;
+    }
+
+    private static void addGrams(Set<String> keys, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            keys.add("g:" + text.substring(i, i + GRAM));
+        }
+    }
+
+    private static final class Registered {
+        final ProductQuery query;
+        final Set<String> anchors;
+
+        Registered(ProductQuery query, Set<String> anchors) {
+            this.query = query;
+            this.anchors = anchors;
+        }
+    }
+
+    /**
+     * The product fields queries can test, captured at write time. Text is lower-cased, tags
+     * and category name too, matching how the parser normalizes query values.
+     */
+    public static final class Document {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final String sku;
+        private final Set<String> tags;
+        private final Long categoryId;
+        private final String categoryName;
+        private final String status;
+        private final BigDecimal price;
+        private final Integer stockQuantity;
+
+        public Document(Long id, String name, String description, String sku, Collection<String> tags, Long categoryId,
+                        String categoryName, String status, BigDecimal price, Integer stockQuantity) {
+            this.id = id;
+            this.name = lower(name);
+            this.description = lower(description);
+            this.sku = lower(sku);
+            Set<String> lowerTags = new HashSet<>();
+            if (tags != null) {
+                for (String tag : tags) {
+                    if (tag != null) {
+                        lowerTags.add(tag.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            this.tags = lowerTags;
+            this.categoryId = categoryId;
+            this.categoryName = lower(categoryName);
+            this.status = status;
+            this.price = price;
+            this.stockQuantity = stockQuantity;
+        }
+
+        public Document withCategoryName(String categoryName) {
+            return new Document(id, name, description, sku, tags, categoryId, categoryName, status, price, stockQuantity);
+        }
+
+        private static String lower(String value) {
+            return value != null ? value.toLowerCase(Locale.ROOT) : null;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public Set<String> getTags() {
+            return tags;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public Integer getStockQuantity() {
+            return stockQuantity;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package main.java.main.java.com.example.productservice.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed form of a structured product query such as
+ * {@code name:laptop AND (tag:apple OR tag:dell) -status:discontinued price:[500 TO 1500]}.
+ * {@link #toString()} renders the canonical syntax, which also serves as a cache key.
+ */
+public abstract class ProductQuery {
+
+    public enum Field {
+        // Bare words: name, description or SKU contains the value
+        TEXT, NAME, DESCRIPTION, SKU, TAG, CATEGORY, STATUS, PRICE, STOCK;
+
+        public boolean isRange() {
+            return this == PRICE || this == STOCK;
+        }
+
+        // Fields backed by an equality index, so their posting list can be read directly
+        public boolean isIndexedTerm() {
+            return this == TAG || this == CATEGORY || this == STATUS;
+        }
+    }
+
+    private ProductQuery() {
+    }
+
+    public static final class Term extends ProductQuery {
+        private final Field field;
+        private final String value;
+
+        public Term(Field field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            String quoted = value.chars().anyMatch(c -> Character.isWhitespace(c) || "()[]:\"".indexOf(c) >= 0)
+                ? '"' + value.replace("\"", "\\\"") + '"' : value;
+            return field == Field.TEXT ? quoted : field.name().toLowerCase() + ':' + quoted;
+        }
+    }
+
+    // Inclusive bounds; a null bound is open ("*")
+    public static final class Range extends ProductQuery {
+        private final Field field;
+        private final BigDecimal lower;
+        private final BigDecimal upper;
+
+        public Range(Field field, BigDecimal lower, BigDecimal upper) {
+            this.field = field;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public BigDecimal getLower() {
+            return lower;
+        }
+
+        public BigDecimal getUpper() {
+            return upper;
+        }
+
+        @Override
+        public String toString() {
+            return field.name().toLowerCase() + ":[" + (lower != null ? lower.toPlainString() : "*") + " TO "
+                + (upper != null ? upper.toPlainString() : "*") + "]";
+        }
+    }
+
+    public static final class And extends ProductQuery {
+        private final List<ProductQuery> clauses;
+
+        public And(List<ProductQuery> clauses) {
+            this.clauses = List.copyOf(clauses);
+        }
+
+        public List<ProductQuery> getClauses() {
+            return clauses;
+        }
+
+        @Override
+        public String toString() {
+            return clauses.stream().map(ProductQuery::grouped).collect(Collectors.joining(" AND "));
+        }
+    }
+
+    public static final class Or extends ProductQuery {
+        private final List<ProductQuery> clauses;
+
+        public Or(List<ProductQuery> clauses) {
+            this.clauses = List.copyOf(clauses);
+        }
+
+        public List<ProductQuery> getClauses() {
+            return clauses;
+        }
+
+        @Override
+        public String toString() {
+            return clauses.stream().map(ProductQuery::grouped).collect(Collectors.joining(" OR "));
+        }
+    }
+
+    public static final class Not extends ProductQuery {
+        private final ProductQuery clause;
+
+        public Not(ProductQuery clause) {
+            this.clause = clause;
+        }
+
+        public ProductQuery getClause() {
+            return clause;
+        }
+
+        @Override
+        public String toString() {
+            return "-" + grouped(clause);
+        }
+    }
+
+    private static String grouped(ProductQuery query) {
+        return query instanceof And || query instanceof Or ? "(" + query + ")" : query.toString();
+    }
+}
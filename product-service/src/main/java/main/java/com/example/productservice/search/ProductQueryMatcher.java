@@ -0,0 +1,63 @@
+package main.java.main.java.com.example.productservice.search;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Evaluates a {@link ProductQuery} against one product in memory, with the same rules as the
+ * SQL that ProductSpecifications.matching generates: text fields match case-insensitive
+ * substrings, tags and category names match whole values, ranges are inclusive.
+ */
+public final class ProductQueryMatcher {
+
+    private ProductQueryMatcher() {
+    }
+
+    public static boolean matches(ProductQuery query, Percolator.Document product) {
+        if (query instanceof ProductQuery.And and) {
+            for (ProductQuery clause : and.getClauses()) {
+                if (!matches(clause, product)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (query instanceof ProductQuery.Or or) {
+            for (ProductQuery clause : or.getClauses()) {
+                if (matches(clause, product)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (query instanceof ProductQuery.Not not) {
+            return !matches(not.getClause(), product);
+        }
+        if (query instanceof ProductQuery.Range range) {
+            BigDecimal value = range.getField() == ProductQuery.Field.PRICE ? product.getPrice()
+                : product.getStockQuantity() != null ? BigDecimal.valueOf(product.getStockQuantity()) : null;
+            return value != null
+                && (range.getLower() == null || value.compareTo(range.getLower()) >= 0)
+                && (range.getUpper() == null || value.compareTo(range.getUpper()) <= 0);
+        }
+        ProductQuery.Term term = (ProductQuery.Term) query;
+        String value = term.getValue();
+        return switch (term.getField()) {
+            case TEXT -> contains(product.getName(), value) || contains(product.getDescription(), value)
+                || contains(product.getSku(), value);
+            case NAME -> contains(product.getName(), value);
+            case DESCRIPTION -> contains(product.getDescription(), value);
+            case SKU -> contains(product.getSku(), value);
+            case TAG -> product.getTags().contains(value);
+            case STATUS -> value.equals(product.getStatus());
+            case CATEGORY -> product.getCategoryId() != null && value.equals(product.getCategoryId().toString())
+                || value.equals(product.getCategoryName());
+            default -> false;
+        };
+    }
+
+    // Document text is already lower-cased
+    private static boolean contains(String field, String value) {
+        return field != null && field.contains(value.toLowerCase(Locale.ROOT));
+    }
+}
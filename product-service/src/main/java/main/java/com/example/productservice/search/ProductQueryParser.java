@@ -0,0 +1,273 @@
+package main.java.main.java.com.example.productservice.search;
+
+import main.java.main.java.com.example.productservice.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recursive-descent parser for the structured search syntax:
+ * <pre>
+ * query   := or
+ * or      := and ("OR" and)*
+ * and     := unary (["AND"] unary)*       adjacent clauses are ANDed
+ * unary   := ("-" | "NOT") unary | primary
+ * primary := "(" query ")" | field ":" value | field ":" "[" bound "TO" bound "]" | value
+ * value   := word | "quoted text"         bound := number | "*"
+ * </pre>
+ * Fields are name, description, sku, tag, category, status, price and stock; a bare value
+ * matches name, description or SKU. Malformed input raises IllegalArgumentException.
+ */
+public final class ProductQueryParser {
+
+    public static final int MAX_LENGTH = 500;
+    public static final int MAX_CLAUSES = 64;
+    private static final int MAX_DEPTH = 16;
+
+    private final String input;
+    private int position;
+    private int clauses;
+    private int depth;
+
+    private ProductQueryParser(String input) {
+        this.input = input;
+    }
+
+    public static ProductQuery parse(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be empty");
+        }
+        if (query.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Query longer than " + MAX_LENGTH + " characters");
+        }
+        ProductQueryParser parser = new ProductQueryParser(query);
+        ProductQuery parsed = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected '" + parser.peek() + "'");
+        }
+        return parsed;
+    }
+
+    private ProductQuery parseOr() {
+        List<ProductQuery> parts = new ArrayList<>();
+        parts.add(parseAnd());
+        while (keyword("OR")) {
+            parts.add(parseAnd());
+        }
+        return parts.size() == 1 ? parts.get(0) : new ProductQuery.Or(parts);
+    }
+
+    private ProductQuery parseAnd() {
+        List<ProductQuery> parts = new ArrayList<>();
+        parts.add(parseUnary());
+        while (true) {
+            skipWhitespace();
+            if (atEnd() || peek() == ')' || lookingAtKeyword("OR")) {
+                break;
+            }
+            keyword("AND");
+            parts.add(parseUnary());
+        }
+        return parts.size() == 1 ? parts.get(0) : new ProductQuery.And(parts);
+    }
+
+    private ProductQuery parseUnary() {
+        skipWhitespace();
+        if (!atEnd() && peek() == '-') {
+            position++;
+            return new ProductQuery.Not(nested(this::parseUnary));
+        }
+        if (keyword("NOT")) {
+            return new ProductQuery.Not(nested(this::parseUnary));
+        }
+        return parsePrimary();
+    }
+
+    private ProductQuery parsePrimary() {
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("Expected a clause");
+        }
+        if (peek() == '(') {
+            position++;
+            ProductQuery grouped = nested(this::parseOr);
+            skipWhitespace();
+            expect(')');
+            return grouped;
+        }
+        if (++clauses > MAX_CLAUSES) {
+            throw error("More than " + MAX_CLAUSES + " clauses");
+        }
+        int start = position;
+        boolean quoted = peek() == '"';
+        String word = readValue();
+        if (quoted || atEnd() || peek() != ':') {
+            return new ProductQuery.Term(ProductQuery.Field.TEXT, word);
+        }
+        position++;
+        ProductQuery.Field field = field(word, start);
+        if (!atEnd() && peek() == '[') {
+            if (!field.isRange()) {
+                throw error("Field '" + word + "' does not take a range");
+            }
+            return parseRange(field);
+        }
+        String value = readValue();
+        if (field.isRange()) {
+            BigDecimal exact = number(value, field);
+            return new ProductQuery.Range(field, exact, exact);
+        }
+        return term(field, value);
+    }
+
+    private ProductQuery parseRange(ProductQuery.Field field) {
+        expect('[');
+        skipWhitespace();
+        BigDecimal lower = bound(readValue(), field);
+        if (!keyword("TO")) {
+            throw error("Expected TO");
+        }
+        skipWhitespace();
+        BigDecimal upper = bound(readValue(), field);
+        skipWhitespace();
+        expect(']');
+        if (lower != null && upper != null && lower.compareTo(upper) > 0) {
+            throw error("Empty range for " + field.name().toLowerCase());
+        }
+        return new ProductQuery.Range(field, lower, upper);
+    }
+
+    private ProductQuery term(ProductQuery.Field field, String value) {
+        switch (field) {
+            case STATUS -> {
+                try {
+                    return new ProductQuery.Term(field, Product.ProductStatus.valueOf(value.toUpperCase(Locale.ROOT)).name());
+                } catch (IllegalArgumentException e) {
+                    throw error("Unknown status '" + value + "'");
+                }
+            }
+            // Tags and category names compare case-insensitively
+            case TAG, CATEGORY -> {
+                return new ProductQuery.Term(field, value.toLowerCase(Locale.ROOT));
+            }
+            default -> {
+                return new ProductQuery.Term(field, value);
+            }
+        }
+    }
+
+    private ProductQuery nested(java.util.function.Supplier<ProductQuery> parser) {
+        if (++depth > MAX_DEPTH) {
+            throw error("Query nested deeper than " + MAX_DEPTH + " levels");
+        }
+        ProductQuery parsed = parser.get();
+        depth--;
+        return parsed;
+    }
+
+    private ProductQuery.Field field(String name, int start) {
+        try {
+            ProductQuery.Field field = ProductQuery.Field.valueOf(name.toUpperCase(Locale.ROOT));
+            if (field != ProductQuery.Field.TEXT) {
+                return field;
+            }
+        } catch (IllegalArgumentException e) {
+            // Reported below
+        }
+        position = start;
+        throw error("Unknown field '" + name + "'");
+    }
+
+    private BigDecimal bound(String value, ProductQuery.Field field) {
+        return value.equals("*") ? null : number(value, field);
+    }
+
+    private BigDecimal number(String value, ProductQuery.Field field) {
+        try {
+            BigDecimal number = new BigDecimal(value);
+            if (field == ProductQuery.Field.STOCK) {
+                number.intValueExact();
+            }
+            return number;
+        } catch (ArithmeticException e) {
+            throw error("Stock must be a whole number: " + value);
+        } catch (NumberFormatException e) {
+            throw error("Expected a number for " + field.name().toLowerCase() + ": '" + value + "'");
+        }
+    }
+
+    private String readValue() {
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("Expected a value");
+        }
+        if (peek() == '"') {
+            position++;
+            StringBuilder value = new StringBuilder();
+            while (!atEnd() && peek() != '"') {
+                char c = input.charAt(position++);
+                if (c == '\\' && !atEnd()) {
+                    c = input.charAt(position++);
+                }
+                value.append(c);
+            }
+            expect('"');
+            if (value.toString().isBlank()) {
+                throw error("Empty quoted value");
+            }
+            return value.toString();
+        }
+        int start = position;
+        while (!atEnd() && !Character.isWhitespace(peek()) && "()[]:\"".indexOf(peek()) < 0) {
+            position++;
+        }
+        if (position == start) {
+            throw error("Expected a value");
+        }
+        return input.substring(start, position);
+    }
+
+    // Keywords are upper case only, so "or" and "and" stay searchable words
+    private boolean keyword(String keyword) {
+        skipWhitespace();
+        if (!lookingAtKeyword(keyword)) {
+            return false;
+        }
+        position += keyword.length();
+        return true;
+    }
+
+    private boolean lookingAtKeyword(String keyword) {
+        int end = position + keyword.length();
+        return input.startsWith(keyword, position)
+            && (end == input.length() || Character.isWhitespace(input.charAt(end)) || input.charAt(end) == '(');
+    }
+
+    private void expect(char expected) {
+        if (atEnd() || peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(peek())) {
+            position++;
+        }
+    }
+
+    private boolean atEnd() {
+        return position >= input.length();
+    }
+
+    private char peek() {
+        return input.charAt(position);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in query: " + input);
+    }
+}
@@ -0,0 +1,170 @@
+package main.java.main.java.com.example.productservice.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Turns a parsed {@link ProductQuery} into a {@link Plan}: nested ANDs and ORs are flattened,
+ * double negations dropped, and each AND's clauses ordered by estimated matches so the most
+ * selective come first. Estimates come from {@link Statistics}; fields without statistics
+ * (text and ranges) get fixed selectivities, and negations always sort last.
+ */
+public final class ProductQueryPlanner {
+
+    private static final double TEXT_SELECTIVITY = 0.05;
+    private static final double RANGE_SELECTIVITY = 0.25;
+
+    public interface Statistics {
+
+        long totalProducts();
+
+        long tagFrequency(String tag);
+
+        long statusFrequency(String status);
+
+        long categoryFrequency(String category);
+    }
+
+    private final Statistics statistics;
+
+    public ProductQueryPlanner(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public Plan plan(ProductQuery query) {
+        ProductQuery normalized = normalize(query);
+        List<ProductQuery> clauses = normalized instanceof ProductQuery.And and ? and.getClauses() : List.of(normalized);
+        List<ProductQuery.Term> postingTerms = new ArrayList<>();
+        List<ProductQuery> residual = new ArrayList<>();
+        for (ProductQuery clause : clauses) {
+            if (clause instanceof ProductQuery.Term term && term.getField().isIndexedTerm()) {
+                postingTerms.add(term);
+            } else {
+                residual.add(clause);
+            }
+        }
+        return new Plan(normalized, estimate(normalized), postingTerms, residual, this);
+    }
+
+    public long estimate(ProductQuery query) {
+        long total = statistics.totalProducts();
+        if (query instanceof ProductQuery.Term term) {
+            return switch (term.getField()) {
+                case TAG -> statistics.tagFrequency(term.getValue());
+                case STATUS -> statistics.statusFrequency(term.getValue());
+                case CATEGORY -> statistics.categoryFrequency(term.getValue());
+                default -> Math.round(total * TEXT_SELECTIVITY);
+            };
+        }
+        if (query instanceof ProductQuery.Range range) {
+            return Math.round(total * (range.getLower() != null && range.getUpper() != null
+                && range.getLower().compareTo(range.getUpper()) == 0 ? TEXT_SELECTIVITY : RANGE_SELECTIVITY));
+        }
+        if (query instanceof ProductQuery.Not not) {
+            return Math.max(0, total - estimate(not.getClause()));
+        }
+        if (query instanceof ProductQuery.And and) {
+            // Independent clauses: the product of their selectivities, capped by the smallest
+            double fraction = 1.0;
+            long smallest = total;
+            for (ProductQuery clause : and.getClauses()) {
+                long clauseEstimate = estimate(clause);
+                smallest = Math.min(smallest, clauseEstimate);
+                fraction *= total == 0 ? 0 : (double) clauseEstimate / total;
+            }
+            return Math.min(smallest, Math.round(total * fraction));
+        }
+        long sum = 0;
+        for (ProductQuery clause : ((ProductQuery.Or) query).getClauses()) {
+            sum += estimate(clause);
+        }
+        return Math.min(total, sum);
+    }
+
+    private ProductQuery normalize(ProductQuery query) {
+        if (query instanceof ProductQuery.Not not) {
+            ProductQuery inner = normalize(not.getClause());
+            return inner instanceof ProductQuery.Not doubled ? doubled.getClause() : new ProductQuery.Not(inner);
+        }
+        if (query instanceof ProductQuery.And and) {
+            List<ProductQuery> flattened = new ArrayList<>();
+            for (ProductQuery clause : and.getClauses()) {
+                ProductQuery normalized = normalize(clause);
+                if (normalized instanceof ProductQuery.And nested) {
+                    flattened.addAll(nested.getClauses());
+                } else {
+                    flattened.add(normalized);
+                }
+            }
+            // Most selective first; negations only filter, so they go last
+            flattened.sort(Comparator.<ProductQuery, Boolean>comparing(clause -> clause instanceof ProductQuery.Not)
+                .thenComparingLong(this::estimate));
+            return new ProductQuery.And(flattened);
+        }
+        if (query instanceof ProductQuery.Or or) {
+            List<ProductQuery> flattened = new ArrayList<>();
+            for (ProductQuery clause : or.getClauses()) {
+                ProductQuery normalized = normalize(clause);
+                if (normalized instanceof ProductQuery.Or nested) {
+                    flattened.addAll(nested.getClauses());
+                } else {
+                    flattened.add(normalized);
+                }
+            }
+            return new ProductQuery.Or(flattened);
+        }
+        return query;
+    }
+
+    /**
+     * A planned query. The indexed terms of the top-level AND (tag, category, status) are
+     * listed as posting terms in ascending estimate, for the executor to read and intersect
+     * before anything else; the residual clauses are left to the database.
+     */
+    public static final class Plan {
+        private final ProductQuery query;
+        private final long estimatedRows;
+        private final List<ProductQuery.Term> postingTerms;
+        private final List<ProductQuery> residual;
+        private final ProductQueryPlanner planner;
+
+        private Plan(ProductQuery query, long estimatedRows, List<ProductQuery.Term> postingTerms,
+                     List<ProductQuery> residual, ProductQueryPlanner planner) {
+            this.query = query;
+            this.estimatedRows = estimatedRows;
+            this.postingTerms = List.copyOf(postingTerms);
+            this.residual = List.copyOf(residual);
+            this.planner = planner;
+        }
+
+        public ProductQuery getQuery() {
+            return query;
+        }
+
+        public long getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        public List<ProductQuery.Term> getPostingTerms() {
+            return postingTerms;
+        }
+
+        public List<ProductQuery> getResidual() {
+            return residual;
+        }
+
+        // e.g. "tag:apple(~12) -> name:laptop(~500) -> -status:DISCONTINUED(~9000)"
+        public String describe() {
+            List<ProductQuery> clauses = query instanceof ProductQuery.And and ? and.getClauses() : List.of(query);
+            StringBuilder description = new StringBuilder();
+            for (ProductQuery clause : clauses) {
+                if (description.length() > 0) {
+                    description.append(" -> ");
+                }
+                description.append(clause).append("(~").append(planner.estimate(clause)).append(')');
+            }
+            return description.toString();
+        }
+    }
+}
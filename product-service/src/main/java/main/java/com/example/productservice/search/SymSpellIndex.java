@@ -0,0 +1,202 @@
+package main.java.main.java.com.example.productservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetric-delete spelling index (SymSpell). Every dictionary term is stored under all
+ * strings reachable by deleting up to {@code maxEditDistance} characters from its prefix;
+ * a lookup generates the same deletes for the input and only verifies the few terms that
+ * share one. No edit-distance scan of the vocabulary, so lookups take microseconds.
+ * Immutable once built; build a new one to change the vocabulary.
+ */
+public final class SymSpellIndex {
+
+    private final int maxEditDistance;
+    private final int prefixLength;
+    private final String[] terms;
+    private final long[] frequencies;
+    private final Map<String, Integer> termIndex;
+    private final Map<String, int[]> deletes;
+
+    private SymSpellIndex(int maxEditDistance, int prefixLength, String[] terms, long[] frequencies,
+                          Map<String, Integer> termIndex, Map<String, int[]> deletes) {
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+        this.terms = terms;
+        this.frequencies = frequencies;
+        this.termIndex = termIndex;
+        this.deletes = deletes;
+    }
+
+    public static Builder builder(int maxEditDistance, int prefixLength) {
+        return new Builder(maxEditDistance, prefixLength);
+    }
+
+    public boolean contains(String term) {
+        return termIndex.containsKey(term);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    // Closest terms first, then the more frequent; the input itself is never suggested
+    public List<Suggestion> lookup(String input, int limit) {
+        if (input.isEmpty() || terms.length == 0) {
+            return List.of();
+        }
+        Set<String> inputDeletes = new HashSet<>();
+        collectDeletes(prefix(input), maxEditDistance, inputDeletes);
+
+        Set<Integer> seen = new HashSet<>();
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (String delete : inputDeletes) {
+            int[] candidates = deletes.get(delete);
+            if (candidates == null) {
+                continue;
+            }
+            for (int candidate : candidates) {
+                String term = terms[candidate];
+                if (!seen.add(candidate) || term.equals(input) || Math.abs(term.length() - input.length()) > maxEditDistance) {
+                    continue;
+                }
+                int distance = distance(input, term, maxEditDistance);
+                if (distance <= maxEditDistance) {
+                    suggestions.add(new Suggestion(term, distance, frequencies[candidate]));
+                }
+            }
+        }
+        suggestions.sort((a, b) -> a.distance != b.distance
+            ? Integer.compare(a.distance, b.distance)
+            : Long.compare(b.frequency, a.frequency));
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    private String prefix(String term) {
+        return term.length() > prefixLength ? term.substring(0, prefixLength) : term;
+    }
+
+    // Every string reachable by deleting up to distance characters, the word itself included
+    private static void collectDeletes(String word, int distance, Set<String> out) {
+        out.add(word);
+        if (distance == 0 || word.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            collectDeletes(word.substring(0, i) + word.substring(i + 1), distance - 1, out);
+        }
+    }
+
+    /**
+     * Optimal string alignment distance (Damerau-Levenshtein without repeated edits of a
+     * substring), abandoned once every cell in a row exceeds {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    public static final class Suggestion {
+        private final String term;
+        private final int distance;
+        private final long frequency;
+
+        Suggestion(String term, int distance, long frequency) {
+            this.term = term;
+            this.distance = distance;
+            this.frequency = frequency;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public long getFrequency() {
+            return frequency;
+        }
+    }
+
+    public static final class Builder {
+        private final int maxEditDistance;
+        private final int prefixLength;
+        private final Map<String, Long> frequencies = new HashMap<>();
+
+        private Builder(int maxEditDistance, int prefixLength) {
+            if (maxEditDistance < 1 || prefixLength <= maxEditDistance) {
+                throw new IllegalArgumentException("Prefix length must exceed the edit distance, which must be positive");
+            }
+            this.maxEditDistance = maxEditDistance;
+            this.prefixLength = prefixLength;
+        }
+
+        public Builder add(String term, long frequency) {
+            if (term != null && !term.isEmpty() && frequency > 0) {
+                frequencies.merge(term, frequency, Long::sum);
+            }
+            return this;
+        }
+
+        public SymSpellIndex build() {
+            String[] terms = frequencies.keySet().toArray(new String[0]);
+            long[] counts = new long[terms.length];
+            Map<String, Integer> termIndex = new HashMap<>(terms.length * 2);
+            // Postings are grown by doubling; slot 0 holds the count until trimmed
+            Map<String, int[]> postings = new HashMap<>(terms.length * 8);
+            Set<String> termDeletes = new HashSet<>();
+            for (int i = 0; i < terms.length; i++) {
+                counts[i] = frequencies.get(terms[i]);
+                termIndex.put(terms[i], i);
+                termDeletes.clear();
+                String key = terms[i].length() > prefixLength ? terms[i].substring(0, prefixLength) : terms[i];
+                collectDeletes(key, maxEditDistance, termDeletes);
+                for (String delete : termDeletes) {
+                    int[] posting = postings.get(delete);
+                    if (posting == null) {
+                        posting = new int[3];
+                    } else if (posting[0] + 1 == posting.length) {
+                        posting = Arrays.copyOf(posting, posting.length * 2);
+                    }
+                    posting[++posting[0]] = i;
+                    postings.put(delete, posting);
+                }
+            }
+            postings.replaceAll((delete, posting) -> Arrays.copyOfRange(posting, 1, posting[0] + 1));
+            return new SymSpellIndex(maxEditDistance, prefixLength, terms, counts, termIndex, postings);
+        }
+    }
+}
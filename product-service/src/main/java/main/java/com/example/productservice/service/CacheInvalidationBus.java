@@ -0,0 +1,20 @@
+package main.java.main.java.com.example.productservice.service;
+
+/**
+ * Carries encoded {@link CacheInvalidationMessage}s between replicas. Every replica receives
+ * every message, its own included.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(String message);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void onMessage(String message);
+
+        // Called after the bus reconnects; messages sent while it was down are lost
+        void onResync();
+    }
+}
@@ -0,0 +1,92 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wire form of a coalesced cache invalidation: the sending replica, then either "*" (drop
+ * everything) or the changed product ids in base 36, e.g. "k3f9a|2s,9ix,1b4". Any change
+ * also clears the search caches, so the ids only matter for productCache.
+ */
+public final class CacheInvalidationMessage {
+
+    // Postgres NOTIFY payloads must stay under 8000 bytes
+    public static final int MAX_LENGTH = 7900;
+
+    private static final String ALL = "*";
+
+    private final String origin;
+    private final boolean all;
+    private final List<Long> productIds;
+
+    private CacheInvalidationMessage(String origin, boolean all, List<Long> productIds) {
+        this.origin = origin;
+        this.all = all;
+        this.productIds = productIds;
+    }
+
+    public static CacheInvalidationMessage all(String origin) {
+        return new CacheInvalidationMessage(origin, true, Collections.emptyList());
+    }
+
+    public static CacheInvalidationMessage products(String origin, Collection<Long> productIds) {
+        return new CacheInvalidationMessage(origin, false, List.copyOf(productIds));
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    // Falls back to "*" when the ids would not fit in one payload
+    public String encode() {
+        StringBuilder encoded = new StringBuilder(origin).append('|');
+        if (all) {
+            return encoded.append(ALL).toString();
+        }
+        int prefixLength = encoded.length();
+        for (Long productId : productIds) {
+            if (encoded.length() > prefixLength) {
+                encoded.append(',');
+            }
+            encoded.append(Long.toString(productId, 36));
+            if (encoded.length() > MAX_LENGTH) {
+                return origin + '|' + ALL;
+            }
+        }
+        return encoded.toString();
+    }
+
+    // Unreadable payloads decode to "*" so a bad message can only cost a cache refill
+    public static CacheInvalidationMessage decode(String payload) {
+        int separator = payload != null ? payload.indexOf('|') : -1;
+        if (separator < 0) {
+            return all("");
+        }
+        String origin = payload.substring(0, separator);
+        String body = payload.substring(separator + 1);
+        if (body.equals(ALL)) {
+            return all(origin);
+        }
+        List<Long> productIds = new ArrayList<>();
+        try {
+            for (String id : body.split(",")) {
+                if (!id.isEmpty()) {
+                    productIds.add(Long.parseLong(id, 36));
+                }
+            }
+        } catch (NumberFormatException e) {
+            return all(origin);
+        }
+        return new CacheInvalidationMessage(origin, false, productIds);
+    }
+}
@@ -0,0 +1,15 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.util.Collection;
+
+public interface CacheInvalidationService {
+
+    // Bumps the catalog version with the write; evicts the product and the search caches here once the
+    // transaction commits, and on the other replicas shortly after
+    void productChanged(Long productId);
+
+    void productsChanged(Collection<Long> productIds);
+
+    // Clears every product and search cache on all replicas
+    void catalogChanged();
+}
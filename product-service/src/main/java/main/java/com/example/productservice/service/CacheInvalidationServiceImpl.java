@@ -0,0 +1,222 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the local product and search caches of all replicas coherent. Writes evict locally
+ * after commit and queue the product id; the queue is flushed as one message per interval,
+ * so a burst of writes costs one broadcast. Messages from other replicas evict the same
+ * entries here and schedule a search cache warm-up. With a read replica, a lookup right after
+ * the eviction can refill the entry from a replica that has not replayed the write yet, so
+ * every eviction is repeated once the replica can no longer be that far behind. Writes also
+ * bump the catalog version, and every eviction drops the copy of it held here.
+ */
+@Service
+public class CacheInvalidationServiceImpl implements CacheInvalidationService, CacheInvalidationBus.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationServiceImpl.class);
+
+    private static final String PRODUCT_CACHE = "productCache";
+    private static final List<String> SEARCH_CACHES = List.of("searchResults", "advancedSearchResults");
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    // Lazy: the warm-up reaches the archive service, which publishes invalidations itself
+    @Autowired
+    private ObjectProvider<CacheWarmupService> cacheWarmupService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.cache.invalidation.max-ids-per-message:500}")
+    private int maxIdsPerMessage;
+
+    @Value("${product.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    // The lag monitor stops using a replica past max-lag-ms, but only notices on its next check
+    @Value("${product.datasource.replica.max-lag-ms:1000}")
+    private long replicaMaxLagMillis;
+
+    @Value("${product.datasource.replica.lag-check-interval-ms:1000}")
+    private long replicaLagCheckIntervalMillis;
+
+    private final String origin = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingAll = new AtomicBoolean();
+    // Repeat evictions: product id -> System.nanoTime() deadline, and the deadline of a full one (0 when none)
+    private final Map<Long, Long> reevictIds = new ConcurrentHashMap<>();
+    private final AtomicLong reevictAllAt = new AtomicLong();
+
+    private Counter published;
+    private Counter received;
+    private Counter resyncs;
+
+    @PostConstruct
+    void init() {
+        published = meterRegistry.counter("product.cache.invalidation.published");
+        received = meterRegistry.counter("product.cache.invalidation.received");
+        resyncs = meterRegistry.counter("product.cache.invalidation.resyncs");
+        cacheInvalidationBus.subscribe(this);
+    }
+
+    @Override
+    public void productChanged(Long productId) {
+        if (productId != null) {
+            productsChanged(List.of(productId));
+        }
+    }
+
+    @Override
+    public void productsChanged(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        catalogVersionService.bump();
+        TransactionCallbacks.afterCommit(() -> {
+            evictLocally(ids, false);
+            pendingIds.addAll(ids);
+        });
+    }
+
+    @Override
+    public void catalogChanged() {
+        catalogVersionService.bump();
+        TransactionCallbacks.afterCommit(() -> {
+            evictLocally(List.of(), true);
+            pendingAll.set(true);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${product.cache.invalidation.flush-interval-ms:50}")
+    public void flush() {
+        reevictDue();
+        CacheInvalidationMessage message = drainPending();
+        if (message == null) {
+            return;
+        }
+        try {
+            cacheInvalidationBus.publish(message.encode());
+            published.increment();
+        } catch (RuntimeException e) {
+            // Other replicas may now serve stale entries; retry as a full invalidation
+            logger.warn("Publishing cache invalidation failed, retrying: {}", e.getMessage());
+            pendingAll.set(true);
+        }
+    }
+
+    private CacheInvalidationMessage drainPending() {
+        if (pendingAll.getAndSet(false)) {
+            pendingIds.clear();
+            return CacheInvalidationMessage.all(origin);
+        }
+        if (pendingIds.isEmpty()) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Long id : pendingIds) {
+            pendingIds.remove(id);
+            ids.add(id);
+        }
+        return ids.size() > maxIdsPerMessage ? CacheInvalidationMessage.all(origin) : CacheInvalidationMessage.products(origin, ids);
+    }
+
+    @Override
+    public void onMessage(String payload) {
+        CacheInvalidationMessage message = CacheInvalidationMessage.decode(payload);
+        if (origin.equals(message.getOrigin())) {
+            return;
+        }
+        received.increment();
+        evictLocally(message.getProductIds(), message.isAll());
+        cacheWarmupService.ifAvailable(CacheWarmupService::requestWarmup);
+    }
+
+    @Override
+    public void onResync() {
+        resyncs.increment();
+        logger.info("Cache invalidation bus reconnected, clearing local product caches");
+        evictLocally(List.of(), true);
+        cacheWarmupService.ifAvailable(CacheWarmupService::requestWarmup);
+    }
+
+    private void evictLocally(Collection<Long> productIds, boolean all) {
+        evict(productIds, all);
+        if (!replicaEnabled) {
+            return;
+        }
+        long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(replicaMaxLagMillis + replicaLagCheckIntervalMillis);
+        if (all) {
+            reevictAllAt.set(due == 0 ? 1 : due);
+        } else {
+            productIds.forEach(id -> reevictIds.put(id, due));
+        }
+    }
+
+    private void reevictDue() {
+        long now = System.nanoTime();
+        long allDue = reevictAllAt.get();
+        if (allDue != 0 && now - allDue >= 0 && reevictAllAt.compareAndSet(allDue, 0)) {
+            evict(List.of(), true);
+        }
+        if (reevictIds.isEmpty()) {
+            return;
+        }
+        List<Long> due = new ArrayList<>();
+        reevictIds.forEach((id, deadline) -> {
+            // A later write to the same id has moved its deadline; remove(id, deadline) leaves that one
+            if (now - deadline >= 0 && reevictIds.remove(id, deadline)) {
+                due.add(id);
+            }
+        });
+        if (!due.isEmpty()) {
+            evict(due, false);
+        }
+    }
+
+    private void evict(Collection<Long> productIds, boolean all) {
+        catalogVersionService.invalidate();
+        for (String name : SEARCH_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        Cache productCache = cacheManager.getCache(PRODUCT_CACHE);
+        if (productCache == null) {
+            return;
+        }
+        if (all) {
+            productCache.clear();
+        } else {
+            productIds.forEach(id -> productCache.evict("product_" + id));
+        }
+    }
+}
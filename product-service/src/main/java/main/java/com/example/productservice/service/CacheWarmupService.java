@@ -0,0 +1,10 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.CacheWarmupProgress;
+
+public interface CacheWarmupService {
+    // Re-warm after writes; calls within the quiet period are coalesced into one run
+    void requestWarmup();
+
+    CacheWarmupProgress getProgress();
+}
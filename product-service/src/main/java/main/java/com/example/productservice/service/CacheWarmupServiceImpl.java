@@ -0,0 +1,150 @@
+package main.java.main.java.com.example.productservice.service;
+
+import jakarta.annotation.PreDestroy;
+import main.java.main.java.com.example.productservice.model.CacheWarmupProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the searchResults cache with the most frequent logged queries, on startup and after
+ * writes have evicted it. Runs on one background thread at a fixed rate so warming never
+ * competes with live traffic for more than one connection.
+ */
+@Service
+public class CacheWarmupServiceImpl implements CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupServiceImpl.class);
+
+    // Matches the @PageableDefault of GET /api/products/search
+    private static final Sort DEFAULT_SEARCH_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SearchQueryLogService searchQueryLogService;
+
+    @Value("${product.search.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.search.warmup.top-queries:200}")
+    private int topQueries;
+
+    @Value("${product.search.warmup.pages:1}")
+    private int pages;
+
+    @Value("${product.search.warmup.page-size:20}")
+    private int pageSize;
+
+    @Value("${product.search.warmup.rate-per-second:10}")
+    private double ratePerSecond;
+
+    @Value("${product.search.warmup.quiet-period-ms:5000}")
+    private long quietPeriodMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ProductService-Warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CacheWarmupProgress progress =
+        new CacheWarmupProgress(CacheWarmupProgress.State.PENDING, null, 0, 0, 0, false, null, null);
+    private ScheduledFuture<?> scheduled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!enabled) {
+            progress = new CacheWarmupProgress(CacheWarmupProgress.State.DISABLED, null, 0, 0, 0, true, null, null);
+            return;
+        }
+        schedule("startup", 0L);
+    }
+
+    @Override
+    public void requestWarmup() {
+        if (enabled) {
+            schedule("writes", quietPeriodMillis);
+        }
+    }
+
+    @Override
+    public CacheWarmupProgress getProgress() {
+        return progress;
+    }
+
+    private synchronized void schedule(String trigger, long delayMillis) {
+        // Debounce: a burst of writes pushes the run back instead of queueing one per write
+        if (scheduled != null && !scheduled.isDone()) {
+            scheduled.cancel(false);
+        }
+        scheduled = executor.schedule(() -> warm(trigger), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void warm(String trigger) {
+        boolean initialDone = progress.isInitialWarmupDone();
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> queries;
+        try {
+            queries = searchQueryLogService.getTopQueries(topQueries);
+        } catch (RuntimeException e) {
+            logger.warn("Search cache warm-up skipped, query log unavailable: {}", e.getMessage());
+            progress = new CacheWarmupProgress(CacheWarmupProgress.State.COMPLETED, trigger, 0, 0, 0, true, startedAt, LocalDateTime.now());
+            return;
+        }
+
+        int total = queries.size() * pages;
+        int completed = 0;
+        int failed = 0;
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(ratePerSecond, 0.1));
+        long next = System.nanoTime();
+        progress = new CacheWarmupProgress(CacheWarmupProgress.State.RUNNING, trigger, total, 0, 0, initialDone, startedAt, null);
+
+        for (String query : queries) {
+            for (int page = 0; page < pages; page++) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                next = Math.max(next, System.nanoTime()) + intervalNanos;
+                try {
+                    // Goes through the @Cacheable proxy; already-cached pages cost nothing
+                    searchService.searchProducts(query, PageRequest.of(page, pageSize, DEFAULT_SEARCH_SORT));
+                    completed++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    logger.debug("Warm-up of '{}' page {} failed: {}", query, page, e.getMessage());
+                }
+                progress = new CacheWarmupProgress(CacheWarmupProgress.State.RUNNING, trigger, total, completed, failed, initialDone, startedAt, null);
+            }
+        }
+
+        progress = new CacheWarmupProgress(CacheWarmupProgress.State.COMPLETED, trigger, total, completed, failed, true, startedAt, LocalDateTime.now());
+        logger.info("Search cache warm-up ({}) finished: {} of {} pages in {}s, {} failed", trigger, completed, total,
+            java.time.Duration.between(startedAt, LocalDateTime.now()).toSeconds(), failed);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,13 @@
+package main.java.main.java.com.example.productservice.service;
+
+public interface CatalogVersionService {
+
+    // Served from memory until the next invalidation, so list responses cost no query to validate
+    long current();
+
+    // Inside a transaction runs once, just before commit, so readers see the new version only together with the write
+    void bump();
+
+    // Drops the version held in memory; the next read fetches it again
+    void invalidate();
+}
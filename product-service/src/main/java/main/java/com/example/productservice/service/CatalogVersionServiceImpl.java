@@ -0,0 +1,95 @@
+package main.java.main.java.com.example.productservice.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catalog version kept in one catalog_version row. Every product write, archive batch and
+ * category change bumps it through {@link CacheInvalidationService}. Inside a transaction the
+ * bump runs once, just before commit and after the pending entity changes are flushed, so
+ * readers see the new version only together with the write, and every writer locks its
+ * product rows before the version row and holds that one only for its commit. Each replica
+ * keeps the version in memory and drops it wherever it evicts its product caches: after its
+ * own writes, on other replicas' broadcasts and again after the read replica's lag window.
+ * A load that an invalidation overtakes is not reused.
+ */
+@Service
+public class CatalogVersionServiceImpl implements CatalogVersionService {
+
+    private static final String READ_SQL = "SELECT version FROM catalog_version WHERE id = 1";
+    private static final String BUMP_SQL = "INSERT INTO catalog_version (id, version) VALUES (1, 1) "
+        + "ON CONFLICT (id) DO UPDATE SET version = catalog_version.version + 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicReference<Cached> cached = new AtomicReference<>();
+
+    @Override
+    public long current() {
+        long generation = invalidations.get();
+        Cached current = cached.get();
+        if (current != null && current.generation == generation) {
+            return current.version;
+        }
+        List<Long> rows = jdbcTemplate.queryForList(READ_SQL, Long.class);
+        long version = rows.isEmpty() ? 0L : rows.get(0);
+        cached.set(new Cached(generation, version));
+        return version;
+    }
+
+    @Override
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(BUMP_SQL);
+            return;
+        }
+        // One bump per transaction, however many products it writes
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (entityManager.isJoinedToTransaction()) {
+                    entityManager.flush();
+                }
+                jdbcTemplate.update(BUMP_SQL);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersionServiceImpl.this);
+            }
+        });
+    }
+
+    @Override
+    public void invalidate() {
+        invalidations.incrementAndGet();
+    }
+
+    private static final class Cached {
+        private final long generation;
+        private final long version;
+
+        private Cached(long generation, long version) {
+            this.generation = generation;
+            this.version = version;
+        }
+    }
+}
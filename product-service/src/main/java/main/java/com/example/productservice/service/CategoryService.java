@@ -0,0 +1,40 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.Category;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryService {
+
+    // Current snapshot; reads never query the database
+    CategoryTree getTree();
+
+    Optional<CategoryTree.Node> getCategory(Long id);
+
+    // Breadcrumb from the root down to the category; empty when it does not exist
+    List<CategoryTree.Node> getPath(Long id);
+
+    // The parent is taken from parentCategoryId
+    CategoryTree.Node createCategory(Category category);
+
+    Optional<CategoryTree.Node> updateCategory(Long id, Category category);
+
+    // Refuses categories that still have subcategories or products
+    boolean deleteCategory(Long id);
+
+    // Re-parents all the given categories in one statement; parentId null makes them roots
+    int moveCategories(Collection<Long> categoryIds, Long parentId);
+
+    // Moves every child of one category under another in one statement
+    int moveChildren(Long fromId, Long toId);
+
+    void refreshTree();
+
+    // Short hash of the loaded category table; the same on every replica once each has refreshed
+    String getTreeTag();
+
+    // When this replica loaded a changed category table, in epoch millis
+    long getTreeChangedAt();
+}
@@ -0,0 +1,368 @@
+package main.java.main.java.com.example.productservice.service;
+
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Category reads are served from an immutable {@link CategoryTree} snapshot. Each write runs
+ * in its own transaction, then the tree is reloaded in one query and swapped in under the
+ * next version, so the write's response already reflects it. Changes made on other replicas
+ * or directly in SQL are noticed by a fingerprint query (an md5 of every row's id, parent,
+ * name and description, computed in the database) and trigger the same reload. Writes hold
+ * a Postgres advisory lock for their transaction, so they are serialized across instances.
+ * Moves are checked against the snapshot first, for a cheap early answer, then again under
+ * the lock against the committed rows with a recursive query, so two concurrent moves cannot
+ * form a cycle. Each move is then one set-based UPDATE. Products embed their category, so
+ * a change bumps the catalog version, and the fingerprint is part of every product ETag.
+ */
+@Service
+public class CategoryServiceImpl implements CategoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
+
+    private static final String LOAD_SQL = "SELECT id, name, description, parent_category_id FROM categories";
+    // Hash of everything the tree holds, so renames and re-parents made in raw SQL without touching updated_at are seen too
+    private static final String FINGERPRINT_SQL =
+        "SELECT md5(COALESCE(string_agg(id || '|' || COALESCE(parent_category_id::text, '') || '|' || name || '|' ||"
+        + " COALESCE(description, ''), chr(30) ORDER BY id), '')) FROM categories";
+    private static final String MOVE_SQL = "UPDATE categories SET parent_category_id = ?, updated_at = ? WHERE id = ANY(?)";
+    private static final String CHILD_IDS_SQL = "SELECT id FROM categories WHERE parent_category_id = ? ORDER BY id";
+    private static final String EXISTING_IDS_SQL = "SELECT id FROM categories WHERE id = ANY(?)";
+    // UNION rather than UNION ALL, so a cycle already written in SQL ends the recursion instead of looping
+    private static final String SUBTREE_CONTAINS_SQL =
+        "WITH RECURSIVE subtree(id) AS (SELECT id FROM categories WHERE id = ANY(?)"
+        + " UNION SELECT c.id FROM categories c JOIN subtree s ON c.parent_category_id = s.id)"
+        + " SELECT EXISTS (SELECT 1 FROM subtree WHERE id = ?)";
+    private static final String HAS_CHILDREN_SQL = "SELECT EXISTS (SELECT 1 FROM categories WHERE parent_category_id = ?)";
+    private static final String HAS_PRODUCTS_SQL = "SELECT EXISTS (SELECT 1 FROM products WHERE category_id = ?)";
+
+    // Transaction-scoped advisory lock taken by every category write; the key only has to be fixed
+    private static final String WRITE_LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+    private static final long WRITE_LOCK_KEY = 0x6361746567L;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WriteValidationService writeValidationService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>(CategoryTree.EMPTY);
+    private volatile String fingerprint;
+    private volatile long fingerprintChangedAt;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public CategoryTree getTree() {
+        return tree.get();
+    }
+
+    @Override
+    public Optional<CategoryTree.Node> getCategory(Long id) {
+        return Optional.ofNullable(tree.get().get(id));
+    }
+
+    @Override
+    public List<CategoryTree.Node> getPath(Long id) {
+        return tree.get().getPath(id);
+    }
+
+    @Override
+    public CategoryTree.Node createCategory(Category category) {
+        CategoryTree current = tree.get();
+        if (current.getByName(category.getName()) != null) {
+            throw new IllegalArgumentException("Category name already exists: " + category.getName());
+        }
+        Long parentId = category.getParentCategoryId();
+        if (parentId != null && !current.contains(parentId) && !categoryRepository.existsById(parentId)) {
+            throw new IllegalArgumentException("Parent category not found: " + parentId);
+        }
+        Category saved = write(() -> {
+            Category entity = new Category();
+            entity.setName(category.getName());
+            entity.setDescription(category.getDescription());
+            entity.setParentCategory(parentId != null ? categoryRepository.getReferenceById(parentId) : null);
+            return categoryRepository.save(entity);
+        }, category.getName(), parentId);
+        categoriesChanged();
+        return tree.get().get(saved.getId());
+    }
+
+    @Override
+    public Optional<CategoryTree.Node> updateCategory(Long id, Category category) {
+        CategoryTree current = tree.get();
+        CategoryTree.Node existing = current.get(id);
+        if (existing == null) {
+            return Optional.empty();
+        }
+        CategoryTree.Node sameName = current.getByName(category.getName());
+        if (sameName != null && !sameName.getId().equals(id)) {
+            throw new IllegalArgumentException("Category name already exists: " + category.getName());
+        }
+        Long parentId = category.getParentCategoryId();
+        if (!Objects.equals(parentId, existing.getParentId())) {
+            checkMove(current, Set.of(id), parentId);
+        }
+        Category saved = write(() -> categoryRepository.findById(id).map(entity -> {
+            if (!Objects.equals(parentId, entity.getParentCategoryId())) {
+                checkMoveInDatabase(Set.of(id), parentId);
+            }
+            entity.setName(category.getName());
+            entity.setDescription(category.getDescription());
+            entity.setParentCategory(parentId != null ? categoryRepository.getReferenceById(parentId) : null);
+            entity.setUpdatedAt(LocalDateTime.now());
+            return categoryRepository.save(entity);
+        }).orElse(null), category.getName(), parentId);
+        categoriesChanged();
+        return saved != null ? Optional.ofNullable(tree.get().get(id)) : Optional.empty();
+    }
+
+    @Override
+    public boolean deleteCategory(Long id) {
+        CategoryTree.Node existing = tree.get().get(id);
+        if (existing == null) {
+            return false;
+        }
+        if (!existing.getChildIds().isEmpty()) {
+            throw new IllegalArgumentException("Category has subcategories: " + id);
+        }
+        Boolean deleted;
+        try {
+            deleted = locked(() -> {
+                if (!categoryRepository.existsById(id)) {
+                    return false;
+                }
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_CHILDREN_SQL, Boolean.class, id))) {
+                    throw new IllegalArgumentException("Category has subcategories: " + id);
+                }
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_PRODUCTS_SQL, Boolean.class, id))) {
+                    throw new IllegalArgumentException("Category has products: " + id);
+                }
+                categoryRepository.deleteById(id);
+                return true;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Product writes do not take the category lock, so one can still land between the check and the commit
+            if (IntegrityViolations.violates(e, IntegrityViolations.PRODUCT_CATEGORY)) {
+                throw new IllegalArgumentException("Category has products: " + id);
+            }
+            if (IntegrityViolations.violates(e, IntegrityViolations.CATEGORY_PARENT)) {
+                throw new IllegalArgumentException("Category has subcategories: " + id);
+            }
+            throw e;
+        }
+        categoriesChanged();
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    @Override
+    public int moveCategories(Collection<Long> categoryIds, Long parentId) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            throw new IllegalArgumentException("No categories to move");
+        }
+        Set<Long> ids = new LinkedHashSet<>(categoryIds);
+        checkMove(tree.get(), ids, parentId);
+        Integer moved = locked(() -> {
+            checkMoveInDatabase(ids, parentId);
+            return move(ids, parentId);
+        });
+        categoriesChanged();
+        return moved != null ? moved : 0;
+    }
+
+    @Override
+    public int moveChildren(Long fromId, Long toId) {
+        CategoryTree current = tree.get();
+        CategoryTree.Node from = current.get(fromId);
+        if (from == null) {
+            throw new IllegalArgumentException("Category not found: " + fromId);
+        }
+        if (!from.getChildIds().isEmpty()) {
+            checkMove(current, new LinkedHashSet<>(from.getChildIds()), toId);
+        }
+        // The children are read again under the lock: the snapshot may predate a child added elsewhere
+        Integer moved = locked(() -> {
+            Set<Long> ids = new LinkedHashSet<>(jdbcTemplate.queryForList(CHILD_IDS_SQL, Long.class, fromId));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            checkMoveInDatabase(ids, toId);
+            return move(ids, toId);
+        });
+        if (moved == null || moved == 0) {
+            return 0;
+        }
+        categoriesChanged();
+        return moved;
+    }
+
+    private int move(Set<Long> ids, Long parentId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(MOVE_SQL, ps -> {
+            setParent(ps, 1, parentId);
+            ps.setTimestamp(2, now);
+            ps.setArray(3, idArray(ps.getConnection(), ids));
+        });
+    }
+
+    // The categories must exist, and the new parent must not be one of them or below one of them
+    private static void checkMove(CategoryTree current, Set<Long> ids, Long parentId) {
+        for (Long id : ids) {
+            if (!current.contains(id)) {
+                throw new IllegalArgumentException("Category not found: " + id);
+            }
+        }
+        if (parentId == null) {
+            return;
+        }
+        if (!current.contains(parentId)) {
+            throw new IllegalArgumentException("Parent category not found: " + parentId);
+        }
+        for (Long id : ids) {
+            if (current.getSubtreeIds(id).contains(parentId)) {
+                throw new IllegalArgumentException("Category " + id + " cannot move under its own subcategory " + parentId);
+            }
+        }
+    }
+
+    // Same rules as checkMove, against the committed rows; only valid under the write lock
+    private void checkMoveInDatabase(Set<Long> ids, Long parentId) {
+        List<Long> found = jdbcTemplate.query(EXISTING_IDS_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), ids)),
+            (rs, rowNum) -> rs.getLong(1));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new IllegalArgumentException("Category not found: " + id);
+            }
+        }
+        if (parentId == null) {
+            return;
+        }
+        if (!categoryRepository.existsById(parentId)) {
+            throw new IllegalArgumentException("Parent category not found: " + parentId);
+        }
+        List<Boolean> cycle = jdbcTemplate.query(SUBTREE_CONTAINS_SQL, ps -> {
+            ps.setArray(1, idArray(ps.getConnection(), ids));
+            ps.setLong(2, parentId);
+        }, (rs, rowNum) -> rs.getBoolean(1));
+        if (!cycle.isEmpty() && cycle.get(0)) {
+            throw new IllegalArgumentException("Categories " + ids + " cannot move under their own subcategory " + parentId);
+        }
+    }
+
+    private static void setParent(java.sql.PreparedStatement ps, int index, Long parentId) throws SQLException {
+        if (parentId != null) {
+            ps.setLong(index, parentId);
+        } else {
+            ps.setNull(index, java.sql.Types.BIGINT);
+        }
+    }
+
+    private static Array idArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+
+    // One category write at a time across all instances: a check made inside the callback still holds at commit
+    private <T> T locked(java.util.function.Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.query(WRITE_LOCK_SQL, rs -> {
+            }, WRITE_LOCK_KEY);
+            return action.get();
+        });
+    }
+
+    // The constraints settle what the snapshot checks before the lock could not see
+    private Category write(java.util.function.Supplier<Category> action, String name, Long parentId) {
+        try {
+            return locked(action);
+        } catch (DataIntegrityViolationException e) {
+            if (IntegrityViolations.violates(e, IntegrityViolations.CATEGORY_NAME)) {
+                throw new IllegalArgumentException("Category name already exists: " + name);
+            }
+            if (IntegrityViolations.violates(e, IntegrityViolations.CATEGORY_PARENT)) {
+                throw new IllegalArgumentException("Parent category not found: " + parentId);
+            }
+            throw e;
+        }
+    }
+
+    // Products embed their category and the write checks cache category ids, so both follow the tree
+    private void categoriesChanged() {
+        writeValidationService.categoriesChanged();
+        cacheInvalidationService.catalogChanged();
+        reloadTree();
+    }
+
+    @Override
+    public String getTreeTag() {
+        String current = fingerprint;
+        return current != null && current.length() >= 8 ? current.substring(0, 8) : "0";
+    }
+
+    @Override
+    public long getTreeChangedAt() {
+        return fingerprintChangedAt;
+    }
+
+    @Override
+    @Scheduled(scheduler = "reloadScheduler", initialDelay = 0, fixedDelayString = "${product.categories.refresh-interval-ms:5000}")
+    public void refreshTree() {
+        try {
+            String latest = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+            if (!Objects.equals(latest, fingerprint)) {
+                reloadTree();
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current snapshot
+            logger.warn("Category tree refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void reloadTree() {
+        String latest = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+        List<CategoryTree.Row> rows = jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> new CategoryTree.Row(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getObject(4, Long.class)));
+        CategoryTree next = new CategoryTree(tree.get().getVersion() + 1, rows);
+        tree.set(next);
+        if (!Objects.equals(latest, fingerprint)) {
+            fingerprintChangedAt = System.currentTimeMillis();
+        }
+        fingerprint = latest;
+        logger.debug("Category tree version {} loaded: {} categories", next.getVersion(), next.size());
+    }
+}
@@ -0,0 +1,224 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the category hierarchy. Readers take the current snapshot and use
+ * it for the whole request, so a breadcrumb or subtree is always consistent with itself;
+ * changes build a new snapshot with the next version and swap it in. A parent link that
+ * forms a cycle or points at a missing category (possible after SQL edits) makes the
+ * category a root rather than failing the build.
+ */
+public final class CategoryTree {
+
+    public static final CategoryTree EMPTY = new CategoryTree(0, List.of());
+
+    private final long version;
+    private final Map<Long, Node> nodes;
+    private final Map<String, Node> byName;
+    private final List<Node> roots;
+
+    public CategoryTree(long version, Collection<Row> rows) {
+        this.version = version;
+        Map<Long, Row> rowsById = new HashMap<>();
+        for (Row row : rows) {
+            rowsById.put(row.id, row);
+        }
+
+        Map<Long, Long> parents = new HashMap<>();
+        for (Row row : rows) {
+            parents.put(row.id, validParent(row, rowsById));
+        }
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (Row row : rows) {
+            Long parentId = parents.get(row.id);
+            if (parentId != null) {
+                children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(row.id);
+            }
+        }
+
+        Map<Long, Node> built = new HashMap<>();
+        Map<String, Node> names = new HashMap<>();
+        List<Node> rootNodes = new ArrayList<>();
+        // Top-down, so every node's depth is its parent's plus one
+        Deque<Long> queue = new ArrayDeque<>();
+        for (Row row : rows) {
+            if (parents.get(row.id) == null) {
+                queue.add(row.id);
+            }
+        }
+        Map<Long, Integer> depths = new HashMap<>();
+        while (!queue.isEmpty()) {
+            Long id = queue.poll();
+            Long parentId = parents.get(id);
+            int depth = parentId == null ? 0 : depths.get(parentId) + 1;
+            depths.put(id, depth);
+            List<Long> childIds = children.get(id);
+            if (childIds == null) {
+                childIds = List.of();
+            } else {
+                childIds.sort(Comparator.naturalOrder());
+            }
+            Row row = rowsById.get(id);
+            Node node = new Node(id, row.name, row.description, parentId, depth, List.copyOf(childIds));
+            built.put(id, node);
+            names.put(row.name, node);
+            if (parentId == null) {
+                rootNodes.add(node);
+            }
+            queue.addAll(childIds);
+        }
+        rootNodes.sort(Comparator.comparing(Node::getId));
+        this.nodes = Collections.unmodifiableMap(built);
+        this.byName = Collections.unmodifiableMap(names);
+        this.roots = List.copyOf(rootNodes);
+    }
+
+    // The parent, or null when the link is missing, dangling or part of a cycle
+    private static Long validParent(Row row, Map<Long, Row> rowsById) {
+        if (row.parentId == null || !rowsById.containsKey(row.parentId)) {
+            return null;
+        }
+        Set<Long> seen = new HashSet<>();
+        seen.add(row.id);
+        Long current = row.parentId;
+        while (current != null) {
+            if (!seen.add(current)) {
+                return null;
+            }
+            Row parent = rowsById.get(current);
+            current = parent != null ? parent.parentId : null;
+        }
+        return row.parentId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public Node get(Long id) {
+        return nodes.get(id);
+    }
+
+    public boolean contains(Long id) {
+        return nodes.containsKey(id);
+    }
+
+    public Node getByName(String name) {
+        return byName.get(name);
+    }
+
+    public List<Node> getRoots() {
+        return roots;
+    }
+
+    public List<Node> getChildren(Long id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return List.of();
+        }
+        List<Node> result = new ArrayList<>(node.childIds.size());
+        for (Long childId : node.childIds) {
+            result.add(nodes.get(childId));
+        }
+        return result;
+    }
+
+    // Root first, the category itself last; empty when unknown
+    public List<Node> getPath(Long id) {
+        List<Node> path = new ArrayList<>();
+        for (Node node = nodes.get(id); node != null; node = node.parentId != null ? nodes.get(node.parentId) : null) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // The category and everything below it, parents before children
+    public Set<Long> getSubtreeIds(Long id) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (!nodes.containsKey(id)) {
+            return ids;
+        }
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(id);
+        while (!queue.isEmpty()) {
+            Long current = queue.poll();
+            ids.add(current);
+            queue.addAll(nodes.get(current).childIds);
+        }
+        return ids;
+    }
+
+    // A flat category row as read from the categories table
+    public static final class Row {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Long parentId;
+
+        public Row(Long id, String name, String description, Long parentId) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.parentId = parentId;
+        }
+    }
+
+    public static final class Node {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Long parentId;
+        private final int depth;
+        private final List<Long> childIds;
+
+        Node(Long id, String name, String description, Long parentId, int depth, List<Long> childIds) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.parentId = parentId;
+            this.depth = depth;
+            this.childIds = childIds;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public List<Long> getChildIds() {
+            return childIds;
+        }
+    }
+}
@@ -21,6 +21,19 @@ public interface FilterService {
         String metadataField, String metadataValue,
         Pageable pageable
     );
+
+    // include_discontinued also reaches soft-deleted and archived products
+    Page<Product> filterProducts(
+        BigDecimal minPrice, BigDecimal maxPrice,
+        Long categoryId, String categoryName,
+        String status,
+        Boolean inStock, Integer minStock, Integer maxStock,
+        LocalDateTime createdAfter, LocalDateTime createdBefore,
+        LocalDateTime updatedAfter, LocalDateTime updatedBefore,
+        List<String> tags,
+        String metadataField, String metadataValue,
+        Pageable pageable, boolean includeDiscontinued
+    );
     
     Specification<Product> buildFilterSpecification(
         BigDecimal minPrice, BigDecimal maxPrice,
@@ -2,11 +2,13 @@ package main.java.main.java.com.example.productservice.service;
 
 import main.java.main.java.com.example.productservice.model.Product;
 import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.repository.ProductSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.*;
 import java.math.BigDecimal;
@@ -20,7 +22,14 @@ public class FilterServiceImpl implements FilterService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private PageQueryExecutor pageQueryExecutor;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> filterProducts(
             BigDecimal minPrice, BigDecimal maxPrice,
             Long categoryId, String categoryName,
@@ -31,6 +40,23 @@ public class FilterServiceImpl implements FilterService {
             List<String> tags,
             String metadataField, String metadataValue,
             Pageable pageable) {
+        return filterProducts(minPrice, maxPrice, categoryId, categoryName, status,
+                inStock, minStock, maxStock, createdAfter, createdBefore,
+                updatedAfter, updatedBefore, tags, metadataField, metadataValue, pageable, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> filterProducts(
+            BigDecimal minPrice, BigDecimal maxPrice,
+            Long categoryId, String categoryName,
+            String status,
+            Boolean inStock, Integer minStock, Integer maxStock,
+            LocalDateTime createdAfter, LocalDateTime createdBefore,
+            LocalDateTime updatedAfter, LocalDateTime updatedBefore,
+            List<String> tags,
+            String metadataField, String metadataValue,
+            Pageable pageable, boolean includeDiscontinued) {
 
         Specification<Product> specification = buildFilterSpecification(
                 minPrice, maxPrice, categoryId, categoryName, status,
@@ -38,7 +64,16 @@ public class FilterServiceImpl implements FilterService {
                 updatedAfter, updatedBefore, tags, metadataField, metadataValue
         );
 
-        return productRepository.findAll(specification, pageable);
+        // Asking for status=DISCONTINUED is asking for the archive
+        if (includeDiscontinued || Product.ProductStatus.DISCONTINUED.name().equalsIgnoreCase(status != null ? status.trim() : null)) {
+            Page<Product> livePage = pageQueryExecutor.executePage("filter", pageable,
+                    page -> productRepository.findContent(specification, page), () -> productRepository.count(specification));
+            return productArchiveService.appendArchived(livePage, pageable, ProductSpecifications.archived(specification));
+        }
+
+        Specification<Product> live = ProductSpecifications.live(specification);
+        return pageQueryExecutor.executePage("filter", pageable,
+                page -> productRepository.findContent(live, page), () -> productRepository.count(live));
     }
 
     @Override
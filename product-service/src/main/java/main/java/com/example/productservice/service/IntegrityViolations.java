@@ -0,0 +1,36 @@
+package main.java.main.java.com.example.productservice.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Names of the constraints the schema declares, so a rejected write can be reported by the
+ * constraint that actually failed rather than by what the caller guessed it would be. A
+ * failed statement aborts the Postgres transaction, so re-querying to find out is not an option.
+ */
+public final class IntegrityViolations {
+
+    public static final String PRODUCT_SKU = "uk_products_sku";
+    public static final String PRODUCT_CATEGORY = "fk_products_category";
+    public static final String CATEGORY_NAME = "uk_categories_name";
+    public static final String CATEGORY_PARENT = "fk_categories_parent";
+
+    private IntegrityViolations() {
+    }
+
+    // Lower-cased constraint name from Hibernate's translation of the driver error, or null when none was reported
+    public static String constraintName(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    public static boolean violates(DataIntegrityViolationException e, String constraint) {
+        return constraint.equals(constraintName(e));
+    }
+}
@@ -0,0 +1,10 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.ProductAvailability;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface InventoryAvailabilityService {
+    Map<Long, ProductAvailability> getAvailability(Collection<Long> productIds);
+}
@@ -0,0 +1,163 @@
+package main.java.main.java.com.example.productservice.service;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.Deadline;
+import main.java.main.java.com.example.productservice.grpc.inventory.GetInventoryRequest;
+import main.java.main.java.com.example.productservice.grpc.inventory.GetInventoryResponse;
+import main.java.main.java.com.example.productservice.grpc.inventory.InventoryServiceGrpc;
+import main.java.main.java.com.example.productservice.model.ProductAvailability;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+@Service
+public class InventoryAvailabilityServiceImpl implements InventoryAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryAvailabilityServiceImpl.class);
+
+    @GrpcClient("inventory-service")
+    private InventoryServiceGrpc.InventoryServiceFutureStub inventoryStub;
+
+    @Value("${inventory.availability.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.availability.deadline-ms:150}")
+    private long deadlineMs;
+
+    @Value("${inventory.availability.cache-ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    @Value("${inventory.availability.stale-ttl-ms:300000}")
+    private long staleTtlMs;
+
+    @Value("${inventory.availability.max-cache-size:50000}")
+    private int maxCacheSize;
+
+    private final Map<Long, CachedAvailability> cache = new ConcurrentHashMap<>();
+
+    // Lookups currently on the wire, shared so concurrent pages showing the same product issue one call
+    private final Map<Long, ListenableFuture<GetInventoryResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<Long, ProductAvailability> getAvailability(Collection<Long> productIds) {
+        Map<Long, ProductAvailability> result = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return result;
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Long, ListenableFuture<GetInventoryResponse>> pending = new LinkedHashMap<>();
+
+        // Serve fresh cache hits, deduplicate the rest
+        for (Long productId : productIds) {
+            if (productId == null || result.containsKey(productId) || pending.containsKey(productId)) {
+                continue;
+            }
+            CachedAvailability cached = cache.get(productId);
+            if (cached != null && now - cached.fetchedAt < cacheTtlMs) {
+                result.put(productId, cached.availability);
+            } else if (!enabled) {
+                result.put(productId, fallback(productId, now));
+            } else {
+                pending.put(productId, null);
+            }
+        }
+        if (pending.isEmpty()) {
+            return result;
+        }
+
+        // GetInventoryDetails takes a single product, so the misses go out as one wave of
+        // multiplexed calls on the shared channel, all bounded by the same deadline
+        Deadline deadline = Deadline.after(deadlineMs, TimeUnit.MILLISECONDS);
+        InventoryServiceGrpc.InventoryServiceFutureStub stub = inventoryStub.withDeadline(deadline);
+        for (Long productId : pending.keySet()) {
+            boolean[] issued = {false};
+            ListenableFuture<GetInventoryResponse> future = inFlight.computeIfAbsent(productId, id -> {
+                issued[0] = true;
+                return stub.getInventoryDetails(GetInventoryRequest.newBuilder().setProductId(id).build());
+            });
+            if (issued[0]) {
+                // Outside computeIfAbsent: an already completed call runs the listener at once
+                future.addListener(() -> inFlight.remove(productId, future), Runnable::run);
+            }
+            pending.put(productId, future);
+        }
+
+        for (Map.Entry<Long, ListenableFuture<GetInventoryResponse>> entry : pending.entrySet()) {
+            Long productId = entry.getKey();
+            try {
+                long remaining = Math.max(deadline.timeRemaining(TimeUnit.NANOSECONDS), 0);
+                GetInventoryResponse response = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+                if ("ERROR".equals(response.getOverallStatus())) {
+                    result.put(productId, fallback(productId, now));
+                    continue;
+                }
+                ProductAvailability availability = new ProductAvailability(
+                    productId, response.getTotalAvailable(), response.getOverallStatus(), false,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()));
+                cache.put(productId, new CachedAvailability(availability, now));
+                result.put(productId, availability);
+            } catch (TimeoutException | ExecutionException e) {
+                logger.debug("Inventory lookup for product {} failed: {}", productId, e.getMessage());
+                result.put(productId, fallback(productId, now));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.put(productId, fallback(productId, now));
+            }
+        }
+
+        trimCache(now);
+        return result;
+    }
+
+    private ProductAvailability fallback(Long productId, long now) {
+        CachedAvailability cached = cache.get(productId);
+        if (cached == null || now - cached.fetchedAt > staleTtlMs) {
+            return ProductAvailability.unknown(productId);
+        }
+        ProductAvailability live = cached.availability;
+        return new ProductAvailability(productId, live.getTotalAvailable(), live.getStatus(), true, live.getAsOf());
+    }
+
+    // Drops expired entries, then the oldest down to 90% of the limit so trimming is not repeated on every call
+    private void trimCache(long now) {
+        if (cache.size() <= maxCacheSize) {
+            return;
+        }
+        cache.values().removeIf(cached -> now - cached.fetchedAt > staleTtlMs);
+        if (cache.size() > maxCacheSize) {
+            cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().fetchedAt))
+                .limit(cache.size() - maxCacheSize * 9 / 10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(cache::remove);
+        }
+    }
+
+    private static final class CachedAvailability {
+        private final ProductAvailability availability;
+        private final long fetchedAt;
+
+        private CachedAvailability(ProductAvailability availability, long fetchedAt) {
+            this.availability = availability;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package main.java.main.java.com.example.productservice.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public interface PageQueryExecutor {
+    // Same Page as Spring Data's findAll(..., pageable), with the count overlapped or skipped
+    <T> Page<T> executePage(String queryName, Pageable pageable,
+                            Function<Pageable, List<T>> contentQuery, LongSupplier countQuery);
+}
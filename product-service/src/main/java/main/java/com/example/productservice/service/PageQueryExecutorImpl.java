@@ -0,0 +1,159 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import main.java.main.java.com.example.productservice.config.ReplicaRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the count query of a paged endpoint alongside its content query, on a separate
+ * connection and read-only transaction. Totals follow Spring Data's PageableExecutionUtils:
+ * a short page implies its own total, and then the count result is not waited for.
+ * Whichever side claims the count first runs it, so a count still queued when the content
+ * returns runs inline on the caller's connection instead of waiting for a free thread.
+ * The count thread inherits the caller's primary requirement. A caller whose transaction
+ * writes or holds a snapshot counts inline, since another connection would not see the
+ * same rows.
+ */
+@Service
+public class PageQueryExecutorImpl implements PageQueryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageQueryExecutorImpl.class);
+
+    @Autowired
+    @Qualifier("pageCountExecutor")
+    private Executor pageCountExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${product.paging.parallel-count.enabled:true}")
+    private boolean parallelCount;
+
+    @Autowired
+    public PageQueryExecutorImpl(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public <T> Page<T> executePage(String queryName, Pageable pageable,
+                                   Function<Pageable, List<T>> contentQuery, LongSupplier countQuery) {
+        if (!parallelCount || pageable.isUnpaged() || countNeedsCallerTransaction()) {
+            List<T> content = contentQuery.apply(pageable);
+            Long implied = impliedTotal(pageable, content);
+            return new PageImpl<>(content, pageable, implied != null ? implied : countQuery.getAsLong());
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean claimed = new AtomicBoolean();
+        boolean primaryRequired = ReplicaRoutingDataSource.isPrimaryRequired();
+        CompletableFuture<long[]> count;
+        try {
+            count = CompletableFuture.supplyAsync(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                long countStart = System.nanoTime();
+                if (primaryRequired) {
+                    ReplicaRoutingDataSource.requirePrimary();
+                }
+                try {
+                    Long total = readOnlyTransaction.execute(status -> countQuery.getAsLong());
+                    return new long[]{total != null ? total : 0L, System.nanoTime() - countStart};
+                } finally {
+                    if (primaryRequired) {
+                        ReplicaRoutingDataSource.clearPrimaryRequirement();
+                    }
+                }
+            }, pageCountExecutor);
+        } catch (TaskRejectedException e) {
+            logger.debug("Count executor saturated, counting {} inline", queryName);
+            count = CompletableFuture.completedFuture(null);
+        }
+
+        long contentStart = System.nanoTime();
+        List<T> content = contentQuery.apply(pageable);
+        long contentNanos = System.nanoTime() - contentStart;
+
+        Long implied = impliedTotal(pageable, content);
+        if (implied != null) {
+            // The count is not needed; if it has not started it never will
+            claimed.set(true);
+            recordSaved(queryName, "skipped", count.isDone() && count.getNow(null) != null
+                ? count.getNow(null)[1] : 0L);
+            return new PageImpl<>(content, pageable, implied);
+        }
+
+        if (claimed.compareAndSet(false, true)) {
+            // Still queued behind other counts: run it here rather than wait for a thread
+            return new PageImpl<>(content, pageable, countQuery.getAsLong());
+        }
+        long[] result;
+        try {
+            result = count.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        recordSaved(queryName, "parallel", Math.max(0L, contentNanos + result[1] - elapsed));
+        return new PageImpl<>(content, pageable, result[0]);
+    }
+
+    // Uncommitted writes and repeatable-read snapshots are only visible on the caller's connection
+    private static boolean countNeedsCallerTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        Integer isolation = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+        return !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            || (isolation != null && isolation > TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    // PageableExecutionUtils: first or last page shorter than the page size needs no count
+    private static Long impliedTotal(Pageable pageable, List<?> content) {
+        if (pageable.isUnpaged()) {
+            return (long) content.size();
+        }
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return pageable.getOffset() + content.size();
+        }
+        return null;
+    }
+
+    private void recordSaved(String queryName, String mode, long savedNanos) {
+        Timer.builder("product.page.count.saved")
+            .description("Latency saved by overlapping or skipping the page count query")
+            .tag("query", queryName)
+            .tag("mode", mode)
+            .register(meterRegistry)
+            .record(savedNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,21 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import main.java.main.java.com.example.productservice.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Optional;
+
+public interface ProductArchiveService {
+    // Moves DISCONTINUED products past the grace period to products_archive, returns how many
+    int archiveDiscontinued();
+
+    Optional<Product> findArchivedById(Long id);
+
+    Optional<Product> findArchivedBySku(String sku);
+
+    // include_discontinued: archived matches follow the live ones, totals cover both
+    Page<Product> appendArchived(Page<Product> livePage, Pageable pageable, Specification<ArchivedProduct> archiveSpec);
+}
@@ -0,0 +1,177 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.repository.ArchivedProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps soft-deleted products out of the products table. A scheduled job moves DISCONTINUED
+ * rows older than the grace period, with their tags, into products_archive in set-based
+ * batches; each batch is one transaction and locks with SKIP LOCKED so concurrent replicas
+ * split the work. The grace period lets an accidental delete be undone by a status update.
+ */
+@Service
+public class ProductArchiveServiceImpl implements ProductArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductArchiveServiceImpl.class);
+
+    private static final String COLUMNS =
+        "id, name, description, price, category_id, sku, stock_quantity, status, metadata, created_at, updated_at, version";
+
+    private static final String CLAIM_SQL =
+        "SELECT id FROM products WHERE status = 'DISCONTINUED' AND updated_at < ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String COPY_PRODUCTS_SQL =
+        "INSERT INTO products_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS + ", ? FROM products WHERE id = ANY(?)";
+    private static final String COPY_TAGS_SQL =
+        "INSERT INTO products_archive_tags (product_id, tag) SELECT product_id, tag FROM product_tags WHERE product_id = ANY(?)";
+    private static final String DELETE_TAGS_SQL = "DELETE FROM product_tags WHERE product_id = ANY(?)";
+    private static final String DELETE_PRODUCTS_SQL = "DELETE FROM products WHERE id = ANY(?)";
+
+    @Autowired
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.archive.grace-period-hours:24}")
+    private long gracePeriodHours;
+
+    @Value("${product.archive.batch-size:500}")
+    private int batchSize;
+
+    private final TransactionTemplate batchTransaction;
+    private Counter archivedProducts;
+
+    @Autowired
+    public ProductArchiveServiceImpl(PlatformTransactionManager transactionManager) {
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        archivedProducts = meterRegistry.counter("product.archive.moved");
+    }
+
+    @Scheduled(initialDelayString = "${product.archive.initial-delay-ms:60000}", fixedDelayString = "${product.archive.interval-ms:300000}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveDiscontinued();
+        } catch (RuntimeException e) {
+            logger.warn("Archiving discontinued products failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int archiveDiscontinued() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(gracePeriodHours);
+        int total = 0;
+        int moved;
+        do {
+            moved = batchTransaction.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            archivedProducts.increment(total);
+            logger.info("Archived {} discontinued products", total);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(CLAIM_SQL, Long.class, Timestamp.valueOf(cutoff), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+        // Tags reference products, so they move and go first
+        jdbcTemplate.update(COPY_PRODUCTS_SQL, ps -> {
+            ps.setTimestamp(1, archivedAt);
+            ps.setArray(2, idArray(ps.getConnection(), ids));
+        });
+        jdbcTemplate.update(COPY_TAGS_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), ids)));
+        jdbcTemplate.update(DELETE_TAGS_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), ids)));
+        jdbcTemplate.update(DELETE_PRODUCTS_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), ids)));
+        // Cached lookups by id would otherwise keep returning the moved rows
+        cacheInvalidationService.productsChanged(ids);
+        return ids.size();
+    }
+
+    private static Array idArray(Connection connection, List<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Product> findArchivedById(Long id) {
+        return archivedProductRepository.findById(id).map(ArchivedProduct::toProduct);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Product> findArchivedBySku(String sku) {
+        return archivedProductRepository.findFirstBySkuOrderByArchivedAtDesc(sku).map(ArchivedProduct::toProduct);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> appendArchived(Page<Product> livePage, Pageable pageable, Specification<ArchivedProduct> archiveSpec) {
+        Specification<ArchivedProduct> spec = archiveSpec != null ? archiveSpec : (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+        long liveTotal = livePage.getTotalElements();
+        long archiveTotal = archivedProductRepository.count(spec);
+        if (archiveTotal == 0) {
+            return livePage;
+        }
+        List<Product> content = new ArrayList<>(livePage.getContent());
+        if (pageable.isUnpaged()) {
+            archivedProductRepository.findAll(spec, pageable.getSort())
+                .forEach(archived -> content.add(archived.toProduct()));
+            return new PageImpl<>(content, pageable, liveTotal + archiveTotal);
+        }
+        int missing = pageable.getPageSize() - content.size();
+        if (missing > 0) {
+            // The page straddles or lies past the end of the live rows
+            long archiveOffset = Math.max(0, pageable.getOffset() - liveTotal);
+            archivedProductRepository.findContent(spec, pageable.getSort(), archiveOffset, missing)
+                .forEach(archived -> content.add(archived.toProduct()));
+        }
+        return new PageImpl<>(content, pageable, liveTotal + archiveTotal);
+    }
+}
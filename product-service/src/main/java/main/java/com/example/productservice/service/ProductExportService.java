@@ -0,0 +1,14 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductExportService {
+    // Validates a comma-separated field list; null or blank selects every field
+    List<String> resolveFields(String fields);
+
+    // Discontinued products are left out unless includeDiscontinued, as in the list endpoints
+    long exportProducts(List<String> fields, LocalDateTime updatedSince, boolean includeDiscontinued, OutputStream outputStream) throws IOException;
+}
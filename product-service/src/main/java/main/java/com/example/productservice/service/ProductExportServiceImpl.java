@@ -0,0 +1,144 @@
+package main.java.main.java.com.example.productservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the catalog as NDJSON from a server-side cursor. Rows are read in fetch-size
+ * batches inside a read-only transaction and written one by one, so memory stays constant
+ * regardless of catalog size; no entities are materialized.
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportServiceImpl.class);
+
+    // JSON field name -> SQL expression, in output order
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", "p.id");
+        COLUMNS.put("name", "p.name");
+        COLUMNS.put("description", "p.description");
+        COLUMNS.put("price", "p.price");
+        COLUMNS.put("categoryId", "p.category_id");
+        COLUMNS.put("sku", "p.sku");
+        COLUMNS.put("stockQuantity", "p.stock_quantity");
+        COLUMNS.put("status", "p.status");
+        COLUMNS.put("tags", "(SELECT array_agg(t.tag) FROM product_tags t WHERE t.product_id = p.id)");
+        COLUMNS.put("metadata", "CAST(p.metadata AS text)");
+        COLUMNS.put("createdAt", "p.created_at");
+        COLUMNS.put("updatedAt", "p.updated_at");
+        COLUMNS.put("version", "p.version");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public ProductExportServiceImpl(DataSource dataSource, @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public List<String> resolveFields(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return new ArrayList<>(COLUMNS.keySet());
+        }
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!COLUMNS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown export field: " + name + ". Allowed: " + COLUMNS.keySet());
+            }
+            if (!selected.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(List<String> fields, LocalDateTime updatedSince, boolean includeDiscontinued,
+                               OutputStream outputStream) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < fields.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(COLUMNS.get(fields.get(i)));
+        }
+        sql.append(" FROM products p WHERE ").append(includeDiscontinued ? "TRUE" : "p.status <> 'DISCONTINUED'");
+        Object[] args = new Object[0];
+        if (updatedSince != null) {
+            // Incremental mode: ordered by updatedAt so a consumer can resume from the last row it saw
+            sql.append(" AND p.updated_at >= ?");
+            args = new Object[]{Timestamp.valueOf(updatedSince)};
+        }
+        sql.append(updatedSince != null ? " ORDER BY p.updated_at, p.id" : " ORDER BY p.id");
+
+        OutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(readRow(rs, fields)));
+                    out.write('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; stop reading the cursor
+            logger.debug("Product export aborted after {} rows: {}", rows[0], e.getMessage());
+            throw e.getCause();
+        }
+        out.flush();
+        return rows[0];
+    }
+
+    private Map<String, Object> readRow(ResultSet rs, List<String> fields) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i);
+            int column = i + 1;
+            switch (field) {
+                case "tags" -> {
+                    Array tags = rs.getArray(column);
+                    row.put(field, tags != null ? Arrays.asList((Object[]) tags.getArray()) : List.of());
+                }
+                case "metadata" -> {
+                    String metadata = rs.getString(column);
+                    row.put(field, metadata != null ? objectMapper.readTree(metadata) : null);
+                }
+                case "createdAt", "updatedAt" -> row.put(field, rs.getObject(column, LocalDateTime.class));
+                default -> row.put(field, rs.getObject(column));
+            }
+        }
+        return row;
+    }
+}
@@ -1,6 +1,7 @@
 package main.java.main.java.com.example.productservice.service;
 
 import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -16,20 +17,54 @@ public interface ProductService {
 
     Product partialUpdateProduct(Long id, Product productDetails);
 
+    // Optimistic locking: expectedVersion comes from If-Match, null skips the check
+    Product updateProduct(Long id, Product productDetails, Long expectedVersion);
+
+    Product partialUpdateProduct(Long id, Product productDetails, Long expectedVersion);
+
+    // Retry-on-conflict mode: on a version conflict, re-apply only the fields this request changed
+    Product updateProductWithRetry(Long id, Product productDetails);
+
+    Product partialUpdateProductWithRetry(Long id, Product productDetails);
+
     Optional<Product> getProductById(Long id);
 
     Page<Product> getAllProducts(Pageable pageable);
 
     Optional<Product> getProductBySku(String sku);
 
+    // include_discontinued: lookups fall back to the archive, lists append archived products
+    Optional<Product> getProductById(Long id, boolean includeDiscontinued);
+
+    Page<Product> getAllProducts(Pageable pageable, boolean includeDiscontinued);
+
+    Optional<Product> getProductBySku(String sku, boolean includeDiscontinued);
+
     void deleteProduct(Long id);
 
     boolean existsBySku(String sku);
 
+    // Conditional GET support
+    Optional<ProductRepository.ProductRevision> getProductRevision(Long id);
+
+    Optional<ProductRepository.ProductRevision> getProductRevisionBySku(String sku);
+
+    String getCatalogVersion();
+
     // Search methods
     Page<Product> searchProducts(String query, Pageable pageable);
 
     Page<Product> advancedSearch(String name, String description, String sku, String[] tags, Pageable pageable);
+
+    Page<Product> searchProducts(String query, Pageable pageable, boolean includeDiscontinued);
+
+    Page<Product> advancedSearch(String name, String description, String sku, String[] tags, Pageable pageable,
+                                 boolean includeDiscontinued);
+
+    // Structured query syntax, e.g. name:laptop AND (tag:apple OR tag:dell) -status:discontinued price:[500 TO 1500]
+    Page<Product> structuredSearch(String query, Pageable pageable, boolean includeDiscontinued);
+
+    String explainStructuredSearch(String query);
     
     // Filter methods
     Page<Product> filterProducts(
@@ -43,4 +78,16 @@ public interface ProductService {
         String metadataField, String metadataValue,
         Pageable pageable
     );
+
+    Page<Product> filterProducts(
+        BigDecimal minPrice, BigDecimal maxPrice,
+        Long categoryId, String categoryName,
+        String status,
+        Boolean inStock, Integer minStock, Integer maxStock,
+        LocalDateTime createdAfter, LocalDateTime createdBefore,
+        LocalDateTime updatedAfter, LocalDateTime updatedBefore,
+        List<String> tags,
+        String metadataField, String metadataValue,
+        Pageable pageable, boolean includeDiscontinued
+    );
 }
\ No newline at end of file
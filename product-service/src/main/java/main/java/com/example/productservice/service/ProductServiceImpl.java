@@ -3,28 +3,39 @@ package main.java.main.java.com.example.productservice.service;
 import main.java.main.java.com.example.productservice.model.Product;
 import main.java.main.java.com.example.productservice.model.Product.ProductStatus;
 import main.java.main.java.com.example.productservice.repository.ProductRepository;
-import main.java.main.java.com.example.productservice.repository.CategoryRepository;
 import main.java.main.java.com.example.productservice.service.SearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.validation.Valid;
+import java.util.LinkedHashSet;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
-    @Autowired
-    private ProductRepository productRepository;
+    private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private ProductRepository productRepository;
 
     @Autowired
     private SearchService searchService;
@@ -32,28 +43,63 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private FilterService filterService;
 
+    @Autowired
+    private StructuredSearchService structuredSearchService;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    @Autowired
+    private SimilarProductService similarProductService;
+
+    @Autowired
+    private WriteValidationService writeValidationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${product.update.max-conflict-attempts:5}")
+    private int maxConflictAttempts;
+
     @Override
     @io.micrometer.core.annotation.Timed(value = "product.create", description = "Time taken to create a product")
-    @org.springframework.cache.annotation.CacheEvict(value = {"searchResults", "advancedSearchResults", "productCache"}, allEntries = true)
     public Product createProduct(@Valid Product product) {
-        // Check SKU uniqueness
-        if (productRepository.existsBySku(product.getSku())) {
+        // Check SKU uniqueness; usually answered from memory, the unique constraint decides races
+        if (writeValidationService.skuExists(product.getSku())) {
             throw new IllegalArgumentException("SKU already exists: " + product.getSku());
         }
 
         // Validate category exists
         if (product.getCategory() != null && product.getCategory().getId() != null) {
-            if (!categoryRepository.existsById(product.getCategory().getId())) {
+            if (!writeValidationService.categoryExists(product.getCategory().getId())) {
                 throw new IllegalArgumentException("Category not found: " + product.getCategory().getId());
             }
         }
 
+        // The version is assigned by the persistence provider
+        product.setVersion(null);
+
         // Set default status if not provided
         if (product.getStatus() == null) {
             product.setStatus(ProductStatus.ACTIVE);
         }
 
-        // Initialize collections if null
+        // Initialize collections and stock if null
+        if (product.getStockQuantity() == null) {
+            product.setStockQuantity(0);
+        }
         if (product.getTags() == null) {
             product.setTags(new java.util.ArrayList<>());
         }
@@ -69,23 +115,46 @@ public class ProductServiceImpl implements ProductService {
             product.setUpdatedAt(java.time.LocalDateTime.now());
         }
 
-        return productRepository.save(product);
+        Product saved;
+        try {
+            // The identity column makes this insert immediately, so a duplicate SKU fails here
+            saved = productRepository.save(product);
+        } catch (DataIntegrityViolationException e) {
+            if (IntegrityViolations.violates(e, IntegrityViolations.PRODUCT_SKU)) {
+                throw new IllegalArgumentException("SKU already exists: " + product.getSku());
+            }
+            if (IntegrityViolations.violates(e, IntegrityViolations.PRODUCT_CATEGORY)) {
+                throw new IllegalArgumentException("Category not found: " + product.getCategory().getId());
+            }
+            throw e;
+        }
+        writeValidationService.skuWritten(saved.getSku());
+        cacheInvalidationService.productChanged(saved.getId());
+        savedSearchService.productWritten(saved);
+        similarProductService.productWritten(saved);
+        // Search caches are evicted by this write; refill them once the burst is over
+        cacheWarmupService.requestWarmup();
+        return saved;
     }
 
     @Override
     public Product updateProduct(Long id, @Valid Product productDetails) {
-        Product existingProduct = productRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+        return updateProduct(id, productDetails, null);
+    }
+
+    @Override
+    public Product updateProduct(Long id, @Valid Product productDetails, Long expectedVersion) {
+        Product existingProduct = loadForUpdate(id, expectedVersion);
 
         // Check SKU uniqueness (excluding current product)
         if (!existingProduct.getSku().equals(productDetails.getSku()) &&
-                productRepository.existsBySku(productDetails.getSku())) {
+                writeValidationService.skuExists(productDetails.getSku())) {
             throw new IllegalArgumentException("SKU already exists: " + productDetails.getSku());
         }
 
         // Validate category exists
         if (productDetails.getCategory() != null && productDetails.getCategory().getId() != null) {
-            if (!categoryRepository.existsById(productDetails.getCategory().getId())) {
+            if (!writeValidationService.categoryExists(productDetails.getCategory().getId())) {
                 throw new IllegalArgumentException("Category not found: " + productDetails.getCategory().getId());
             }
         }
@@ -105,23 +174,31 @@ public class ProductServiceImpl implements ProductService {
                 productDetails.getMetadata() != null ? productDetails.getMetadata() : existingProduct.getMetadata());
         existingProduct.setUpdatedAt(java.time.LocalDateTime.now());
 
+        cacheInvalidationService.productChanged(id);
+        savedSearchService.productWritten(existingProduct);
+        similarProductService.productWritten(existingProduct);
+        writeValidationService.skuWritten(existingProduct.getSku());
         return productRepository.save(existingProduct);
     }
 
     @Override
     public Product partialUpdateProduct(Long id, Product productDetails) {
-        Product existingProduct = productRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+        return partialUpdateProduct(id, productDetails, null);
+    }
+
+    @Override
+    public Product partialUpdateProduct(Long id, Product productDetails, Long expectedVersion) {
+        Product existingProduct = loadForUpdate(id, expectedVersion);
 
         // Check SKU uniqueness if provided and changed
         if (productDetails.getSku() != null && !existingProduct.getSku().equals(productDetails.getSku()) &&
-                productRepository.existsBySku(productDetails.getSku())) {
+                writeValidationService.skuExists(productDetails.getSku())) {
             throw new IllegalArgumentException("SKU already exists: " + productDetails.getSku());
         }
 
         // Validate category if provided
         if (productDetails.getCategory() != null && productDetails.getCategory().getId() != null) {
-            if (!categoryRepository.existsById(productDetails.getCategory().getId())) {
+            if (!writeValidationService.categoryExists(productDetails.getCategory().getId())) {
                 throw new IllegalArgumentException("Category not found: " + productDetails.getCategory().getId());
             }
         }
@@ -156,27 +233,187 @@ public class ProductServiceImpl implements ProductService {
         }
         existingProduct.setUpdatedAt(java.time.LocalDateTime.now());
 
+        cacheInvalidationService.productChanged(id);
+        savedSearchService.productWritten(existingProduct);
+        similarProductService.productWritten(existingProduct);
+        writeValidationService.skuWritten(existingProduct.getSku());
         return productRepository.save(existingProduct);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Product updateProductWithRetry(Long id, @Valid Product productDetails) {
+        return retryOnConflict(id, productDetails, false);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Product partialUpdateProductWithRetry(Long id, Product productDetails) {
+        return retryOnConflict(id, productDetails, true);
+    }
+
+    /**
+     * Runs each attempt in its own transaction. The fields this request changes are worked
+     * out against the row read by the first attempt; after a conflict only those fields are
+     * re-applied to the fresh row, so a concurrent writer's other changes are kept.
+     */
+    private Product retryOnConflict(Long id, Product productDetails, boolean partial) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicReference<Set<String>> changedFields = new AtomicReference<>();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Product existingProduct = loadForUpdate(id, null);
+                    if (changedFields.get() == null) {
+                        changedFields.set(changedFields(existingProduct, productDetails, partial));
+                    }
+                    return applyChanges(existingProduct, productDetails, changedFields.get());
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxConflictAttempts) {
+                    throw e;
+                }
+                logger.debug("Version conflict updating product {} (attempt {}), re-applying {}", id, attempt, changedFields.get());
+            }
+        }
+    }
+
+    private Product loadForUpdate(Long id, Long expectedVersion) {
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingProduct.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        return existingProduct;
+    }
+
+    private Set<String> changedFields(Product current, Product requested, boolean partial) {
+        Set<String> fields = new LinkedHashSet<>();
+        // A full update replaces every field except status, tags and metadata, which keep their value when null
+        if ((!partial || requested.getName() != null) && !Objects.equals(current.getName(), requested.getName())) {
+            fields.add("name");
+        }
+        if ((!partial || requested.getDescription() != null) && !Objects.equals(current.getDescription(), requested.getDescription())) {
+            fields.add("description");
+        }
+        if ((!partial || requested.getPrice() != null) && !samePrice(current.getPrice(), requested.getPrice())) {
+            fields.add("price");
+        }
+        if ((!partial || requested.getCategory() != null) && !Objects.equals(categoryId(current), categoryId(requested))) {
+            fields.add("category");
+        }
+        if ((!partial || requested.getSku() != null) && !Objects.equals(current.getSku(), requested.getSku())) {
+            fields.add("sku");
+        }
+        if ((!partial || requested.getStockQuantity() != null) && !Objects.equals(current.getStockQuantity(), requested.getStockQuantity())) {
+            fields.add("stockQuantity");
+        }
+        if (requested.getStatus() != null && requested.getStatus() != current.getStatus()) {
+            fields.add("status");
+        }
+        if (requested.getTags() != null && !Objects.equals(current.getTags(), requested.getTags())) {
+            fields.add("tags");
+        }
+        if (requested.getMetadata() != null && !Objects.equals(current.getMetadata(), requested.getMetadata())) {
+            fields.add("metadata");
+        }
+        return fields;
+    }
+
+    private Product applyChanges(Product existingProduct, Product productDetails, Set<String> fields) {
+        if (fields.isEmpty()) {
+            return existingProduct;
+        }
+        if (fields.contains("sku") && writeValidationService.skuExists(productDetails.getSku())) {
+            throw new IllegalArgumentException("SKU already exists: " + productDetails.getSku());
+        }
+        if (fields.contains("category") && productDetails.getCategory() != null && productDetails.getCategory().getId() != null
+                && !writeValidationService.categoryExists(productDetails.getCategory().getId())) {
+            throw new IllegalArgumentException("Category not found: " + productDetails.getCategory().getId());
+        }
+        for (String field : fields) {
+            switch (field) {
+                case "name" -> existingProduct.setName(productDetails.getName());
+                case "description" -> existingProduct.setDescription(productDetails.getDescription());
+                case "price" -> existingProduct.setPrice(productDetails.getPrice());
+                case "category" -> existingProduct.setCategory(productDetails.getCategory());
+                case "sku" -> existingProduct.setSku(productDetails.getSku());
+                case "stockQuantity" -> existingProduct.setStockQuantity(productDetails.getStockQuantity());
+                case "status" -> existingProduct.setStatus(productDetails.getStatus());
+                case "tags" -> existingProduct.setTags(productDetails.getTags());
+                case "metadata" -> existingProduct.setMetadata(productDetails.getMetadata());
+                default -> throw new IllegalStateException("Unknown product field: " + field);
+            }
+        }
+        existingProduct.setUpdatedAt(java.time.LocalDateTime.now());
+        cacheInvalidationService.productChanged(existingProduct.getId());
+        savedSearchService.productWritten(existingProduct);
+        similarProductService.productWritten(existingProduct);
+        writeValidationService.skuWritten(existingProduct.getSku());
+        return productRepository.save(existingProduct);
+    }
+
+    private static boolean samePrice(java.math.BigDecimal current, java.math.BigDecimal requested) {
+        return current == null ? requested == null : requested != null && current.compareTo(requested) == 0;
+    }
+
+    private static Long categoryId(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    // Safe to cache across replicas: every product write broadcasts an eviction of this key
+    @org.springframework.cache.annotation.Cacheable(value = "productCache", key = "'product_' + #id", unless = "#result == null")
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productRepository.findById(id).map(ProductServiceImpl::initializeForCache);
+    }
+
+    // Cached products outlive the session, so lazy associations must be loaded first
+    private static Product initializeForCache(Product product) {
+        org.hibernate.Hibernate.initialize(product.getCategory());
+        org.hibernate.Hibernate.initialize(product.getTags());
+        return product;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+        return productRepository.findAllAvailable(pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Product> getProductBySku(String sku) {
         return productRepository.findBySku(sku);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @org.springframework.cache.annotation.Cacheable(value = "productCache", key = "'product_' + #id", condition = "!#includeDiscontinued", unless = "#result == null")
+    public Optional<Product> getProductById(Long id, boolean includeDiscontinued) {
+        Optional<Product> product = productRepository.findById(id).map(ProductServiceImpl::initializeForCache);
+        return product.isPresent() || !includeDiscontinued ? product : productArchiveService.findArchivedById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> getAllProducts(Pageable pageable, boolean includeDiscontinued) {
+        if (!includeDiscontinued) {
+            return getAllProducts(pageable);
+        }
+        return productArchiveService.appendArchived(productRepository.findAll(pageable), pageable, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Product> getProductBySku(String sku, boolean includeDiscontinued) {
+        Optional<Product> product = productRepository.findBySku(sku);
+        return product.isPresent() || !includeDiscontinued ? product : productArchiveService.findArchivedBySku(sku);
+    }
+
     @Override
     @io.micrometer.core.annotation.Timed(value = "product.delete", description = "Time taken to delete a product")
-    @org.springframework.cache.annotation.CacheEvict(value = {"searchResults", "advancedSearchResults", "productCache"}, key = "'product_' + #id")
     public void deleteProduct(Long id) {
         Product existingProduct = productRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
@@ -185,20 +422,108 @@ public class ProductServiceImpl implements ProductService {
         existingProduct.setStatus(ProductStatus.DISCONTINUED);
         existingProduct.setUpdatedAt(java.time.LocalDateTime.now());
         productRepository.save(existingProduct);
+        cacheInvalidationService.productChanged(id);
+        // Saved searches on status (e.g. status:discontinued) must see the change
+        savedSearchService.productWritten(existingProduct);
+        similarProductService.productWritten(existingProduct);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsBySku(String sku) {
         return productRepository.existsBySku(sku);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<ProductRepository.ProductRevision> getProductRevision(Long id) {
+        return productRepository.findRevisionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ProductRepository.ProductRevision> getProductRevisionBySku(String sku) {
+        return productRepository.findRevisionBySku(sku);
+    }
+
+    @Override
+    // Served from memory; no transaction, so a miss reads the primary rather than a lagging replica
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String getCatalogVersion() {
+        return Long.toHexString(catalogVersionService.current());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<Product> searchProducts(String query, Pageable pageable) {
         return searchService.searchProducts(query, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> advancedSearch(String name, String description, String sku, String[] tags, Pageable pageable) {
         return searchService.advancedSearch(name, description, sku, tags, pageable);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> searchProducts(String query, Pageable pageable, boolean includeDiscontinued) {
+        return includeDiscontinued
+            ? searchService.searchProductsIncludingDiscontinued(query, pageable)
+            : searchService.searchProducts(query, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> advancedSearch(String name, String description, String sku, String[] tags, Pageable pageable,
+                                        boolean includeDiscontinued) {
+        return includeDiscontinued
+            ? searchService.advancedSearchIncludingDiscontinued(name, description, sku, tags, pageable)
+            : searchService.advancedSearch(name, description, sku, tags, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> structuredSearch(String query, Pageable pageable, boolean includeDiscontinued) {
+        return structuredSearchService.search(query, pageable, includeDiscontinued);
+    }
+
+    @Override
+    public String explainStructuredSearch(String query) {
+        return structuredSearchService.explain(query);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> filterProducts(
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice,
+            Long categoryId, String categoryName,
+            String status,
+            Boolean inStock, Integer minStock, Integer maxStock,
+            java.time.LocalDateTime createdAfter, java.time.LocalDateTime createdBefore,
+            java.time.LocalDateTime updatedAfter, java.time.LocalDateTime updatedBefore,
+            java.util.List<String> tags,
+            String metadataField, String metadataValue,
+            Pageable pageable) {
+        return filterService.filterProducts(minPrice, maxPrice, categoryId, categoryName, status,
+            inStock, minStock, maxStock, createdAfter, createdBefore,
+            updatedAfter, updatedBefore, tags, metadataField, metadataValue, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> filterProducts(
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice,
+            Long categoryId, String categoryName,
+            String status,
+            Boolean inStock, Integer minStock, Integer maxStock,
+            java.time.LocalDateTime createdAfter, java.time.LocalDateTime createdBefore,
+            java.time.LocalDateTime updatedAfter, java.time.LocalDateTime updatedBefore,
+            java.util.List<String> tags,
+            String metadataField, String metadataValue,
+            Pageable pageable, boolean includeDiscontinued) {
+        return filterService.filterProducts(minPrice, maxPrice, categoryId, categoryName, status,
+            inStock, minStock, maxStock, createdAfter, createdBefore,
+            updatedAfter, updatedBefore, tags, metadataField, metadataValue, pageable, includeDiscontinued);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.SavedSearch;
+import main.java.main.java.com.example.productservice.model.SavedSearchMatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SavedSearchService {
+
+    // The query is parsed up front, so a malformed one is rejected here rather than at match time
+    SavedSearch createSavedSearch(SavedSearch savedSearch);
+
+    Optional<SavedSearch> getSavedSearch(Long id);
+
+    Page<SavedSearch> getSavedSearches(String owner, Pageable pageable);
+
+    boolean deleteSavedSearch(Long id);
+
+    // Queues the product for matching once the write commits; cheap enough to call on every write
+    void productWritten(Product product);
+
+    // Matches with an id above the watermark, oldest first; savedSearchId null means all searches
+    List<SavedSearchMatch> getMatches(Long savedSearchId, long after, int limit);
+
+    void percolatePending();
+
+    void reloadSavedSearches();
+}
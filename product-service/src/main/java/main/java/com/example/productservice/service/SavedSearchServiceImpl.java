@@ -0,0 +1,270 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.SavedSearch;
+import main.java.main.java.com.example.productservice.model.SavedSearchMatch;
+import main.java.main.java.com.example.productservice.repository.CategoryRepository;
+import main.java.main.java.com.example.productservice.repository.SavedSearchMatchRepository;
+import main.java.main.java.com.example.productservice.repository.SavedSearchRepository;
+import main.java.main.java.com.example.productservice.search.Percolator;
+import main.java.main.java.com.example.productservice.search.ProductQueryParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches product writes against saved searches. Committed writes are queued, latest
+ * version per product, and percolated in batches: the percolator narrows each product to
+ * the saved searches sharing one of its anchor keys, those are evaluated in memory, and the
+ * matches are inserted into the saved_search_matches outbox in one batch. Subscribers poll
+ * the outbox by id watermark. Saved searches are reloaded incrementally by updated_at, so
+ * searches created on another replica start matching here within one reload interval.
+ * Writes stay queued until the first reload has run, and a batch whose matches cannot be
+ * stored goes back on the queue.
+ */
+@Service
+public class SavedSearchServiceImpl implements SavedSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchServiceImpl.class);
+
+    private static final String INSERT_MATCH_SQL =
+        "INSERT INTO saved_search_matches (saved_search_id, product_id, matched_at) VALUES (?, ?, ?)";
+
+    // Covers clock skew between replicas and transactions that committed after a reload read past them
+    private static final long RELOAD_OVERLAP_SECONDS = 60;
+
+    private static final int MAX_MATCHES_PER_READ = 1000;
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private SavedSearchMatchRepository savedSearchMatchRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.saved-search.max-pending:10000}")
+    private int maxPending;
+
+    private final Percolator percolator = new Percolator();
+    private final Map<Long, Percolator.Document> pending = new ConcurrentHashMap<>();
+    private volatile LocalDateTime reloadWatermark;
+
+    private Counter percolated;
+    private Counter candidates;
+    private Counter matched;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        percolated = meterRegistry.counter("product.saved-search.percolated");
+        candidates = meterRegistry.counter("product.saved-search.candidates");
+        matched = meterRegistry.counter("product.saved-search.matched");
+        dropped = meterRegistry.counter("product.saved-search.dropped");
+        meterRegistry.gauge("product.saved-search.registered", percolator, Percolator::size);
+        meterRegistry.gauge("product.saved-search.unanchored", percolator, Percolator::unanchoredSize);
+    }
+
+    @Override
+    @Transactional
+    public SavedSearch createSavedSearch(SavedSearch savedSearch) {
+        ProductQueryParser.parse(savedSearch.getQuery());
+        savedSearch.setId(null);
+        savedSearch.setActive(true);
+        savedSearch.setCreatedAt(LocalDateTime.now());
+        savedSearch.setUpdatedAt(LocalDateTime.now());
+        SavedSearch saved = savedSearchRepository.save(savedSearch);
+        TransactionCallbacks.afterCommit(() -> register(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<SavedSearch> getSavedSearch(Long id) {
+        return savedSearchRepository.findById(id).filter(SavedSearch::isActive);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SavedSearch> getSavedSearches(String owner, Pageable pageable) {
+        return savedSearchRepository.findByOwnerAndActiveTrue(owner, pageable);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteSavedSearch(Long id) {
+        Optional<SavedSearch> existing = savedSearchRepository.findById(id).filter(SavedSearch::isActive);
+        if (existing.isEmpty()) {
+            return false;
+        }
+        SavedSearch savedSearch = existing.get();
+        savedSearch.setActive(false);
+        savedSearch.setUpdatedAt(LocalDateTime.now());
+        savedSearchRepository.save(savedSearch);
+        TransactionCallbacks.afterCommit(() -> percolator.unregister(id));
+        return true;
+    }
+
+    @Override
+    public void productWritten(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        // Captured now: the entity may be changed again or detached by the time the batch runs
+        Percolator.Document document = new Percolator.Document(product.getId(), product.getName(),
+            product.getDescription(), product.getSku(), product.getTags(),
+            product.getCategory() != null ? product.getCategory().getId() : null, null,
+            product.getStatus() != null ? product.getStatus().name() : null,
+            product.getPrice(), product.getStockQuantity());
+        TransactionCallbacks.afterCommit(() -> enqueue(document));
+    }
+
+    private void enqueue(Percolator.Document document) {
+        if (pending.size() >= maxPending && !pending.containsKey(document.getId())) {
+            dropped.increment();
+            return;
+        }
+        pending.put(document.getId(), document);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SavedSearchMatch> getMatches(Long savedSearchId, long after, int limit) {
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_MATCHES_PER_READ)));
+        return savedSearchId != null
+            ? savedSearchMatchRepository.findAfter(savedSearchId, after, page)
+            : savedSearchMatchRepository.findAfter(after, page);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.saved-search.batch-interval-ms:1000}")
+    @Transactional
+    public void percolatePending() {
+        // Until the first reload the percolator may be empty only because it has not been filled yet
+        if (pending.isEmpty() || reloadWatermark == null) {
+            return;
+        }
+        List<Percolator.Document> batch = new ArrayList<>();
+        for (Long id : pending.keySet()) {
+            Percolator.Document document = pending.remove(id);
+            if (document != null) {
+                batch.add(document);
+            }
+        }
+        if (percolator.size() == 0) {
+            // Nothing is registered, so nothing can match; later searches do not match earlier writes
+            return;
+        }
+
+        Map<Long, String> categoryNames = categoryNames(batch);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        int[] evaluated = new int[1];
+        for (Percolator.Document document : batch) {
+            Percolator.Document resolved = document.getCategoryId() != null
+                ? document.withCategoryName(categoryNames.get(document.getCategoryId())) : document;
+            for (Long savedSearchId : percolator.percolate(resolved, evaluated)) {
+                rows.add(new Object[] {savedSearchId, document.getId(), now});
+            }
+        }
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_MATCH_SQL, rows);
+            } catch (RuntimeException e) {
+                // The transaction rolls the whole batch back, so it can be retried without duplicates.
+                // A newer write queued meanwhile is kept over the older document.
+                logger.warn("Storing {} saved search matches failed, retrying next batch: {}", rows.size(), e.getMessage());
+                for (Percolator.Document document : batch) {
+                    pending.putIfAbsent(document.getId(), document);
+                }
+                throw e;
+            }
+        }
+        percolated.increment(batch.size());
+        candidates.increment(evaluated[0]);
+        matched.increment(rows.size());
+        logger.debug("Percolated {} products against {} saved searches: {} candidates, {} matches",
+            batch.size(), percolator.size(), evaluated[0], rows.size());
+    }
+
+    // One lookup per batch; category: terms may name the category instead of its id
+    private Map<Long, String> categoryNames(List<Percolator.Document> batch) {
+        Set<Long> ids = new HashSet<>();
+        for (Percolator.Document document : batch) {
+            if (document.getCategoryId() != null) {
+                ids.add(document.getCategoryId());
+            }
+        }
+        Map<Long, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Category category : categoryRepository.findAllById(ids)) {
+                names.put(category.getId(), category.getName());
+            }
+        }
+        return names;
+    }
+
+    @Override
+    @Scheduled(scheduler = "reloadScheduler", initialDelay = 0, fixedDelayString = "${product.saved-search.reload-interval-ms:30000}")
+    @Transactional(readOnly = true)
+    public void reloadSavedSearches() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            List<SavedSearch> changed = reloadWatermark == null
+                ? savedSearchRepository.findByActiveTrue()
+                : savedSearchRepository.findByUpdatedAtAfter(reloadWatermark.minusSeconds(RELOAD_OVERLAP_SECONDS));
+            for (SavedSearch savedSearch : changed) {
+                if (savedSearch.isActive()) {
+                    register(savedSearch);
+                } else {
+                    percolator.unregister(savedSearch.getId());
+                }
+            }
+            reloadWatermark = startedAt;
+            logger.debug("Reloaded {} saved searches, {} registered", changed.size(), percolator.size());
+        } catch (RuntimeException e) {
+            // Keep matching against the searches already registered
+            logger.warn("Saved search reload failed: {}", e.getMessage());
+        }
+    }
+
+    private void register(SavedSearch savedSearch) {
+        try {
+            percolator.register(savedSearch.getId(), ProductQueryParser.parse(savedSearch.getQuery()));
+        } catch (IllegalArgumentException e) {
+            // Stored before a grammar change; it cannot match anything until it is recreated
+            logger.warn("Saved search {} has an invalid query: {}", savedSearch.getId(), e.getMessage());
+            percolator.unregister(savedSearch.getId());
+        }
+    }
+}
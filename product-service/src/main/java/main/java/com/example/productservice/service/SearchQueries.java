@@ -0,0 +1,37 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.util.Locale;
+
+/**
+ * Canonical form of a free-text search query, shared by everything that counts or keys
+ * on queries so "Laptop " and "laptop" are the same query.
+ */
+public final class SearchQueries {
+
+    public static final int MAX_LENGTH = 100;
+
+    private SearchQueries() {
+    }
+
+    // Lower-cased, trimmed, inner whitespace collapsed; null when nothing is left
+    public static String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(Math.min(query.length(), MAX_LENGTH));
+        boolean pendingSpace = false;
+        for (int i = 0; i < query.length() && normalized.length() < MAX_LENGTH; i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.length() == 0 ? null : normalized.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.util.List;
+
+public interface SearchQueryLogService {
+    // Counted in memory, persisted in batches
+    void recordQuery(String query);
+
+    // Most frequent normalized queries seen within the retention window
+    List<String> getTopQueries(int limit);
+
+    void flush();
+}
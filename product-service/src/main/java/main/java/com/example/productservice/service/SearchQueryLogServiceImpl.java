@@ -0,0 +1,136 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import main.java.main.java.com.example.productservice.repository.SearchQueryStatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Frequency log of normalized search queries. Searches only bump an in-memory counter;
+ * a periodic flush upserts the aggregated deltas in one JDBC batch, so the write cost is
+ * per distinct query per interval rather than per search. Searches share the read lock
+ * while counting; the flush takes the write lock only to swap in an empty map, so no
+ * increment can land in a map that has already been read.
+ */
+@Service
+public class SearchQueryLogServiceImpl implements SearchQueryLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchQueryLogServiceImpl.class);
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO search_query_log (query, frequency, last_seen) VALUES (?, ?, ?) " +
+        "ON CONFLICT (query) DO UPDATE SET frequency = search_query_log.frequency + EXCLUDED.frequency, " +
+        "last_seen = EXCLUDED.last_seen";
+
+    @Autowired
+    private SearchQueryStatRepository searchQueryStatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.search.query-log.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${product.search.query-log.retention-days:7}")
+    private int retentionDays;
+
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private Counter droppedQueries;
+
+    @PostConstruct
+    void init() {
+        droppedQueries = meterRegistry.counter("product.search.query-log.dropped");
+    }
+
+    @Override
+    public void recordQuery(String query) {
+        String normalized = SearchQueries.normalize(query);
+        if (normalized == null) {
+            return;
+        }
+        pendingLock.readLock().lock();
+        try {
+            LongAdder counter = pending.get(normalized);
+            if (counter == null) {
+                if (pending.size() >= maxPending) {
+                    droppedQueries.increment();
+                    return;
+                }
+                counter = pending.computeIfAbsent(normalized, key -> new LongAdder());
+            }
+            counter.increment();
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getTopQueries(int limit) {
+        return searchQueryStatRepository.findTopQueries(
+            LocalDateTime.now().minusDays(retentionDays), PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.search.query-log.flush-interval-ms:30000}")
+    public void flush() {
+        Map<String, LongAdder> counts;
+        pendingLock.writeLock().lock();
+        try {
+            counts = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((query, count) -> rows.add(new Object[]{query, count.sum(), now}));
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        } catch (RuntimeException e) {
+            // Losing one interval of counts only makes the ranking slightly less fresh
+            logger.warn("Failed to flush {} search query counts: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${product.search.query-log.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = searchQueryStatRepository.deleteByLastSeenBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) {
+            logger.info("Purged {} search queries not seen for {} days", removed, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
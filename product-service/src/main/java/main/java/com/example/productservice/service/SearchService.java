@@ -7,4 +7,8 @@ import org.springframework.data.domain.Pageable;
 public interface SearchService {
     Page<Product> searchProducts(String query, Pageable pageable);
     Page<Product> advancedSearch(String name, String description, String sku, String[] tags, Pageable pageable);
+
+    // include_discontinued: soft-deleted and archived products too, not cached
+    Page<Product> searchProductsIncludingDiscontinued(String query, Pageable pageable);
+    Page<Product> advancedSearchIncludingDiscontinued(String name, String description, String sku, String[] tags, Pageable pageable);
 }
\ No newline at end of file
@@ -2,12 +2,14 @@ package main.java.main.java.com.example.productservice.service;
 
 import main.java.main.java.com.example.productservice.model.Product;
 import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.repository.ProductSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.*;
 import java.util.ArrayList;
@@ -19,19 +21,62 @@ public class SearchServiceImpl implements SearchService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private PageQueryExecutor pageQueryExecutor;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
     @Override
-    @Cacheable(value = "searchResults", key = "#query + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Transactional(readOnly = true)
+    // Keyed on the normalized query so "Laptop " and "laptop" share an entry, and the warm-up can pre-fill it
+    @Cacheable(value = "searchResults", key = "T(main.java.main.java.com.example.productservice.service.SearchQueries).normalize(#query) + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
     public Page<Product> searchProducts(String query, Pageable pageable) {
-        if (query == null || query.trim().isEmpty()) {
-            return productRepository.findAll(pageable);
+        String normalized = SearchQueries.normalize(query);
+        if (normalized == null) {
+            Specification<Product> live = ProductSpecifications.live();
+            return pageQueryExecutor.executePage("search", pageable,
+                page -> productRepository.findContent(live, page), () -> productRepository.count(live));
         }
-        return productRepository.searchByQuery(query.toLowerCase(), pageable);
+        return pageQueryExecutor.executePage("search", pageable,
+            page -> productRepository.searchLiveContentByQuery(normalized, page),
+            () -> productRepository.countLiveByQuery(normalized));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> searchProductsIncludingDiscontinued(String query, Pageable pageable) {
+        String normalized = SearchQueries.normalize(query);
+        Page<Product> livePage = normalized == null
+            ? pageQueryExecutor.executePage("search", pageable,
+                page -> productRepository.findContent(null, page), productRepository::count)
+            : pageQueryExecutor.executePage("search", pageable,
+                page -> productRepository.searchContentByQuery(normalized, page),
+                () -> productRepository.countByQuery(normalized));
+        return productArchiveService.appendArchived(livePage, pageable,
+            normalized == null ? null : ProductSpecifications.archivedMatching(normalized));
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "advancedSearchResults", key = "#name + '_' + #description + '_' + #sku + '_' + #tags + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
     public Page<Product> advancedSearch(String name, String description, String sku, String[] tags, Pageable pageable) {
-        Specification<Product> spec = (root, query, criteriaBuilder) -> {
+        Specification<Product> spec = ProductSpecifications.live(advancedSearchSpecification(name, description, sku, tags));
+        return pageQueryExecutor.executePage("advanced-search", pageable,
+            page -> productRepository.findContent(spec, page), () -> productRepository.count(spec));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> advancedSearchIncludingDiscontinued(String name, String description, String sku, String[] tags, Pageable pageable) {
+        Specification<Product> spec = advancedSearchSpecification(name, description, sku, tags);
+        Page<Product> livePage = pageQueryExecutor.executePage("advanced-search", pageable,
+            page -> productRepository.findContent(spec, page), () -> productRepository.count(spec));
+        return productArchiveService.appendArchived(livePage, pageable, ProductSpecifications.archived(spec));
+    }
+
+    private Specification<Product> advancedSearchSpecification(String name, String description, String sku, String[] tags) {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (name != null && !name.trim().isEmpty()) {
@@ -68,7 +113,5 @@ public class SearchServiceImpl implements SearchService {
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        return productRepository.findAll(spec, pageable);
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.SimilarProduct;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SimilarProductService {
+
+    // Most similar live products first; empty when the product does not exist
+    Optional<List<SimilarProduct>> findSimilar(Long productId, int limit);
+
+    // Re-indexes the product once the write commits; discontinued products are dropped
+    void productWritten(Product product);
+
+    void refreshIndex();
+}
@@ -0,0 +1,204 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.SimilarProduct;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.sketch.MinHashIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * "Similar products" from a MinHash/LSH index over each live product's tags and name and
+ * description terms. The index is built once at startup by reading products in id order,
+ * then kept current by this replica's writes (after commit) and by a periodic read of rows
+ * updated since the last one, which picks up other replicas' writes. Lookups never touch the
+ * database except to load the returned products.
+ */
+@Service
+public class SimilarProductServiceImpl implements SimilarProductService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarProductServiceImpl.class);
+
+    // Same term split as the spelling suggestions vocabulary
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final String PRODUCT_COLUMNS =
+        "SELECT p.id, p.name, p.description, p.status," +
+        " (SELECT string_agg(t.tag, chr(31)) FROM product_tags t WHERE t.product_id = p.id) AS tags FROM products p";
+    private static final String ALL_PRODUCTS_SQL = PRODUCT_COLUMNS + " WHERE p.id > ? ORDER BY p.id LIMIT ?";
+    private static final String CHANGED_PRODUCTS_SQL =
+        PRODUCT_COLUMNS + " WHERE p.updated_at > ? AND p.id > ? ORDER BY p.id LIMIT ?";
+
+    // Covers clock skew between replicas and transactions that committed after a refresh read past them
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.similar.bands:16}")
+    private int bands;
+
+    @Value("${product.similar.rows-per-band:4}")
+    private int rowsPerBand;
+
+    @Value("${product.similar.max-features:48}")
+    private int maxFeatures;
+
+    @Value("${product.similar.max-bucket-size:500}")
+    private int maxBucketSize;
+
+    @Value("${product.similar.min-similarity:0.1}")
+    private double minSimilarity;
+
+    @Value("${product.similar.batch-size:5000}")
+    private int batchSize;
+
+    private MinHashIndex index;
+    private volatile LocalDateTime refreshWatermark;
+
+    @PostConstruct
+    void init() {
+        index = new MinHashIndex(bands, rowsPerBand, maxFeatures, maxBucketSize);
+        meterRegistry.gauge("product.similar.indexed", index, MinHashIndex::size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<SimilarProduct>> findSimilar(Long productId, int limit) {
+        List<MinHashIndex.Match> matches = index.similar(productId, limit, minSimilarity);
+        if (matches == null) {
+            // Not indexed: no terms, discontinued, or written on another replica since the last refresh
+            return productRepository.existsById(productId) ? Optional.of(List.of()) : Optional.empty();
+        }
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (MinHashIndex.Match match : matches) {
+            ids.add(match.getId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            products.put(product.getId(), product);
+        }
+        List<SimilarProduct> similar = new ArrayList<>(matches.size());
+        for (MinHashIndex.Match match : matches) {
+            Product product = products.get(match.getId());
+            if (product != null && product.getStatus() != Product.ProductStatus.DISCONTINUED) {
+                similar.add(new SimilarProduct(product, Math.round(match.getSimilarity() * 1000) / 1000.0));
+            }
+        }
+        return Optional.of(similar);
+    }
+
+    @Override
+    public void productWritten(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        long id = product.getId();
+        // Captured now: the entity may be changed again or detached by the time the write commits
+        Set<String> features = product.getStatus() == Product.ProductStatus.DISCONTINUED
+            ? Set.of() : features(product.getName(), product.getDescription(), product.getTags());
+        TransactionCallbacks.afterCommit(() -> index.put(id, features));
+    }
+
+    @Override
+    @Scheduled(scheduler = "reloadScheduler", initialDelay = 0, fixedDelayString = "${product.similar.refresh-interval-ms:10000}")
+    public void refreshIndex() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            LocalDateTime since = refreshWatermark;
+            long indexed = since == null ? indexProducts(null) : indexProducts(since.minusSeconds(REFRESH_OVERLAP_SECONDS));
+            refreshWatermark = startedAt;
+            if (since == null) {
+                logger.info("Similar products index built: {} products", index.size());
+            } else {
+                logger.debug("Similar products index refreshed: {} changed products", indexed);
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the index as it is; the next refresh covers the gap
+            logger.warn("Similar products index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Keyset pages in id order, so a large catalog never sits in memory as rows
+    private long indexProducts(LocalDateTime since) {
+        long afterId = 0;
+        long total = 0;
+        while (true) {
+            long[] lastId = {afterId};
+            int[] rows = {0};
+            Object[] args = since == null
+                ? new Object[] {afterId, batchSize}
+                : new Object[] {Timestamp.valueOf(since), afterId, batchSize};
+            jdbcTemplate.query(since == null ? ALL_PRODUCTS_SQL : CHANGED_PRODUCTS_SQL, rs -> {
+                long id = rs.getLong(1);
+                String tags = rs.getString(5);
+                if (Product.ProductStatus.DISCONTINUED.name().equals(rs.getString(4))) {
+                    index.remove(id);
+                } else {
+                    index.put(id, features(rs.getString(2), rs.getString(3),
+                        tags != null ? List.of(tags.split("\u001f")) : List.of()));
+                }
+                lastId[0] = id;
+                rows[0]++;
+            }, args);
+            total += rows[0];
+            if (rows[0] < batchSize) {
+                return total;
+            }
+            afterId = lastId[0];
+        }
+    }
+
+    // Tags and terms are separate features, so a tag "usb" and the word "usb" both count
+    static Set<String> features(String name, String description, Collection<String> tags) {
+        Set<String> features = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null && !tag.isBlank()) {
+                    features.add("t:" + tag.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        addTerms(features, name);
+        addTerms(features, description);
+        return features;
+    }
+
+    private static void addTerms(Set<String> features, String text) {
+        if (text == null) {
+            return;
+        }
+        for (String term : TERM_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (term.length() > 1) {
+                features.add("w:" + term);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package main.java.main.java.com.example.productservice.service;
+
+import java.util.List;
+
+public interface SpellingSuggestionService {
+    // Corrected forms of the query, best first; empty when every term is known
+    List<String> suggest(String query, int limit);
+
+    void rebuildDictionary();
+}
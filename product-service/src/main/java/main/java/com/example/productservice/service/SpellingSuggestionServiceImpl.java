@@ -0,0 +1,120 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.search.SymSpellIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * "Did you mean" for product search. The dictionary is the catalog vocabulary (name,
+ * description and tag terms of live products) weighted by how often each term occurs.
+ * Tokenizing and counting happen in Postgres, so only distinct terms are transferred;
+ * the index is rebuilt periodically and swapped in whole.
+ */
+@Service
+public class SpellingSuggestionServiceImpl implements SpellingSuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpellingSuggestionServiceImpl.class);
+
+    // Keep in step with the '[^[:alnum:]]+' split in VOCABULARY_SQL
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final String VOCABULARY_SQL =
+        "SELECT term, COUNT(*) AS frequency FROM (" +
+        " SELECT regexp_split_to_table(lower(p.name || ' ' || COALESCE(p.description, '')), '[^[:alnum:]]+') AS term" +
+        " FROM products p WHERE p.status <> 'DISCONTINUED'" +
+        " UNION ALL" +
+        " SELECT regexp_split_to_table(lower(t.tag), '[^[:alnum:]]+')" +
+        " FROM product_tags t JOIN products p ON p.id = t.product_id WHERE p.status <> 'DISCONTINUED'" +
+        ") terms WHERE length(term) > 1 GROUP BY term ORDER BY frequency DESC LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${product.search.suggestions.max-edit-distance:2}")
+    private int maxEditDistance;
+
+    @Value("${product.search.suggestions.prefix-length:7}")
+    private int prefixLength;
+
+    @Value("${product.search.suggestions.max-terms:200000}")
+    private int maxTerms;
+
+    private volatile SymSpellIndex index;
+
+    @Override
+    public List<String> suggest(String query, int limit) {
+        SymSpellIndex current = index;
+        String normalized = SearchQueries.normalize(query);
+        if (current == null || normalized == null) {
+            return List.of();
+        }
+        String[] tokens = TERM_SEPARATOR.split(normalized.toLowerCase(Locale.ROOT));
+        List<String> terms = new ArrayList<>();
+        for (String token : tokens) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        if (terms.size() == 1) {
+            String term = terms.get(0);
+            if (current.contains(term)) {
+                return List.of();
+            }
+            List<String> suggestions = new ArrayList<>();
+            for (SymSpellIndex.Suggestion suggestion : current.lookup(term, limit)) {
+                suggestions.add(suggestion.getTerm());
+            }
+            return suggestions;
+        }
+
+        // Multi-term queries: correct each unknown term independently and offer the result
+        boolean changed = false;
+        List<String> corrected = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            if (term.length() > 1 && !current.contains(term)) {
+                List<SymSpellIndex.Suggestion> best = current.lookup(term, 1);
+                if (!best.isEmpty()) {
+                    corrected.add(best.get(0).getTerm());
+                    changed = true;
+                    continue;
+                }
+            }
+            corrected.add(term);
+        }
+        return changed ? List.of(String.join(" ", corrected)) : List.of();
+    }
+
+    @Override
+    @Scheduled(scheduler = "reloadScheduler", initialDelay = 0, fixedDelayString = "${product.search.suggestions.refresh-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void rebuildDictionary() {
+        long start = System.currentTimeMillis();
+        try {
+            SymSpellIndex.Builder builder = SymSpellIndex.builder(maxEditDistance, prefixLength);
+            jdbcTemplate.query(VOCABULARY_SQL, rs -> {
+                builder.add(rs.getString(1), rs.getLong(2));
+            }, maxTerms);
+            SymSpellIndex rebuilt = builder.build();
+            index = rebuilt;
+            logger.info("Spelling dictionary rebuilt: {} terms in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Keep serving the previous dictionary
+            logger.warn("Spelling dictionary rebuild failed: {}", e.getMessage());
+        }
+    }
+}
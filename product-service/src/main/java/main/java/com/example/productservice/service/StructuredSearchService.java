@@ -0,0 +1,16 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface StructuredSearchService {
+
+    // e.g. name:laptop AND (tag:apple OR tag:dell) -status:discontinued price:[500 TO 1500]
+    Page<Product> search(String query, Pageable pageable, boolean includeDiscontinued);
+
+    // The planned clause order with estimated matches, for diagnosing slow queries
+    String explain(String query);
+
+    void refreshStatistics();
+}
@@ -0,0 +1,265 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.repository.ProductSpecifications;
+import main.java.main.java.com.example.productservice.search.ProductQuery;
+import main.java.main.java.com.example.productservice.search.ProductQueryParser;
+import main.java.main.java.com.example.productservice.search.ProductQueryPlanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Executes structured queries. The planner orders the top-level AND by estimated matches;
+ * indexed terms (tag, category, status) whose estimate fits posting-list-limit are read as
+ * sorted id lists, smallest first, and intersected in memory. An empty intersection ends the
+ * search without touching the products table; otherwise the surviving ids and the remaining
+ * clauses go to the database as one query. Term statistics are refreshed periodically and
+ * only steer the order, so a stale count can cost time but never change a result.
+ */
+@Service
+public class StructuredSearchServiceImpl implements StructuredSearchService, ProductQueryPlanner.Statistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(StructuredSearchServiceImpl.class);
+
+    // Tags are stored as written and matched case-insensitively, through the lower(tag) index from import.sql
+    private static final String TAG_FREQUENCY_SQL =
+        "SELECT LOWER(tag), COUNT(*) FROM product_tags WHERE tag IS NOT NULL GROUP BY LOWER(tag) ORDER BY COUNT(*) DESC LIMIT ?";
+    private static final String STATUS_FREQUENCY_SQL = "SELECT status, COUNT(*) FROM products GROUP BY status";
+    private static final String CATEGORY_FREQUENCY_SQL =
+        "SELECT c.id, LOWER(c.name), COUNT(p.id) FROM categories c LEFT JOIN products p ON p.category_id = c.id GROUP BY c.id, c.name";
+
+    private static final String TAG_POSTINGS_SQL =
+        "SELECT DISTINCT product_id FROM product_tags WHERE LOWER(tag) = ? ORDER BY product_id LIMIT ?";
+    private static final String STATUS_POSTINGS_SQL = "SELECT id FROM products WHERE status = ? ORDER BY id LIMIT ?";
+    private static final String CATEGORY_ID_POSTINGS_SQL = "SELECT id FROM products WHERE category_id = ? ORDER BY id LIMIT ?";
+    private static final String CATEGORY_NAME_POSTINGS_SQL =
+        "SELECT p.id FROM products p JOIN categories c ON c.id = p.category_id WHERE LOWER(c.name) = ? ORDER BY p.id LIMIT ?";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PageQueryExecutor pageQueryExecutor;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Surviving ids are bound as parameters of one IN list, so keep this well under the driver's 32767
+    @Value("${product.search.structured.posting-list-limit:5000}")
+    private int postingListLimit;
+
+    @Value("${product.search.structured.max-tracked-tags:100000}")
+    private int maxTrackedTags;
+
+    private volatile TermStatistics statistics = TermStatistics.EMPTY;
+    private Counter shortCircuits;
+
+    @PostConstruct
+    void init() {
+        shortCircuits = meterRegistry.counter("product.search.structured.short-circuits");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    // The canonical form is not known before parsing, so the raw query is the key; writes clear this cache anyway
+    @Cacheable(value = "advancedSearchResults", condition = "!#includeDiscontinued",
+        key = "'q_' + #query + '_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
+    public Page<Product> search(String query, Pageable pageable, boolean includeDiscontinued) {
+        ProductQueryPlanner.Plan plan = new ProductQueryPlanner(this).plan(ProductQueryParser.parse(query));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Structured search '{}' planned as {}", query, plan.describe());
+        }
+        Page<Product> livePage = searchProducts(plan, pageable, includeDiscontinued);
+        if (!includeDiscontinued) {
+            return livePage;
+        }
+        // Posting lists only cover the live tables, so the archive gets the whole query
+        Specification<Product> full = ProductSpecifications.matching(clauses(plan.getQuery()));
+        return productArchiveService.appendArchived(livePage, pageable, ProductSpecifications.archived(full));
+    }
+
+    @Override
+    public String explain(String query) {
+        return new ProductQueryPlanner(this).plan(ProductQueryParser.parse(query)).describe();
+    }
+
+    private Page<Product> searchProducts(ProductQueryPlanner.Plan plan, Pageable pageable, boolean includeDiscontinued) {
+        ProductQueryPlanner planner = new ProductQueryPlanner(this);
+        Set<ProductQuery> consumed = Collections.newSetFromMap(new IdentityHashMap<>());
+        long[] candidates = null;
+        for (ProductQuery.Term term : plan.getPostingTerms()) {
+            // Terms come smallest first, so once one is too long to read so are the rest
+            if (planner.estimate(term) > postingListLimit) {
+                break;
+            }
+            long[] postings = readPostings(term);
+            if (postings == null) {
+                break;
+            }
+            candidates = candidates == null ? postings : intersect(candidates, postings);
+            consumed.add(term);
+            if (candidates.length == 0) {
+                shortCircuits.increment();
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+        }
+
+        List<ProductQuery> remaining = new ArrayList<>();
+        for (ProductQuery clause : clauses(plan.getQuery())) {
+            if (!consumed.contains(clause)) {
+                remaining.add(clause);
+            }
+        }
+        Specification<Product> spec = ProductSpecifications.matching(remaining);
+        if (candidates != null) {
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long id : candidates) {
+                ids.add(id);
+            }
+            spec = ProductSpecifications.idIn(ids).and(spec);
+        }
+        Specification<Product> effective = includeDiscontinued ? spec : ProductSpecifications.live(spec);
+        return pageQueryExecutor.executePage("structured-search", pageable,
+            page -> productRepository.findContent(effective, page), () -> productRepository.count(effective));
+    }
+
+    private static List<ProductQuery> clauses(ProductQuery query) {
+        return query instanceof ProductQuery.And and ? and.getClauses() : List.of(query);
+    }
+
+    // Sorted ids, or null when the list is longer than posting-list-limit
+    private long[] readPostings(ProductQuery.Term term) {
+        String value = term.getValue();
+        List<Long> ids = switch (term.getField()) {
+            case TAG -> jdbcTemplate.queryForList(TAG_POSTINGS_SQL, Long.class, value, postingListLimit + 1);
+            case STATUS -> jdbcTemplate.queryForList(STATUS_POSTINGS_SQL, Long.class, value, postingListLimit + 1);
+            case CATEGORY -> ProductSpecifications.isNumeric(value)
+                ? jdbcTemplate.queryForList(CATEGORY_ID_POSTINGS_SQL, Long.class, Long.valueOf(value), postingListLimit + 1)
+                : jdbcTemplate.queryForList(CATEGORY_NAME_POSTINGS_SQL, Long.class, value, postingListLimit + 1);
+            default -> throw new IllegalStateException("No posting list for " + term.getField());
+        };
+        if (ids.size() > postingListLimit) {
+            return null;
+        }
+        long[] postings = new long[ids.size()];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = ids.get(i);
+        }
+        return postings;
+    }
+
+    // Merge of two sorted lists
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    @Override
+    @Scheduled(scheduler = "reloadScheduler", initialDelay = 0, fixedDelayString = "${product.search.structured.statistics-refresh-ms:300000}")
+    @Transactional(readOnly = true)
+    public void refreshStatistics() {
+        try {
+            Map<String, Long> tags = new HashMap<>();
+            jdbcTemplate.query(TAG_FREQUENCY_SQL, rs -> {
+                tags.put(rs.getString(1), rs.getLong(2));
+            }, maxTrackedTags);
+            Map<String, Long> statuses = new HashMap<>();
+            jdbcTemplate.query(STATUS_FREQUENCY_SQL, rs -> {
+                statuses.put(rs.getString(1), rs.getLong(2));
+            });
+            Map<String, Long> categories = new HashMap<>();
+            jdbcTemplate.query(CATEGORY_FREQUENCY_SQL, rs -> {
+                categories.put(Long.toString(rs.getLong(1)), rs.getLong(3));
+                categories.merge(rs.getString(2), rs.getLong(3), Long::sum);
+            });
+            long total = statuses.values().stream().mapToLong(Long::longValue).sum();
+            statistics = new TermStatistics(total, tags, statuses, categories);
+            logger.info("Structured search statistics refreshed: {} products, {} tags", total, tags.size());
+        } catch (RuntimeException e) {
+            // Keep planning with the previous statistics
+            logger.warn("Structured search statistics refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long totalProducts() {
+        return statistics.total;
+    }
+
+    // Tags outside the tracked set are rare, so they count as nearly empty and are read first
+    @Override
+    public long tagFrequency(String tag) {
+        return statistics.tags.getOrDefault(tag, 0L);
+    }
+
+    @Override
+    public long statusFrequency(String status) {
+        return statistics.statuses.getOrDefault(status, 0L);
+    }
+
+    @Override
+    public long categoryFrequency(String category) {
+        return statistics.categories.getOrDefault(category, 0L);
+    }
+
+    private static final class TermStatistics {
+        static final TermStatistics EMPTY = new TermStatistics(0, Map.of(), Map.of(), Map.of());
+
+        final long total;
+        final Map<String, Long> tags;
+        final Map<String, Long> statuses;
+        // Keyed by id and by lower-cased name
+        final Map<String, Long> categories;
+
+        TermStatistics(long total, Map<String, Long> tags, Map<String, Long> statuses, Map<String, Long> categories) {
+            this.total = total;
+            this.tags = tags;
+            this.statuses = statuses;
+            this.categories = categories;
+        }
+    }
+}
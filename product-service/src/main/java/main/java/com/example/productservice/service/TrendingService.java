@@ -0,0 +1,20 @@
+package main.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.TrendingEntry;
+import main.java.main.java.com.example.productservice.model.TrendingEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TrendingService {
+    // Non-blocking; events are dropped rather than delaying the caller when the buffer is full
+    void recordProductView(Long productId);
+
+    void recordSearch(String query);
+
+    int recordEvents(Collection<TrendingEvent> events);
+
+    List<TrendingEntry> getTrendingProducts(String window, int limit);
+
+    List<TrendingEntry> getPopularSearches(String window, int limit);
+}
@@ -0,0 +1,167 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.model.TrendingEntry;
+import main.java.main.java.com.example.productservice.model.TrendingEvent;
+import main.java.main.java.com.example.productservice.sketch.DecayingHeavyHitters;
+import main.java.main.java.com.example.productservice.sketch.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Trending products and popular searches without touching the database. Request threads
+ * only enqueue events; a scheduled drain folds them into decaying heavy-hitter sketches,
+ * one per event type and window. Memory is fixed by configuration, independent of catalog
+ * size and traffic. State is per instance and starts empty on restart.
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    public static final String WINDOW_HOUR = "hour";
+    public static final String WINDOW_DAY = "day";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.trending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.trending.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${product.trending.sketch-width:4096}")
+    private int sketchWidth;
+
+    @Value("${product.trending.top-k-capacity:200}")
+    private int topKCapacity;
+
+    @Value("${product.trending.buffer-size:65536}")
+    private int bufferSize;
+
+    private BlockingQueue<TrendingEvent> buffer;
+    private DecayingHeavyHitters<Long> viewsHour;
+    private DecayingHeavyHitters<Long> viewsDay;
+    private DecayingHeavyHitters<String> searchesHour;
+    private DecayingHeavyHitters<String> searchesDay;
+    private Counter droppedEvents;
+
+    @PostConstruct
+    void init() {
+        long now = System.currentTimeMillis();
+        long hour = 60L * 60 * 1000;
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        viewsHour = new DecayingHeavyHitters<>(sketchDepth, sketchWidth, topKCapacity, hour, Hashing::hash64, now);
+        viewsDay = new DecayingHeavyHitters<>(sketchDepth, sketchWidth, topKCapacity, 24 * hour, Hashing::hash64, now);
+        searchesHour = new DecayingHeavyHitters<>(sketchDepth, sketchWidth, topKCapacity, hour, Hashing::hash64, now);
+        searchesDay = new DecayingHeavyHitters<>(sketchDepth, sketchWidth, topKCapacity, 24 * hour, Hashing::hash64, now);
+        droppedEvents = meterRegistry.counter("product.trending.events.dropped");
+    }
+
+    @Override
+    public void recordProductView(Long productId) {
+        if (enabled && productId != null) {
+            enqueue(new TrendingEvent(TrendingEvent.Type.VIEW, productId, null));
+        }
+    }
+
+    @Override
+    public void recordSearch(String query) {
+        String normalized = SearchQueries.normalize(query);
+        if (enabled && normalized != null) {
+            enqueue(new TrendingEvent(TrendingEvent.Type.SEARCH, null, normalized));
+        }
+    }
+
+    @Override
+    public int recordEvents(Collection<TrendingEvent> events) {
+        int accepted = 0;
+        for (TrendingEvent event : events) {
+            if (event == null || event.getType() == null) {
+                continue;
+            }
+            if (event.getType() == TrendingEvent.Type.VIEW && event.getProductId() != null) {
+                recordProductView(event.getProductId());
+                accepted++;
+            } else if (event.getType() == TrendingEvent.Type.SEARCH && SearchQueries.normalize(event.getQuery()) != null) {
+                recordSearch(event.getQuery());
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Override
+    public List<TrendingEntry> getTrendingProducts(String window, int limit) {
+        DecayingHeavyHitters<Long> views = WINDOW_DAY.equals(resolveWindow(window)) ? viewsDay : viewsHour;
+        List<TrendingEntry> entries = new ArrayList<>();
+        synchronized (this) {
+            for (DecayingHeavyHitters.Ranked<Long> ranked : views.top(limit, System.currentTimeMillis())) {
+                entries.add(new TrendingEntry(ranked.getKey(), null, round(ranked.getScore())));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public List<TrendingEntry> getPopularSearches(String window, int limit) {
+        DecayingHeavyHitters<String> searches = WINDOW_DAY.equals(resolveWindow(window)) ? searchesDay : searchesHour;
+        List<TrendingEntry> entries = new ArrayList<>();
+        synchronized (this) {
+            for (DecayingHeavyHitters.Ranked<String> ranked : searches.top(limit, System.currentTimeMillis())) {
+                entries.add(new TrendingEntry(null, ranked.getKey(), round(ranked.getScore())));
+            }
+        }
+        return entries;
+    }
+
+    @Scheduled(fixedDelayString = "${product.trending.drain-interval-ms:100}")
+    public void drain() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<TrendingEvent> batch = new ArrayList<>(Math.min(buffer.size(), 4096));
+        buffer.drainTo(batch);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (TrendingEvent event : batch) {
+                if (event.getType() == TrendingEvent.Type.VIEW) {
+                    viewsHour.offer(event.getProductId(), now);
+                    viewsDay.offer(event.getProductId(), now);
+                } else {
+                    searchesHour.offer(event.getQuery(), now);
+                    searchesDay.offer(event.getQuery(), now);
+                }
+            }
+        }
+    }
+
+    private void enqueue(TrendingEvent event) {
+        if (!buffer.offer(event)) {
+            droppedEvents.increment();
+        }
+    }
+
+    private static String resolveWindow(String window) {
+        if (window == null || WINDOW_HOUR.equalsIgnoreCase(window)) {
+            return WINDOW_HOUR;
+        }
+        if (WINDOW_DAY.equalsIgnoreCase(window)) {
+            return WINDOW_DAY;
+        }
+        throw new IllegalArgumentException("Unknown trending window: " + window + ". Use hour or day");
+    }
+
+    private static double round(double score) {
+        return Math.round(score * 100) / 100.0;
+    }
+}
@@ -0,0 +1,18 @@
+package main.java.main.java.com.example.productservice.service;
+
+public interface WriteValidationService {
+
+    // Answers "no" from memory; only a possible duplicate is confirmed against the database
+    boolean skuExists(String sku);
+
+    // From the cached category ids; an unknown id is checked in the database once and then cached
+    boolean categoryExists(Long categoryId);
+
+    // Records a SKU once the write commits, so later writes see it without a query
+    void skuWritten(String sku);
+
+    // Reloads the category ids after categories were created or removed
+    void categoriesChanged();
+
+    void refresh();
+}
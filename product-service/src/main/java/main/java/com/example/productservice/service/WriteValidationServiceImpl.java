@@ -0,0 +1,197 @@
+package main.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import main.java.main.java.com.example.productservice.repository.CategoryRepository;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.sketch.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the SKU and category checks of product writes off the database. SKUs go through a
+ * Bloom filter, then an exact in-memory set: a "no" from either is trusted, and the rare
+ * "yes" is confirmed with a query, because a SKU renamed or archived elsewhere can linger in
+ * memory. A SKU inserted on another replica since the last refresh can be missed; the unique
+ * constraint on products.sku then rejects the write, so memory never admits a duplicate.
+ * Category ids are cached whole and reloaded on category changes and periodically.
+ */
+@Service
+public class WriteValidationServiceImpl implements WriteValidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteValidationServiceImpl.class);
+
+    private static final String ALL_SKUS_SQL = "SELECT id, sku FROM products WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String CHANGED_SKUS_SQL =
+        "SELECT id, sku FROM products WHERE updated_at > ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String CATEGORY_IDS_SQL = "SELECT id FROM categories";
+
+    // Covers clock skew between replicas and transactions that committed after a refresh read past them
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.write-validation.expected-skus:2000000}")
+    private long expectedSkus;
+
+    @Value("${product.write-validation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Without the exact set, every Bloom filter hit is checked in the database instead
+    @Value("${product.write-validation.exact-sku-set:true}")
+    private boolean exactSkuSet;
+
+    @Value("${product.write-validation.batch-size:10000}")
+    private int batchSize;
+
+    private final Set<String> skus = ConcurrentHashMap.newKeySet();
+    private volatile BloomFilter skuFilter;
+    // Null until the first load; until then every check goes to the database
+    private volatile Set<Long> categoryIds;
+    private volatile LocalDateTime refreshWatermark;
+
+    private Counter skuMemoryAnswers;
+    private Counter skuQueries;
+    private Counter categoryMemoryAnswers;
+    private Counter categoryQueries;
+
+    @PostConstruct
+    void init() {
+        skuMemoryAnswers = meterRegistry.counter("product.write-validation.checks", "check", "sku", "source", "memory");
+        skuQueries = meterRegistry.counter("product.write-validation.checks", "check", "sku", "source", "database");
+        categoryMemoryAnswers = meterRegistry.counter("product.write-validation.checks", "check", "category", "source", "memory");
+        categoryQueries = meterRegistry.counter("product.write-validation.checks", "check", "category", "source", "database");
+    }
+
+    @Override
+    public boolean skuExists(String sku) {
+        BloomFilter filter = skuFilter;
+        if (filter != null && (!filter.mightContain(sku) || exactSkuSet && !skus.contains(sku))) {
+            skuMemoryAnswers.increment();
+            return false;
+        }
+        skuQueries.increment();
+        boolean exists = productRepository.existsBySku(sku);
+        if (!exists) {
+            // Renamed or archived since it was loaded
+            skus.remove(sku);
+        }
+        return exists;
+    }
+
+    @Override
+    public boolean categoryExists(Long categoryId) {
+        Set<Long> ids = categoryIds;
+        if (ids != null && ids.contains(categoryId)) {
+            categoryMemoryAnswers.increment();
+            return true;
+        }
+        categoryQueries.increment();
+        boolean exists = categoryRepository.existsById(categoryId);
+        if (exists && ids != null) {
+            // Created on another replica or in SQL since the last load
+            Set<Long> updated = new HashSet<>(ids);
+            updated.add(categoryId);
+            categoryIds = Set.copyOf(updated);
+        }
+        return exists;
+    }
+
+    @Override
+    public void skuWritten(String sku) {
+        if (sku == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> addSku(sku));
+    }
+
+    private void addSku(String sku) {
+        BloomFilter filter = skuFilter;
+        if (filter != null) {
+            filter.put(sku);
+        }
+        if (exactSkuSet) {
+            skus.add(sku);
+        }
+    }
+
+    @Override
+    public void categoriesChanged() {
+        TransactionCallbacks.afterCommit(this::loadCategories);
+    }
+
+    @Override
+    @Scheduled(scheduler = "reloadScheduler", initialDelay = 0, fixedDelayString = "${product.write-validation.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            loadCategories();
+            LocalDateTime startedAt = LocalDateTime.now();
+            if (refreshWatermark == null) {
+                // Built aside and published whole: a partly filled filter would answer "no" for loaded SKUs
+                BloomFilter filter = new BloomFilter(expectedSkus, falsePositiveRate);
+                long loaded = loadSkus(null, filter);
+                skuFilter = filter;
+                logger.info("Write validation loaded {} SKUs and {} categories", loaded, categoryIds.size());
+            } else {
+                loadSkus(refreshWatermark.minusSeconds(REFRESH_OVERLAP_SECONDS), skuFilter);
+            }
+            refreshWatermark = startedAt;
+        } catch (RuntimeException e) {
+            // Checks keep using what is loaded, or the database if nothing is
+            logger.warn("Write validation refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void loadCategories() {
+        categoryIds = Set.copyOf(jdbcTemplate.queryForList(CATEGORY_IDS_SQL, Long.class));
+    }
+
+    // Keyset pages in id order
+    private long loadSkus(LocalDateTime since, BloomFilter filter) {
+        long afterId = 0;
+        long total = 0;
+        while (true) {
+            long[] lastId = {afterId};
+            int[] rows = {0};
+            Object[] args = since == null
+                ? new Object[] {afterId, batchSize}
+                : new Object[] {Timestamp.valueOf(since), afterId, batchSize};
+            jdbcTemplate.query(since == null ? ALL_SKUS_SQL : CHANGED_SKUS_SQL, rs -> {
+                String sku = rs.getString(2);
+                filter.put(sku);
+                if (exactSkuSet) {
+                    skus.add(sku);
+                }
+                lastId[0] = rs.getLong(1);
+                rows[0]++;
+            }, args);
+            total += rows[0];
+            if (rows[0] < batchSize) {
+                return total;
+            }
+            afterId = lastId[0];
+        }
+    }
+}
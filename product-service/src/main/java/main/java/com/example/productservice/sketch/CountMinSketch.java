@@ -0,0 +1,62 @@
+package main.java.main.java.com.example.productservice.sketch;
+
+/**
+ * Count-Min Sketch with conservative update over weighted (possibly fractional) counts.
+ * Estimates never undercount; with width w and depth d the overcount is at most
+ * total * e / w with probability 1 - e^-d. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final double[] counters;
+    private final int[] indexes;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Sketch depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new double[depth * width];
+        this.indexes = new int[depth];
+    }
+
+    // Returns the new estimate for the key
+    public double add(long hash, double weight) {
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            indexes[row] = row * width + bucket(hash, row);
+            estimate = Math.min(estimate, counters[indexes[row]]);
+        }
+        // Conservative update: only raise counters that would otherwise fall below the new estimate
+        double updated = estimate + weight;
+        for (int row = 0; row < depth; row++) {
+            if (counters[indexes[row]] < updated) {
+                counters[indexes[row]] = updated;
+            }
+        }
+        return updated;
+    }
+
+    public double estimate(long hash) {
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + bucket(hash, row)]);
+        }
+        return estimate;
+    }
+
+    public void scale(double factor) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] *= factor;
+        }
+    }
+
+    // Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2
+    private int bucket(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.main.java.com.example.productservice.sketch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Time-decayed heavy hitters: a Count-Min Sketch for per-key estimates and Space-Saving for
+ * the top-k, both fed with forward-decayed weights. An event at time t weighs
+ * 2^((t - landmark) / halfLife), so older events fade without touching the counters; the
+ * landmark is moved (and everything rescaled) before weights grow too large. Memory is
+ * fixed by depth x width and capacity. Not thread-safe.
+ */
+public class DecayingHeavyHitters<K> {
+
+    // Rescale once weights reach 2^40 to stay far from double overflow
+    private static final double RESCALE_EXPONENT = 40;
+
+    private final CountMinSketch sketch;
+    private final SpaceSaving<K> topK;
+    private final ToLongFunction<K> hasher;
+    private final double halfLifeMillis;
+    private long landmarkMillis;
+
+    public DecayingHeavyHitters(int depth, int width, int capacity, long halfLifeMillis,
+                                ToLongFunction<K> hasher, long nowMillis) {
+        this.sketch = new CountMinSketch(depth, width);
+        this.topK = new SpaceSaving<>(capacity);
+        this.hasher = hasher;
+        this.halfLifeMillis = halfLifeMillis;
+        this.landmarkMillis = nowMillis;
+    }
+
+    public void offer(K key, long nowMillis) {
+        double exponent = (nowMillis - landmarkMillis) / halfLifeMillis;
+        if (exponent >= RESCALE_EXPONENT) {
+            double factor = Math.pow(2, -exponent);
+            sketch.scale(factor);
+            topK.scale(factor);
+            landmarkMillis = nowMillis;
+            exponent = 0;
+        }
+        double weight = Math.pow(2, exponent);
+        sketch.add(hasher.applyAsLong(key), weight);
+        topK.offer(key, weight);
+    }
+
+    // Decayed score of any key, tracked or not
+    public double estimate(K key, long nowMillis) {
+        return sketch.estimate(hasher.applyAsLong(key)) * decay(nowMillis);
+    }
+
+    public List<Ranked<K>> top(int limit, long nowMillis) {
+        double decay = decay(nowMillis);
+        List<Ranked<K>> ranked = new ArrayList<>();
+        // Over-fetch: the sketch can reorder neighbours once overcounts are trimmed
+        for (SpaceSaving.Counter<K> counter : topK.top(limit * 2)) {
+            // Both structures only overcount, so the smaller figure is the tighter one
+            double score = Math.min(counter.getCount(), sketch.estimate(hasher.applyAsLong(counter.getKey())));
+            ranked.add(new Ranked<>(counter.getKey(), score * decay));
+        }
+        ranked.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    private double decay(long nowMillis) {
+        return Math.pow(2, -(nowMillis - landmarkMillis) / halfLifeMillis);
+    }
+
+    public static final class Ranked<K> {
+        private final K key;
+        private final double score;
+
+        Ranked(K key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package main.java.main.java.com.example.productservice.sketch;
+
+/**
+ * 64-bit hashes for the probabilistic structures in this package. Keys are product ids
+ * and short strings; FNV-1a plus a murmur finalizer is enough and allocates nothing.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    public static long hash64(long value) {
+        return mix64(value);
+    }
+
+    public static long hash64(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    // MurmurHash3 fmix64
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
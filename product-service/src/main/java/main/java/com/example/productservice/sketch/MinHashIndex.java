@@ -0,0 +1,219 @@
+package main.java.main.java.com.example.productservice.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Near-duplicate lookup by Jaccard similarity of feature sets, using MinHash signatures split
+ * into locality-sensitive-hashing bands. Items sharing any band bucket become candidates and
+ * are reranked by the Jaccard similarity of their stored feature hashes. With b bands of r rows
+ * a pair of similarity s becomes a candidate with probability 1 - (1 - s^r)^b.
+ * <p>
+ * Memory per item is bounded: at most maxFeatures feature hashes (the smallest, a consistent
+ * sample, so similarity of larger sets is estimated rather than exact) and one bucket entry
+ * per band. Buckets stop growing at maxBucketSize, because a bucket shared by that many items
+ * says little about any of them. Writes are serialized; lookups run concurrently with them.
+ */
+public class MinHashIndex {
+
+    private final int bands;
+    private final int rows;
+    private final int maxFeatures;
+    private final int maxBucketSize;
+    private final long[] seeds;
+
+    private final Map<Long, int[]> features = new ConcurrentHashMap<>();
+    // Band number in the top byte, so each band has its own bucket space
+    private final Map<Long, long[]> buckets = new ConcurrentHashMap<>();
+
+    public MinHashIndex(int bands, int rows, int maxFeatures, int maxBucketSize) {
+        if (bands < 1 || rows < 1 || maxFeatures < 1 || maxBucketSize < 1) {
+            throw new IllegalArgumentException("MinHash bands, rows, features and bucket size must be positive");
+        }
+        if (bands > 255) {
+            throw new IllegalArgumentException("At most 255 MinHash bands");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.maxFeatures = maxFeatures;
+        this.maxBucketSize = maxBucketSize;
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = Hashing.mix64(0x9e3779b97f4a7c15L * (i + 1));
+        }
+    }
+
+    // Replaces the item's features; an empty set removes it
+    public synchronized void put(long id, Collection<String> itemFeatures) {
+        remove(id);
+        int[] hashes = sample(itemFeatures);
+        if (hashes.length == 0) {
+            return;
+        }
+        features.put(id, hashes);
+        long[] bandKeys = bandKeys(hashes);
+        for (long key : bandKeys) {
+            long[] members = buckets.get(key);
+            if (members == null) {
+                buckets.put(key, new long[] {id});
+            } else if (members.length < maxBucketSize) {
+                long[] grown = Arrays.copyOf(members, members.length + 1);
+                grown[members.length] = id;
+                buckets.put(key, grown);
+            }
+        }
+    }
+
+    public synchronized void remove(long id) {
+        int[] hashes = features.remove(id);
+        if (hashes == null) {
+            return;
+        }
+        // The signature is recomputed rather than stored, which halves the per-item footprint
+        for (long key : bandKeys(hashes)) {
+            long[] members = buckets.get(key);
+            if (members == null) {
+                continue;
+            }
+            int index = indexOf(members, id);
+            if (index < 0) {
+                continue;
+            }
+            if (members.length == 1) {
+                buckets.remove(key);
+            } else {
+                long[] shrunk = new long[members.length - 1];
+                System.arraycopy(members, 0, shrunk, 0, index);
+                System.arraycopy(members, index + 1, shrunk, index, shrunk.length - index);
+                buckets.put(key, shrunk);
+            }
+        }
+    }
+
+    public boolean contains(long id) {
+        return features.containsKey(id);
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    // Most similar items first, excluding the item itself; null when the item is not indexed
+    public List<Match> similar(long id, int limit, double minSimilarity) {
+        int[] query = features.get(id);
+        if (query == null) {
+            return null;
+        }
+        Set<Long> candidates = new HashSet<>();
+        for (long key : bandKeys(query)) {
+            long[] members = buckets.get(key);
+            if (members != null) {
+                for (long member : members) {
+                    candidates.add(member);
+                }
+            }
+        }
+        candidates.remove(id);
+
+        List<Match> matches = new ArrayList<>();
+        for (Long candidate : candidates) {
+            int[] other = features.get(candidate);
+            if (other == null) {
+                continue;
+            }
+            double similarity = jaccard(query, other);
+            if (similarity >= minSimilarity) {
+                matches.add(new Match(candidate, similarity));
+            }
+        }
+        matches.sort((left, right) -> left.similarity != right.similarity
+            ? Double.compare(right.similarity, left.similarity) : Long.compare(left.id, right.id));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    // Sorted distinct feature hashes, the smallest maxFeatures of them
+    private int[] sample(Collection<String> itemFeatures) {
+        int[] hashes = new int[itemFeatures.size()];
+        int size = 0;
+        for (String feature : itemFeatures) {
+            hashes[size++] = (int) Hashing.hash64(feature);
+        }
+        Arrays.sort(hashes, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size && distinct < maxFeatures; i++) {
+            if (distinct == 0 || hashes[i] != hashes[distinct - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, distinct);
+    }
+
+    private long[] bandKeys(int[] hashes) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long bandHash = band;
+            for (int row = 0; row < rows; row++) {
+                long seed = seeds[band * rows + row];
+                long min = Long.MAX_VALUE;
+                for (int hash : hashes) {
+                    min = Math.min(min, Hashing.mix64(hash ^ seed) >>> 1);
+                }
+                bandHash = Hashing.mix64(bandHash * 31 + min);
+            }
+            keys[band] = ((long) band << 56) | (bandHash >>> 8);
+        }
+        return keys;
+    }
+
+    // Both arrays sorted and distinct
+    private static double jaccard(int[] left, int[] right) {
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return (double) intersection / (left.length + right.length - intersection);
+    }
+
+    private static int indexOf(long[] values, long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static final class Match {
+        private final long id;
+        private final double similarity;
+
+        Match(long id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package main.java.main.java.com.example.productservice.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Weighted Space-Saving top-k. Tracks at most {@code capacity} keys; a new key evicts the
+ * smallest counter and inherits its count as error, so any key heavier than
+ * total / capacity is guaranteed to be present. Not thread-safe.
+ */
+public class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final TreeSet<Counter<K>> ordered = new TreeSet<>(
+        Comparator.<Counter<K>>comparingDouble(counter -> counter.count).thenComparingLong(counter -> counter.sequence));
+    private long sequence;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(K key, double weight) {
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count += weight;
+            ordered.add(counter);
+            return;
+        }
+        double error = 0;
+        if (counters.size() >= capacity) {
+            Counter<K> smallest = ordered.pollFirst();
+            counters.remove(smallest.key);
+            error = smallest.count;
+        }
+        counter = new Counter<>(key, error + weight, error, sequence++);
+        counters.put(key, counter);
+        ordered.add(counter);
+    }
+
+    // Heaviest first
+    public List<Counter<K>> top(int limit) {
+        List<Counter<K>> top = new ArrayList<>(Math.min(limit, counters.size()));
+        Iterator<Counter<K>> iterator = ordered.descendingIterator();
+        while (iterator.hasNext() && top.size() < limit) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    public void scale(double factor) {
+        // Uniform scaling keeps the order, so the tree needs no rebuild
+        for (Counter<K> counter : counters.values()) {
+            counter.count *= factor;
+            counter.error *= factor;
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    public static final class Counter<K> {
+        private final K key;
+        private double count;
+        private double error;
+        private final long sequence;
+
+        private Counter(K key, double count, double error, long sequence) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getCount() {
+            return count;
+        }
+
+        public double getError() {
+            return error;
+        }
+    }
+}
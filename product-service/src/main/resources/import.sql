@@ -0,0 +1,3 @@
+-- Run by Hibernate after it creates the schema (ddl-auto create/create-drop); other setups apply these with their migrations
+-- Structured search matches tags case-insensitively: tag:Laptop finds products tagged "laptop" or "LAPTOP"
+CREATE INDEX IF NOT EXISTS idx_product_tags_tag_lower ON product_tags (lower(tag));
@@ -0,0 +1,78 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.controller.ProductController;
+import main.java.main.java.com.example.productservice.service.InventoryAvailabilityService;
+import main.java.main.java.com.example.productservice.service.ProductExportService;
+import main.java.main.java.com.example.productservice.service.ProductService;
+import main.java.main.java.com.example.productservice.service.SearchQueryLogService;
+import main.java.main.java.com.example.productservice.service.SpellingSuggestionService;
+import main.java.main.java.com.example.productservice.service.TrendingService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Request parameter binding and parsing in ProductController (BigDecimal, dates, tags,
+ * Pageable and sort) through MockMvc. The services are stubs returning empty pages, so the
+ * numbers are dispatch and parsing cost only; compare shapes against each other, not
+ * against the service benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerParameterBenchmark {
+
+    @Param({"PRICE", "DATES", "TAGS", "FULL"})
+    private FilterShape shape;
+
+    private MockMvc mockMvc;
+    private String filterUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductService productService = Mockito.mock(ProductService.class, invocation ->
+            Page.class.isAssignableFrom(invocation.getMethod().getReturnType())
+                ? Page.empty() : Mockito.RETURNS_DEFAULTS.answer(invocation));
+
+        ProductController controller = new ProductController();
+        ReflectionTestUtils.setField(controller, "productService", productService);
+        ReflectionTestUtils.setField(controller, "inventoryAvailabilityService", Mockito.mock(InventoryAvailabilityService.class));
+        ReflectionTestUtils.setField(controller, "productExportService", Mockito.mock(ProductExportService.class));
+        ReflectionTestUtils.setField(controller, "trendingService", Mockito.mock(TrendingService.class));
+        ReflectionTestUtils.setField(controller, "searchQueryLogService", Mockito.mock(SearchQueryLogService.class));
+        ReflectionTestUtils.setField(controller, "spellingSuggestionService", Mockito.mock(SpellingSuggestionService.class));
+        ReflectionTestUtils.setField(controller, "suggestionMinHits", 0);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+            .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+            .build();
+        filterUri = "/api/products/filter?" + shape.queryString() + "&page=2&size=50&sort=price,asc";
+    }
+
+    @Benchmark
+    public MvcResult filter() throws Exception {
+        return mockMvc.perform(get(filterUri)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult search() throws Exception {
+        return mockMvc.perform(get("/api/products/search?q=wireless%20mouse&page=1&size=20")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listing() throws Exception {
+        return mockMvc.perform(get("/api/products?page=3&limit=50&sort_by=price&sort_order=desc")).andReturn();
+    }
+}
@@ -0,0 +1,93 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.config.AsyncConfig;
+import main.java.main.java.com.example.productservice.config.CacheInvalidationConfig;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.service.CacheInvalidationServiceImpl;
+import main.java.main.java.com.example.productservice.service.FilterServiceImpl;
+import main.java.main.java.com.example.productservice.service.PageQueryExecutorImpl;
+import main.java.main.java.com.example.productservice.service.ProductArchiveServiceImpl;
+import main.java.main.java.com.example.productservice.service.SearchServiceImpl;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+/**
+ * The search and filter services wired against an in-memory H2 database (PostgreSQL mode)
+ * holding a synthetic catalog of the requested size. Only the persistence layer and the
+ * services under test are started; caching is off so every call reaches the database.
+ */
+public final class EmbeddedCatalog implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedCatalog(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static EmbeddedCatalog start(int size, boolean parallelCount) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CatalogConfiguration.class)
+            .web(WebApplicationType.NONE)
+            // Command-line style arguments so they win over application.yml
+            .run("--spring.datasource.url=jdbc:h2:mem:catalog" + size
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.sql.init.mode=never",
+                "--spring.cache.type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--product.datasource.replica.enabled=false",
+                "--product.archive.enabled=false",
+                "--product.cache.invalidation.bus=local",
+                "--product.paging.parallel-count.enabled=" + parallelCount);
+
+        DataSource dataSource = context.getBean(DataSource.class);
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/catalog-schema.sql")).execute(dataSource);
+        long start = System.nanoTime();
+        new SyntheticCatalog().load(dataSource, size);
+        System.out.printf("%n[catalog] loaded %d products in %d ms%n", size, (System.nanoTime() - start) / 1_000_000);
+        return new EmbeddedCatalog(context);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Product.class)
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+    @Import({AsyncConfig.class, CacheInvalidationConfig.class, PageQueryExecutorImpl.class, SearchServiceImpl.class,
+        FilterServiceImpl.class, ProductArchiveServiceImpl.class, CacheInvalidationServiceImpl.class})
+    static class CatalogConfiguration {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.service.FilterService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FilterServiceImpl.filterProducts end to end (specification, content query, count query)
+ * against embedded catalogs of 10k, 100k and 1M products, for the first page and a deep page.
+ * The 1M catalog needs a few GB of heap, hence the fork arguments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FilterServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"PRICE", "CATEGORY_STATUS", "TAGS", "FULL"})
+    private FilterShape shape;
+
+    @Param({"true"})
+    private boolean parallelCount;
+
+    private EmbeddedCatalog catalog;
+    private FilterService filterService;
+    private Pageable firstPage;
+    private Pageable deepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        catalog = EmbeddedCatalog.start(catalogSize, parallelCount);
+        filterService = catalog.getBean(FilterService.class);
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
+        firstPage = PageRequest.of(0, 20, sort);
+        deepPage = PageRequest.of(50, 20, sort);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalog.close();
+    }
+
+    @Benchmark
+    public Page<Product> filterFirstPage() {
+        return shape.filter(filterService, firstPage);
+    }
+
+    @Benchmark
+    public Page<Product> filterDeepPage() {
+        return shape.filter(filterService, deepPage);
+    }
+}
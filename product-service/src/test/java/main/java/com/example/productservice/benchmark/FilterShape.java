@@ -0,0 +1,94 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.service.FilterService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representative /filter requests, shared by the specification, service and controller
+ * benchmarks so their numbers line up. Values are chosen against {@link SyntheticCatalog}.
+ */
+public enum FilterShape {
+
+    PRICE("min_price=50&max_price=200"),
+    CATEGORY_STATUS("category_id=3&status=ACTIVE"),
+    TAGS("tags=gaming,audio"),
+    DATES("created_after=2023-01-01T00:00:00&created_before=2023-06-30T23:59:59"),
+    FULL("min_price=20&max_price=500&category_id=2&status=ACTIVE&in_stock=true"
+        + "&created_after=2022-06-01T00:00:00&tags=electronics,computers"),
+    METADATA("category_id=3&metadata_field=color&metadata_value=black");
+
+    private final String queryString;
+    private final Map<String, String> parameters = new LinkedHashMap<>();
+
+    FilterShape(String queryString) {
+        this.queryString = queryString;
+        for (String pair : queryString.split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            parameters.put(keyValue[0], keyValue[1]);
+        }
+    }
+
+    public String queryString() {
+        return queryString;
+    }
+
+    public Map<String, String> parameters() {
+        return parameters;
+    }
+
+    public Specification<Product> specification(FilterService filterService) {
+        return filterService.buildFilterSpecification(
+            decimal("min_price"), decimal("max_price"), longValue("category_id"), parameters.get("category_name"),
+            parameters.get("status"), bool("in_stock"), integer("min_stock"), integer("max_stock"),
+            dateTime("created_after"), dateTime("created_before"), dateTime("updated_after"), dateTime("updated_before"),
+            tags(), parameters.get("metadata_field"), parameters.get("metadata_value"));
+    }
+
+    public Page<Product> filter(FilterService filterService, Pageable pageable) {
+        return filterService.filterProducts(
+            decimal("min_price"), decimal("max_price"), longValue("category_id"), parameters.get("category_name"),
+            parameters.get("status"), bool("in_stock"), integer("min_stock"), integer("max_stock"),
+            dateTime("created_after"), dateTime("created_before"), dateTime("updated_after"), dateTime("updated_before"),
+            tags(), parameters.get("metadata_field"), parameters.get("metadata_value"), pageable);
+    }
+
+    private BigDecimal decimal(String name) {
+        String value = parameters.get(name);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private Long longValue(String name) {
+        String value = parameters.get(name);
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private Integer integer(String name) {
+        String value = parameters.get(name);
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private Boolean bool(String name) {
+        String value = parameters.get(name);
+        return value != null ? Boolean.valueOf(value) : null;
+    }
+
+    private LocalDateTime dateTime(String name) {
+        String value = parameters.get(name);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+
+    private List<String> tags() {
+        String value = parameters.get("tags");
+        return value != null ? Arrays.asList(value.split(",")) : List.of();
+    }
+}
@@ -0,0 +1,63 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.service.FilterService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of FilterServiceImpl.buildFilterSpecification plus turning the specification into a
+ * Hibernate query, without executing it. Catalog size does not matter here, so the smallest
+ * embedded catalog is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterSpecificationBenchmark {
+
+    @Param({"PRICE", "CATEGORY_STATUS", "TAGS", "FULL", "METADATA"})
+    private FilterShape shape;
+
+    private EmbeddedCatalog catalog;
+    private FilterService filterService;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        catalog = EmbeddedCatalog.start(1_000, false);
+        filterService = catalog.getBean(FilterService.class);
+        entityManager = catalog.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        catalog.close();
+    }
+
+    @Benchmark
+    public Specification<Product> buildSpecification() {
+        return shape.specification(filterService);
+    }
+
+    @Benchmark
+    public TypedQuery<Product> buildAndCreateQuery() {
+        Specification<Product> specification = shape.specification(filterService);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = criteriaBuilder.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        query.where(specification.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,132 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.config.ProductProtoMapper;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.proto.ProductPageMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode/decode cost of a page of products in each negotiated encoding. Payload sizes, raw
+ * and gzipped, are printed once per trial.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=ProductEncodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductEncodingBenchmark {
+
+    private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() { };
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private List<Product> products;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+
+    private byte[] json;
+    private byte[] cbor;
+    private byte[] smile;
+    private byte[] protobuf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        products = new SyntheticCatalog().products(pageSize);
+        jsonMapper = JsonMapper.builder().build();
+        cborMapper = CBORMapper.builder().build();
+        smileMapper = SmileMapper.builder().build();
+
+        json = jsonMapper.writeValueAsBytes(products);
+        cbor = cborMapper.writeValueAsBytes(products);
+        smile = smileMapper.writeValueAsBytes(products);
+        protobuf = encodeProtobuf();
+
+        System.out.printf("%n[payload bytes, %d products] json=%d (gzip %d) cbor=%d (gzip %d) smile=%d (gzip %d) protobuf=%d (gzip %d)%n",
+                pageSize, json.length, gzipSize(json), cbor.length, gzipSize(cbor),
+                smile.length, gzipSize(smile), protobuf.length, gzipSize(protobuf));
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() {
+        return cborMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() {
+        return smileMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] encodeProtobuf() {
+        return ProductProtoMapper.toPageMessage(new PageImpl<>(products, PageRequest.of(0, pageSize), products.size()))
+                .toByteArray();
+    }
+
+    @Benchmark
+    public List<Product> decodeJson() {
+        return jsonMapper.readValue(json, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public List<Product> decodeCbor() {
+        return cborMapper.readValue(cbor, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public List<Product> decodeSmile() {
+        return smileMapper.readValue(smile, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public List<Product> decodeProtobuf() throws IOException {
+        ProductPageMessage page = ProductPageMessage.parseFrom(protobuf);
+        List<Product> decoded = new ArrayList<>(page.getProductsCount());
+        for (int i = 0; i < page.getProductsCount(); i++) {
+            decoded.add(ProductProtoMapper.fromMessage(page.getProducts(i)));
+        }
+        return decoded;
+    }
+
+    private static int gzipSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProductEncodingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,46 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a Page of products, the body of /search, /advanced-search and /filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductPageJsonBenchmark {
+
+    @Param({"20", "100", "500"})
+    private int pageSize;
+
+    private ObjectMapper jsonMapper;
+    private Page<Product> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        page = new PageImpl<>(new SyntheticCatalog().products(pageSize), PageRequest.of(0, pageSize), 100_000);
+        System.out.printf("%n[page json bytes, %d products] %d%n", pageSize, jsonMapper.writeValueAsBytes(page).length);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeContentOnly() {
+        return jsonMapper.writeValueAsBytes(page.getContent());
+    }
+}
@@ -0,0 +1,56 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.service.SearchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchServiceImpl against embedded catalogs of 10k, 100k and 1M products: a common term,
+ * a selective SKU lookup and a term with no hits (a full scan with an empty result).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SearchServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"laptop", "sku-00004242", "zzzz"})
+    private String query;
+
+    private EmbeddedCatalog catalog;
+    private SearchService searchService;
+    private Pageable firstPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        catalog = EmbeddedCatalog.start(catalogSize, true);
+        searchService = catalog.getBean(SearchService.class);
+        firstPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalog.close();
+    }
+
+    @Benchmark
+    public Page<Product> search() {
+        return searchService.searchProducts(query, firstPage);
+    }
+
+    @Benchmark
+    public Page<Product> advancedSearchByName() {
+        return searchService.advancedSearch(query, null, null, null, firstPage);
+    }
+}
@@ -0,0 +1,191 @@
+package test.java.main.java.com.example.productservice.benchmark;
+
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.model.Product;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic catalog with a realistic shape: categories and tags follow a Zipf-like
+ * popularity curve, prices are log-normal, most products are ACTIVE, and creation dates
+ * spread over three years. Product n is the same for a given seed regardless of catalog size,
+ * so a 10k catalog is a prefix of the 1M one.
+ */
+public final class SyntheticCatalog {
+
+    public static final long DEFAULT_SEED = 42L;
+    public static final int CATEGORY_COUNT = 200;
+
+    public static final String[] WORDS = {
+        "laptop", "wireless", "pro", "ultra", "compact", "gaming", "office", "smart", "portable", "premium",
+        "mouse", "keyboard", "monitor", "headphones", "speaker", "camera", "tablet", "phone", "charger", "cable",
+        "desk", "chair", "lamp", "backpack", "watch", "router", "drive", "printer", "microphone", "dock"};
+
+    public static final String[] TAGS = {
+        "electronics", "computers", "accessories", "audio", "office", "gaming", "mobile", "storage",
+        "networking", "photography", "wearables", "furniture", "lighting", "travel", "apple", "dell",
+        "lenovo", "samsung", "sony", "logitech", "bluetooth", "usb-c", "4k", "ergonomic", "refurbished",
+        "eco", "bestseller", "new", "sale", "premium"};
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final int DAYS = 3 * 365;
+
+    private final long seed;
+    private final double[] categoryWeights = cumulativeZipf(CATEGORY_COUNT, 1.1);
+    private final double[] tagWeights = cumulativeZipf(TAGS.length, 0.9);
+    private final double[] wordWeights = cumulativeZipf(WORDS.length, 0.8);
+
+    public SyntheticCatalog() {
+        this(DEFAULT_SEED);
+    }
+
+    public SyntheticCatalog(long seed) {
+        this.seed = seed;
+    }
+
+    public Product product(long id) {
+        SplittableRandom random = new SplittableRandom(seed ^ (id * 0x9E3779B97F4A7C15L));
+
+        Category category = new Category();
+        category.setId((long) pick(categoryWeights, random) + 1);
+        category.setName(categoryName(category.getId()));
+
+        Product product = new Product();
+        product.setId(id);
+        product.setName(word(random) + " " + word(random) + " " + word(random) + " " + id);
+        product.setDescription("A " + word(random) + " " + word(random) + " for everyday use. Model " + id
+            + ", compatible with " + word(random) + " and " + word(random) + " setups.");
+        // Log-normal around 80.00, capped to fit NUMERIC(10,2)
+        double price = Math.min(Math.exp(Math.log(80) + random.nextGaussian() * 1.1), 99_999_999);
+        product.setPrice(BigDecimal.valueOf(Math.max(1, Math.round(price * 100)), 2));
+        product.setCategory(category);
+        product.setSku(String.format("SKU-%08d", id));
+        int stockRoll = random.nextInt(100);
+        product.setStockQuantity(stockRoll < 8 ? 0 : random.nextInt(1000));
+        int statusRoll = random.nextInt(100);
+        product.setStatus(statusRoll < 85 ? Product.ProductStatus.ACTIVE
+            : statusRoll < 93 ? Product.ProductStatus.INACTIVE : Product.ProductStatus.DISCONTINUED);
+
+        int tagCount = 1 + random.nextInt(4);
+        List<String> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            String tag = TAGS[pick(tagWeights, random)];
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        product.setTags(tags);
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("color", random.nextBoolean() ? "black" : "silver");
+        metadata.put("weight", Math.round((0.1 + random.nextDouble() * 5) * 10) / 10.0);
+        product.setMetadata(metadata);
+
+        LocalDateTime createdAt = EPOCH.plusMinutes(random.nextLong((long) DAYS * 24 * 60));
+        product.setCreatedAt(createdAt);
+        product.setUpdatedAt(createdAt.plusDays(random.nextInt(90)));
+        product.setVersion((long) random.nextInt(5));
+        return product;
+    }
+
+    public List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    public static String categoryName(long categoryId) {
+        return "Category " + categoryId;
+    }
+
+    /**
+     * Loads products 1..size into the schema from benchmark/catalog-schema.sql using JDBC batches.
+     */
+    public void load(DataSource dataSource, int size) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement categories = connection.prepareStatement(
+                    "INSERT INTO categories (id, name, created_at, updated_at) VALUES (?, ?, ?, ?)")) {
+                Timestamp now = Timestamp.valueOf(EPOCH);
+                for (long id = 1; id <= CATEGORY_COUNT; id++) {
+                    categories.setLong(1, id);
+                    categories.setString(2, categoryName(id));
+                    categories.setTimestamp(3, now);
+                    categories.setTimestamp(4, now);
+                    categories.addBatch();
+                }
+                categories.executeBatch();
+            }
+
+            try (PreparedStatement products = connection.prepareStatement(
+                    "INSERT INTO products (id, name, description, price, category_id, sku, stock_quantity, status, "
+                        + "metadata, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement tags = connection.prepareStatement(
+                    "INSERT INTO product_tags (product_id, tag) VALUES (?, ?)")) {
+                for (int id = 1; id <= size; id++) {
+                    Product product = product(id);
+                    products.setLong(1, product.getId());
+                    products.setString(2, product.getName());
+                    products.setString(3, product.getDescription());
+                    products.setBigDecimal(4, product.getPrice());
+                    products.setLong(5, product.getCategory().getId());
+                    products.setString(6, product.getSku());
+                    products.setInt(7, product.getStockQuantity());
+                    products.setString(8, product.getStatus().name());
+                    products.setString(9, "{\"color\":\"" + product.getMetadata().get("color")
+                        + "\",\"weight\":" + product.getMetadata().get("weight") + "}");
+                    products.setTimestamp(10, Timestamp.valueOf(product.getCreatedAt()));
+                    products.setTimestamp(11, Timestamp.valueOf(product.getUpdatedAt()));
+                    products.setLong(12, product.getVersion());
+                    products.addBatch();
+                    for (String tag : product.getTags()) {
+                        tags.setLong(1, product.getId());
+                        tags.setString(2, tag);
+                        tags.addBatch();
+                    }
+                    if (id % 5_000 == 0) {
+                        products.executeBatch();
+                        tags.executeBatch();
+                        connection.commit();
+                    }
+                }
+                products.executeBatch();
+                tags.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    private String word(SplittableRandom random) {
+        return WORDS[pick(wordWeights, random)];
+    }
+
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+
+    private static double[] cumulativeZipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,122 @@
+package test.java.main.java.com.example.productservice.config;
+
+import main.java.main.java.com.example.productservice.config.ConcurrencyLimitingDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void getConnection_PermitsExhaustedAndNoWaitingAllowed_FailsFast() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(pool, 2, 0, 10_000);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Act & Assert
+        long start = System.nanoTime();
+        SQLTransientConnectionException exception = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "must not wait for the acquire timeout");
+        assertEquals("Too many callers waiting for a database connection", exception.getMessage());
+        assertEquals(0, dataSource.getAvailablePermits());
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_NoPermitFreedInTime_TimesOut() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(pool, 1, 1, 50);
+        dataSource.getConnection();
+
+        // Act & Assert
+        SQLTransientConnectionException exception = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals("Timed out after 50ms waiting for a database connection", exception.getMessage());
+        assertEquals(0, dataSource.getWaiting());
+    }
+
+    @Test
+    void close_ReleasesPermitOnce() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(pool, 1, 0, 50);
+        Connection first = dataSource.getConnection();
+
+        // Act
+        first.close();
+        first.close();
+
+        // Assert
+        assertEquals(1, dataSource.getAvailablePermits());
+        assertNotNull(dataSource.getConnection());
+        assertEquals(0, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_WaiterGetsPermitWhenConnectionClosed() throws Exception {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(pool, 1, 1, 5_000);
+        Connection held = dataSource.getConnection();
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                held.close();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Act
+        closer.start();
+        Connection waited = dataSource.getConnection();
+        closer.join();
+
+        // Assert
+        assertNotNull(waited);
+        assertEquals(0, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void getConnection_PoolFails_ReleasesPermit() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(pool, 1, 0, 50);
+
+        // Act & Assert
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void unwrap_ReturnsPooledConnection() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(pool, 1, 0, 50);
+
+        // Act
+        Connection wrapped = dataSource.getConnection();
+
+        // Assert
+        assertSame(connection, wrapped.unwrap(Connection.class));
+    }
+}
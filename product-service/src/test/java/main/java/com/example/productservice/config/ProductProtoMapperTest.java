@@ -0,0 +1,102 @@
+package test.java.main.java.com.example.productservice.config;
+
+import com.google.protobuf.FieldMask;
+import main.java.main.java.com.example.productservice.config.ProductProtoMapper;
+import main.java.main.java.com.example.productservice.config.ProductProtobufHttpMessageConverter;
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.ProductListResponse;
+import main.java.main.java.com.example.productservice.proto.ProductMessage;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductProtoMapperTest {
+
+    @Test
+    void fromMessage_RoundTrip_KeepsEveryField() {
+        // Arrange
+        Category category = new Category();
+        category.setId(3L);
+        Product product = new Product();
+        product.setId(7L);
+        product.setName("Laptop");
+        product.setDescription("Thin and light");
+        product.setPrice(new BigDecimal("999.90"));
+        product.setCategory(category);
+        product.setSku("LAP-7");
+        product.setStockQuantity(0);
+        product.setStatus(Product.ProductStatus.ACTIVE);
+        product.setTags(List.of("laptop", "sale"));
+        product.setMetadata(new HashMap<>(Map.of("color", "silver")));
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        product.setUpdatedAt(LocalDateTime.of(2024, 2, 1, 12, 0, 0, 123_000));
+        product.setVersion(4L);
+
+        // Act
+        Product decoded = ProductProtoMapper.fromMessage(ProductProtoMapper.toMessage(product));
+
+        // Assert
+        assertEquals(7L, decoded.getId());
+        assertEquals("Laptop", decoded.getName());
+        assertEquals("Thin and light", decoded.getDescription());
+        assertEquals(new BigDecimal("999.90"), decoded.getPrice());
+        assertEquals(3L, decoded.getCategory().getId());
+        assertEquals("LAP-7", decoded.getSku());
+        assertEquals(0, decoded.getStockQuantity()); // zero is present, not dropped
+        assertEquals(Product.ProductStatus.ACTIVE, decoded.getStatus());
+        assertEquals(List.of("laptop", "sale"), decoded.getTags());
+        assertEquals(Map.of("color", "silver"), decoded.getMetadata());
+        assertEquals(product.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(product.getUpdatedAt(), decoded.getUpdatedAt());
+        assertEquals(4L, decoded.getVersion());
+    }
+
+    @Test
+    void fromMessage_PartialUpdate_LeavesAbsentFieldsNull() {
+        // Arrange
+        ProductMessage message = ProductMessage.newBuilder().setName("New Name").build();
+
+        // Act
+        Product decoded = ProductProtoMapper.fromMessage(message);
+
+        // Assert
+        assertEquals("New Name", decoded.getName());
+        assertNull(decoded.getStockQuantity());
+        assertNull(decoded.getTags());
+        assertNull(decoded.getMetadata());
+        assertNull(decoded.getPrice());
+    }
+
+    @Test
+    void fromMessage_FieldMaskListsEmptyFields_ClearsThem() {
+        // Arrange
+        ProductMessage message = ProductMessage.newBuilder()
+            .setFieldMask(FieldMask.newBuilder().addPaths("tags").addPaths("metadata"))
+            .build();
+
+        // Act
+        Product decoded = ProductProtoMapper.fromMessage(message);
+
+        // Assert
+        assertEquals(List.of(), decoded.getTags());
+        assertEquals(Map.of(), decoded.getMetadata());
+    }
+
+    @Test
+    void canWrite_OnlyTheProductListEnvelopeAmongMaps() {
+        // Arrange
+        ProductProtobufHttpMessageConverter converter = new ProductProtobufHttpMessageConverter();
+
+        // Act & Assert
+        assertTrue(converter.canWrite(ProductListResponse.class, ProductProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF));
+        assertFalse(converter.canWrite(HashMap.class, ProductProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF));
+        assertTrue(converter.canWrite(Product.class, ProductProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF));
+    }
+}
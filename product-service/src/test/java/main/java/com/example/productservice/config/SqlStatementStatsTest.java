@@ -0,0 +1,68 @@
+package test.java.main.java.com.example.productservice.config;
+
+import main.java.main.java.com.example.productservice.config.SqlFingerprint;
+import main.java.main.java.com.example.productservice.config.SqlStatementStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementStatsTest {
+
+    @Test
+    void normalize_ReplacesLiteralsAndCollapsesInLists() {
+        // Act
+        String fingerprint = SqlFingerprint.normalize(
+            "select p1_0.id from products p1_0\n  where p1_0.sku = 'AB''C' and p1_0.price > 10.5 and p1_0.id in (1, 2, 3)");
+
+        // Assert
+        assertEquals("select p1_0.id from products p1_0 where p1_0.sku = ? and p1_0.price > ? and p1_0.id in (?+)", fingerprint);
+    }
+
+    @Test
+    void normalize_SameShapeDifferentValues_SameFingerprint() {
+        // Act & Assert
+        assertEquals(SqlFingerprint.normalize("select * from products where id = 5"),
+            SqlFingerprint.normalize("select * from products where id = 7"));
+        assertEquals(SqlFingerprint.normalize("select * from products where id in (?, ?)"),
+            SqlFingerprint.normalize("select * from products where id in (?,?,?,?)"));
+    }
+
+    @Test
+    void record_AggregatesPerFingerprintAndLogsSlowStatements() {
+        // Arrange
+        SqlStatementStats stats = new SqlStatementStats(100, 100, 2, 100);
+
+        // Act
+        stats.record(stats.statsFor("select * from products where id = 1"), "select * from products where id = 1", 5_000_000L, 1);
+        stats.record(stats.statsFor("select * from products where id = 2"), "select * from products where id = 2", 150_000_000L, 1);
+        stats.record(stats.statsFor("delete from products where id = 3"), "delete from products where id = 3", 1_000_000L, 1);
+
+        // Assert
+        List<Map<String, Object>> top = stats.topFingerprints(10);
+        assertEquals(2, top.size());
+        assertEquals("select * from products where id = ?", top.get(0).get("fingerprint"));
+        assertEquals(2L, top.get(0).get("calls"));
+        assertEquals(2L, top.get(0).get("rows"));
+        assertEquals(150.0, (Double) top.get(0).get("maxMs"), 0.001);
+        assertEquals(1, stats.slowStatements().size());
+        assertEquals("select * from products where id = 2", stats.slowStatements().get(0).getSql());
+    }
+
+    @Test
+    void slowLog_KeepsOnlyMostRecentEntries() {
+        // Arrange
+        SqlStatementStats stats = new SqlStatementStats(100, 100, 2, 0);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            String sql = "select " + i;
+            stats.record(stats.statsFor(sql), sql, 1_000_000L, 0);
+        }
+
+        // Assert
+        assertEquals(2, stats.slowStatements().size());
+    }
+}
@@ -0,0 +1,158 @@
+package test.java.main.java.com.example.productservice.loadtest;
+
+import main.java.main.java.com.example.productservice.model.Product;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import test.java.main.java.com.example.productservice.benchmark.SyntheticCatalog;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Loads a seeded {@link SyntheticCatalog} into the products, product_tags and categories tables.
+ * PostgreSQL is fed through COPY FROM STDIN in 1 MB chunks, so millions of rows stream without
+ * being held in memory; any other JDBC URL (e.g. H2) falls back to batched inserts.
+ * The tables must exist: run it while product-service is up (ddl-auto create-drop drops them on restart).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=test.java.main.java.com.example.productservice.loadtest.CatalogGenerator
+ *   -Dexec.args="--url jdbc:postgresql://localhost:5432/productdb --user postgres --password postgres --size 1000000"
+ */
+public class CatalogGenerator {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTestOptions.parse(args);
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/productdb");
+        String user = options.getOrDefault("user", "postgres");
+        String password = options.getOrDefault("password", "postgres");
+        int size = Integer.parseInt(options.getOrDefault("size", "1000000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(SyntheticCatalog.DEFAULT_SEED)));
+        boolean truncate = Boolean.parseBoolean(options.getOrDefault("truncate", "true"));
+
+        SyntheticCatalog catalog = new SyntheticCatalog(seed);
+        long start = System.nanoTime();
+        if (url.startsWith("jdbc:postgresql:")) {
+            try (Connection connection = DriverManager.getConnection(url, user, password)) {
+                copyIntoPostgres(connection, catalog, size, truncate);
+            }
+        } else {
+            catalog.load(new SimpleDriverDataSource(DriverManager.getDriver(url), url, user, password), size);
+        }
+        System.out.printf("Loaded %d products (seed %d) in %d s%n", size, seed, (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    static void copyIntoPostgres(Connection connection, SyntheticCatalog catalog, int size, boolean truncate) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("TRUNCATE product_tags, products, categories RESTART IDENTITY CASCADE");
+            }
+        }
+        PGConnection pg = connection.unwrap(PGConnection.class);
+
+        StringBuilder categories = new StringBuilder();
+        for (long id = 1; id <= SyntheticCatalog.CATEGORY_COUNT; id++) {
+            categories.append(id).append(',').append(SyntheticCatalog.categoryName(id))
+                .append(",2022-01-01 00:00:00,2022-01-01 00:00:00\n");
+        }
+        copy(pg, "COPY categories (id, name, created_at, updated_at) FROM STDIN WITH (FORMAT csv)", categories);
+
+        CopyIn products = pg.getCopyAPI().copyIn("COPY products (id, name, description, price, category_id, sku, "
+            + "stock_quantity, status, metadata, created_at, updated_at, version) FROM STDIN WITH (FORMAT csv)");
+        StringBuilder chunk = new StringBuilder(CHUNK_BYTES + 4096);
+        try {
+            for (int id = 1; id <= size; id++) {
+                appendProduct(chunk, catalog.product(id));
+                if (chunk.length() >= CHUNK_BYTES) {
+                    write(products, chunk);
+                }
+                if (id % 100_000 == 0) {
+                    System.out.printf("  products: %d%n", id);
+                }
+            }
+            write(products, chunk);
+            products.endCopy();
+        } finally {
+            if (products.isActive()) {
+                products.cancelCopy();
+            }
+        }
+
+        // Second pass: product n is deterministic, so regenerating is cheaper than buffering tags
+        CopyIn tags = pg.getCopyAPI().copyIn("COPY product_tags (product_id, tag) FROM STDIN WITH (FORMAT csv)");
+        try {
+            for (int id = 1; id <= size; id++) {
+                for (String tag : catalog.product(id).getTags()) {
+                    chunk.append(id).append(',').append(tag).append('\n');
+                }
+                if (chunk.length() >= CHUNK_BYTES) {
+                    write(tags, chunk);
+                }
+            }
+            write(tags, chunk);
+            tags.endCopy();
+        } finally {
+            if (tags.isActive()) {
+                tags.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            // Keep IDENTITY inserts from the service clear of the generated ids
+            statement.execute("SELECT setval(pg_get_serial_sequence('products', 'id'), (SELECT MAX(id) FROM products))");
+            statement.execute("SELECT setval(pg_get_serial_sequence('categories', 'id'), (SELECT MAX(id) FROM categories))");
+            statement.execute("ANALYZE products");
+            statement.execute("ANALYZE product_tags");
+        }
+    }
+
+    private static void appendProduct(StringBuilder out, Product product) {
+        out.append(product.getId()).append(',');
+        csv(out, product.getName()).append(',');
+        csv(out, product.getDescription()).append(',');
+        out.append(product.getPrice().toPlainString()).append(',');
+        out.append(product.getCategory().getId()).append(',');
+        csv(out, product.getSku()).append(',');
+        out.append(product.getStockQuantity()).append(',');
+        out.append(product.getStatus().name()).append(',');
+        csv(out, "{\"color\":\"" + product.getMetadata().get("color") + "\",\"weight\":" + product.getMetadata().get("weight") + "}").append(',');
+        out.append(TIMESTAMP.format(product.getCreatedAt())).append(',');
+        out.append(TIMESTAMP.format(product.getUpdatedAt())).append(',');
+        out.append(product.getVersion()).append('\n');
+    }
+
+    private static StringBuilder csv(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static void copy(PGConnection pg, String sql, StringBuilder rows) throws SQLException {
+        CopyIn copyIn = pg.getCopyAPI().copyIn(sql);
+        write(copyIn, rows);
+        copyIn.endCopy();
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.length() == 0) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
@@ -0,0 +1,300 @@
+package test.java.main.java.com.example.productservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import test.java.main.java.com.example.productservice.benchmark.FilterShape;
+import test.java.main.java.com.example.productservice.benchmark.SyntheticCatalog;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted search/filter/get/write mix against a running product-service and reports
+ * throughput and HDR latency percentiles per operation, every interval and for the whole run.
+ * Each worker draws its operations from its own seeded random, so a run with the same options
+ * issues the same requests in the same order.
+ *
+ * Without --rate every worker sends its next request as soon as the previous one returns
+ * (closed loop). With --rate the load is paced at that many requests per second and latency
+ * is measured from each request's intended start, so a stalled server is not hidden by the
+ * driver slowing down with it (coordinated omission).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=test.java.main.java.com.example.productservice.loadtest.LoadDriver
+ *   -Dexec.args="--base-url http://localhost:8080 --duration 60 --concurrency 32 --mix search=50,filter=25,get=20,write=5"
+ */
+public class LoadDriver {
+
+    enum Operation { SEARCH, FILTER, GET, WRITE }
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int catalogSize;
+    private final double[] cumulativeMix;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final long runId = System.currentTimeMillis();
+
+    LoadDriver(String baseUrl, int catalogSize, Map<Operation, Integer> mix, Duration timeout) {
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.baseUrl = baseUrl;
+        this.catalogSize = catalogSize;
+        this.cumulativeMix = new double[Operation.values().length];
+        double total = 0;
+        for (Operation operation : Operation.values()) {
+            total += mix.getOrDefault(operation, 0);
+            cumulativeMix[operation.ordinal()] = total;
+            recorders.put(operation, new Recorder(MAX_LATENCY_NANOS, 3));
+            totals.put(operation, new Histogram(MAX_LATENCY_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTestOptions.parse(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        int reportSeconds = Integer.parseInt(options.getOrDefault("report-interval", "10"));
+        int catalogSize = Integer.parseInt(options.getOrDefault("catalog-size", "1000000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "search=50,filter=25,get=20,write=5"));
+
+        LoadDriver driver = new LoadDriver(baseUrl, catalogSize, mix, Duration.ofSeconds(10));
+        System.out.printf("Load: %s, %d workers, %s, mix %s, warm-up %ds, measure %ds%n", baseUrl, concurrency,
+            rate > 0 ? String.format(Locale.ROOT, "%.0f req/s", rate) : "closed loop", mix, warmupSeconds, durationSeconds);
+
+        if (warmupSeconds > 0) {
+            driver.run(concurrency, rate, seed, warmupSeconds, 0);
+            driver.reset();
+        }
+        driver.run(concurrency, rate, seed + 1, durationSeconds, reportSeconds);
+        driver.report(System.out, durationSeconds);
+        if (options.containsKey("hgrm-dir")) {
+            driver.writePercentileDistributions(Path.of(options.get("hgrm-dir")));
+        }
+    }
+
+    void run(int concurrency, double rate, long seed, int durationSeconds, int reportSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        // Per worker, so the total across workers matches --rate
+        long intervalNanos = rate > 0 ? (long) (1_000_000_000L * concurrency / rate) : 0;
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            SplittableRandom random = new SplittableRandom(seed * 31 + worker);
+            long firstStart = start + (intervalNanos * worker) / concurrency;
+            workers.execute(() -> work(random, firstStart, intervalNanos, end));
+        }
+        workers.shutdown();
+
+        long nextReport = start + TimeUnit.SECONDS.toNanos(reportSeconds);
+        while (!workers.awaitTermination(200, TimeUnit.MILLISECONDS)) {
+            if (reportSeconds > 0 && System.nanoTime() >= nextReport) {
+                reportInterval(System.out, reportSeconds);
+                nextReport += TimeUnit.SECONDS.toNanos(reportSeconds);
+            }
+        }
+        collectIntervals();
+    }
+
+    private void work(SplittableRandom random, long firstStart, long intervalNanos, long end) {
+        long intendedStart = firstStart;
+        while (true) {
+            if (intervalNanos > 0) {
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intendedStart = System.nanoTime();
+            }
+            if (intendedStart >= end) {
+                return;
+            }
+            Operation operation = pick(random);
+            HttpRequest request = request(operation, random);
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.get(operation).incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.get(operation).incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long latency = Math.min(System.nanoTime() - intendedStart, MAX_LATENCY_NANOS);
+            recorders.get(operation).recordValue(latency);
+            intendedStart += intervalNanos;
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        double roll = random.nextDouble() * cumulativeMix[cumulativeMix.length - 1];
+        for (Operation operation : Operation.values()) {
+            if (roll < cumulativeMix[operation.ordinal()]) {
+                return operation;
+            }
+        }
+        return Operation.SEARCH;
+    }
+
+    HttpRequest request(Operation operation, SplittableRandom random) {
+        switch (operation) {
+            case SEARCH: {
+                // Zipf-ish: low word indexes are popular, mirroring SyntheticCatalog
+                String[] words = SyntheticCatalog.WORDS;
+                String term = words[(int) Math.min(words.length - 1, Math.abs(random.nextGaussian()) * words.length / 3)];
+                if (random.nextInt(4) == 0) {
+                    term = term + " " + words[random.nextInt(words.length)];
+                }
+                return get("/api/products/search?q=" + URLEncoder.encode(term, StandardCharsets.UTF_8)
+                    + "&page=" + (random.nextInt(10) == 0 ? random.nextInt(5) : 0) + "&size=20");
+            }
+            case FILTER: {
+                FilterShape[] shapes = {FilterShape.PRICE, FilterShape.CATEGORY_STATUS, FilterShape.TAGS, FilterShape.DATES, FilterShape.FULL};
+                return get("/api/products/filter?" + shapes[random.nextInt(shapes.length)].queryString() + "&page=0&size=20");
+            }
+            case GET:
+                return get("/api/products/" + productId(random));
+            case WRITE:
+            default:
+                if (random.nextBoolean()) {
+                    String price = String.format(Locale.ROOT, "%.2f", 5 + random.nextDouble() * 500);
+                    return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId(random) + "?retry_on_conflict=true"))
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"price\":" + price + "}"))
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                }
+                String sku = "LOAD-" + runId + "-" + Long.toHexString(random.nextLong());
+                String body = "{\"name\":\"load test " + sku + "\",\"price\":19.99,\"sku\":\"" + sku
+                    + "\",\"stockQuantity\":10,\"category\":{\"id\":" + (1 + random.nextInt(SyntheticCatalog.CATEGORY_COUNT))
+                    + "},\"tags\":[\"loadtest\"]}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+        }
+    }
+
+    // 80% of reads go to the first 1% of ids, like a catalog with hot products
+    private long productId(SplittableRandom random) {
+        int hot = Math.max(1, catalogSize / 100);
+        return 1 + (random.nextInt(10) < 8 ? random.nextInt(hot) : random.nextInt(catalogSize));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private void reportInterval(PrintStream out, int seconds) {
+        StringBuilder line = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            Histogram interval = recorders.get(operation).getIntervalHistogram();
+            totals.get(operation).add(interval);
+            if (interval.getTotalCount() > 0) {
+                line.append(String.format(Locale.ROOT, "  %s %.0f/s p99 %.1fms", operation.name().toLowerCase(Locale.ROOT),
+                    interval.getTotalCount() / (double) seconds, interval.getValueAtPercentile(99) / 1e6));
+            }
+        }
+        out.println("[interval]" + line);
+    }
+
+    private void collectIntervals() {
+        for (Operation operation : Operation.values()) {
+            totals.get(operation).add(recorders.get(operation).getIntervalHistogram());
+        }
+    }
+
+    private void reset() {
+        for (Operation operation : Operation.values()) {
+            recorders.get(operation).reset();
+            totals.get(operation).reset();
+            errors.get(operation).set(0);
+        }
+    }
+
+    void report(PrintStream out, int durationSeconds) {
+        out.printf("%n%-8s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+            "op", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(MAX_LATENCY_NANOS, 3);
+        long allErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = totals.get(operation);
+            all.add(histogram);
+            allErrors += errors.get(operation).get();
+            printRow(out, operation.name().toLowerCase(Locale.ROOT), histogram, errors.get(operation).get(), durationSeconds);
+        }
+        printRow(out, "all", all, allErrors, durationSeconds);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, int durationSeconds) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        out.printf(Locale.ROOT, "%-8s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+            histogram.getTotalCount(), histogram.getTotalCount() / (double) durationSeconds, errors,
+            histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(90) / 1e6,
+            histogram.getValueAtPercentile(99) / 1e6, histogram.getValueAtPercentile(99.9) / 1e6,
+            histogram.getMaxValue() / 1e6);
+    }
+
+    // One .hgrm file per operation, plottable with HdrHistogram's plotter and easy to diff between runs
+    private void writePercentileDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = totals.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, 1e6);
+            }
+        }
+        System.out.println("Percentile distributions written to " + directory.toAbsolutePath());
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] nameWeight = part.trim().split("=", 2);
+            if (nameWeight.length != 2) {
+                throw new IllegalArgumentException("--mix entries look like search=50, got: " + part);
+            }
+            weights.put(Operation.valueOf(nameWeight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(nameWeight[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,77 @@
+package test.java.main.java.com.example.productservice.search;
+
+import main.java.main.java.com.example.productservice.search.Percolator;
+import main.java.main.java.com.example.productservice.search.ProductQueryParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PercolatorTest {
+
+    private Percolator percolator;
+
+    @BeforeEach
+    void setUp() {
+        percolator = new Percolator();
+        percolator.register(1L, ProductQueryParser.parse("name:laptop AND (tag:apple OR tag:dell) price:[500 TO 1500]"));
+        percolator.register(2L, ProductQueryParser.parse("tag:usb"));
+        percolator.register(3L, ProductQueryParser.parse("category:computers -status:discontinued"));
+        percolator.register(4L, ProductQueryParser.parse("-tag:refurbished"));
+        percolator.register(5L, ProductQueryParser.parse("\"Ultra Book\""));
+    }
+
+    private static Percolator.Document laptop(String status, String... tags) {
+        return new Percolator.Document(10L, "Dell Laptop Pro", "Ultra book with USB-C", "DL-100", List.of(tags),
+            3L, null, status, new BigDecimal("999.00"), 5);
+    }
+
+    @Test
+    void percolate_MatchesExactlyTheSatisfiedQueries() {
+        // Act
+        List<Long> matches = percolator.percolate(laptop("ACTIVE", "Dell").withCategoryName("Computers"));
+
+        // Assert
+        assertEquals(List.of(1L, 3L, 4L, 5L), matches.stream().sorted().toList());
+    }
+
+    @Test
+    void percolate_OnlyAnchoredCandidatesAndScanListAreEvaluated() {
+        // Arrange
+        int[] evaluated = new int[1];
+
+        // Act: no tag, category name or matching text, so only the negation must be tried
+        List<Long> matches = percolator.percolate(new Percolator.Document(11L, "Mouse", null, "M-1", List.of(),
+            null, null, "ACTIVE", BigDecimal.TEN, 1), evaluated);
+
+        // Assert
+        assertEquals(List.of(4L), matches);
+        assertEquals(1, evaluated[0]);
+        assertEquals(1, percolator.unanchoredSize());
+    }
+
+    @Test
+    void percolate_NegationsAndStatus() {
+        // Act
+        List<Long> matches = percolator.percolate(laptop("DISCONTINUED", "refurbished", "usb").withCategoryName("computers"));
+
+        // Assert
+        assertEquals(List.of(2L, 5L), matches.stream().sorted().toList());
+    }
+
+    @Test
+    void unregister_RemovesQueryFromEveryAnchor() {
+        // Act
+        percolator.unregister(1L);
+        percolator.unregister(4L);
+        percolator.register(2L, ProductQueryParser.parse("tag:hub"));
+
+        // Assert
+        assertEquals(3, percolator.size());
+        assertEquals(0, percolator.unanchoredSize());
+        assertEquals(List.of(5L), percolator.percolate(laptop("ACTIVE", "dell", "usb")));
+    }
+}
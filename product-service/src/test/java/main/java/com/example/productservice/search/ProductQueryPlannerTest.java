@@ -0,0 +1,109 @@
+package test.java.main.java.com.example.productservice.search;
+
+import main.java.main.java.com.example.productservice.search.ProductQuery;
+import main.java.main.java.com.example.productservice.search.ProductQueryParser;
+import main.java.main.java.com.example.productservice.search.ProductQueryPlanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQueryPlannerTest {
+
+    private ProductQueryPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Long> tags = Map.of("apple", 30L, "dell", 50L, "usb", 5L);
+        planner = new ProductQueryPlanner(new ProductQueryPlanner.Statistics() {
+            @Override
+            public long totalProducts() {
+                return 10_000;
+            }
+
+            @Override
+            public long tagFrequency(String tag) {
+                return tags.getOrDefault(tag, 0L);
+            }
+
+            @Override
+            public long statusFrequency(String status) {
+                return status.equals("DISCONTINUED") ? 1_000 : 9_000;
+            }
+
+            @Override
+            public long categoryFrequency(String category) {
+                return 0;
+            }
+        });
+    }
+
+    @Test
+    void parse_FullSyntax_BuildsTree() {
+        // Act
+        ProductQuery query = ProductQueryParser.parse(
+            "name:laptop AND (tag:Apple OR tag:dell) -status:discontinued price:[500 TO 1500]");
+
+        // Assert
+        assertInstanceOf(ProductQuery.And.class, query);
+        assertEquals("name:laptop AND (tag:apple OR tag:dell) AND -status:DISCONTINUED AND price:[500 TO 1500]",
+            query.toString());
+        ProductQuery.Range price = (ProductQuery.Range) ((ProductQuery.And) query).getClauses().get(3);
+        assertEquals(new BigDecimal("500"), price.getLower());
+        assertEquals(new BigDecimal("1500"), price.getUpper());
+    }
+
+    @Test
+    void parse_QuotedValuesAndOpenRanges() {
+        // Act
+        ProductQuery query = ProductQueryParser.parse("\"usb hub\" OR NOT stock:[* TO 0]");
+
+        // Assert
+        assertEquals("\"usb hub\" OR -stock:[* TO 0]", query.toString());
+    }
+
+    @Test
+    void parse_MalformedQueries_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("color:red"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("status:lost"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("price:[abc TO 5]"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("price:[10 TO 5]"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("stock:1.5"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("(tag:usb"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("laptop AND"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryParser.parse("tag:usb ".repeat(65)));
+    }
+
+    @Test
+    void plan_OrdersAndClausesBySelectivity_NegationsLast() {
+        // Act
+        ProductQueryPlanner.Plan plan = planner.plan(ProductQueryParser.parse(
+            "-status:discontinued name:laptop price:[500 TO 1500] (tag:apple OR tag:dell)"));
+
+        // Assert
+        List<ProductQuery> clauses = ((ProductQuery.And) plan.getQuery()).getClauses();
+        assertEquals("(tag:apple OR tag:dell)", "(" + clauses.get(0) + ")");
+        assertEquals("name:laptop", clauses.get(1).toString());
+        assertEquals("price:[500 TO 1500]", clauses.get(2).toString());
+        assertEquals("-status:DISCONTINUED", clauses.get(3).toString());
+        assertTrue(plan.getPostingTerms().isEmpty());
+        assertTrue(plan.getEstimatedRows() <= 80);
+    }
+
+    @Test
+    void plan_IndexedTerms_BecomePostingListsSmallestFirst() {
+        // Act
+        ProductQueryPlanner.Plan plan = planner.plan(ProductQueryParser.parse("tag:apple name:laptop (tag:usb AND -(-tag:ghost))"));
+
+        // Assert: nested AND flattened, double negation dropped, unknown tag read first
+        List<String> postings = plan.getPostingTerms().stream().map(ProductQuery::toString).toList();
+        assertEquals(List.of("tag:ghost", "tag:usb", "tag:apple"), postings);
+        assertEquals(1, plan.getResidual().size());
+        assertEquals("tag:ghost(~0) -> tag:usb(~5) -> tag:apple(~30) -> name:laptop(~500)", plan.describe());
+    }
+}
@@ -0,0 +1,63 @@
+package test.java.main.java.com.example.productservice.search;
+
+import main.java.main.java.com.example.productservice.search.SymSpellIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymSpellIndexTest {
+
+    private SymSpellIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = SymSpellIndex.builder(2, 7)
+            .add("laptop", 120)
+            .add("lapdog", 2)
+            .add("keyboard", 40)
+            .add("headphones", 25)
+            .add("monitor", 60)
+            .build();
+    }
+
+    @Test
+    void lookup_SingleTypo_SuggestsTerm() {
+        // Act
+        List<SymSpellIndex.Suggestion> suggestions = index.lookup("lpatop", 3);
+
+        // Assert
+        assertFalse(suggestions.isEmpty());
+        assertEquals("laptop", suggestions.get(0).getTerm());
+        assertEquals(1, suggestions.get(0).getDistance());
+    }
+
+    @Test
+    void lookup_TypoPastPrefix_VerifiedOnFullTerm() {
+        // Act
+        List<SymSpellIndex.Suggestion> suggestions = index.lookup("headphnes", 3);
+
+        // Assert
+        assertEquals("headphones", suggestions.get(0).getTerm());
+    }
+
+    @Test
+    void lookup_EqualDistance_PrefersFrequentTerm() {
+        // Act
+        List<SymSpellIndex.Suggestion> suggestions = index.lookup("lapdop", 3);
+
+        // Assert
+        assertEquals("laptop", suggestions.get(0).getTerm());
+        assertEquals("lapdog", suggestions.get(1).getTerm());
+    }
+
+    @Test
+    void lookup_TooFarFromAnyTerm_ReturnsEmpty() {
+        // Act & Assert
+        assertTrue(index.lookup("xyzzy", 3).isEmpty());
+        assertTrue(index.contains("monitor"));
+        assertFalse(index.contains("monitr"));
+    }
+}
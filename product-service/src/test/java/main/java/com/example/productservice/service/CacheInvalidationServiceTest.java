@@ -0,0 +1,172 @@
+package test.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.productservice.service.CacheInvalidationBus;
+import main.java.main.java.com.example.productservice.service.CacheInvalidationMessage;
+import main.java.main.java.com.example.productservice.service.CacheInvalidationServiceImpl;
+import main.java.main.java.com.example.productservice.service.CacheWarmupService;
+import main.java.main.java.com.example.productservice.service.CatalogVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationServiceTest {
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private ObjectProvider<CacheWarmupService> cacheWarmupService;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private CacheInvalidationServiceImpl invalidationService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("searchResults", "advancedSearchResults", "productCache");
+        invalidationService = new CacheInvalidationServiceImpl();
+        ReflectionTestUtils.setField(invalidationService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(invalidationService, "cacheInvalidationBus", cacheInvalidationBus);
+        ReflectionTestUtils.setField(invalidationService, "cacheWarmupService", cacheWarmupService);
+        ReflectionTestUtils.setField(invalidationService, "catalogVersionService", catalogVersionService);
+        ReflectionTestUtils.setField(invalidationService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(invalidationService, "maxIdsPerMessage", 500);
+        ReflectionTestUtils.invokeMethod(invalidationService, "init");
+    }
+
+    @Test
+    void productChanged_BurstOfWrites_PublishesOneCoalescedMessage() {
+        // Arrange
+        cacheManager.getCache("productCache").put("product_1", "cached");
+        cacheManager.getCache("searchResults").put("laptop_0_20", "cached");
+
+        // Act
+        invalidationService.productChanged(1L);
+        invalidationService.productChanged(2L);
+        invalidationService.productChanged(1L);
+        invalidationService.flush();
+        invalidationService.flush();
+
+        // Assert
+        assertNull(cacheManager.getCache("productCache").get("product_1"));
+        assertNull(cacheManager.getCache("searchResults").get("laptop_0_20"));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(cacheInvalidationBus, times(1)).publish(payload.capture());
+        CacheInvalidationMessage message = CacheInvalidationMessage.decode(payload.getValue());
+        assertFalse(message.isAll());
+        assertEquals(2, message.getProductIds().size());
+        assertTrue(message.getProductIds().containsAll(List.of(1L, 2L)));
+    }
+
+    @Test
+    void onMessage_FromOtherReplica_EvictsOnlyNamedProducts() {
+        // Arrange
+        cacheManager.getCache("productCache").put("product_7", "cached");
+        cacheManager.getCache("productCache").put("product_8", "cached");
+        cacheManager.getCache("advancedSearchResults").put("key", "cached");
+
+        // Act
+        invalidationService.onMessage(CacheInvalidationMessage.products("other", List.of(7L)).encode());
+
+        // Assert
+        assertNull(cacheManager.getCache("productCache").get("product_7"));
+        assertNotNull(cacheManager.getCache("productCache").get("product_8"));
+        assertNull(cacheManager.getCache("advancedSearchResults").get("key"));
+        verify(cacheWarmupService, times(1)).ifAvailable(any());
+    }
+
+    @Test
+    void onMessage_OwnMessage_IsIgnored() {
+        // Arrange
+        invalidationService.productChanged(7L);
+        invalidationService.flush();
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(cacheInvalidationBus).publish(payload.capture());
+        cacheManager.getCache("productCache").put("product_7", "cached again");
+
+        // Act
+        invalidationService.onMessage(payload.getValue());
+
+        // Assert
+        assertNotNull(cacheManager.getCache("productCache").get("product_7"));
+        verifyNoInteractions(cacheWarmupService);
+    }
+
+    @Test
+    void encode_TooManyIdsForOnePayload_FallsBackToAll() {
+        // Arrange
+        List<Long> ids = LongStream.range(1_000_000_000L, 1_000_002_000L).boxed().toList();
+
+        // Act
+        CacheInvalidationMessage decoded = CacheInvalidationMessage.decode(CacheInvalidationMessage.products("r1", ids).encode());
+        CacheInvalidationMessage garbled = CacheInvalidationMessage.decode("r1|not an id!");
+
+        // Assert
+        assertTrue(decoded.isAll());
+        assertEquals("r1", decoded.getOrigin());
+        assertTrue(garbled.isAll());
+    }
+
+    @Test
+    void productChanged_WithReplica_EvictsAgainAfterReplicaLagWindow() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(invalidationService, "replicaEnabled", true);
+        ReflectionTestUtils.setField(invalidationService, "replicaMaxLagMillis", 30L);
+        ReflectionTestUtils.setField(invalidationService, "replicaLagCheckIntervalMillis", 20L);
+        cacheManager.getCache("productCache").put("product_1", "cached");
+
+        // Act: a read right after the eviction refills the entry from a lagging replica
+        invalidationService.productChanged(1L);
+        cacheManager.getCache("productCache").put("product_1", "stale");
+        invalidationService.flush();
+        boolean keptWithinWindow = cacheManager.getCache("productCache").get("product_1") != null;
+        Thread.sleep(80);
+        invalidationService.flush();
+
+        // Assert
+        assertTrue(keptWithinWindow);
+        assertNull(cacheManager.getCache("productCache").get("product_1"));
+    }
+
+    @Test
+    void productChanged_WithoutReplica_EvictsOnce() throws Exception {
+        // Arrange
+        invalidationService.productChanged(1L);
+        cacheManager.getCache("productCache").put("product_1", "fresh");
+
+        // Act
+        invalidationService.flush();
+        invalidationService.flush();
+
+        // Assert
+        assertNotNull(cacheManager.getCache("productCache").get("product_1"));
+    }
+
+    @Test
+    void productChanged_BumpsCatalogVersion_AndEvictionsDropLocalCopy() {
+        // Act
+        invalidationService.productChanged(1L);
+        invalidationService.catalogChanged();
+        invalidationService.onMessage(CacheInvalidationMessage.products("other", List.of(7L)).encode());
+
+        // Assert: one bump per write, one invalidation per local or remote eviction
+        verify(catalogVersionService, times(2)).bump();
+        verify(catalogVersionService, times(3)).invalidate();
+    }
+}
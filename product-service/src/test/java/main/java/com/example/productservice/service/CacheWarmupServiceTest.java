@@ -0,0 +1,141 @@
+package test.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.CacheWarmupProgress;
+import main.java.main.java.com.example.productservice.service.CacheWarmupServiceImpl;
+import main.java.main.java.com.example.productservice.service.SearchQueryLogService;
+import main.java.main.java.com.example.productservice.service.SearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupServiceTest {
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private SearchQueryLogService searchQueryLogService;
+
+    private CacheWarmupServiceImpl warmupService;
+
+    @BeforeEach
+    void setUp() {
+        warmupService = new CacheWarmupServiceImpl();
+        ReflectionTestUtils.setField(warmupService, "searchService", searchService);
+        ReflectionTestUtils.setField(warmupService, "searchQueryLogService", searchQueryLogService);
+        ReflectionTestUtils.setField(warmupService, "enabled", true);
+        ReflectionTestUtils.setField(warmupService, "topQueries", 200);
+        ReflectionTestUtils.setField(warmupService, "pages", 2);
+        ReflectionTestUtils.setField(warmupService, "pageSize", 20);
+        ReflectionTestUtils.setField(warmupService, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(warmupService, "quietPeriodMillis", 100L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(warmupService, "shutdown");
+    }
+
+    @Test
+    void warmOnStartup_RunsEveryPageOfEveryTopQuery() {
+        // Arrange
+        when(searchQueryLogService.getTopQueries(200)).thenReturn(List.of("laptop", "mouse"));
+
+        // Act
+        warmupService.warmOnStartup();
+        CacheWarmupProgress progress = awaitCompleted();
+
+        // Assert
+        assertEquals("startup", progress.getTrigger());
+        assertEquals(4, progress.getTotal());
+        assertEquals(4, progress.getCompleted());
+        assertTrue(progress.isInitialWarmupDone());
+        verify(searchService, times(2)).searchProducts(eq("laptop"), any(Pageable.class));
+        verify(searchService, times(2)).searchProducts(eq("mouse"), any(Pageable.class));
+    }
+
+    @Test
+    void warmOnStartup_SearchFails_CountsFailureAndContinues() {
+        // Arrange
+        ReflectionTestUtils.setField(warmupService, "pages", 1);
+        when(searchQueryLogService.getTopQueries(200)).thenReturn(List.of("laptop", "mouse"));
+        when(searchService.searchProducts(eq("laptop"), any(Pageable.class))).thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        warmupService.warmOnStartup();
+        CacheWarmupProgress progress = awaitCompleted();
+
+        // Assert
+        assertEquals(1, progress.getCompleted());
+        assertEquals(1, progress.getFailed());
+    }
+
+    @Test
+    void warmOnStartup_QueryLogUnavailable_StillFinishesInitialWarmup() {
+        // Arrange
+        when(searchQueryLogService.getTopQueries(200)).thenThrow(new RuntimeException("db down"));
+
+        // Act
+        warmupService.warmOnStartup();
+        CacheWarmupProgress progress = awaitCompleted();
+
+        // Assert
+        assertTrue(progress.isInitialWarmupDone());
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    void warmOnStartup_Disabled_ReportsDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(warmupService, "enabled", false);
+
+        // Act
+        warmupService.warmOnStartup();
+
+        // Assert
+        assertEquals(CacheWarmupProgress.State.DISABLED, warmupService.getProgress().getState());
+        assertTrue(warmupService.getProgress().isInitialWarmupDone());
+        verifyNoInteractions(searchQueryLogService);
+    }
+
+    @Test
+    void requestWarmup_BurstOfWrites_RunsOnceAfterQuietPeriod() {
+        // Arrange
+        when(searchQueryLogService.getTopQueries(200)).thenReturn(List.of("laptop"));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            warmupService.requestWarmup();
+        }
+        CacheWarmupProgress progress = awaitCompleted();
+
+        // Assert
+        assertEquals("writes", progress.getTrigger());
+        verify(searchQueryLogService, times(1)).getTopQueries(200);
+    }
+
+    private CacheWarmupProgress awaitCompleted() {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (warmupService.getProgress().getState() != CacheWarmupProgress.State.COMPLETED) {
+            assertTrue(System.currentTimeMillis() < deadline, "warm-up did not complete");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return warmupService.getProgress();
+    }
+}
@@ -0,0 +1,122 @@
+package test.java.main.java.com.example.productservice.service;
+
+import jakarta.persistence.EntityManager;
+import main.java.main.java.com.example.productservice.service.CatalogVersionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogVersionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CatalogVersionServiceImpl catalogVersionService;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersionService = new CatalogVersionServiceImpl();
+        ReflectionTestUtils.setField(catalogVersionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(catalogVersionService, "entityManager", entityManager);
+    }
+
+    @Test
+    void current_ServedFromMemoryUntilInvalidated() {
+        // Arrange
+        when(jdbcTemplate.queryForList(startsWith("SELECT version FROM catalog_version"), eq(Long.class)))
+            .thenReturn(List.of(3L), List.of(4L));
+
+        // Act
+        long first = catalogVersionService.current();
+        long cached = catalogVersionService.current();
+        catalogVersionService.invalidate();
+        long reloaded = catalogVersionService.current();
+
+        // Assert
+        assertEquals(3L, first);
+        assertEquals(3L, cached);
+        assertEquals(4L, reloaded);
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void current_InvalidatedWhileLoading_LoadNotReused() {
+        // Arrange: a write commits and evicts while the first read is still in the database
+        when(jdbcTemplate.queryForList(startsWith("SELECT version FROM catalog_version"), eq(Long.class)))
+            .thenAnswer(invocation -> {
+                catalogVersionService.invalidate();
+                return List.of(3L);
+            })
+            .thenReturn(List.of(4L));
+
+        // Act
+        catalogVersionService.current();
+        long next = catalogVersionService.current();
+
+        // Assert
+        assertEquals(4L, next);
+    }
+
+    @Test
+    void current_NoRowYet_IsZero() {
+        // Arrange
+        when(jdbcTemplate.queryForList(startsWith("SELECT version FROM catalog_version"), eq(Long.class))).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(0L, catalogVersionService.current());
+    }
+
+    @Test
+    void bump_InTransaction_OnceBeforeCommitAfterFlush() {
+        // Arrange
+        when(entityManager.isJoinedToTransaction()).thenReturn(true);
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogVersionService.bump();
+            catalogVersionService.bump();
+            verifyNoInteractions(jdbcTemplate);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.beforeCommit(false);
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert: product rows are locked by the flush before the version row
+        InOrder inOrder = inOrder(entityManager, jdbcTemplate);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO catalog_version"));
+        verify(jdbcTemplate, times(1)).update(anyString());
+        assertFalse(TransactionSynchronizationManager.hasResource(catalogVersionService));
+    }
+
+    @Test
+    void bump_WithoutTransaction_RunsAtOnce() {
+        // Act
+        catalogVersionService.bump();
+
+        // Assert
+        verify(jdbcTemplate).update(startsWith("INSERT INTO catalog_version"));
+        verifyNoInteractions(entityManager);
+    }
+}
@@ -0,0 +1,237 @@
+package test.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.Category;
+import main.java.main.java.com.example.productservice.repository.CategoryRepository;
+import main.java.main.java.com.example.productservice.service.CacheInvalidationService;
+import main.java.main.java.com.example.productservice.service.CategoryServiceImpl;
+import main.java.main.java.com.example.productservice.service.CategoryTree;
+import main.java.main.java.com.example.productservice.service.WriteValidationService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WriteValidationService writeValidationService;
+
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+
+    private CategoryServiceImpl categoryService;
+
+    @BeforeEach
+    void setUp() {
+        categoryService = new CategoryServiceImpl();
+        ReflectionTestUtils.setField(categoryService, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(categoryService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(categoryService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(categoryService, "writeValidationService", writeValidationService);
+        ReflectionTestUtils.setField(categoryService, "cacheInvalidationService", cacheInvalidationService);
+        ReflectionTestUtils.invokeMethod(categoryService, "init");
+    }
+
+    @Test
+    void moveCategories_ParentBelowMovedCategory_RejectedFromSnapshot() {
+        // Arrange: 1 -> 2 -> 3
+        snapshot(row(1, "Electronics", null), row(2, "Computers", 1L), row(3, "Laptops", 2L));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> categoryService.moveCategories(List.of(2L), 3L));
+        assertEquals("Category 2 cannot move under its own subcategory 3", exception.getMessage());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void moveCategories_CycleOnlyInCommittedRows_RejectedUnderLock() {
+        // Arrange: both roots in the snapshot, but another instance has already moved 2 under 1
+        snapshot(row(1, "Electronics", null), row(2, "Computers", null));
+        when(jdbcTemplate.query(startsWith("SELECT id FROM categories WHERE id = ANY"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Long>>any())).thenReturn(List.of(1L));
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+        when(jdbcTemplate.query(startsWith("WITH RECURSIVE"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Boolean>>any())).thenReturn(List.of(true));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> categoryService.moveCategories(List.of(1L), 2L));
+        assertEquals("Categories [1] cannot move under their own subcategory 2", exception.getMessage());
+        InOrder inOrder = inOrder(jdbcTemplate, transactionManager);
+        inOrder.verify(jdbcTemplate).query(startsWith("SELECT pg_advisory_xact_lock"), any(RowCallbackHandler.class), anyLong());
+        inOrder.verify(jdbcTemplate).query(startsWith("WITH RECURSIVE"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Boolean>>any());
+        inOrder.verify(transactionManager).rollback(any());
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE"), any(PreparedStatementSetter.class));
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void moveCategories_Valid_MovesInOneStatement() {
+        // Arrange
+        snapshot(row(1, "Electronics", null), row(2, "Computers", null), row(3, "Phones", null));
+        when(jdbcTemplate.query(startsWith("SELECT id FROM categories WHERE id = ANY"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Long>>any())).thenReturn(List.of(2L, 3L));
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(jdbcTemplate.query(startsWith("WITH RECURSIVE"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Boolean>>any())).thenReturn(List.of(false));
+        when(jdbcTemplate.update(startsWith("UPDATE categories"), any(PreparedStatementSetter.class))).thenReturn(2);
+
+        // Act
+        int moved = categoryService.moveCategories(List.of(2L, 3L), 1L);
+
+        // Assert
+        assertEquals(2, moved);
+        verify(transactionManager).commit(any());
+        verify(writeValidationService).categoriesChanged();
+        verify(cacheInvalidationService).catalogChanged();
+    }
+
+    @Test
+    void moveChildren_ChildAddedOnAnotherInstance_ReadUnderLock() {
+        // Arrange: the snapshot has not seen category 7 under 1 yet
+        snapshot(row(1, "Electronics", null), row(5, "Archive", null));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM categories WHERE parent_category_id"), eq(Long.class), eq(1L)))
+            .thenReturn(List.of(7L));
+        when(jdbcTemplate.query(startsWith("SELECT id FROM categories WHERE id = ANY"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Long>>any())).thenReturn(List.of(7L));
+        when(categoryRepository.existsById(5L)).thenReturn(true);
+        when(jdbcTemplate.query(startsWith("WITH RECURSIVE"),
+            ArgumentMatchers.<PreparedStatementSetter>any(), ArgumentMatchers.<RowMapper<Boolean>>any())).thenReturn(List.of(false));
+        when(jdbcTemplate.update(startsWith("UPDATE categories"), any(PreparedStatementSetter.class))).thenReturn(1);
+
+        // Act
+        int moved = categoryService.moveChildren(1L, 5L);
+
+        // Assert
+        assertEquals(1, moved);
+        verify(writeValidationService).categoriesChanged();
+    }
+
+    @Test
+    void deleteCategory_ChildInCommittedRows_Rejected() {
+        // Arrange
+        snapshot(row(3, "Laptops", null));
+        when(categoryRepository.existsById(3L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS (SELECT 1 FROM categories"), eq(Boolean.class), eq(3L)))
+            .thenReturn(true);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> categoryService.deleteCategory(3L));
+        assertEquals("Category has subcategories: 3", exception.getMessage());
+        verify(categoryRepository, never()).deleteById(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void deleteCategory_ProductAssignedBeforeCommit_ReportsProducts() {
+        // Arrange
+        snapshot(row(3, "Laptops", null));
+        when(categoryRepository.existsById(3L)).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), eq(3L))).thenReturn(false);
+        doThrow(violation("fk_products_category")).when(transactionManager).commit(any());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> categoryService.deleteCategory(3L));
+        assertEquals("Category has products: 3", exception.getMessage());
+        verify(categoryRepository).deleteById(3L);
+        verify(writeValidationService, never()).categoriesChanged();
+    }
+
+    @Test
+    void createCategory_DuplicateNameAtInsert_ReportsName() {
+        // Arrange
+        when(categoryRepository.save(any(Category.class))).thenThrow(violation("uk_categories_name"));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> categoryService.createCategory(category("Laptops")));
+        assertEquals("Category name already exists: Laptops", exception.getMessage());
+    }
+
+    @Test
+    void createCategory_OtherConstraint_Rethrown() {
+        // Arrange
+        DataIntegrityViolationException violation = violation("categories_name_check");
+        when(categoryRepository.save(any(Category.class))).thenThrow(violation);
+
+        // Act & Assert
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+            () -> categoryService.createCategory(category("Laptops")));
+        assertSame(violation, exception);
+    }
+
+    @Test
+    void refreshTree_CategoryRenamedElsewhere_TreeTagChanges() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(startsWith("SELECT md5("), eq(String.class)))
+            .thenReturn("0123456789abcdef", "0123456789abcdef", "fedcba9876543210", "fedcba9876543210");
+        when(jdbcTemplate.query(startsWith("SELECT"), ArgumentMatchers.<RowMapper<CategoryTree.Row>>any()))
+            .thenReturn(List.of(row(1, "Electronics", null)));
+        assertEquals("0", categoryService.getTreeTag());
+
+        // Act
+        categoryService.refreshTree();
+        String loaded = categoryService.getTreeTag();
+        categoryService.refreshTree();
+        String renamed = categoryService.getTreeTag();
+
+        // Assert: product and catalog ETags carry the tag, so cached representations stop matching
+        assertEquals("01234567", loaded);
+        assertEquals("fedcba98", renamed);
+        assertTrue(categoryService.getTreeChangedAt() > 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void snapshot(CategoryTree.Row... rows) {
+        ((AtomicReference<CategoryTree>) ReflectionTestUtils.getField(categoryService, "tree"))
+            .set(new CategoryTree(1, List.of(rows)));
+    }
+
+    private static CategoryTree.Row row(long id, String name, Long parentId) {
+        return new CategoryTree.Row(id, name, null, parentId);
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("could not execute statement", new SQLException("violation", "23505"), constraint));
+    }
+}
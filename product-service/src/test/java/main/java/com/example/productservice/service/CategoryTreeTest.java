@@ -0,0 +1,49 @@
+package test.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.service.CategoryTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+    private static CategoryTree.Row row(long id, String name, Long parentId) {
+        return new CategoryTree.Row(id, name, null, parentId);
+    }
+
+    @Test
+    void build_PathsDepthsAndSubtrees() {
+        // Arrange
+        CategoryTree tree = new CategoryTree(3, List.of(
+            row(1, "Electronics", null), row(2, "Computers", 1L), row(3, "Laptops", 2L),
+            row(4, "Phones", 1L), row(5, "Books", null)));
+
+        // Act
+        List<String> path = tree.getPath(3L).stream().map(CategoryTree.Node::getName).toList();
+
+        // Assert
+        assertEquals(3, tree.getVersion());
+        assertEquals(List.of("Electronics", "Computers", "Laptops"), path);
+        assertEquals(2, tree.get(3L).getDepth());
+        assertEquals(List.of(1L, 5L), tree.getRoots().stream().map(CategoryTree.Node::getId).toList());
+        assertEquals(List.of(2L, 4L), tree.get(1L).getChildIds());
+        assertEquals(Set.of(2L, 3L), tree.getSubtreeIds(2L));
+        assertEquals(4L, tree.getByName("Phones").getId());
+        assertTrue(tree.getPath(99L).isEmpty());
+    }
+
+    @Test
+    void build_CyclesAndDanglingParents_BecomeRoots() {
+        // Arrange: 1 -> 2 -> 1 edited in SQL, 3 points at a deleted category
+        CategoryTree tree = new CategoryTree(1, List.of(
+            row(1, "A", 2L), row(2, "B", 1L), row(3, "C", 42L), row(4, "D", 3L)));
+
+        // Assert
+        assertEquals(4, tree.size());
+        assertEquals(List.of(1L, 2L, 3L), tree.getRoots().stream().map(CategoryTree.Node::getId).toList());
+        assertEquals(List.of("C", "D"), tree.getPath(4L).stream().map(CategoryTree.Node::getName).toList());
+    }
+}
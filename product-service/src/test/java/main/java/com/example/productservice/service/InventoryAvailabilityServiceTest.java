@@ -0,0 +1,103 @@
+package test.java.main.java.com.example.productservice.service;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import main.java.main.java.com.example.productservice.grpc.inventory.GetInventoryRequest;
+import main.java.main.java.com.example.productservice.grpc.inventory.GetInventoryResponse;
+import main.java.main.java.com.example.productservice.grpc.inventory.InventoryServiceGrpc;
+import main.java.main.java.com.example.productservice.model.ProductAvailability;
+import main.java.main.java.com.example.productservice.service.InventoryAvailabilityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryAvailabilityServiceTest {
+
+    @Mock
+    private InventoryServiceGrpc.InventoryServiceFutureStub inventoryStub;
+
+    private InventoryAvailabilityServiceImpl availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        availabilityService = new InventoryAvailabilityServiceImpl();
+        ReflectionTestUtils.setField(availabilityService, "inventoryStub", inventoryStub);
+        ReflectionTestUtils.setField(availabilityService, "enabled", true);
+        ReflectionTestUtils.setField(availabilityService, "deadlineMs", 50L);
+        ReflectionTestUtils.setField(availabilityService, "cacheTtlMs", 0L);
+        ReflectionTestUtils.setField(availabilityService, "staleTtlMs", 300_000L);
+        ReflectionTestUtils.setField(availabilityService, "maxCacheSize", 50_000);
+        when(inventoryStub.withDeadline(any())).thenReturn(inventoryStub);
+    }
+
+    @Test
+    void getAvailability_CallStillInFlight_IsSharedNotRepeated() {
+        // Arrange
+        SettableFuture<GetInventoryResponse> slow = SettableFuture.create();
+        when(inventoryStub.getInventoryDetails(any(GetInventoryRequest.class))).thenReturn(slow);
+
+        // Act
+        Map<Long, ProductAvailability> first = availabilityService.getAvailability(List.of(1L));
+        Map<Long, ProductAvailability> second = availabilityService.getAvailability(List.of(1L));
+
+        // Assert
+        assertEquals("UNKNOWN", first.get(1L).getStatus());
+        assertEquals("UNKNOWN", second.get(1L).getStatus());
+        verify(inventoryStub, times(1)).getInventoryDetails(any(GetInventoryRequest.class));
+    }
+
+    @Test
+    void getAvailability_CompletedCall_IsNotShared() {
+        // Arrange
+        when(inventoryStub.getInventoryDetails(any(GetInventoryRequest.class)))
+            .thenReturn(Futures.immediateFuture(response(5)));
+
+        // Act
+        availabilityService.getAvailability(List.of(1L));
+        availabilityService.getAvailability(List.of(1L));
+
+        // Assert
+        verify(inventoryStub, times(2)).getInventoryDetails(any(GetInventoryRequest.class));
+    }
+
+    @Test
+    void getAvailability_CacheOverLimit_KeepsNewestEntriesForFallback() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(availabilityService, "maxCacheSize", 2);
+        when(inventoryStub.getInventoryDetails(any(GetInventoryRequest.class)))
+            .thenReturn(Futures.immediateFuture(response(1)))
+            .thenReturn(Futures.immediateFuture(response(2)))
+            .thenReturn(Futures.immediateFuture(response(3)))
+            .thenReturn(Futures.immediateFailedFuture(new RuntimeException("unavailable")));
+        for (long productId = 1; productId <= 3; productId++) {
+            availabilityService.getAvailability(List.of(productId));
+            Thread.sleep(2);
+        }
+
+        // Act
+        ProductAvailability newest = availabilityService.getAvailability(List.of(3L)).get(3L);
+
+        // Assert
+        assertTrue(newest.isStale());
+        assertEquals(3, newest.getTotalAvailable());
+        assertEquals("IN_STOCK", newest.getStatus());
+    }
+
+    private static GetInventoryResponse response(int totalAvailable) {
+        return GetInventoryResponse.newBuilder()
+            .setTotalAvailable(totalAvailable)
+            .setOverallStatus("IN_STOCK")
+            .build();
+    }
+}
@@ -0,0 +1,129 @@
+package test.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.productservice.config.ReplicaRoutingDataSource;
+import main.java.main.java.com.example.productservice.service.PageQueryExecutorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PageQueryExecutorTest {
+
+    private PageQueryExecutorImpl pageQueryExecutor;
+    private AtomicInteger countCalls;
+
+    @BeforeEach
+    void setUp() {
+        Executor executor = Executors.newSingleThreadExecutor();
+        pageQueryExecutor = new PageQueryExecutorImpl(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(pageQueryExecutor, "pageCountExecutor", executor);
+        ReflectionTestUtils.setField(pageQueryExecutor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pageQueryExecutor, "parallelCount", true);
+        countCalls = new AtomicInteger();
+    }
+
+    @Test
+    void executePage_FullPage_UsesCountQuery() {
+        // Act
+        Page<String> page = pageQueryExecutor.executePage("test", PageRequest.of(1, 2),
+            pageable -> List.of("c", "d"), () -> { countCalls.incrementAndGet(); return 7L; });
+
+        // Assert
+        assertEquals(7L, page.getTotalElements());
+        assertEquals(4, page.getTotalPages());
+        assertEquals(List.of("c", "d"), page.getContent());
+        assertEquals(1, countCalls.get());
+    }
+
+    @Test
+    void executePage_ShortLastPage_TotalImpliedByContent() {
+        // Act
+        Page<String> page = pageQueryExecutor.executePage("test", PageRequest.of(2, 2),
+            pageable -> List.of("e"), () -> 99L);
+
+        // Assert
+        assertEquals(5L, page.getTotalElements());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void executePage_EmptyPageBeyondEnd_StillCounts() {
+        // Act
+        Page<String> page = pageQueryExecutor.executePage("test", PageRequest.of(5, 2),
+            pageable -> List.of(), () -> 3L);
+
+        // Assert
+        assertEquals(3L, page.getTotalElements());
+        assertTrue(page.getContent().isEmpty());
+    }
+
+    @Test
+    void executePage_PrimaryRequired_CountThreadRoutesToPrimary() {
+        // Arrange
+        CountDownLatch counted = new CountDownLatch(1);
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        AtomicReference<Boolean> countPrimaryRequired = new AtomicReference<>();
+        ReplicaRoutingDataSource.requirePrimary();
+
+        // Act
+        try {
+            pageQueryExecutor.executePage("test", PageRequest.of(1, 2),
+                pageable -> { await(counted); return List.of("c", "d"); },
+                () -> {
+                    countThread.set(Thread.currentThread());
+                    countPrimaryRequired.set(ReplicaRoutingDataSource.isPrimaryRequired());
+                    counted.countDown();
+                    return 7L;
+                });
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryRequirement();
+        }
+
+        // Assert
+        assertNotSame(Thread.currentThread(), countThread.get());
+        assertTrue(countPrimaryRequired.get());
+    }
+
+    @Test
+    void executePage_InsideWriteTransaction_CountsInline() {
+        // Arrange
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act
+        Page<String> page;
+        try {
+            page = pageQueryExecutor.executePage("test", PageRequest.of(1, 2),
+                pageable -> List.of("c", "d"), () -> { countThread.set(Thread.currentThread()); return 7L; });
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        // Assert
+        assertEquals(7L, page.getTotalElements());
+        assertSame(Thread.currentThread(), countThread.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
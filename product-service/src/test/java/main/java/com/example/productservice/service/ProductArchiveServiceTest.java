@@ -0,0 +1,129 @@
+package test.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.model.ArchivedProduct;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.repository.ArchivedProductRepository;
+import main.java.main.java.com.example.productservice.service.ProductArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductArchiveServiceTest {
+
+    @Mock
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductArchiveServiceImpl archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new ProductArchiveServiceImpl(transactionManager);
+        ReflectionTestUtils.setField(archiveService, "archivedProductRepository", archivedProductRepository);
+    }
+
+    @Test
+    void appendArchived_PageStraddlingLiveRows_FillsFromArchiveStart() {
+        // Arrange: 25 live rows, page 1 of size 20 holds the last 5
+        Pageable pageable = PageRequest.of(1, 20);
+        Page<Product> livePage = new PageImpl<>(products(21, 5), pageable, 25);
+        when(archivedProductRepository.count(any(Specification.class))).thenReturn(30L);
+        when(archivedProductRepository.findContent(any(), any(), eq(0L), eq(15))).thenReturn(archived(100, 15));
+
+        // Act
+        Page<Product> result = archiveService.appendArchived(livePage, pageable, null);
+
+        // Assert
+        assertEquals(20, result.getContent().size());
+        assertEquals(55, result.getTotalElements());
+        assertEquals(21L, result.getContent().get(0).getId());
+        assertEquals(100L, result.getContent().get(5).getId());
+    }
+
+    @Test
+    void appendArchived_PagePastLiveRows_OffsetsIntoArchive() {
+        // Arrange: 25 live rows, page 2 of size 20 starts 15 rows into the archive
+        Pageable pageable = PageRequest.of(2, 20);
+        Page<Product> livePage = new PageImpl<>(List.of(), pageable, 25);
+        when(archivedProductRepository.count(any(Specification.class))).thenReturn(30L);
+        when(archivedProductRepository.findContent(any(), any(), eq(15L), eq(20))).thenReturn(archived(115, 15));
+
+        // Act
+        Page<Product> result = archiveService.appendArchived(livePage, pageable, null);
+
+        // Assert
+        assertEquals(15, result.getContent().size());
+        assertEquals(115L, result.getContent().get(0).getId());
+    }
+
+    @Test
+    void appendArchived_FullLivePage_OnlyCountsArchive() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<Product> livePage = new PageImpl<>(products(1, 20), pageable, 25);
+        when(archivedProductRepository.count(any(Specification.class))).thenReturn(30L);
+
+        // Act
+        Page<Product> result = archiveService.appendArchived(livePage, pageable, null);
+
+        // Assert
+        assertEquals(20, result.getContent().size());
+        assertEquals(55, result.getTotalElements());
+        verify(archivedProductRepository, never()).findContent(any(), any(), anyLong(), anyInt());
+    }
+
+    private static List<Product> products(long firstId, int count) {
+        List<Product> products = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            Product product = new Product();
+            product.setId(id);
+            products.add(product);
+        }
+        return products;
+    }
+
+    @Test
+    void findArchivedBySku_SkuArchivedTwice_ReturnsLatest() {
+        // Arrange
+        ArchivedProduct latest = archived(42, 1).get(0);
+        latest.setSku("REUSED-1");
+        when(archivedProductRepository.findFirstBySkuOrderByArchivedAtDesc("REUSED-1")).thenReturn(Optional.of(latest));
+
+        // Act
+        Optional<Product> result = archiveService.findArchivedBySku("REUSED-1");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(42L, result.get().getId());
+    }
+
+    private static List<ArchivedProduct> archived(long firstId, int count) {
+        List<ArchivedProduct> products = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            ArchivedProduct product = new ArchivedProduct();
+            product.setId(id);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,97 @@
+package test.java.main.java.com.example.productservice.service;
+
+import main.java.main.java.com.example.productservice.service.ProductExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ProductExportServiceImpl(mock(DataSource.class), 1000);
+        ReflectionTestUtils.setField(exportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(exportService, "objectMapper", JsonMapper.builder().build());
+    }
+
+    @Test
+    void exportProducts_Default_LeavesOutDiscontinued() throws Exception {
+        // Act
+        exportService.exportProducts(List.of("id"), null, false, new ByteArrayOutputStream());
+
+        // Assert
+        String sql = capturedSql();
+        assertTrue(sql.contains("p.status <> 'DISCONTINUED'"), sql);
+    }
+
+    @Test
+    void exportProducts_IncludeDiscontinued_NoStatusFilter() throws Exception {
+        // Act
+        exportService.exportProducts(List.of("id"), null, true, new ByteArrayOutputStream());
+
+        // Assert
+        assertFalse(capturedSql().contains("DISCONTINUED"));
+    }
+
+    @Test
+    void exportProducts_Since_CombinesWithStatusFilter() throws Exception {
+        // Act
+        exportService.exportProducts(List.of("id"), LocalDateTime.of(2024, 1, 1, 0, 0), false, new ByteArrayOutputStream());
+
+        // Assert
+        String sql = capturedSql();
+        assertTrue(sql.contains("WHERE p.status <> 'DISCONTINUED' AND p.updated_at >= ?"), sql);
+        assertTrue(sql.endsWith("ORDER BY p.updated_at, p.id"), sql);
+    }
+
+    @Test
+    void exportProducts_WritesOneLinePerRow() throws Exception {
+        // Arrange
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getObject(1)).thenReturn(5L, 6L);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = exportService.exportProducts(List.of("id"), null, false, out);
+
+        // Assert
+        assertEquals(2, rows);
+        assertEquals("{\"id\":5}\n{\"id\":6}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private String capturedSql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowCallbackHandler.class), any(Object[].class));
+        return sql.getValue();
+    }
+}
@@ -9,15 +9,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -42,6 +48,30 @@ class ProductServiceTest {
     @Mock
     private FilterService filterService;
 
+    @Mock
+    private CacheWarmupService cacheWarmupService;
+
+    @Mock
+    private ProductArchiveService productArchiveService;
+
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private SavedSearchService savedSearchService;
+
+    @Mock
+    private SimilarProductService similarProductService;
+
+    @Mock
+    private WriteValidationService writeValidationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -72,8 +102,8 @@ class ProductServiceTest {
     @Test
     void createProduct_Success() {
         // Arrange
-        when(categoryRepository.existsById(1L)).thenReturn(true);
-        when(productRepository.existsBySku("TEST123")).thenReturn(false);
+        when(writeValidationService.categoryExists(1L)).thenReturn(true);
+        when(writeValidationService.skuExists("TEST123")).thenReturn(false);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -88,7 +118,7 @@ class ProductServiceTest {
     @Test
     void createProduct_SkuAlreadyExists_ThrowsException() {
         // Arrange
-        when(productRepository.existsBySku("TEST123")).thenReturn(true);
+        when(writeValidationService.skuExists("TEST123")).thenReturn(true);
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -98,12 +128,46 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any());
     }
 
+    @Test
+    void createProduct_DuplicateSkuAtInsert_ReportsSku() {
+        // Arrange
+        when(writeValidationService.categoryExists(1L)).thenReturn(true);
+        when(writeValidationService.skuExists("TEST123")).thenReturn(false);
+        when(productRepository.save(any(Product.class))).thenThrow(violation("UK_PRODUCTS_SKU"));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.createProduct(testProduct);
+        });
+        assertEquals("SKU already exists: TEST123", exception.getMessage());
+    }
+
+    @Test
+    void createProduct_OtherConstraintAtInsert_Rethrows() {
+        // Arrange
+        DataIntegrityViolationException violation = violation("products_price_check");
+        when(writeValidationService.categoryExists(1L)).thenReturn(true);
+        when(writeValidationService.skuExists("TEST123")).thenReturn(false);
+        when(productRepository.save(any(Product.class))).thenThrow(violation);
+
+        // Act & Assert
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            productService.createProduct(testProduct);
+        });
+        assertSame(violation, exception);
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("could not execute statement", new SQLException("violation", "23505"), constraint));
+    }
+
     @Test
     void createProduct_CategoryNotFound_ThrowsException() {
         // Arrange
         testProduct.setCategory(testCategory);
-        when(categoryRepository.existsById(1L)).thenReturn(false);
-        when(productRepository.existsBySku("TEST123")).thenReturn(false);
+        when(writeValidationService.categoryExists(1L)).thenReturn(false);
+        when(writeValidationService.skuExists("TEST123")).thenReturn(false);
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -127,8 +191,8 @@ class ProductServiceTest {
         updatedProductDetails.setCategory(testCategory);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(categoryRepository.existsById(1L)).thenReturn(true);
-        when(productRepository.existsBySku("NEW123")).thenReturn(false);
+        when(writeValidationService.categoryExists(1L)).thenReturn(true);
+        when(writeValidationService.skuExists("NEW123")).thenReturn(false);
         when(productRepository.save(any(Product.class))).thenReturn(existingProduct);
 
         // Act
@@ -157,6 +221,68 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any());
     }
 
+    @Test
+    void updateProduct_VersionMismatch_ThrowsConflict() {
+        // Arrange
+        testProduct.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        Product updatedProductDetails = new Product();
+        updatedProductDetails.setName("New Name");
+        updatedProductDetails.setSku("TEST123");
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            productService.updateProduct(1L, updatedProductDetails, 2L);
+        });
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void updateProductWithRetry_VersionConflict_ReappliesChangesToFreshRow() {
+        // Arrange
+        ReflectionTestUtils.setField(productService, "maxConflictAttempts", 3);
+        Product firstRead = copyOf(testProduct);
+        Product freshRead = copyOf(testProduct);
+        freshRead.setPrice(BigDecimal.valueOf(899.99)); // concurrent writer changed the price
+
+        Product productDetails = copyOf(testProduct);
+        productDetails.setName("New Name");
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(firstRead)).thenReturn(Optional.of(freshRead));
+        when(productRepository.save(any(Product.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Product result = productService.updateProductWithRetry(1L, productDetails);
+
+        // Assert
+        assertSame(freshRead, result);
+        assertEquals("New Name", result.getName());
+        assertEquals(BigDecimal.valueOf(899.99), result.getPrice()); // concurrent change kept
+        verify(productRepository, times(2)).findById(1L);
+        verify(productRepository, times(2)).save(any(Product.class));
+    }
+
+    @Test
+    void updateProductWithRetry_ConflictOnEveryAttempt_GivesUp() {
+        // Arrange
+        ReflectionTestUtils.setField(productService, "maxConflictAttempts", 2);
+        Product productDetails = copyOf(testProduct);
+        productDetails.setName("New Name");
+
+        when(productRepository.findById(1L)).thenAnswer(invocation -> Optional.of(copyOf(testProduct)));
+        when(productRepository.save(any(Product.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            productService.updateProductWithRetry(1L, productDetails);
+        });
+        verify(productRepository, times(2)).save(any(Product.class));
+    }
+
     @Test
     void partialUpdateProduct_Success() {
         // Arrange
@@ -169,7 +295,7 @@ class ProductServiceTest {
         partialUpdate.setName("New Name");
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.existsBySku(anyString())).thenReturn(false);
+        when(writeValidationService.skuExists(anyString())).thenReturn(false);
         when(productRepository.save(any(Product.class))).thenReturn(existingProduct);
 
         // Act
@@ -212,7 +338,7 @@ class ProductServiceTest {
         // Arrange
         List<Product> productList = Arrays.asList(testProduct);
         Page<Product> productPage = new PageImpl<>(productList, pageable, 1);
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findAllAvailable(pageable)).thenReturn(productPage);
 
         // Act
         Page<Product> result = productService.getAllProducts(pageable);
@@ -222,6 +348,23 @@ class ProductServiceTest {
         assertEquals("Test Laptop", result.getContent().get(0).getName());
     }
 
+    @Test
+    void getProductById_IncludeDiscontinued_FallsBackToArchive() {
+        // Arrange
+        testProduct.setStatus(Product.ProductStatus.DISCONTINUED);
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productArchiveService.findArchivedById(1L)).thenReturn(Optional.of(testProduct));
+
+        // Act
+        Optional<Product> live = productService.getProductById(1L, false);
+        Optional<Product> withArchive = productService.getProductById(1L, true);
+
+        // Assert
+        assertFalse(live.isPresent());
+        assertTrue(withArchive.isPresent());
+        verify(productArchiveService, times(1)).findArchivedById(1L);
+    }
+
     @Test
     void getProductBySku_Success() {
         // Arrange
@@ -247,6 +390,8 @@ class ProductServiceTest {
         // Assert
         verify(productRepository, times(1)).save(argThat(product -> 
             product.getStatus() == Product.ProductStatus.DISCONTINUED));
+        verify(cacheInvalidationService, times(1)).productChanged(1L);
+        verify(savedSearchService, times(1)).productWritten(testProduct);
     }
 
     @Test
@@ -296,4 +441,31 @@ class ProductServiceTest {
         assertEquals(1, result.getTotalElements());
         verify(filterService, times(1)).filterProducts(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(pageable));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCatalogVersion_ReadsMaintainedVersion_WithoutAggregates() {
+        // Arrange
+        when(catalogVersionService.current()).thenReturn(42L);
+
+        // Act
+        String version = productService.getCatalogVersion();
+
+        // Assert
+        assertEquals("2a", version);
+        verifyNoInteractions(productRepository);
+    }
+
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setSku(source.getSku());
+        copy.setStockQuantity(source.getStockQuantity());
+        copy.setStatus(source.getStatus());
+        copy.setTags(source.getTags());
+        copy.setCategory(source.getCategory());
+        return copy;
+    }
+}
@@ -0,0 +1,143 @@
+package test.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.model.SavedSearch;
+import main.java.main.java.com.example.productservice.repository.SavedSearchRepository;
+import main.java.main.java.com.example.productservice.service.SavedSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SavedSearchServiceTest {
+
+    @Mock
+    private SavedSearchRepository savedSearchRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SavedSearchServiceImpl savedSearchService;
+
+    @BeforeEach
+    void setUp() {
+        savedSearchService = new SavedSearchServiceImpl();
+        ReflectionTestUtils.setField(savedSearchService, "savedSearchRepository", savedSearchRepository);
+        ReflectionTestUtils.setField(savedSearchService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(savedSearchService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(savedSearchService, "maxPending", 10_000);
+        ReflectionTestUtils.invokeMethod(savedSearchService, "init");
+    }
+
+    @Test
+    void percolatePending_MatchingWrite_InsertsOneMatchRow() {
+        // Arrange
+        reload(savedSearch(7L, "tag:usb"), savedSearch(8L, "tag:hdmi"));
+        savedSearchService.productWritten(product(1L, "usb"));
+
+        // Act
+        savedSearchService.percolatePending();
+
+        // Assert
+        List<Object[]> rows = insertedRows(1);
+        assertEquals(1, rows.size());
+        assertEquals(7L, rows.get(0)[0]);
+        assertEquals(1L, rows.get(0)[1]);
+    }
+
+    @Test
+    void percolatePending_InsertFails_RetriesBatchNextRun() {
+        // Arrange
+        reload(savedSearch(7L, "tag:usb"));
+        savedSearchService.productWritten(product(1L, "usb"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"))
+            .thenReturn(new int[] {1});
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, savedSearchService::percolatePending);
+        savedSearchService.percolatePending();
+
+        // Assert
+        List<Object[]> retried = insertedRows(2);
+        assertEquals(1, retried.size());
+        assertEquals(1L, retried.get(0)[1]);
+    }
+
+    @Test
+    void percolatePending_BeforeFirstReload_KeepsWritesQueued() {
+        // Arrange
+        savedSearchService.productWritten(product(1L, "usb"));
+
+        // Act: nothing registered yet because the reload has not run
+        savedSearchService.percolatePending();
+        reload(savedSearch(7L, "tag:usb"));
+        savedSearchService.percolatePending();
+
+        // Assert
+        assertEquals(1, insertedRows(1).size());
+    }
+
+    @Test
+    void percolatePending_NoSavedSearchesAfterReload_DiscardsWrites() {
+        // Arrange
+        reload();
+        savedSearchService.productWritten(product(1L, "usb"));
+
+        // Act
+        savedSearchService.percolatePending();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(savedSearchService, "pending")).isEmpty());
+    }
+
+    private void reload(SavedSearch... savedSearches) {
+        when(savedSearchRepository.findByActiveTrue()).thenReturn(List.of(savedSearches));
+        savedSearchService.reloadSavedSearches();
+    }
+
+    // Rows of the last of the expected batch inserts
+    @SuppressWarnings("unchecked")
+    private List<Object[]> insertedRows(int calls) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(calls)).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
+    }
+
+    private static SavedSearch savedSearch(Long id, String query) {
+        SavedSearch savedSearch = new SavedSearch();
+        savedSearch.setId(id);
+        savedSearch.setName("search " + id);
+        savedSearch.setQuery(query);
+        savedSearch.setOwner("owner");
+        return savedSearch;
+    }
+
+    private static Product product(Long id, String... tags) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Cable");
+        product.setSku("SKU-" + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(1);
+        product.setStatus(Product.ProductStatus.ACTIVE);
+        product.setTags(List.of(tags));
+        return product;
+    }
+}
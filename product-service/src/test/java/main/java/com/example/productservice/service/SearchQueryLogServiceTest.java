@@ -0,0 +1,129 @@
+package test.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.productservice.service.SearchQueryLogServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchQueryLogServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchQueryLogServiceImpl queryLogService;
+    private final Map<String, Long> flushed = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryLogService = new SearchQueryLogServiceImpl();
+        ReflectionTestUtils.setField(queryLogService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(queryLogService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(queryLogService, "maxPending", 10_000);
+        ReflectionTestUtils.invokeMethod(queryLogService, "init");
+    }
+
+    @Test
+    void flush_AggregatesNormalizedQueriesIntoOneBatch() {
+        // Arrange
+        recordFlushedRows();
+        queryLogService.recordQuery("Laptop");
+        queryLogService.recordQuery("  laptop ");
+        queryLogService.recordQuery("gaming   mouse");
+
+        // Act
+        queryLogService.flush();
+
+        // Assert
+        assertEquals(Map.of("laptop", 2L, "gaming mouse", 1L), flushed);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_NothingRecorded_SkipsDatabase() {
+        // Act
+        queryLogService.flush();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void recordQuery_TooManyDistinctQueries_CountsDropped() {
+        // Arrange
+        ReflectionTestUtils.setField(queryLogService, "maxPending", 2);
+
+        // Act
+        queryLogService.recordQuery("a");
+        queryLogService.recordQuery("b");
+        queryLogService.recordQuery("c");
+        queryLogService.recordQuery("a");
+
+        // Assert
+        assertEquals(1.0, meterRegistry.counter("product.search.query-log.dropped").count());
+    }
+
+    @Test
+    void flush_ConcurrentWithRecording_LosesNoCounts() throws Exception {
+        // Arrange
+        recordFlushedRows();
+        int threads = 4;
+        int perThread = 20_000;
+        AtomicBoolean recording = new AtomicBoolean(true);
+        List<Thread> recorders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            recorders.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    queryLogService.recordQuery("laptop");
+                }
+            }));
+        }
+
+        // Act
+        recorders.forEach(Thread::start);
+        Thread flusher = new Thread(() -> {
+            while (recording.get()) {
+                queryLogService.flush();
+            }
+        });
+        flusher.start();
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+        recording.set(false);
+        flusher.join();
+        queryLogService.flush();
+
+        // Assert
+        assertEquals((long) threads * perThread, flushed.get("laptop"));
+    }
+
+    private void recordFlushedRows() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            synchronized (flushed) {
+                for (Object[] row : rows) {
+                    flushed.merge((String) row[0], (Long) row[1], Long::sum);
+                }
+            }
+            return new int[rows.size()];
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package test.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.productservice.model.Product;
+import main.java.main.java.com.example.productservice.service.StructuredSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StructuredSearchServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private StructuredSearchServiceImpl structuredSearchService;
+
+    @BeforeEach
+    void setUp() {
+        structuredSearchService = new StructuredSearchServiceImpl();
+        ReflectionTestUtils.setField(structuredSearchService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(structuredSearchService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(structuredSearchService, "postingListLimit", 5000);
+        ReflectionTestUtils.setField(structuredSearchService, "maxTrackedTags", 100_000);
+        ReflectionTestUtils.invokeMethod(structuredSearchService, "init");
+    }
+
+    @Test
+    void search_MixedCaseStoredTag_ReadsPostingsByLowerCaseTag() {
+        // Arrange: the product was saved with tag "Laptop"; the query spells it differently
+        when(jdbcTemplate.queryForList(contains("LOWER(tag) = ?"), eq(Long.class), eq("laptop"), eq(5001)))
+            .thenReturn(List.of());
+
+        // Act
+        Page<Product> result = structuredSearchService.search("tag:LAPTOP", PageRequest.of(0, 20), false);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(jdbcTemplate).queryForList(contains("LOWER(tag) = ?"), eq(Long.class), eq("laptop"), eq(5001));
+    }
+
+    @Test
+    void refreshStatistics_MixedCaseStoredTag_FoundByLowerCaseTerm() {
+        // Arrange
+        doAnswer(invocation -> {
+            ResultSet row = mock(ResultSet.class);
+            when(row.getString(1)).thenReturn("laptop");
+            when(row.getLong(2)).thenReturn(42L);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(contains("GROUP BY LOWER(tag)"), any(RowCallbackHandler.class), eq(100_000));
+
+        // Act
+        structuredSearchService.refreshStatistics();
+
+        // Assert
+        assertEquals(42L, structuredSearchService.tagFrequency("laptop"));
+        assertEquals(0L, structuredSearchService.tagFrequency("Laptop"));
+    }
+}
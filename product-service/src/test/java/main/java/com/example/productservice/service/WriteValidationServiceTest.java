@@ -0,0 +1,95 @@
+package test.java.main.java.com.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import main.java.main.java.com.example.productservice.repository.CategoryRepository;
+import main.java.main.java.com.example.productservice.repository.ProductRepository;
+import main.java.main.java.com.example.productservice.service.WriteValidationServiceImpl;
+import main.java.main.java.com.example.productservice.sketch.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteValidationServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private WriteValidationServiceImpl validationService;
+
+    @BeforeEach
+    void setUp() {
+        validationService = new WriteValidationServiceImpl();
+        ReflectionTestUtils.setField(validationService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(validationService, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(validationService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(validationService, "exactSkuSet", true);
+        ReflectionTestUtils.invokeMethod(validationService, "init");
+
+        // As left by the startup load
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        filter.put("SKU-1");
+        ReflectionTestUtils.setField(validationService, "skuFilter", filter);
+        @SuppressWarnings("unchecked")
+        Set<String> skus = (Set<String>) ReflectionTestUtils.getField(validationService, "skus");
+        skus.add("SKU-1");
+        ReflectionTestUtils.setField(validationService, "categoryIds", Set.of(1L));
+    }
+
+    @Test
+    void skuExists_UnknownSku_AnsweredWithoutQuery() {
+        // Act & Assert
+        assertFalse(validationService.skuExists("SKU-2"));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void skuExists_KnownSku_ConfirmedInDatabase_StaleEntryDropped() {
+        // Arrange
+        when(productRepository.existsBySku("SKU-1")).thenReturn(true, false);
+
+        // Act & Assert
+        assertTrue(validationService.skuExists("SKU-1"));
+        assertFalse(validationService.skuExists("SKU-1"));
+        assertFalse(validationService.skuExists("SKU-1"));
+        verify(productRepository, times(2)).existsBySku("SKU-1");
+    }
+
+    @Test
+    void skuWritten_OutsideTransaction_VisibleToNextCheck() {
+        // Arrange
+        when(productRepository.existsBySku("SKU-3")).thenReturn(true);
+
+        // Act
+        validationService.skuWritten("SKU-3");
+
+        // Assert
+        assertTrue(validationService.skuExists("SKU-3"));
+    }
+
+    @Test
+    void categoryExists_CachedIds_UnknownIdCheckedOnceThenCached() {
+        // Arrange
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+        when(categoryRepository.existsById(3L)).thenReturn(false);
+
+        // Act & Assert
+        assertTrue(validationService.categoryExists(1L));
+        assertTrue(validationService.categoryExists(2L));
+        assertTrue(validationService.categoryExists(2L));
+        assertFalse(validationService.categoryExists(3L));
+        verify(categoryRepository, times(1)).existsById(2L);
+        verify(categoryRepository, never()).existsById(1L);
+    }
+}
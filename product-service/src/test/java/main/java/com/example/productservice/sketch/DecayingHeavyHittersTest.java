@@ -0,0 +1,90 @@
+package test.java.main.java.com.example.productservice.sketch;
+
+import main.java.main.java.com.example.productservice.sketch.CountMinSketch;
+import main.java.main.java.com.example.productservice.sketch.DecayingHeavyHitters;
+import main.java.main.java.com.example.productservice.sketch.Hashing;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecayingHeavyHittersTest {
+
+    private static final long HOUR = 60L * 60 * 1000;
+
+    @Test
+    void countMinSketch_NeverUndercounts() {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+
+        // Act
+        for (long key = 0; key < 1000; key++) {
+            sketch.add(Hashing.hash64(key), key % 7 + 1);
+        }
+
+        // Assert
+        for (long key = 0; key < 1000; key++) {
+            assertTrue(sketch.estimate(Hashing.hash64(key)) >= key % 7 + 1);
+        }
+    }
+
+    @Test
+    void top_FindsHeavyHittersAmongLongTail() {
+        // Arrange
+        DecayingHeavyHitters<Long> hitters = new DecayingHeavyHitters<>(4, 1024, 50, HOUR, Hashing::hash64, 0L);
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            hitters.offer((long) random.nextInt(100_000), 0L);
+            if (i % 10 == 0) {
+                hitters.offer(7L, 0L);
+            }
+            if (i % 20 == 0) {
+                hitters.offer(11L, 0L);
+            }
+        }
+        List<DecayingHeavyHitters.Ranked<Long>> top = hitters.top(2, 0L);
+
+        // Assert
+        assertEquals(7L, top.get(0).getKey());
+        assertEquals(11L, top.get(1).getKey());
+        assertEquals(5000, top.get(0).getScore(), 50);
+    }
+
+    @Test
+    void top_RecentEventsOutrankOlderOnes() {
+        // Arrange
+        DecayingHeavyHitters<String> hitters = new DecayingHeavyHitters<>(4, 256, 10, HOUR, Hashing::hash64, 0L);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            hitters.offer("old", 0L);
+        }
+        for (int i = 0; i < 40; i++) {
+            hitters.offer("new", 3 * HOUR);
+        }
+        List<DecayingHeavyHitters.Ranked<String>> top = hitters.top(2, 3 * HOUR);
+
+        // Assert
+        assertEquals("new", top.get(0).getKey());
+        assertEquals(12.5, top.get(1).getScore(), 0.01);
+    }
+
+    @Test
+    void offer_FarFutureEvents_RescaleWithoutOverflow() {
+        // Arrange
+        DecayingHeavyHitters<String> hitters = new DecayingHeavyHitters<>(2, 16, 4, 1000L, Hashing::hash64, 0L);
+
+        // Act
+        hitters.offer("a", 0L);
+        hitters.offer("a", 100_000L);
+
+        // Assert
+        double score = hitters.top(1, 100_000L).get(0).getScore();
+        assertFalse(Double.isInfinite(score) || Double.isNaN(score));
+        assertEquals(1.0, score, 0.001);
+    }
+}
@@ -0,0 +1,80 @@
+package test.java.main.java.com.example.productservice.sketch;
+
+import main.java.main.java.com.example.productservice.sketch.MinHashIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashIndexTest {
+
+    private static List<String> terms(int from, int to) {
+        List<String> terms = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            terms.add("w:term" + i);
+        }
+        return terms;
+    }
+
+    @Test
+    void similar_FindsNearDuplicatesAmongNoise_RankedByJaccard() {
+        // Arrange
+        MinHashIndex index = new MinHashIndex(16, 4, 48, 500);
+        Random random = new Random(42);
+        for (long id = 100; id < 2100; id++) {
+            List<String> noise = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                noise.add("w:noise" + random.nextInt(1_000_000));
+            }
+            index.put(id, noise);
+        }
+        index.put(1, terms(0, 20));
+        index.put(2, terms(1, 21));
+        index.put(3, terms(4, 24));
+
+        // Act
+        List<MinHashIndex.Match> matches = index.similar(1, 10, 0.1);
+
+        // Assert: 19/21 and 16/24 shared terms
+        assertEquals(2, matches.size());
+        assertEquals(2L, matches.get(0).getId());
+        assertEquals(19.0 / 21, matches.get(0).getSimilarity(), 1e-9);
+        assertEquals(3L, matches.get(1).getId());
+        assertEquals(16.0 / 24, matches.get(1).getSimilarity(), 1e-9);
+    }
+
+    @Test
+    void putAndRemove_ReplaceFeaturesAndBuckets() {
+        // Arrange
+        MinHashIndex index = new MinHashIndex(8, 2, 48, 500);
+        index.put(1, terms(0, 10));
+        index.put(2, terms(0, 10));
+
+        // Act
+        index.put(2, terms(50, 60));
+
+        // Assert
+        assertTrue(index.similar(1, 10, 0.0).isEmpty());
+        index.remove(1);
+        assertNull(index.similar(1, 10, 0.0));
+        assertFalse(index.contains(1));
+        index.put(3, List.of());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void put_KeepsAtMostMaxFeatures() {
+        // Arrange
+        MinHashIndex index = new MinHashIndex(8, 2, 16, 500);
+
+        // Act: a consistent sample of two large identical sets is identical
+        index.put(1, terms(0, 1000));
+        index.put(2, terms(0, 1000));
+
+        // Assert
+        assertEquals(1.0, index.similar(1, 1, 0.0).get(0).getSimilarity());
+    }
+}
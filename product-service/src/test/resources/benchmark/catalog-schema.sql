@@ -0,0 +1,64 @@
+-- H2 (PostgreSQL mode) stand-in for the products schema. metadata is plain text here,
+-- H2 has no jsonb, and none of the benchmarked queries read it.
+CREATE TABLE categories (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_categories_name UNIQUE,
+    description VARCHAR(255),
+    parent_category_id BIGINT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE products (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    price NUMERIC(10, 2) NOT NULL,
+    category_id BIGINT,
+    sku VARCHAR(100) NOT NULL CONSTRAINT uk_products_sku UNIQUE,
+    stock_quantity INT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    metadata VARCHAR(2000),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL
+);
+
+CREATE TABLE product_tags (
+    product_id BIGINT NOT NULL,
+    tag VARCHAR(255)
+);
+
+-- Archive tables (see ProductArchiveServiceImpl); empty here, but include_discontinued and
+-- status=DISCONTINUED filters read them
+CREATE TABLE products_archive (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    price NUMERIC(10, 2) NOT NULL,
+    category_id BIGINT,
+    sku VARCHAR(100) NOT NULL,
+    stock_quantity INT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    metadata VARCHAR(2000),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE products_archive_tags (
+    product_id BIGINT NOT NULL,
+    tag VARCHAR(255)
+);
+
+CREATE INDEX idx_product_name ON products (name);
+CREATE INDEX idx_product_category ON products (category_id);
+CREATE INDEX idx_product_status ON products (status);
+CREATE INDEX idx_product_price ON products (price);
+CREATE INDEX idx_product_created_at ON products (created_at);
+CREATE INDEX idx_product_updated_at ON products (updated_at);
+CREATE INDEX idx_product_tags_product ON product_tags (product_id);
+CREATE INDEX idx_product_tags_tag ON product_tags (tag);
+CREATE INDEX idx_product_archive_sku ON products_archive (sku);
+CREATE INDEX idx_product_archive_archived_at ON products_archive (archived_at);